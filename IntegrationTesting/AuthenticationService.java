@@ -0,0 +1,319 @@
+package IntegrationTesting;
+
+import model.dto.Message;
+import model.dto.MessageType;
+import model.dto.Response;
+import model.dto.UserDTO;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * User login against pos.users with PasswordHasher hashes instead of the plaintext
+ * "WHERE username = ? AND password = ?" check.
+ *
+ * A till re-authenticates the same cashier many times a shift, and every PBKDF2 verify costs
+ * milliseconds on purpose. After a successful login the user is kept as a verified session for
+ * sessionTtlMillis: a re-auth with the same password inside that window is checked against an
+ * HMAC of the password under a per-process random key (microseconds, constant-time compare)
+ * instead of the stored hash. The plaintext is never kept. At most maxSessions users are cached,
+ * least recently used first out; logout and changePassword drop the user's session at once.
+ * Both also bump the user's generation: a login that read the row before the change only caches
+ * its session if the generation is still the one it saw before the query.
+ *
+ * Migration: a row still holding a plaintext password (or a hash with fewer iterations than the
+ * hasher's) is rehashed on its next successful login; migratePlaintextPasswords converts every
+ * remaining row in one pass, and hashPassword prepares a new UserDTO before the DAL stores it.
+ * The password column must hold at least 100 characters.
+ */
+public class AuthenticationService {
+
+    public static final long DEFAULT_SESSION_TTL_MILLIS = 5 * 60_000;
+    public static final int DEFAULT_MAX_SESSIONS = 256;
+
+    static final String SELECT_USER = "SELECT password, role FROM users WHERE username = ?";
+    static final String SELECT_ALL_PASSWORDS = "SELECT username, password FROM users";
+    // conditional on the old value, so a concurrent password change is never overwritten
+    static final String UPGRADE_PASSWORD = "UPDATE users SET password = ? WHERE username = ? AND password = ?";
+    static final String SET_PASSWORD = "UPDATE users SET password = ? WHERE username = ?";
+
+    private static final String INVALID_CREDENTIALS = "Invalid username or password.";
+
+    private static final class Session {
+        final byte[] proof; // HMAC of the password
+        final String role;
+        final long verifiedAt;
+
+        Session(byte[] proof, String role, long verifiedAt) {
+            this.proof = proof;
+            this.role = role;
+            this.verifiedAt = verifiedAt;
+        }
+    }
+
+    private final ConnectionPool db;
+    private final PasswordHasher hasher;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final SecretKeySpec sessionKey;
+    private final LinkedHashMap<String, Session> sessions; // access order = LRU
+    private final Map<String, Long> generations = new HashMap<>(); // guarded by sessions; one per user
+
+    private final AtomicLong sessionHits = new AtomicLong();
+    private final AtomicLong hashVerifications = new AtomicLong();
+    private final AtomicLong passwordsUpgraded = new AtomicLong();
+
+    public AuthenticationService(ConnectionPool db) {
+        this(db, new PasswordHasher(), DEFAULT_SESSION_TTL_MILLIS, DEFAULT_MAX_SESSIONS);
+    }
+
+    // sessionTtlMillis = 0 turns the session cache off
+    public AuthenticationService(ConnectionPool db, PasswordHasher hasher, long sessionTtlMillis, int maxSessions) {
+        this(db, hasher, sessionTtlMillis, maxSessions, System::nanoTime);
+    }
+
+    // clock is injectable so expiry can be tested without sleeping
+    AuthenticationService(ConnectionPool db, PasswordHasher hasher, long sessionTtlMillis, int maxSessions,
+                          LongSupplier clock) {
+        if (sessionTtlMillis < 0) throw new IllegalArgumentException("sessionTtlMillis must be >= 0");
+        if (maxSessions <= 0) throw new IllegalArgumentException("maxSessions must be > 0");
+        this.db = db;
+        this.hasher = hasher;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(sessionTtlMillis);
+        this.clock = clock;
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.sessionKey = new SecretKeySpec(key, "HmacSHA256");
+        this.sessions = new LinkedHashMap<String, Session>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+                return size() > maxSessions;
+            }
+        };
+    }
+
+    /**
+     * The user (username and role, password left null) if the credentials match, else null with
+     * an error in res. Unknown usernames and wrong passwords get the same message and, apart
+     * from the query, the same hashing cost.
+     */
+    public UserDTO authenticate(String username, String password, Response res) {
+        if (username == null || password == null) {
+            error(res, INVALID_CREDENTIALS);
+            return null;
+        }
+        byte[] proof = ttlNanos > 0 ? proof(password) : null;
+        Session session = proof != null ? freshSession(username) : null;
+        if (session != null && MessageDigest.isEqual(session.proof, proof)) {
+            sessionHits.incrementAndGet();
+            info(res, "User authenticated successfully.");
+            return new UserDTO(username, null, session.role);
+        }
+
+        long generation = proof != null ? generation(username) : 0L;
+        String stored;
+        String role;
+        try (Connection conn = db.getConnection(); PreparedStatement ps = conn.prepareStatement(SELECT_USER)) {
+            ps.setString(1, username);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    hasher.dummyVerify(password);
+                    error(res, INVALID_CREDENTIALS);
+                    return null;
+                }
+                stored = rs.getString(1);
+                role = rs.getString(2);
+            }
+        } catch (SQLException e) {
+            error(res, "User could not be authenticated: " + e.getMessage());
+            return null;
+        }
+
+        hashVerifications.incrementAndGet();
+        if (!hasher.verify(password, stored)) {
+            if (!PasswordHasher.isHashed(stored)) hasher.dummyVerify(password);
+            error(res, INVALID_CREDENTIALS);
+            return null;
+        }
+        if (hasher.needsRehash(stored)) upgrade(username, stored, password);
+        if (proof != null) {
+            synchronized (sessions) {
+                // a logout or password change since the query: the row read may hold the old password
+                if (generation(username) == generation) {
+                    sessions.put(username, new Session(proof, role, clock.getAsLong()));
+                }
+            }
+        }
+        info(res, "User authenticated successfully.");
+        return new UserDTO(username, null, role);
+    }
+
+    public void logout(String username) {
+        synchronized (sessions) {
+            sessions.remove(username);
+            generations.merge(username, 1L, Long::sum);
+        }
+    }
+
+    public boolean changePassword(String username, String newPassword, Response res) {
+        UserDTO check = new UserDTO(username, newPassword, null);
+        ValidationPlan.validate(check, res);
+        if (!res.isSuccessfull()) return false;
+        try (Connection conn = db.getConnection(); PreparedStatement ps = conn.prepareStatement(SET_PASSWORD)) {
+            ps.setString(1, hasher.hash(newPassword));
+            ps.setString(2, username);
+            if (ps.executeUpdate() == 0) {
+                error(res, "User not found.");
+                return false;
+            }
+        } catch (SQLException e) {
+            error(res, "Password could not be changed: " + e.getMessage());
+            return false;
+        } finally {
+            logout(username); // also stops a login that read the old row from caching its session
+        }
+        info(res, "Password changed successfully.");
+        return true;
+    }
+
+    // replaces user's plaintext password with its hash, for a new user about to be saved by the DAL
+    public UserDTO hashPassword(UserDTO user) {
+        if (user.getPassword() != null && !PasswordHasher.isHashed(user.getPassword())) {
+            user.setPassword(hasher.hash(user.getPassword()));
+        }
+        return user;
+    }
+
+    /**
+     * Hashes every password in pos.users that is still plaintext, in one transaction.
+     * Returns the number of rows converted.
+     */
+    public int migratePlaintextPasswords(Response res) {
+        try (Connection conn = db.getConnection()) {
+            List<String[]> plaintext = new ArrayList<>();
+            try (PreparedStatement ps = conn.prepareStatement(SELECT_ALL_PASSWORDS);
+                 ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String stored = rs.getString(2);
+                    if (stored != null && !PasswordHasher.isHashed(stored)) {
+                        plaintext.add(new String[]{rs.getString(1), stored});
+                    }
+                }
+            }
+            int migrated = 0;
+            if (!plaintext.isEmpty()) {
+                boolean autoCommit = conn.getAutoCommit();
+                conn.setAutoCommit(false);
+                try (PreparedStatement ps = conn.prepareStatement(UPGRADE_PASSWORD)) {
+                    for (String[] row : plaintext) {
+                        ps.setString(1, hasher.hash(row[1]));
+                        ps.setString(2, row[0]);
+                        ps.setString(3, row[1]);
+                        ps.addBatch();
+                    }
+                    for (int count : ps.executeBatch()) {
+                        if (count > 0 || count == Statement.SUCCESS_NO_INFO) migrated++;
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+            }
+            passwordsUpgraded.addAndGet(migrated);
+            info(res, migrated + " passwords migrated to salted hashes.");
+            return migrated;
+        } catch (SQLException e) {
+            error(res, "Passwords could not be migrated: " + e.getMessage());
+            return 0;
+        }
+    }
+
+    // logins answered from the session cache
+    public long getSessionHits() {
+        return sessionHits.get();
+    }
+
+    // logins that ran the full hash check against the stored password
+    public long getHashVerifications() {
+        return hashVerifications.get();
+    }
+
+    public long getPasswordsUpgraded() {
+        return passwordsUpgraded.get();
+    }
+
+    public int getSessionCount() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+
+    // ---------------- helper methods ----------------
+
+    private long generation(String username) {
+        synchronized (sessions) {
+            return generations.getOrDefault(username, 0L);
+        }
+    }
+
+    private Session freshSession(String username) {
+        synchronized (sessions) {
+            Session s = sessions.get(username);
+            if (s == null) return null;
+            if (clock.getAsLong() - s.verifiedAt >= ttlNanos) {
+                sessions.remove(username);
+                return null;
+            }
+            return s;
+        }
+    }
+
+    private byte[] proof(String password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(sessionKey);
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    // the login already succeeded; if the upgrade fails the row is simply upgraded on a later login
+    private void upgrade(String username, String stored, String password) {
+        try (Connection conn = db.getConnection(); PreparedStatement ps = conn.prepareStatement(UPGRADE_PASSWORD)) {
+            ps.setString(1, hasher.hash(password));
+            ps.setString(2, username);
+            ps.setString(3, stored);
+            if (ps.executeUpdate() > 0) passwordsUpgraded.incrementAndGet();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    private static void info(Response res, String text) {
+        res.messagesList.add(new Message(text, MessageType.Information));
+    }
+
+    private static void error(Response res, String text) {
+        res.messagesList.add(new Message(text, MessageType.Error));
+    }
+}
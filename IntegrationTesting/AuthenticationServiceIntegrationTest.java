@@ -0,0 +1,210 @@
+package IntegrationTesting;
+
+import model.dto.Response;
+import model.dto.UserDTO;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(EmbeddedPosDatabase.class)
+public class AuthenticationServiceIntegrationTest {
+
+    private static final int ITERATIONS = 1_000; // cheap enough for tests, same code path
+
+    private ConnectionPool pool;
+    private PasswordHasher hasher;
+    private AtomicLong now;
+    private AuthenticationService auth;
+
+    @BeforeEach
+    void setUp(ConnectionPool pool) {
+        this.pool = pool;
+        hasher = new PasswordHasher(ITERATIONS);
+        now = new AtomicLong();
+        auth = new AuthenticationService(pool, hasher, 60_000, 2, now::get);
+    }
+
+    @Test
+    void hasher_saltedHashes_verifyOnlyTheRightPassword() {
+        String a = hasher.hash("pass12345");
+        String b = hasher.hash("pass12345");
+
+        assertTrue(a.startsWith("pbkdf2$" + ITERATIONS + "$"), a);
+        assertNotEquals(a, b, "each hash gets its own salt");
+        assertTrue(hasher.verify("pass12345", a));
+        assertTrue(hasher.verify("pass12345", b));
+        assertFalse(hasher.verify("pass12346", a));
+        assertFalse(hasher.verify("pass12345", "pbkdf2$1000$not-base64!$xx"));
+        assertFalse(hasher.needsRehash(a));
+        assertTrue(new PasswordHasher(ITERATIONS * 2).needsRehash(a));
+        assertTrue(new PasswordHasher(ITERATIONS * 2).verify("pass12345", a), "old cost still verifies");
+    }
+
+    @Test
+    void plaintextRow_logsIn_andIsRehashedOnFirstLogin() throws SQLException {
+        insertUser("cashier_1", "pass12345", "cashier");
+
+        Response res = new Response();
+        UserDTO user = auth.authenticate("cashier_1", "pass12345", res);
+
+        assertTrue(res.isSuccessfull());
+        assertEquals("cashier", user.getRole());
+        assertNull(user.getPassword());
+        String stored = storedPassword("cashier_1");
+        assertTrue(PasswordHasher.isHashed(stored), stored);
+        assertTrue(hasher.verify("pass12345", stored));
+        assertEquals(1, auth.getPasswordsUpgraded());
+
+        auth.logout("cashier_1");
+        assertNotNull(auth.authenticate("cashier_1", "pass12345", new Response()), "logs in against the hash too");
+    }
+
+    @Test
+    void wrongPasswordAndUnknownUser_getTheSameError() throws SQLException {
+        insertUser("cashier_1", hasher.hash("pass12345"), "cashier");
+
+        Response wrong = new Response();
+        Response unknown = new Response();
+        assertNull(auth.authenticate("cashier_1", "wrongPassword!", wrong));
+        assertNull(auth.authenticate("no_such_user_123", "pass12345", unknown));
+
+        assertFalse(wrong.isSuccessfull());
+        assertEquals(wrong.getErrorMessages(), unknown.getErrorMessages());
+        assertTrue(wrong.getErrorMessages().contains("Invalid username or password."));
+        assertEquals(0, auth.getSessionCount());
+    }
+
+    @Test
+    void reAuth_isServedFromSession_untilTtlOrLogout() throws SQLException {
+        insertUser("cashier_1", hasher.hash("pass12345"), "cashier");
+
+        auth.authenticate("cashier_1", "pass12345", new Response());
+        for (int i = 0; i < 10; i++) {
+            assertNotNull(auth.authenticate("cashier_1", "pass12345", new Response()));
+        }
+        assertEquals(1, auth.getHashVerifications());
+        assertEquals(10, auth.getSessionHits());
+
+        // a wrong password is never answered by the session
+        assertNull(auth.authenticate("cashier_1", "pass12346", new Response()));
+        assertEquals(2, auth.getHashVerifications());
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(61));
+        assertNotNull(auth.authenticate("cashier_1", "pass12345", new Response()));
+        assertEquals(3, auth.getHashVerifications(), "expired session: full check again");
+
+        auth.logout("cashier_1");
+        auth.authenticate("cashier_1", "pass12345", new Response());
+        assertEquals(4, auth.getHashVerifications());
+    }
+
+    @Test
+    void sessions_areBounded_leastRecentlyUsedFirstOut() throws SQLException {
+        for (int i = 1; i <= 3; i++) {
+            insertUser("cashier_" + i, hasher.hash("pass12345"), "cashier");
+        }
+
+        auth.authenticate("cashier_1", "pass12345", new Response());
+        auth.authenticate("cashier_2", "pass12345", new Response());
+        auth.authenticate("cashier_1", "pass12345", new Response()); // cashier_2 is now the eldest
+        auth.authenticate("cashier_3", "pass12345", new Response());
+
+        assertEquals(2, auth.getSessionCount());
+        long verifications = auth.getHashVerifications();
+        auth.authenticate("cashier_1", "pass12345", new Response());
+        assertEquals(verifications, auth.getHashVerifications());
+        auth.authenticate("cashier_2", "pass12345", new Response());
+        assertEquals(verifications + 1, auth.getHashVerifications());
+    }
+
+    @Test
+    void changePassword_dropsSession_andOnlyTheNewPasswordWorks() throws SQLException {
+        insertUser("cashier_1", hasher.hash("pass12345"), "cashier");
+        auth.authenticate("cashier_1", "pass12345", new Response());
+
+        Response res = new Response();
+        assertTrue(auth.changePassword("cashier_1", "newPass678", res), res.getErrorMessages());
+
+        assertNull(auth.authenticate("cashier_1", "pass12345", new Response()));
+        assertNotNull(auth.authenticate("cashier_1", "newPass678", new Response()));
+
+        Response tooShort = new Response();
+        assertFalse(auth.changePassword("cashier_1", "ab", tooShort));
+        assertFalse(tooShort.isSuccessfull());
+    }
+
+    @Test
+    void loginRacingChangePassword_doesNotCacheTheOldPassword() throws SQLException {
+        insertUser("cashier_1", hasher.hash("pass12345"), "cashier");
+        // the password changes after the login read the old row, before it caches the session
+        AtomicLong verifications = new AtomicLong();
+        PasswordHasher racing = new PasswordHasher(ITERATIONS) {
+            @Override
+            public boolean verify(String password, String stored) {
+                if (verifications.getAndIncrement() == 0) {
+                    assertTrue(auth.changePassword("cashier_1", "newPass678", new Response()));
+                }
+                return super.verify(password, stored);
+            }
+        };
+        auth = new AuthenticationService(pool, racing, 60_000, 2, now::get);
+
+        assertNotNull(auth.authenticate("cashier_1", "pass12345", new Response()), "checked against the old row");
+
+        assertEquals(0, auth.getSessionCount(), "a session for the old password must not be cached");
+        Response res = new Response();
+        assertNull(auth.authenticate("cashier_1", "pass12345", res));
+        assertFalse(res.isSuccessfull());
+        assertEquals(0, auth.getSessionHits());
+    }
+
+    @Test
+    void migratePlaintextPasswords_hashesEveryRemainingRow() throws SQLException {
+        insertUser("admin_01", "admin123", "admin");
+        insertUser("cashier_1", "pass12345", "cashier");
+        insertUser("cashier_2", hasher.hash("already1"), "cashier");
+        UserDTO created = auth.hashPassword(new UserDTO("cashier_3", "fresh999", "cashier"));
+        insertUser(created.getUsername(), created.getPassword(), created.getRole());
+
+        Response res = new Response();
+        assertEquals(2, auth.migratePlaintextPasswords(res));
+
+        assertTrue(res.isSuccessfull());
+        assertTrue(hasher.verify("admin123", storedPassword("admin_01")));
+        assertTrue(PasswordHasher.isHashed(storedPassword("admin_01")));
+        assertTrue(PasswordHasher.isHashed(storedPassword("cashier_1")));
+        assertTrue(hasher.verify("already1", storedPassword("cashier_2")));
+        assertTrue(hasher.verify("fresh999", storedPassword("cashier_3")));
+        assertEquals(0, auth.migratePlaintextPasswords(new Response()));
+    }
+
+    // ---------------- helper methods ----------------
+
+    private void insertUser(String username, String password, String role) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement ps = conn.prepareStatement("INSERT INTO users (username, password, role) VALUES (?, ?, ?)")) {
+            ps.setString(1, username);
+            ps.setString(2, password);
+            ps.setString(3, role);
+            ps.executeUpdate();
+        }
+    }
+
+    private String storedPassword(String username) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT password FROM users WHERE username = ?")) {
+            ps.setString(1, username);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package IntegrationTesting;
+
+// SaleDALStub that hands every sale to a SaleWriter instead of persisting it inline.
+public class BatchingSaleDAL extends SaleDALStub {
+
+    private final SaleWriter writer;
+    private final SaleAck ack;
+
+    public BatchingSaleDAL(SaleWriter writer, SaleAck ack) {
+        this.writer = writer;
+        this.ack = ack;
+    }
+
+    @Override
+    public void saveSaleCents(long totalCents) {
+        super.saveSaleCents(totalCents);
+        try {
+            writer.submit(new SaleRecord(totalCents, System.currentTimeMillis()), ack);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while queueing sale", e);
+        }
+    }
+}
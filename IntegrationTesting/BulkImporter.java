@@ -0,0 +1,375 @@
+package IntegrationTesting;
+
+import model.dto.CustomerDTO;
+import model.dto.Message;
+import model.dto.MessageType;
+import model.dto.ProductDTO;
+import model.dto.Response;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Store onboarding: imports a CSV of customers or products.
+ * The file is read in chunks of chunkSize lines; each chunk is parsed and validated
+ * (ValidationPlan, i.e. CommonValidator's rules) as one task on a ForkJoinPool, while this thread
+ * writes the valid rows of finished chunks, in file order, as JDBC batches of batchSize rows.
+ * At most two chunks per pool thread are in flight, so memory stays flat however big the file is.
+ * Invalid rows, and rows the database refuses, go to the reject writer as
+ * "line,errors,<original row>". A refused batch is retried row by row, so one bad row does not
+ * take the valid rows of its batch down with it.
+ */
+public class BulkImporter<T> {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    public static final int DEFAULT_CHUNK_SIZE = 2000;
+
+    interface RowParser<T> {
+        // column i of the header list is fields[columns[i]]; problems go to res as errors
+        T parse(String[] fields, int[] columns, Response res);
+    }
+
+    interface BatchWriter<T> {
+        void write(List<T> rows, Response res);
+    }
+
+    private static final class Row<T> {
+        final long line;
+        final String raw;
+        T dto;
+        String errors; // null: valid
+
+        Row(long line, String raw) {
+            this.line = line;
+            this.raw = raw;
+        }
+    }
+
+    private final String[] columns;
+    private final int requiredColumns;
+    private final RowParser<T> parser;
+    private final BatchWriter<T> writer;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private Consumer<ImportProgress> progressListener;
+    private long progressEveryRows;
+
+    // columns after requiredColumns may be missing from the header
+    BulkImporter(String[] columns, int requiredColumns, RowParser<T> parser, BatchWriter<T> writer) {
+        this.columns = columns;
+        this.requiredColumns = requiredColumns;
+        this.parser = parser;
+        this.writer = writer;
+    }
+
+    // header: name,phoneNumber
+    public static BulkImporter<CustomerDTO> customers(ConnectionPool db) {
+        KeyedObjectAdder adder = new KeyedObjectAdder();
+        return new BulkImporter<>(new String[]{"name", "phoneNumber"}, 2,
+                (f, col, res) -> {
+                    CustomerDTO c = new CustomerDTO();
+                    c.setName(f[col[0]]);
+                    c.setPhoneNumber(f[col[1]]);
+                    return c;
+                },
+                (rows, res) -> {
+                    try (Connection conn = db.getConnection()) {
+                        adder.addCustomers(rows, conn, res);
+                    } catch (SQLException e) {
+                        error(res, "Customers could not be added: " + e.getMessage());
+                    }
+                });
+    }
+
+    // header: name,barcode,price,stock_quantity,category_id,quantity_type[,suppliers_id]
+    public static BulkImporter<ProductDTO> products(ConnectionPool db) {
+        KeyedObjectAdder adder = new KeyedObjectAdder();
+        return new BulkImporter<>(
+                new String[]{"name", "barcode", "price", "stock_quantity", "category_id", "quantity_type", "suppliers_id"}, 6,
+                (f, col, res) -> {
+                    ProductDTO p = new ProductDTO();
+                    p.setProductName(f[col[0]]);
+                    p.setBarcode(f[col[1]]);
+                    p.setPrice(parseDouble(f[col[2]], "price", res));
+                    p.setStockQuantity(parseInt(f[col[3]], "stock_quantity", res));
+                    p.setCategoryId(parseInt(f[col[4]], "category_id", res));
+                    p.setQuantityType(f[col[5]]);
+                    if (col[6] >= 0 && !f[col[6]].isEmpty()) p.setSupplierId(parseInt(f[col[6]], "suppliers_id", res));
+                    if (p.getProductName() == null || p.getProductName().isEmpty()) error(res, "Product name is required.");
+                    if (!(p.getPrice() >= 0)) error(res, "Price must be >= 0."); // also catches NaN
+                    if (p.getStockQuantity() < 0) error(res, "Stock quantity must be >= 0.");
+                    return p;
+                },
+                (rows, res) -> {
+                    try (Connection conn = db.getConnection()) {
+                        adder.addProducts(rows, conn, res);
+                    } catch (SQLException e) {
+                        error(res, "Products could not be added: " + e.getMessage());
+                    }
+                });
+    }
+
+    public BulkImporter<T> batchSize(int rows) {
+        if (rows <= 0) throw new IllegalArgumentException("batchSize must be > 0");
+        this.batchSize = rows;
+        return this;
+    }
+
+    public BulkImporter<T> chunkSize(int lines) {
+        if (lines <= 0) throw new IllegalArgumentException("chunkSize must be > 0");
+        this.chunkSize = lines;
+        return this;
+    }
+
+    public BulkImporter<T> validateOn(ForkJoinPool pool) {
+        this.pool = pool;
+        return this;
+    }
+
+    // called on the importing thread about every `everyRows` rows read, and once at the end
+    public BulkImporter<T> onProgress(long everyRows, Consumer<ImportProgress> listener) {
+        this.progressEveryRows = everyRows;
+        this.progressListener = listener;
+        return this;
+    }
+
+    /**
+     * Imports every row of csv (first line = header). Returns the final counters.
+     * Throws IllegalArgumentException if a required column is missing from the header.
+     */
+    public ImportProgress run(Reader csv, Writer rejects) throws IOException {
+        ImportProgress progress = new ImportProgress();
+        BufferedReader in = csv instanceof BufferedReader ? (BufferedReader) csv : new BufferedReader(csv, 1 << 16);
+        String header = in.readLine();
+        if (header == null) {
+            progress.finish();
+            return progress;
+        }
+        int[] columnIndex = mapHeader(parseLine(header));
+        rejects.write("line,errors," + header + "\n");
+
+        Run run = new Run(progress, rejects);
+        ArrayDeque<Future<List<Row<T>>>> inFlight = new ArrayDeque<>();
+        int maxInFlight = Math.max(2, pool.getParallelism() * 2);
+        long line = 1;
+        long nextReport = progressEveryRows;
+
+        while (true) {
+            List<Row<T>> chunk = new ArrayList<>(chunkSize);
+            String raw;
+            while (chunk.size() < chunkSize && (raw = in.readLine()) != null) {
+                line++;
+                if (!raw.isEmpty()) chunk.add(new Row<>(line, raw));
+            }
+            if (chunk.isEmpty()) break;
+            progress.read(chunk.size());
+            inFlight.add(pool.submit(() -> validate(chunk, columnIndex)));
+            while (inFlight.size() >= maxInFlight) {
+                run.accept(await(inFlight.poll()));
+            }
+            if (progressListener != null && progress.getRowsRead() >= nextReport) {
+                progressListener.accept(progress);
+                nextReport = progress.getRowsRead() + progressEveryRows;
+            }
+        }
+        while (!inFlight.isEmpty()) {
+            run.accept(await(inFlight.poll()));
+        }
+        run.flush();
+        rejects.flush();
+        progress.finish();
+        if (progressListener != null) progressListener.accept(progress);
+        return progress;
+    }
+
+    // ---------------- helper methods ----------------
+
+    // runs on the fork-join pool: parse + validate one chunk
+    private List<Row<T>> validate(List<Row<T>> chunk, int[] columnIndex) {
+        ReusableResponse res = new ReusableResponse();
+        for (Row<T> row : chunk) {
+            res.reset();
+            String[] fields = parseLine(row.raw);
+            if (fields.length < minFieldCount(columnIndex)) {
+                error(res, "Expected " + minFieldCount(columnIndex) + " fields, found " + fields.length + ".");
+            } else {
+                row.dto = parser.parse(fields, columnIndex, res);
+                if (res.isSuccessfull()) ValidationPlan.validate(row.dto, res);
+            }
+            if (!res.isSuccessfull()) row.errors = oneLine(res.getErrorMessages());
+        }
+        return chunk;
+    }
+
+    // receives validated chunks in file order and writes them out
+    private final class Run {
+        final ImportProgress progress;
+        final Writer rejects;
+        final List<T> batch = new ArrayList<>(batchSize);
+        final List<Row<T>> batchRows = new ArrayList<>(batchSize);
+
+        Run(ImportProgress progress, Writer rejects) {
+            this.progress = progress;
+            this.rejects = rejects;
+        }
+
+        void accept(List<Row<T>> chunk) throws IOException {
+            int valid = 0;
+            for (Row<T> row : chunk) {
+                if (row.errors != null) {
+                    reject(row.line, row.errors, row.raw);
+                    continue;
+                }
+                valid++;
+                batch.add(row.dto);
+                batchRows.add(row);
+                if (batch.size() >= batchSize) flush();
+            }
+            progress.validated(valid, chunk.size() - valid);
+        }
+
+        void flush() throws IOException {
+            if (batch.isEmpty()) return;
+            Response res = new Response();
+            writer.write(batch, res);
+            if (res.isSuccessfull()) {
+                progress.written(batch.size());
+            } else if (batch.size() == 1) {
+                refuse(batchRows.get(0), res);
+            } else {
+                // the batch was rolled back as a whole: find the rows the database refuses one by one
+                int written = 0;
+                for (Row<T> row : batchRows) {
+                    Response rowRes = new Response();
+                    writer.write(Collections.singletonList(row.dto), rowRes);
+                    if (rowRes.isSuccessfull()) written++;
+                    else refuse(row, rowRes);
+                }
+                if (written > 0) progress.written(written);
+            }
+            batch.clear();
+            batchRows.clear();
+        }
+
+        private void refuse(Row<T> row, Response res) throws IOException {
+            progress.refused(1);
+            reject(row.line, oneLine(res.getErrorMessages()), row.raw);
+        }
+
+        private void reject(long line, String errors, String raw) throws IOException {
+            rejects.write(Long.toString(line));
+            rejects.write(',');
+            rejects.write(quote(errors));
+            rejects.write(',');
+            rejects.write(raw);
+            rejects.write('\n');
+        }
+    }
+
+    private List<Row<T>> await(Future<List<Row<T>>> chunk) throws IOException {
+        try {
+            return chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Validation task failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private int[] mapHeader(String[] header) {
+        int[] index = new int[columns.length];
+        for (int c = 0; c < columns.length; c++) {
+            index[c] = -1;
+            for (int h = 0; h < header.length; h++) {
+                if (header[h].trim().equalsIgnoreCase(columns[c])) index[c] = h;
+            }
+            if (index[c] < 0 && c < requiredColumns) {
+                throw new IllegalArgumentException("CSV header is missing column '" + columns[c] + "'");
+            }
+        }
+        return index;
+    }
+
+    private static int minFieldCount(int[] columnIndex) {
+        int max = -1;
+        for (int i : columnIndex) {
+            max = Math.max(max, i);
+        }
+        return max + 1;
+    }
+
+    // one CSV record: comma separated, "double quotes" around fields containing commas or quotes
+    static String[] parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (ch == '"') {
+                    quoted = false;
+                } else {
+                    field.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+            } else if (ch == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(ch);
+            }
+        }
+        fields.add(field.toString());
+        return fields.toArray(new String[0]);
+    }
+
+    private static String quote(String field) {
+        return "\"" + field.replace("\"", "\"\"") + "\"";
+    }
+
+    private static String oneLine(String messages) {
+        return messages.trim().replace("\r", "").replace("\n", " | ");
+    }
+
+    private static int parseInt(String s, String column, Response res) {
+        try {
+            return Integer.parseInt(s.trim());
+        } catch (NumberFormatException e) {
+            error(res, column + " is not a whole number: '" + s + "'.");
+            return 0;
+        }
+    }
+
+    private static double parseDouble(String s, String column, Response res) {
+        try {
+            return Double.parseDouble(s.trim());
+        } catch (NumberFormatException e) {
+            error(res, column + " is not a number: '" + s + "'.");
+            return 0;
+        }
+    }
+
+    private static void error(Response res, String text) {
+        res.messagesList.add(new Message(text, MessageType.Error));
+    }
+}
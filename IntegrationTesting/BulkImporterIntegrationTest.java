@@ -0,0 +1,151 @@
+package IntegrationTesting;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(EmbeddedPosDatabase.class)
+public class BulkImporterIntegrationTest {
+
+    private ConnectionPool pool;
+    private ForkJoinPool validators;
+
+    @BeforeEach
+    void setUp(ConnectionPool pool) {
+        this.pool = pool;
+        validators = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        validators.shutdownNow();
+    }
+
+    @Test
+    void customers_validRowsWrittenInBatches_invalidRowsRejectedWithMessages() throws Exception {
+        StringBuilder csv = new StringBuilder("name,phoneNumber\n");
+        int invalid = 0;
+        for (int i = 1; i <= 5000; i++) {
+            if (i % 100 == 0) {
+                csv.append("Bad").append(',').append("0690000000\n"); // name too short
+                invalid++;
+            } else {
+                csv.append("Customer_").append(i).append(",069").append(1_000_000 + i).append('\n');
+            }
+        }
+        StringWriter rejects = new StringWriter();
+
+        ImportProgress result = BulkImporter.customers(pool)
+                .batchSize(500)
+                .chunkSize(300)
+                .validateOn(validators)
+                .run(new StringReader(csv.toString()), rejects);
+
+        assertEquals(5000, result.getRowsRead());
+        assertEquals(5000 - invalid, result.getRowsWritten());
+        assertEquals(invalid, result.getRowsRejected());
+        assertEquals(5000 - invalid, countRows("customers"));
+
+        String[] lines = rejects.toString().split("\n");
+        assertEquals("line,errors,name,phoneNumber", lines[0]);
+        assertEquals(invalid + 1, lines.length);
+        assertTrue(lines[1].startsWith("101,\"Name is not valid"), lines[1]); // data row 100 is file line 101
+        assertTrue(lines[1].endsWith(",Bad,0690000000"), lines[1]);
+    }
+
+    @Test
+    void customers_keepFileOrder_acrossParallelChunks() throws Exception {
+        StringBuilder csv = new StringBuilder("phoneNumber,name\n"); // columns found by header name
+        for (int i = 1; i <= 2000; i++) {
+            csv.append("069").append(1_000_000 + i).append(",\"Customer, No. ").append(i).append("\"\n");
+        }
+
+        BulkImporter.customers(pool).batchSize(128).chunkSize(50).validateOn(validators)
+                .run(new StringReader(csv.toString()), new StringWriter());
+
+        List<String> names = new ArrayList<>();
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT name FROM customers ORDER BY id")) {
+            while (rs.next()) names.add(rs.getString(1));
+        }
+        assertEquals(2000, names.size());
+        for (int i = 0; i < names.size(); i++) {
+            assertEquals("Customer, No. " + (i + 1), names.get(i));
+        }
+    }
+
+    @Test
+    void products_parseErrorsAndRefusedRow_goToRejectFile() throws Exception {
+        String csv = "name,barcode,price,stock_quantity,category_id,quantity_type\n"
+                + "Milk 1L,BC001,1.20,10,1,counted\n"
+                + "Bread,BC002,abc,5,1,counted\n"        // price not a number
+                + "Eggs,BC003,2.50,-1,1,counted\n"        // negative stock
+                + "Butter,BC004,3.10,4\n"                 // too few fields
+                + "Cheese,BC001,4.00,2,1,counted\n";      // duplicate barcode: the DB refuses this row
+        StringWriter rejects = new StringWriter();
+
+        ImportProgress result = BulkImporter.products(pool).batchSize(10).validateOn(validators)
+                .run(new StringReader(csv), rejects);
+
+        assertEquals(5, result.getRowsRead());
+        assertEquals(1, result.getRowsWritten(), "the valid row of the refused batch is still written");
+        assertEquals(4, result.getRowsRejected());
+        assertEquals(1, countRows("products"));
+
+        String out = rejects.toString();
+        assertTrue(out.contains("3,\"price is not a number: 'abc'.\",Bread"), out);
+        assertTrue(out.contains("4,\"Stock quantity must be >= 0.\",Eggs"), out);
+        assertTrue(out.contains("5,\"Expected 6 fields, found 4.\",Butter"), out);
+        assertTrue(out.contains("6,\"Products could not be added"), out);
+        assertFalse(out.contains("2,\"Products could not be added"), out);
+    }
+
+    @Test
+    void progressListener_seesRunningCounts_andFinalResult() throws Exception {
+        StringBuilder csv = new StringBuilder("name,phoneNumber\n");
+        for (int i = 1; i <= 3000; i++) {
+            csv.append("Customer_").append(i).append(",0690000000\n");
+        }
+        List<Long> reads = new ArrayList<>();
+        List<Boolean> finished = new ArrayList<>();
+
+        BulkImporter.customers(pool).chunkSize(500).validateOn(validators)
+                .onProgress(1000, p -> {
+                    reads.add(p.getRowsRead());
+                    finished.add(p.isFinished());
+                })
+                .run(new StringReader(csv.toString()), new StringWriter());
+
+        assertTrue(reads.size() >= 3, "reported at 1000, 2000, 3000 and at the end: " + reads);
+        assertEquals(3000L, reads.get(reads.size() - 1));
+        assertTrue(finished.get(finished.size() - 1));
+        assertFalse(finished.get(0));
+    }
+
+    @Test
+    void missingRequiredColumn_failsBeforeImporting() {
+        assertThrows(IllegalArgumentException.class, () -> BulkImporter.customers(pool)
+                .run(new StringReader("name,email\nCustomer_1,a@b.c\n"), new StringWriter()));
+    }
+
+    // ---------------- helper methods ----------------
+
+    private int countRows(String table) throws SQLException {
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package IntegrationTesting;
+
+import dal.DALManager;
+import model.dto.CategoryDTO;
+import model.dto.EmployeeDTO;
+import model.dto.Response;
+import model.dto.SupplierDTO;
+
+import java.util.ArrayList;
+
+/**
+ * Categories, suppliers and employees served from ReferenceDataCaches in front of DALManager.
+ * The list reads behave like DALManager.getCategories / getSuppliers / getEmployees; the
+ * byId / byName lookups replace scanning those lists. Every save/update/delete goes to
+ * DALManager and then invalidates the matching cache, whether or not the call succeeded.
+ */
+public class CachedReferenceData {
+
+    public static final long DEFAULT_TTL_MILLIS = 60_000;
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+
+    private final DALManager dal;
+    private final ReferenceDataCache<CategoryDTO> categories;
+    private final ReferenceDataCache<SupplierDTO> suppliers;
+    private final ReferenceDataCache<EmployeeDTO> employees;
+
+    public CachedReferenceData(DALManager dal) {
+        this(dal, DEFAULT_TTL_MILLIS, DEFAULT_MAX_ENTRIES);
+    }
+
+    public CachedReferenceData(DALManager dal, long ttlMillis, int maxEntries) {
+        this.dal = dal;
+        this.categories = new ReferenceDataCache<>(dal::getCategories, CategoryDTO::getId, CategoryDTO::getName,
+                ttlMillis, maxEntries);
+        this.suppliers = new ReferenceDataCache<>(dal::getSuppliers, SupplierDTO::getId, SupplierDTO::getName,
+                ttlMillis, maxEntries);
+        this.employees = new ReferenceDataCache<>(dal::getEmployees, EmployeeDTO::getId, EmployeeDTO::getName,
+                ttlMillis, maxEntries);
+    }
+
+    // ---------------- categories ----------------
+
+    public ArrayList<CategoryDTO> getCategories(Response res) {
+        return categories.getAll(res);
+    }
+
+    public CategoryDTO getCategoryById(int id, Response res) {
+        return categories.getById(id, res);
+    }
+
+    public CategoryDTO getCategoryByName(String name, Response res) {
+        return categories.getByName(name, res);
+    }
+
+    public void saveCategory(CategoryDTO c, Response res) {
+        try {
+            dal.saveCategory(c, res);
+        } finally {
+            categories.invalidate();
+        }
+    }
+
+    public void updateCategory(CategoryDTO c, Response res) {
+        try {
+            dal.updateCategory(c, res);
+        } finally {
+            categories.invalidate();
+        }
+    }
+
+    public void deleteCategory(CategoryDTO c, Response res) {
+        try {
+            dal.deleteCategory(c, res);
+        } finally {
+            categories.invalidate();
+        }
+    }
+
+    // ---------------- suppliers ----------------
+
+    public ArrayList<SupplierDTO> getSuppliers(Response res) {
+        return suppliers.getAll(res);
+    }
+
+    public SupplierDTO getSupplierById(int id, Response res) {
+        return suppliers.getById(id, res);
+    }
+
+    public SupplierDTO getSupplierByName(String name, Response res) {
+        return suppliers.getByName(name, res);
+    }
+
+    public void saveSupplier(SupplierDTO s, Response res) {
+        try {
+            dal.saveSupplier(s, res);
+        } finally {
+            suppliers.invalidate();
+        }
+    }
+
+    public void updateSupplier(SupplierDTO s, Response res) {
+        try {
+            dal.updateSupplier(s, res);
+        } finally {
+            suppliers.invalidate();
+        }
+    }
+
+    public void deleteSupplier(SupplierDTO s, Response res) {
+        try {
+            dal.deleteSupplier(s, res);
+        } finally {
+            suppliers.invalidate();
+        }
+    }
+
+    // ---------------- employees ----------------
+
+    public ArrayList<EmployeeDTO> getEmployees(Response res) {
+        return employees.getAll(res);
+    }
+
+    public EmployeeDTO getEmployeeById(int id, Response res) {
+        return employees.getById(id, res);
+    }
+
+    public EmployeeDTO getEmployeeByName(String name, Response res) {
+        return employees.getByName(name, res);
+    }
+
+    public void saveEmployee(EmployeeDTO e, Response res) {
+        try {
+            dal.saveEmployee(e, res);
+        } finally {
+            employees.invalidate();
+        }
+    }
+
+    public void updateEmployee(EmployeeDTO e, Response res) {
+        try {
+            dal.updateEmployee(e, res);
+        } finally {
+            employees.invalidate();
+        }
+    }
+
+    public void deleteEmployee(EmployeeDTO e, Response res) {
+        try {
+            dal.deleteEmployee(e, res);
+        } finally {
+            employees.invalidate();
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package IntegrationTesting;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CheckoutConcurrencyIntegrationTest {
+
+    private static final int TILLS = 48;
+
+    @Test
+    void concurrentCheckouts_lastUnits_neverOversell() throws Exception {
+        ProductDALStub productDal = new ProductDALStub();
+        SaleDALStub saleDal = new SaleDALStub();
+        productDal.seedProduct(101, 10.0, 32); // 32 units, 48 tills each want 1
+        CheckoutService service = new CheckoutService(productDal, saleDal);
+
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+
+        runConcurrently(TILLS, till -> {
+            Map<Integer, Integer> cart = new HashMap<>();
+            cart.put(101, 1);
+            try {
+                service.checkout(cart);
+                sold.incrementAndGet();
+            } catch (IllegalStateException ex) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(32, sold.get());
+        assertEquals(TILLS - 32, rejected.get());
+        assertEquals(0, productDal.getStock(101));
+        assertEquals(32, saleDal.getSaleCount());
+    }
+
+    @Test
+    void concurrentMultiLineBaskets_opposingOrder_noDeadlock_noOversell() throws Exception {
+        ProductDALStub productDal = new ProductDALStub();
+        SaleDALStub saleDal = new SaleDALStub();
+        // many products so baskets spread over (and collide on) several lock stripes
+        for (int id = 1; id <= 200; id++) {
+            productDal.seedProduct(id, 1.0, 100);
+        }
+        CheckoutService service = new CheckoutService(productDal, saleDal);
+
+        AtomicInteger sold = new AtomicInteger();
+
+        runConcurrently(64, till -> {
+            for (int round = 0; round < 200; round++) {
+                Map<Integer, Integer> cart = new HashMap<>();
+                // even tills walk the catalog upwards, odd tills downwards
+                for (int k = 0; k < 5; k++) {
+                    int id = (till % 2 == 0) ? 1 + (round + k * 37) % 200 : 200 - (round + k * 37) % 200;
+                    cart.merge(id, 1, Integer::sum);
+                }
+                try {
+                    service.checkout(cart);
+                    sold.addAndGet(cart.values().stream().mapToInt(Integer::intValue).sum());
+                } catch (IllegalStateException ex) {
+                    // sold out, expected near the end
+                }
+            }
+        });
+
+        int remaining = 0;
+        for (int id = 1; id <= 200; id++) {
+            int stock = productDal.getStock(id);
+            assertTrue(stock >= 0, "Stock went negative for product " + id);
+            remaining += stock;
+        }
+        assertEquals(200 * 100, sold.get() + remaining, "Units sold + units left must equal units seeded");
+    }
+
+    @Test
+    void failedBasket_leavesEveryLineUntouched() {
+        ProductDALStub productDal = new ProductDALStub();
+        productDal.seedProduct(101, 5.0, 10);
+        productDal.seedProduct(202, 5.0, 1);
+
+        int failed = productDal.reserveAll(new int[]{101, 202}, new int[]{3, 2});
+
+        assertEquals(1, failed);
+        assertEquals(10, productDal.getStock(101));
+        assertEquals(1, productDal.getStock(202));
+    }
+
+    @Test
+    void overflowingOrNegativeBasket_takesNoStock() {
+        ProductDALStub productDal = new ProductDALStub();
+        productDal.seedProduct(101, 5.0, 10);
+        productDal.seedProduct(202, 1e16, 100); // 10 units overflow a long of cents
+
+        assertThrows(ArithmeticException.class,
+                () -> productDal.reserveAndPrice(new int[]{101, 202}, new int[]{3, 10}));
+        assertThrows(IllegalArgumentException.class,
+                () -> productDal.reserveAll(new int[]{101, 202}, new int[]{3, -5}));
+
+        assertEquals(10, productDal.getStock(101));
+        assertEquals(100, productDal.getStock(202), "a negative quantity must not add stock");
+    }
+
+    @Test
+    void concurrentTryReserve_lastUnits_neverOversell() throws Exception {
+        ProductDALStub productDal = new ProductDALStub();
+        productDal.seedProduct(101, 10.0, 32);
+        AtomicInteger sold = new AtomicInteger();
+
+        runConcurrently(TILLS, till -> {
+            if (productDal.tryReserve(101, 1)) sold.incrementAndGet();
+        });
+
+        assertEquals(32, sold.get());
+        assertEquals(0, productDal.getStock(101));
+        assertFalse(productDal.tryReserve(101, 1));
+        assertFalse(productDal.tryReserve(999, 1), "unknown product");
+    }
+
+    // ---------------- helper methods ----------------
+
+    private interface Till {
+        void run(int till) throws Exception;
+    }
+
+    private void runConcurrently(int tills, Till body) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tills);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < tills; t++) {
+                final int till = t;
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    body.run(till);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(30, TimeUnit.SECONDS); // a deadlock would surface as a timeout here
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
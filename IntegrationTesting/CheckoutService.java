@@ -6,36 +6,199 @@ public class CheckoutService {
 
     private final ProductDALStub productDal;
     private final SaleDALStub saleDal;
+    // source of unit prices when set (one pinned snapshot per basket); null = the catalog's prices
+    private final PriceTable prices;
+
+    // stage timers; all null when the service is not instrumented
+    private final MetricsRegistry.Timer validateTimer;
+    private final MetricsRegistry.Timer reserveAndPriceTimer;
+    private final MetricsRegistry.Timer saveTimer;
+    private final MetricsRegistry.Timer totalTimer;
 
     public CheckoutService(ProductDALStub productDal, SaleDALStub saleDal) {
+        this(productDal, saleDal, null);
+    }
+
+    /**
+     * Times each checkout into metrics: "checkout.validate", "checkout.reserveAndPrice" (pricing and
+     * the stock decrement are one atomic pass, so they are one stage), "checkout.save" and
+     * "checkout.total". A failed basket counts as an error of the stage that refused it.
+     */
+    public CheckoutService(ProductDALStub productDal, SaleDALStub saleDal, MetricsRegistry metrics) {
+        this(productDal, saleDal, null, metrics);
+    }
+
+    /**
+     * Prices every basket from one PriceTable snapshot, pinned before the first line, so a price
+     * change published mid-checkout applies to the whole basket or to none of it. Stock is still
+     * taken from productDal; metrics may be null.
+     */
+    public CheckoutService(ProductDALStub productDal, SaleDALStub saleDal, PriceTable prices, MetricsRegistry metrics) {
         this.productDal = productDal;
         this.saleDal = saleDal;
+        this.prices = prices;
+        this.validateTimer = metrics == null ? null : metrics.timer("checkout.validate");
+        this.reserveAndPriceTimer = metrics == null ? null : metrics.timer("checkout.reserveAndPrice");
+        this.saveTimer = metrics == null ? null : metrics.timer("checkout.save");
+        this.totalTimer = metrics == null ? null : metrics.timer("checkout.total");
     }
 
     // items: productId -> quantity
     public double checkout(Map<Integer, Integer> items) {
-        // 1) Validate stock
+        int[] productIds = new int[items.size()];
+        int[] qtys = new int[items.size()];
+        int n = 0;
         for (Map.Entry<Integer, Integer> e : items.entrySet()) {
-            int productId = e.getKey();
-            int qty = e.getValue();
-            if (qty <= 0) throw new IllegalArgumentException("Quantity must be > 0");
-            if (productDal.getStock(productId) < qty) {
-                throw new IllegalStateException("Insufficient stock for product " + productId);
+            productIds[n] = e.getKey();
+            qtys[n] = e.getValue();
+            n++;
+        }
+        return checkoutCents(productIds, qtys) / 100.0;
+    }
+
+    /**
+     * Basket as parallel arrays (line i = qtys[i] x productIds[i]); returns the total in cents.
+     * Validation, pricing and the stock update happen in one pass, atomically for the whole basket;
+     * the sale is saved with its lines (unit price and category as charged).
+     */
+    public long checkoutCents(int[] productIds, int[] qtys) {
+        if (totalTimer != null) return timedCheckoutCents(productIds, qtys);
+        if (productIds.length != qtys.length) {
+            throw new IllegalArgumentException("productIds and qtys must have the same length");
+        }
+
+        // 1) Validate + price + update stock
+        PriceTable.Snapshot pinned = prices == null ? null : prices.snapshot();
+        long[] unitPriceCents = new long[productIds.length];
+        int[] categoryIds = new int[productIds.length];
+        long result = reserveAndPrice(pinned, productIds, qtys, unitPriceCents, categoryIds);
+        if (result < 0) throw refused(pinned, productIds, qtys, result);
+
+        // 2) Save sale and lines (stubbed persistence)
+        saleDal.saveSale(result, productIds, categoryIds, qtys, unitPriceCents);
+
+        return result;
+    }
+
+    /**
+     * Sells what a StockReservations basket holds: its units were taken at scan time, so only
+     * pricing and the save remain. Returns the total in cents; if a line cannot be priced the
+     * units go back to stock and the basket stays closed. Instrumented, it records the same
+     * stages as checkoutCents(productIds, qtys), "checkout.reserveAndPrice" being pricing only.
+     */
+    public long checkoutCents(StockReservations.Basket basket) {
+        int[][] lines = StockReservations.handOver(basket);
+        int[] productIds = lines[0];
+        int[] qtys = lines[1];
+        long start = System.nanoTime();
+        long t = start;
+        try {
+            boolean valid = true;
+            for (int i = 0; valid && i < qtys.length; i++) {
+                valid = qtys[i] > 0;
+            }
+            long now = System.nanoTime();
+            record(validateTimer, now - t, !valid);
+            t = now;
+
+            PriceTable.Snapshot pinned = prices == null ? null : prices.snapshot();
+            long[] unitPriceCents = new long[productIds.length];
+            int[] categoryIds = new int[productIds.length];
+            long result = productDal.price(productIds, qtys, unitPriceCents, categoryIds);
+            if (result >= 0 && pinned != null) result = pinned.priceBasket(productIds, qtys, unitPriceCents);
+            now = System.nanoTime();
+            record(reserveAndPriceTimer, now - t, result < 0);
+            t = now;
+            if (result < 0) {
+                for (int i = 0; i < productIds.length; i++) {
+                    productDal.releaseStock(productIds[i], qtys[i]);
+                }
+                throw unpriced(productIds, qtys, result);
             }
+
+            boolean saved = false;
+            try {
+                saleDal.saveSale(result, productIds, categoryIds, qtys, unitPriceCents);
+                saved = true;
+            } finally {
+                record(saveTimer, System.nanoTime() - t, !saved);
+            }
+            record(totalTimer, System.nanoTime() - start, false);
+            return result;
+        } catch (RuntimeException e) {
+            record(totalTimer, System.nanoTime() - start, true);
+            throw e;
         }
+    }
 
-        // 2) Calculate total + update stock
-        double total = 0.0;
-        for (Map.Entry<Integer, Integer> e : items.entrySet()) {
-            int productId = e.getKey();
-            int qty = e.getValue();
-            total += productDal.getPrice(productId) * qty;
-            productDal.decreaseStock(productId, qty);
+    // same steps as checkoutCents, with quantities checked up front so validation is its own stage
+    private long timedCheckoutCents(int[] productIds, int[] qtys) {
+        long start = System.nanoTime();
+        long t = start;
+        try {
+            boolean valid = productIds.length == qtys.length;
+            for (int i = 0; valid && i < qtys.length; i++) {
+                valid = qtys[i] > 0;
+            }
+            long now = System.nanoTime();
+            validateTimer.record(now - t, !valid);
+            t = now;
+            if (productIds.length != qtys.length) {
+                throw new IllegalArgumentException("productIds and qtys must have the same length");
+            }
+            if (!valid) throw new IllegalArgumentException("Quantity must be > 0");
+
+            PriceTable.Snapshot pinned = prices == null ? null : prices.snapshot();
+            long[] unitPriceCents = new long[productIds.length];
+            int[] categoryIds = new int[productIds.length];
+            long result = reserveAndPrice(pinned, productIds, qtys, unitPriceCents, categoryIds);
+            now = System.nanoTime();
+            reserveAndPriceTimer.record(now - t, result < 0);
+            t = now;
+            if (result < 0) throw refused(pinned, productIds, qtys, result);
+
+            boolean saved = false;
+            try {
+                saleDal.saveSale(result, productIds, categoryIds, qtys, unitPriceCents);
+                saved = true;
+            } finally {
+                saveTimer.record(System.nanoTime() - t, !saved);
+            }
+            totalTimer.record(System.nanoTime() - start, false);
+            return result;
+        } catch (RuntimeException e) {
+            totalTimer.record(System.nanoTime() - start, true);
+            throw e;
+        }
+    }
+
+    // with a pinned snapshot, lines are priced first (no locks) and stock is taken only if all are priced
+    private long reserveAndPrice(PriceTable.Snapshot pinned, int[] productIds, int[] qtys,
+                                 long[] unitPriceCents, int[] categoryIds) {
+        if (pinned == null) return productDal.reserveAndPrice(productIds, qtys, unitPriceCents, categoryIds);
+        long totalCents = pinned.priceBasket(productIds, qtys, unitPriceCents);
+        if (totalCents < 0) return totalCents;
+        long reserved = productDal.reserveAndPrice(productIds, qtys, null, categoryIds);
+        return reserved < 0 ? reserved : totalCents;
+    }
+
+    private static RuntimeException refused(PriceTable.Snapshot pinned, int[] productIds, int[] qtys, long result) {
+        int failed = (int) (-result - 1);
+        if (qtys[failed] <= 0) return new IllegalArgumentException("Quantity must be > 0");
+        if (pinned != null && pinned.getPriceCents(productIds[failed]) == PriceTable.NO_PRICE) {
+            return new IllegalStateException("No price for product " + productIds[failed]);
         }
+        return new IllegalStateException("Insufficient stock for product " + productIds[failed]);
+    }
 
-        // 3) Save sale (stubbed persistence)
-        saleDal.saveSale(total);
+    // the stock is already held, so a line that failed had a bad quantity or no price
+    private static RuntimeException unpriced(int[] productIds, int[] qtys, long result) {
+        int failed = (int) (-result - 1);
+        if (qtys[failed] <= 0) return new IllegalArgumentException("Quantity must be > 0");
+        return new IllegalStateException("No price for product " + productIds[failed]);
+    }
 
-        return total;
+    private static void record(MetricsRegistry.Timer timer, long nanos, boolean failed) {
+        if (timer != null) timer.record(nanos, failed);
     }
 }
@@ -61,4 +61,51 @@ public class CheckoutTopDownIntegrationTest {
         assertFalse("Sale should not be saved when checkout fails", saleDal.isSaved());
         assertEquals(1, productDal.getStock(101)); // stock unchanged
     }
+
+    @Test
+    public void checkoutCents_primitiveBasket_totalIsExactInCents() {
+        ProductDALStub productDal = new ProductDALStub();
+        SaleDALStub saleDal = new SaleDALStub();
+
+        // 0.10 + 0.20 does not add up exactly in double arithmetic
+        productDal.seedProduct(1, 0.10, 100_000);
+        productDal.seedProduct(2, 0.20, 100_000);
+        CheckoutService service = new CheckoutService(productDal, saleDal);
+
+        int lines = 10_000;
+        int[] productIds = new int[lines];
+        int[] qtys = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            productIds[i] = 1 + (i % 2);
+            qtys[i] = 3;
+        }
+
+        long totalCents = service.checkoutCents(productIds, qtys);
+
+        assertEquals(5_000 * 3 * 10 + 5_000 * 3 * 20, totalCents); // 450000 cents
+        assertEquals(totalCents, saleDal.getSavedTotalCents());
+        assertEquals(100_000 - 15_000, productDal.getStock(1));
+        assertEquals(100_000 - 15_000, productDal.getStock(2));
+    }
+
+    @Test
+    public void checkoutCents_invalidQuantityOnLaterLine_rollsBackEarlierLines() {
+        ProductDALStub productDal = new ProductDALStub();
+        SaleDALStub saleDal = new SaleDALStub();
+
+        productDal.seedProduct(101, 50.0, 10);
+        productDal.seedProduct(202, 20.0, 5);
+        CheckoutService service = new CheckoutService(productDal, saleDal);
+
+        try {
+            service.checkoutCents(new int[]{101, 202}, new int[]{2, 0});
+            fail("Expected exception due to invalid quantity");
+        } catch (IllegalArgumentException ex) {
+            assertTrue(ex.getMessage().contains("Quantity must be > 0"));
+        }
+
+        assertFalse(saleDal.isSaved());
+        assertEquals(10, productDal.getStock(101));
+        assertEquals(5, productDal.getStock(202));
+    }
 }
@@ -0,0 +1,328 @@
+package IntegrationTesting;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Reusable JDBC connections instead of one DriverManager.getConnection per operation.
+ * Connections handed out are proxies: close() returns the physical connection to the pool.
+ * Idle connections are validated on borrow; connections held longer than the leak threshold
+ * are counted once in PoolMetrics.getLeaks() and passed to the LeakListener, if one is set.
+ * The borrower's stack trace is only captured when a listener is set, so a plain borrow
+ * costs no stack walk.
+ * With statementCacheSize > 0 each physical connection keeps an LRU StatementCache, so
+ * prepareStatement(sql) on a borrowed connection reuses the statement prepared last time.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    // called on the housekeeper thread, once per leaked borrow
+    public interface LeakListener {
+        void onLeak(long heldMillis, Exception borrowedAt);
+    }
+
+    public static class Settings {
+        String url;
+        String user;
+        String password;
+        int minSize = 1;
+        int maxSize = 10;
+        long borrowTimeoutMillis = 5_000;
+        int validationTimeoutSeconds = 2;
+        long leakThresholdMillis = 30_000;
+        int statementCacheSize = 0;
+        LeakListener leakListener;
+
+        public Settings(String url, String user, String password) {
+            this.url = url;
+            this.user = user;
+            this.password = password;
+        }
+
+        public Settings minSize(int minSize) {
+            this.minSize = minSize;
+            return this;
+        }
+
+        public Settings maxSize(int maxSize) {
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        public Settings borrowTimeoutMillis(long borrowTimeoutMillis) {
+            this.borrowTimeoutMillis = borrowTimeoutMillis;
+            return this;
+        }
+
+        public Settings validationTimeoutSeconds(int validationTimeoutSeconds) {
+            this.validationTimeoutSeconds = validationTimeoutSeconds;
+            return this;
+        }
+
+        // 0 disables leak detection
+        public Settings leakThresholdMillis(long leakThresholdMillis) {
+            this.leakThresholdMillis = leakThresholdMillis;
+            return this;
+        }
+
+        // enables capturing where each connection was borrowed, for leak reports
+        public Settings leakListener(LeakListener leakListener) {
+            this.leakListener = leakListener;
+            return this;
+        }
+
+        // 0 disables statement caching
+        public Settings statementCacheSize(int statementCacheSize) {
+            this.statementCacheSize = statementCacheSize;
+            return this;
+        }
+    }
+
+    // a physical connection and its statement cache (null when caching is off)
+    private static final class Pooled {
+        final Connection physical;
+        final StatementCache statements;
+
+        Pooled(Connection physical, StatementCache statements) {
+            this.physical = physical;
+            this.statements = statements;
+        }
+    }
+
+    // one borrow of a physical connection
+    private final class Lease implements InvocationHandler {
+        final Pooled pooled;
+        final Connection physical;
+        final long borrowedAtNanos = System.nanoTime();
+        final Exception borrowedAt; // null unless leaks are reported to a listener
+        final AtomicBoolean returned = new AtomicBoolean(); // set once: only the first close() releases
+        volatile boolean reportedAsLeak;
+
+        Lease(Pooled pooled, boolean traceBorrower) {
+            this.pooled = pooled;
+            this.physical = pooled.physical;
+            this.borrowedAt = traceBorrower ? new Exception("Connection borrowed here") : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) release(this);
+                    return null;
+                case "isClosed":
+                    return returned.get() || physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + physical;
+                default:
+                    if (returned.get()) throw new SQLException("Connection is closed (returned to pool)");
+                    if (pooled.statements != null && method.getName().equals("prepareStatement")
+                            && args.length == 1) {
+                        return pooled.statements.prepare((String) args[0]);
+                    }
+                    try {
+                        return method.invoke(physical, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+    }
+
+    private final Settings settings;
+    private final LinkedBlockingDeque<Pooled> idle = new LinkedBlockingDeque<>();
+    private final Map<Lease, Boolean> active = new ConcurrentHashMap<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private final boolean traceBorrowers;
+    private volatile boolean closed;
+
+    // metrics
+    private final AtomicInteger physicalCount = new AtomicInteger();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0L);
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+    private final AtomicLong statementHits = new AtomicLong();
+    private final AtomicLong statementMisses = new AtomicLong();
+
+    public ConnectionPool(Settings settings) throws SQLException {
+        if (settings.minSize < 0 || settings.maxSize <= 0 || settings.minSize > settings.maxSize) {
+            throw new IllegalArgumentException("Pool size must satisfy 0 <= minSize <= maxSize, maxSize > 0");
+        }
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize, true);
+        this.traceBorrowers = settings.leakThresholdMillis > 0 && settings.leakListener != null;
+
+        for (int i = 0; i < settings.minSize; i++) {
+            idle.add(openPhysical());
+        }
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = settings.leakThresholdMillis > 0 ? Math.max(settings.leakThresholdMillis / 2, 10) : 1_000;
+        housekeeper.scheduleAtFixedRate(this::housekeeping, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(settings.borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulate(waited);
+        if (!acquired) {
+            timeouts.incrementAndGet();
+            throw new SQLException("Timed out after " + settings.borrowTimeoutMillis
+                    + " ms waiting for a connection (max " + settings.maxSize + " active)");
+        }
+
+        try {
+            Pooled pooled = takeValidIdle();
+            if (pooled == null) pooled = openPhysical();
+            Lease lease = new Lease(pooled, traceBorrowers);
+            active.put(lease, Boolean.TRUE);
+            borrows.incrementAndGet();
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, lease);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public PoolMetrics getMetrics() {
+        return new PoolMetrics(active.size(), idle.size(), physicalCount.get(), borrows.get(), timeouts.get(),
+                totalWaitNanos.get(), maxWaitNanos.get(), validationFailures.get(), leaks.get(),
+                statementHits.get(), statementMisses.get());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        Pooled p;
+        while ((p = idle.poll()) != null) {
+            closeQuietly(p);
+        }
+    }
+
+    // validation-on-borrow: broken idle connections are dropped, not handed out
+    private Pooled takeValidIdle() {
+        Pooled p;
+        while ((p = idle.pollFirst()) != null) {
+            try {
+                if (p.physical.isValid(settings.validationTimeoutSeconds)) return p;
+            } catch (SQLException ignored) {
+                // treated as invalid
+            }
+            validationFailures.incrementAndGet();
+            closeQuietly(p);
+        }
+        return null;
+    }
+
+    // runs once per lease, from the close() that flipped lease.returned
+    private void release(Lease lease) {
+        active.remove(lease);
+        if (lease.pooled.statements != null) lease.pooled.statements.releaseAll(); // ones the borrower left open
+        try {
+            Connection c = lease.physical;
+            if (closed || c.isClosed()) {
+                closeQuietly(lease.pooled);
+            } else {
+                if (!c.getAutoCommit()) {
+                    c.rollback(); // never hand out someone else's open transaction
+                    c.setAutoCommit(true);
+                }
+                idle.addFirst(lease.pooled); // most recently used first keeps the hot set small
+            }
+        } catch (SQLException e) {
+            closeQuietly(lease.pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void housekeeping() {
+        if (settings.leakThresholdMillis > 0) reportLeaks();
+
+        // top the pool back up to minSize after broken connections were dropped
+        while (!closed && physicalCount.get() < settings.minSize) {
+            try {
+                idle.addLast(openPhysical());
+            } catch (SQLException e) {
+                return; // database down; try again next tick
+            }
+        }
+    }
+
+    private void reportLeaks() {
+        long now = System.nanoTime();
+        long threshold = TimeUnit.MILLISECONDS.toNanos(settings.leakThresholdMillis);
+        for (Lease lease : active.keySet()) {
+            if (!lease.reportedAsLeak && now - lease.borrowedAtNanos > threshold) {
+                lease.reportedAsLeak = true;
+                leaks.incrementAndGet();
+                if (settings.leakListener != null) {
+                    try {
+                        settings.leakListener.onLeak(TimeUnit.NANOSECONDS.toMillis(now - lease.borrowedAtNanos),
+                                lease.borrowedAt);
+                    } catch (RuntimeException ignored) {
+                        // a broken listener must not stop the housekeeper
+                    }
+                }
+            }
+        }
+    }
+
+    private Pooled openPhysical() throws SQLException {
+        Connection c = DriverManager.getConnection(settings.url, settings.user, settings.password);
+        physicalCount.incrementAndGet();
+        StatementCache statements = settings.statementCacheSize > 0
+                ? new StatementCache(c, settings.statementCacheSize, statementHits, statementMisses)
+                : null;
+        return new Pooled(c, statements);
+    }
+
+    private void closeQuietly(Pooled p) {
+        physicalCount.decrementAndGet();
+        if (p.statements != null) p.statements.closeAll();
+        try {
+            p.physical.close();
+        } catch (SQLException ignored) {
+            // already broken
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package IntegrationTesting;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// borrow timeouts and the leak threshold are a few hundred ms: run alone, not next to busy classes
+@Isolated
+public class ConnectionPoolIntegrationTest {
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        // embedded H2 in MySQL mode, one private database per test
+        String url = "jdbc:h2:mem:pool_" + UUID.randomUUID().toString().substring(0, 8)
+                + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        try {
+            pool = new ConnectionPool(new ConnectionPool.Settings(url, "sa", "")
+                    .minSize(2)
+                    .maxSize(3)
+                    .borrowTimeoutMillis(200)
+                    .leakThresholdMillis(100));
+        } catch (SQLException e) {
+            fail("Could not start pool: " + e.getMessage());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void minSize_isOpenedUpFront_andClosedConnectionsAreReused() throws Exception {
+        assertEquals(2, pool.getMetrics().getTotal());
+        assertEquals(2, pool.getMetrics().getIdle());
+
+        Connection physical;
+        try (Connection conn = pool.getConnection()) {
+            physical = conn.unwrap(Connection.class);
+            try (Statement st = conn.createStatement()) {
+                st.execute("CREATE TABLE customers (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50))");
+            }
+        }
+
+        try (Connection conn = pool.getConnection()) {
+            assertSame(physical, conn.unwrap(Connection.class), "Returned connection should be reused");
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO customers (name) VALUES (?)")) {
+                ps.setString(1, "PoolCustomer");
+                assertEquals(1, ps.executeUpdate());
+            }
+        }
+
+        PoolMetrics m = pool.getMetrics();
+        assertEquals(2, m.getBorrows());
+        assertEquals(2, m.getTotal(), "No new physical connection should have been opened");
+        assertEquals(0, m.getActive());
+    }
+
+    @Test
+    void maxSize_reached_borrowTimesOut_andIsCounted() throws Exception {
+        Connection c1 = pool.getConnection();
+        Connection c2 = pool.getConnection();
+        Connection c3 = pool.getConnection();
+        assertEquals(3, pool.getMetrics().getActive());
+
+        SQLException ex = assertThrows(SQLException.class, () -> pool.getConnection());
+        assertTrue(ex.getMessage().contains("Timed out"));
+
+        PoolMetrics m = pool.getMetrics();
+        assertEquals(1, m.getTimeouts());
+        assertTrue(m.getMaxWaitNanos() >= 150_000_000L, "Wait time should cover the 200 ms timeout");
+
+        c1.close();
+        try (Connection c4 = pool.getConnection()) {
+            assertFalse(c4.isClosed());
+        }
+        c2.close();
+        c3.close();
+    }
+
+    @Test
+    void brokenIdleConnection_isReplacedOnBorrow() throws Exception {
+        Connection conn = pool.getConnection();
+        Connection physical = conn.unwrap(Connection.class);
+        conn.close();
+        physical.close(); // e.g. server dropped it while idle
+
+        try (Connection fresh = pool.getConnection();
+             Statement st = fresh.createStatement();
+             ResultSet rs = st.executeQuery("SELECT 1")) {
+            assertNotSame(physical, fresh.unwrap(Connection.class));
+            assertTrue(rs.next());
+        }
+        assertEquals(1, pool.getMetrics().getValidationFailures());
+    }
+
+    @Test
+    void concurrentCloses_returnTheConnectionOnce() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            Connection conn = pool.getConnection();
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] closers = new Thread[4];
+            for (int i = 0; i < closers.length; i++) {
+                closers[i] = new Thread(() -> {
+                    try {
+                        start.await();
+                        conn.close();
+                    } catch (Exception ignored) {
+                        // the assertions below tell
+                    }
+                });
+                closers[i].start();
+            }
+            start.countDown();
+            for (Thread t : closers) {
+                t.join();
+            }
+            assertEquals(2, pool.getMetrics().getIdle(), "round " + round);
+        }
+
+        Set<Connection> physical = new HashSet<>();
+        List<Connection> borrowed = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Connection conn = pool.getConnection();
+            borrowed.add(conn);
+            assertTrue(physical.add(conn.unwrap(Connection.class)), "two borrowers share one connection");
+        }
+        assertThrows(SQLException.class, pool::getConnection, "no permit may be handed out twice");
+        for (Connection conn : borrowed) {
+            conn.close();
+        }
+    }
+
+    @Test
+    void connectionHeldTooLong_isReportedAsLeak() throws Exception {
+        Connection conn = pool.getConnection();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (pool.getMetrics().getLeaks() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, pool.getMetrics().getLeaks());
+        conn.close();
+    }
+
+    @Test
+    void leakListener_getsBorrowerStackTrace() throws Exception {
+        BlockingQueue<Exception> reported = new LinkedBlockingQueue<>();
+        String url = "jdbc:h2:mem:leak_" + UUID.randomUUID().toString().substring(0, 8) + ";MODE=MySQL";
+        try (ConnectionPool traced = new ConnectionPool(new ConnectionPool.Settings(url, "sa", "")
+                .minSize(1).maxSize(1).leakThresholdMillis(50)
+                .leakListener((heldMillis, borrowedAt) -> reported.add(borrowedAt)))) {
+            Connection conn = traced.getConnection();
+            Exception borrowedAt = reported.poll(5, TimeUnit.SECONDS);
+            conn.close();
+
+            assertNotNull(borrowedAt);
+            assertEquals("leakListener_getsBorrowerStackTrace", findTestFrame(borrowedAt));
+        }
+    }
+
+    @Test
+    void closedProxy_cannotBeUsedAnymore_andUncommittedWorkIsRolledBack() throws Exception {
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE sales (id INT AUTO_INCREMENT PRIMARY KEY, total BIGINT)");
+        }
+
+        Connection conn = pool.getConnection();
+        conn.setAutoCommit(false);
+        try (Statement st = conn.createStatement()) {
+            st.executeUpdate("INSERT INTO sales (total) VALUES (100)");
+        }
+        conn.close(); // forgot to commit
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::createStatement);
+
+        try (Connection check = pool.getConnection();
+             Statement st = check.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM sales")) {
+            assertTrue(check.getAutoCommit());
+            assertTrue(rs.next());
+            assertEquals(0, rs.getInt(1));
+        }
+    }
+
+    // ---------------- helper methods ----------------
+
+    private static String findTestFrame(Exception borrowedAt) {
+        for (StackTraceElement frame : borrowedAt.getStackTrace()) {
+            if (frame.getClassName().equals(ConnectionPoolIntegrationTest.class.getName())) return frame.getMethodName();
+        }
+        return null;
+    }
+}
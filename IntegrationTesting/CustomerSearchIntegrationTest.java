@@ -4,6 +4,7 @@ import dal.DALManager;
 import model.dto.CustomerDTO;
 import model.dto.Response;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.ResourceLock;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,6 +12,10 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+// DALManager opens its own MySQL connection, so this class cannot use EmbeddedPosDatabase;
+// the three mysql classes share that one database, so they never run at the same time
+@Tag("mysql")
+@ResourceLock("mysql")
 public class CustomerSearchIntegrationTest{
 
     private DALManager dalManager;
@@ -0,0 +1,207 @@
+package IntegrationTesting;
+
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JUnit 5 extension that gives a test class an embedded H2 database (MySQL mode) with the pos and
+ * test_pos schemas already created, instead of the shared MySQL server.
+ * Databases are created once and reused: a class leases one for its whole run and hands it back
+ * afterwards, so with classes running in parallel (see junit-platform.properties) there is one
+ * database per worker and no two classes ever share one. Its ConnectionPool and the connection
+ * that restores it live as long as the database, so a test pays for neither.
+ * Isolation between tests:
+ * - a Connection parameter is a transaction on schema pos (test_pos with @TestPos) that is rolled
+ *   back after the test, so tests need no cleanup;
+ * - a ConnectionPool parameter (schema pos) is for code that commits on its own; after the test
+ *   every table is truncated back to the freshly created state. Tests must not close it.
+ */
+public class EmbeddedPosDatabase implements BeforeAllCallback, AfterAllCallback, AfterEachCallback, ParameterResolver {
+
+    // selects schema test_pos for an injected Connection
+    @Target(ElementType.PARAMETER)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface TestPos {
+    }
+
+    static final String[] POS_TABLES = {"users", "customers", "employees", "suppliers", "category", "products"};
+    static final String[] TEST_POS_TABLES = {"products", "categories"};
+
+    private static final String[] SCHEMA = {
+            "CREATE SCHEMA pos",
+            "CREATE TABLE pos.users (username VARCHAR(50) PRIMARY KEY, password VARCHAR(100) NOT NULL, "
+                    + "role VARCHAR(20))",
+            "CREATE TABLE pos.customers (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50) NOT NULL, "
+                    + "phoneNumber VARCHAR(20))",
+            "CREATE TABLE pos.employees (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50) NOT NULL, "
+                    + "phoneNumber VARCHAR(20))",
+            "CREATE TABLE pos.suppliers (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50) NOT NULL, "
+                    + "phoneNumber VARCHAR(20))",
+            "CREATE TABLE pos.category (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50) NOT NULL)",
+            "CREATE TABLE pos.products (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50) NOT NULL, "
+                    + "barcode VARCHAR(20) UNIQUE, price DOUBLE, stock_quantity INT, category_id INT, "
+                    + "quantity_type VARCHAR(20), suppliers_id INT)",
+            "CREATE SCHEMA test_pos",
+            "CREATE TABLE test_pos.categories (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50) NOT NULL)",
+            "CREATE TABLE test_pos.products (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50) NOT NULL, "
+                    + "price DOUBLE, category_id INT NOT NULL REFERENCES test_pos.categories (id))"
+    };
+
+    private static final ConcurrentLinkedQueue<Database> FREE = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger CREATED = new AtomicInteger();
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(EmbeddedPosDatabase.class);
+    private static final String DATABASE = "database";
+    private static final String OPENED = "opened";
+
+    // number of databases created so far (one per worker that ran a test class)
+    public static int getCreatedCount() {
+        return CREATED.get();
+    }
+
+    @Override
+    public void beforeAll(ExtensionContext context) throws SQLException {
+        Database db = FREE.poll();
+        if (db == null) db = new Database(CREATED.incrementAndGet());
+        context.getStore(NAMESPACE).put(DATABASE, db);
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        Database db = context.getStore(NAMESPACE).remove(DATABASE, Database.class);
+        if (db != null) FREE.add(db);
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameter, ExtensionContext context) {
+        Class<?> type = parameter.getParameter().getType();
+        return type == Connection.class || type == ConnectionPool.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameter, ExtensionContext context) {
+        // the store falls back to the class context, where beforeAll put the lease
+        Database db = context.getStore(NAMESPACE).get(DATABASE, Database.class);
+        if (db == null) throw new ParameterResolutionException("EmbeddedPosDatabase: no database leased");
+        boolean pool = parameter.getParameter().getType() == ConnectionPool.class;
+        String schema = parameter.isAnnotated(TestPos.class) ? "TEST_POS" : "POS";
+        // one per test: @BeforeEach and the test method see the same transaction
+        String key = pool ? "pool" : "connection:" + schema;
+        ExtensionContext.Store store = context.getStore(NAMESPACE);
+        Object resolved = store.get(key);
+        if (resolved != null) return resolved;
+        try {
+            if (pool) {
+                resolved = db.pool();
+                opened(context).add(db::restore);
+            } else {
+                Connection conn = DriverManager.getConnection(db.url, "sa", "");
+                conn.setSchema(schema);
+                conn.setAutoCommit(false);
+                opened(context).add(new Rollback(conn));
+                resolved = conn;
+            }
+        } catch (SQLException e) {
+            throw new ParameterResolutionException("EmbeddedPosDatabase: " + e.getMessage(), e);
+        }
+        store.put(key, resolved);
+        return resolved;
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) throws Exception {
+        List<AutoCloseable> opened = opened(context);
+        Exception first = null;
+        for (AutoCloseable resource : opened) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                if (first == null) first = e;
+            }
+        }
+        opened.clear();
+        if (first != null) throw first;
+    }
+
+    // ---------------- helper methods ----------------
+
+    @SuppressWarnings("unchecked")
+    private static List<AutoCloseable> opened(ExtensionContext context) {
+        return context.getStore(NAMESPACE).getOrComputeIfAbsent(OPENED, k -> new ArrayList<AutoCloseable>(), List.class);
+    }
+
+    // transaction isolation: nothing the test wrote survives it
+    private static final class Rollback implements AutoCloseable {
+        private final Connection conn;
+
+        Rollback(Connection conn) {
+            this.conn = conn;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                if (!conn.isClosed()) conn.rollback();
+            } finally {
+                conn.close();
+            }
+        }
+    }
+
+    // one worker's database; used by one test class at a time
+    private static final class Database {
+        private final String url;
+        private final Connection admin; // runs the restore
+        private ConnectionPool pool;
+
+        Database(int n) throws SQLException {
+            url = "jdbc:h2:mem:pos_worker_" + n + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+            admin = DriverManager.getConnection(url, "sa", "");
+            try (Statement st = admin.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    st.execute(ddl);
+                }
+            }
+        }
+
+        ConnectionPool pool() throws SQLException {
+            if (pool == null) {
+                pool = new ConnectionPool(new ConnectionPool.Settings(url + ";SCHEMA=POS", "sa", "")
+                        .minSize(1).maxSize(4));
+            }
+            return pool;
+        }
+
+        // snapshot restore: every table back to empty, identities back to 1
+        void restore() throws SQLException {
+            try (Statement st = admin.createStatement()) {
+                st.execute("SET REFERENTIAL_INTEGRITY FALSE");
+                for (String table : POS_TABLES) {
+                    st.execute("TRUNCATE TABLE pos." + table + " RESTART IDENTITY");
+                }
+                for (String table : TEST_POS_TABLES) {
+                    st.execute("TRUNCATE TABLE test_pos." + table + " RESTART IDENTITY");
+                }
+                st.execute("SET REFERENTIAL_INTEGRITY TRUE");
+            }
+        }
+    }
+}
@@ -4,15 +4,21 @@ import dal.DALManager;
 import model.dto.EmployeeDTO;
 import model.dto.Response;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.ResourceLock;
 
 import java.util.ArrayList;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+// DALManager opens its own MySQL connection, so this class cannot use EmbeddedPosDatabase;
+// the three mysql classes share that one database, so they never run at the same time
+@Tag("mysql")
+@ResourceLock("mysql")
 public class EmployeeCRUDIntegrationTest {
 
     private DALManager dalManager;
+    private CachedReferenceData referenceData;
 
     private EmployeeDTO employee;     // used for update + delete
     private int employeeId;           // synced from DB list
@@ -24,6 +30,7 @@ public class EmployeeCRUDIntegrationTest {
     @BeforeEach
     void setUp() {
         dalManager = new DALManager();
+        referenceData = new CachedReferenceData(dalManager);
 
         String uid = UUID.randomUUID().toString().substring(0, 6);
         uniqueName = "IntEmp_" + uid;
@@ -36,7 +43,7 @@ public class EmployeeCRUDIntegrationTest {
         employee.setPhoneNumber(initialPhone);
 
         Response resInsert = new Response();
-        dalManager.saveEmployee(employee, resInsert);
+        referenceData.saveEmployee(employee, resInsert);
         assertTrue(resInsert.isSuccessfull(), "Employee insert failed: " + resInsert.getErrorMessages());
 
         // 2) SYNC ID (DAL read)
@@ -93,16 +100,9 @@ public class EmployeeCRUDIntegrationTest {
 
     private int syncEmployeeIdByName(String name) {
         Response res = new Response();
-        ArrayList<EmployeeDTO> employees = dalManager.getEmployees(res);
+        EmployeeDTO found = referenceData.getEmployeeByName(name, res);
 
         assertTrue(res.isSuccessfull(), "Get employees failed while syncing ID: " + res.getErrorMessages());
-        assertNotNull(employees);
-
-        EmployeeDTO found = employees.stream()
-                .filter(e -> name.equals(e.getName()))
-                .findFirst()
-                .orElse(null);
-
         assertNotNull(found, "Could not sync inserted employee ID from DB (employee not found by name)");
         return found.getId();
     }
@@ -0,0 +1,86 @@
+package IntegrationTesting;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live counters of one BulkImporter run. Safe to read from another thread while the import runs
+ * (e.g. a progress bar or a log line); the run's final instance is returned by BulkImporter.run.
+ */
+public class ImportProgress {
+
+    private final long startedAt = System.nanoTime();
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsValid = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private final AtomicLong batchesWritten = new AtomicLong();
+    private volatile long finishedAt;
+
+    void read(int rows) {
+        rowsRead.addAndGet(rows);
+    }
+
+    void validated(int valid, int rejected) {
+        rowsValid.addAndGet(valid);
+        rowsRejected.addAndGet(rejected);
+    }
+
+    void written(int rows) {
+        rowsWritten.addAndGet(rows);
+        batchesWritten.incrementAndGet();
+    }
+
+    // rows the database refused: they move from valid to rejected
+    void refused(int rows) {
+        rowsValid.addAndGet(-rows);
+        rowsRejected.addAndGet(rows);
+    }
+
+    void finish() {
+        finishedAt = System.nanoTime();
+    }
+
+    public long getRowsRead() {
+        return rowsRead.get();
+    }
+
+    public long getRowsValid() {
+        return rowsValid.get();
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected.get();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    public long getBatchesWritten() {
+        return batchesWritten.get();
+    }
+
+    public boolean isFinished() {
+        return finishedAt != 0;
+    }
+
+    public long getElapsedMillis() {
+        long end = finishedAt != 0 ? finishedAt : System.nanoTime();
+        return TimeUnit.NANOSECONDS.toMillis(end - startedAt);
+    }
+
+    // rows written to the database per second so far
+    public double getRowsPerSecond() {
+        long end = finishedAt != 0 ? finishedAt : System.nanoTime();
+        double seconds = (end - startedAt) / 1e9;
+        return seconds <= 0 ? 0 : rowsWritten.get() / seconds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("read=%d valid=%d rejected=%d written=%d batches=%d elapsed=%dms rate=%.0f rows/s",
+                getRowsRead(), getRowsValid(), getRowsRejected(), getRowsWritten(), getBatchesWritten(),
+                getElapsedMillis(), getRowsPerSecond());
+    }
+}
@@ -0,0 +1,52 @@
+package IntegrationTesting;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Local stand-in for the sales table, so SaleWriter throughput can be measured without MySQL.
+ * roundTripMicros simulates the cost of one INSERT/commit round-trip per batch.
+ */
+public class InMemorySaleSink implements SaleSink {
+
+    private final long roundTripMicros;
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong sales = new AtomicLong();
+    private final AtomicLong totalCents = new AtomicLong();
+
+    public InMemorySaleSink() {
+        this(0);
+    }
+
+    public InMemorySaleSink(long roundTripMicros) {
+        this.roundTripMicros = roundTripMicros;
+    }
+
+    @Override
+    public void writeBatch(List<SaleRecord> batch) {
+        if (roundTripMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        }
+        long sum = 0;
+        for (SaleRecord sale : batch) {
+            sum += sale.getTotalCents();
+        }
+        totalCents.addAndGet(sum);
+        sales.addAndGet(batch.size());
+        batches.incrementAndGet();
+    }
+
+    public long getBatchCount() {
+        return batches.get();
+    }
+
+    public long getSaleCount() {
+        return sales.get();
+    }
+
+    public long getTotalCents() {
+        return totalCents.get();
+    }
+}
@@ -0,0 +1,221 @@
+package IntegrationTesting;
+
+import dal.DALManager;
+import model.dto.CustomerDTO;
+import model.dto.Message;
+import model.dto.MessageType;
+import model.dto.ProductDTO;
+import model.dto.Response;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Name search for the till, answered from in-memory NameSearchIndexes instead of
+ * LIKE '%term%' scans in DALManager.searchCustomersByName / searchProductsByName.
+ * Writes still go to DALManager; the indexes are only updated when the DAL call succeeded.
+ * rebuild() loads fresh indexes and swaps them in, so rows deleted behind the manager's back drop
+ * out; searches keep using the old ones meanwhile, and index updates wait for the swap.
+ * Returned DTOs are the indexed instances and should be treated as read-only.
+ * Given a pool, inserts use KeyedObjectAdder so the new id comes back with the insert.
+ */
+public class IndexedDALManager {
+
+    public static final int DEFAULT_LIMIT = 50;
+
+    private final DALManager dal;
+    private final ConnectionPool pool; // null: inserts go through DALManager
+    private final KeyedObjectAdder adder = new KeyedObjectAdder();
+    private final PagedObjectReader reader = new PagedObjectReader();
+    private final Object indexLock = new Object(); // rebuild vs. index updates
+    private volatile Indexes indexes = new Indexes();
+
+    // both tables' search indexes and rows; replaced as a whole by rebuild()
+    private static final class Indexes {
+        final NameSearchIndex customerIndex = new NameSearchIndex();
+        final NameSearchIndex productIndex = new NameSearchIndex();
+        final Map<Integer, CustomerDTO> customersById = new ConcurrentHashMap<>();
+        final Map<Integer, ProductDTO> productsById = new ConcurrentHashMap<>();
+
+        void put(CustomerDTO c) {
+            customersById.put(c.getId(), c);
+            customerIndex.put(c.getId(), c.getName());
+        }
+
+        void put(ProductDTO p) {
+            productsById.put(p.getProductId(), p);
+            productIndex.put(p.getProductId(), p.getProductName());
+        }
+    }
+
+    public IndexedDALManager(DALManager dal) {
+        this(dal, null);
+    }
+
+    public IndexedDALManager(DALManager dal, ConnectionPool pool) {
+        this.dal = dal;
+        this.pool = pool;
+    }
+
+    // (re)loads both indexes from the database; on failure the current ones stay in use
+    public void rebuild(Response res) {
+        Indexes fresh = new Indexes();
+        synchronized (indexLock) {
+            if (pool != null) {
+                // stream rows straight into the indexes instead of holding both tables as lists
+                try (Connection conn = pool.getConnection()) {
+                    reader.forEach(conn, PagedObjectReader.CUSTOMERS, fresh::put, res);
+                    reader.forEach(conn, PagedObjectReader.PRODUCTS, fresh::put, res);
+                } catch (SQLException e) {
+                    res.messagesList.add(new Message("Index rebuild failed: " + e.getMessage(),
+                            MessageType.Error));
+                }
+            } else {
+                ArrayList<CustomerDTO> customers = dal.getCustomers(res);
+                ArrayList<ProductDTO> products = dal.getProducts(res);
+                if (res.isSuccessfull()) {
+                    for (CustomerDTO c : customers) {
+                        fresh.put(c);
+                    }
+                    for (ProductDTO p : products) {
+                        fresh.put(p);
+                    }
+                }
+            }
+            if (res.isSuccessfull()) indexes = fresh;
+        }
+    }
+
+    // ---------------- search ----------------
+
+    public ArrayList<CustomerDTO> searchCustomersByName(String term, Response res) {
+        return searchCustomersByName(term, DEFAULT_LIMIT, res);
+    }
+
+    public ArrayList<CustomerDTO> searchCustomersByName(String term, int limit, Response res) {
+        Indexes current = indexes;
+        ArrayList<CustomerDTO> results = new ArrayList<>();
+        for (int id : current.customerIndex.search(term, limit)) {
+            CustomerDTO c = current.customersById.get(id);
+            if (c != null) results.add(c);
+        }
+        return results;
+    }
+
+    public ArrayList<ProductDTO> searchProductsByName(String term, Response res) {
+        return searchProductsByName(term, DEFAULT_LIMIT, res);
+    }
+
+    public ArrayList<ProductDTO> searchProductsByName(String term, int limit, Response res) {
+        Indexes current = indexes;
+        ArrayList<ProductDTO> results = new ArrayList<>();
+        for (int id : current.productIndex.search(term, limit)) {
+            ProductDTO p = current.productsById.get(id);
+            if (p != null) results.add(p);
+        }
+        return results;
+    }
+
+    // ---------------- customers ----------------
+
+    public void saveCustomer(CustomerDTO c, Response res) {
+        if (pool != null) {
+            try (Connection conn = pool.getConnection()) {
+                adder.addCustomer(c, conn, res);
+            } catch (SQLException e) {
+                res.messagesList.add(new Message("Customer could not be added: " + e.getMessage(), MessageType.Error));
+            }
+        } else {
+            dal.saveCustomer(c, res);
+        }
+        if (!res.isSuccessfull()) return;
+        if (c.getId() <= 0) c.setId(findNewCustomerId(c.getName()));
+        if (c.getId() > 0) indexCustomer(c);
+    }
+
+    public void updateCustomer(CustomerDTO c, Response res) {
+        dal.updateCustomer(c, res);
+        if (res.isSuccessfull()) indexCustomer(c);
+    }
+
+    public void deleteCustomer(CustomerDTO c, Response res) {
+        dal.deleteCustomer(c, res);
+        if (res.isSuccessfull()) {
+            synchronized (indexLock) {
+                indexes.customerIndex.remove(c.getId());
+                indexes.customersById.remove(c.getId());
+            }
+        }
+    }
+
+    // ---------------- products ----------------
+
+    public void addProduct(ProductDTO p, Response res) {
+        if (pool != null) {
+            try (Connection conn = pool.getConnection()) {
+                adder.addProduct(p, conn, res);
+            } catch (SQLException e) {
+                res.messagesList.add(new Message("Product could not be added: " + e.getMessage(), MessageType.Error));
+            }
+        } else {
+            dal.addProduct(p, res);
+        }
+        if (!res.isSuccessfull()) return;
+        if (p.getProductId() <= 0) p.setProductId(findNewProductId(p.getProductName()));
+        if (p.getProductId() > 0) indexProduct(p);
+    }
+
+    public void updateProduct(ProductDTO p, Response res) {
+        dal.updateProduct(p, res);
+        if (res.isSuccessfull()) indexProduct(p);
+    }
+
+    public void deleteProduct(ProductDTO p, Response res) {
+        dal.deleteProduct(p, res);
+        if (res.isSuccessfull()) {
+            synchronized (indexLock) {
+                indexes.productIndex.remove(p.getProductId());
+                indexes.productsById.remove(p.getProductId());
+            }
+        }
+    }
+
+    // ---------------- helper methods ----------------
+
+    // waits for a running rebuild, so the update lands in the indexes it swaps in
+    private void indexCustomer(CustomerDTO c) {
+        synchronized (indexLock) {
+            indexes.put(c);
+        }
+    }
+
+    private void indexProduct(ProductDTO p) {
+        synchronized (indexLock) {
+            indexes.put(p);
+        }
+    }
+
+    // DALManager's insert does not report the new id: take the newest row with that exact name not indexed yet
+    private int findNewCustomerId(String name) {
+        int newest = 0;
+        for (CustomerDTO db : dal.searchCustomersByName(name, new Response())) {
+            if (name != null && name.equals(db.getName()) && !indexes.customersById.containsKey(db.getId())) {
+                newest = Math.max(newest, db.getId());
+            }
+        }
+        return newest;
+    }
+
+    private int findNewProductId(String name) {
+        int newest = 0;
+        for (ProductDTO db : dal.searchProductsByName(name, new Response())) {
+            if (name != null && name.equals(db.getProductName()) && !indexes.productsById.containsKey(db.getProductId())) {
+                newest = Math.max(newest, db.getProductId());
+            }
+        }
+        return newest;
+    }
+}
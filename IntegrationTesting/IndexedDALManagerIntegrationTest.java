@@ -0,0 +1,87 @@
+package IntegrationTesting;
+
+import dal.DALManager;
+import model.dto.CustomerDTO;
+import model.dto.Message;
+import model.dto.MessageType;
+import model.dto.ProductDTO;
+import model.dto.Response;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexedDALManagerIntegrationTest {
+
+    @Test
+    void rebuild_dropsRowsDeletedSinceTheLastRebuild() {
+        TableDAL db = new TableDAL();
+        db.customers.add(new CustomerDTO(1, "Ester Shumeli", "0691112223"));
+        db.customers.add(new CustomerDTO(2, "Esmeralda Hoxha", "0691112224"));
+        db.products.add(product(7, "Espresso Beans"));
+        IndexedDALManager indexed = new IndexedDALManager(db);
+        Response res = new Response();
+        indexed.rebuild(res);
+        assertEquals(List.of(1, 2), customerIds(indexed.searchCustomersByName("es", res)));
+
+        db.customers.remove(0); // deleted by another till
+        db.products.clear();
+        indexed.rebuild(res);
+
+        assertTrue(res.isSuccessfull(), res.getErrorMessages());
+        assertEquals(List.of(2), customerIds(indexed.searchCustomersByName("es", res)));
+        assertTrue(indexed.searchProductsByName("espresso", res).isEmpty());
+    }
+
+    @Test
+    void failedRebuild_keepsTheCurrentIndexes() {
+        TableDAL db = new TableDAL();
+        db.customers.add(new CustomerDTO(1, "Ester Shumeli", "0691112223"));
+        IndexedDALManager indexed = new IndexedDALManager(db);
+        indexed.rebuild(new Response());
+
+        db.failing = true;
+        Response res = new Response();
+        indexed.rebuild(res);
+
+        assertFalse(res.isSuccessfull());
+        assertEquals(List.of(1), customerIds(indexed.searchCustomersByName("ester", new Response())));
+    }
+
+    // ---------------- helper methods ----------------
+
+    // a DAL whose tables are plain lists
+    private static final class TableDAL extends DALManager {
+        final List<CustomerDTO> customers = new ArrayList<>();
+        final List<ProductDTO> products = new ArrayList<>();
+        boolean failing;
+
+        @Override
+        public ArrayList<CustomerDTO> getCustomers(Response res) {
+            if (failing) res.messagesList.add(new Message("Connection refused", MessageType.Error));
+            return new ArrayList<>(customers);
+        }
+
+        @Override
+        public ArrayList<ProductDTO> getProducts(Response res) {
+            return new ArrayList<>(products);
+        }
+    }
+
+    private static ProductDTO product(int id, String name) {
+        ProductDTO p = new ProductDTO();
+        p.setProductId(id);
+        p.setProductName(name);
+        return p;
+    }
+
+    private static List<Integer> customerIds(List<CustomerDTO> customers) {
+        List<Integer> ids = new ArrayList<>();
+        for (CustomerDTO c : customers) {
+            ids.add(c.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,441 @@
+package IntegrationTesting;
+
+import dal.DALManager;
+import model.dto.CategoryDTO;
+import model.dto.CustomerDTO;
+import model.dto.EmployeeDTO;
+import model.dto.MessageType;
+import model.dto.ProductDTO;
+import model.dto.Response;
+import model.dto.SupplierDTO;
+import model.dto.UserDTO;
+
+import java.util.ArrayList;
+
+/**
+ * DALManager that times every operation of another DALManager into a MetricsRegistry, one timer
+ * per method ("dal.saveCustomer", "dal.getProducts", ...). A call counts as an error when it adds
+ * an Error message to the Response (the DAL reports SQL failures that way) or throws.
+ * Drop-in wherever a DALManager is passed (IndexedDALManager, CachedReferenceData, tests).
+ */
+public class InstrumentedDALManager extends DALManager {
+
+    private final DALManager dal;
+
+    private final MetricsRegistry.Timer verifyUser;
+    private final MetricsRegistry.Timer getUsers;
+    private final MetricsRegistry.Timer getProducts;
+    private final MetricsRegistry.Timer addProduct;
+    private final MetricsRegistry.Timer updateProduct;
+    private final MetricsRegistry.Timer deleteProduct;
+    private final MetricsRegistry.Timer getProductById;
+    private final MetricsRegistry.Timer searchProductsByName;
+    private final MetricsRegistry.Timer saveCustomer;
+    private final MetricsRegistry.Timer updateCustomer;
+    private final MetricsRegistry.Timer deleteCustomer;
+    private final MetricsRegistry.Timer getCustomers;
+    private final MetricsRegistry.Timer searchCustomersByName;
+    private final MetricsRegistry.Timer saveSupplier;
+    private final MetricsRegistry.Timer updateSupplier;
+    private final MetricsRegistry.Timer deleteSupplier;
+    private final MetricsRegistry.Timer getSuppliers;
+    private final MetricsRegistry.Timer saveCategory;
+    private final MetricsRegistry.Timer updateCategory;
+    private final MetricsRegistry.Timer deleteCategory;
+    private final MetricsRegistry.Timer getCategories;
+    private final MetricsRegistry.Timer searchCategoryByName;
+    private final MetricsRegistry.Timer saveEmployee;
+    private final MetricsRegistry.Timer updateEmployee;
+    private final MetricsRegistry.Timer deleteEmployee;
+    private final MetricsRegistry.Timer getEmployees;
+
+    public InstrumentedDALManager(DALManager dal, MetricsRegistry metrics) {
+        this.dal = dal;
+        verifyUser = metrics.timer("dal.verifyUser");
+        getUsers = metrics.timer("dal.getUsers");
+        getProducts = metrics.timer("dal.getProducts");
+        addProduct = metrics.timer("dal.addProduct");
+        updateProduct = metrics.timer("dal.updateProduct");
+        deleteProduct = metrics.timer("dal.deleteProduct");
+        getProductById = metrics.timer("dal.getProductById");
+        searchProductsByName = metrics.timer("dal.searchProductsByName");
+        saveCustomer = metrics.timer("dal.saveCustomer");
+        updateCustomer = metrics.timer("dal.updateCustomer");
+        deleteCustomer = metrics.timer("dal.deleteCustomer");
+        getCustomers = metrics.timer("dal.getCustomers");
+        searchCustomersByName = metrics.timer("dal.searchCustomersByName");
+        saveSupplier = metrics.timer("dal.saveSupplier");
+        updateSupplier = metrics.timer("dal.updateSupplier");
+        deleteSupplier = metrics.timer("dal.deleteSupplier");
+        getSuppliers = metrics.timer("dal.getSuppliers");
+        saveCategory = metrics.timer("dal.saveCategory");
+        updateCategory = metrics.timer("dal.updateCategory");
+        deleteCategory = metrics.timer("dal.deleteCategory");
+        getCategories = metrics.timer("dal.getCategories");
+        searchCategoryByName = metrics.timer("dal.searchCategoryByName");
+        saveEmployee = metrics.timer("dal.saveEmployee");
+        updateEmployee = metrics.timer("dal.updateEmployee");
+        deleteEmployee = metrics.timer("dal.deleteEmployee");
+        getEmployees = metrics.timer("dal.getEmployees");
+    }
+
+    @Override
+    public void verifyUser(UserDTO user, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            dal.verifyUser(user, res);
+            done = true;
+        } finally {
+            stop(verifyUser, start, res, before, done);
+        }
+    }
+
+    @Override
+    public ArrayList<UserDTO> getUsers(Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            ArrayList<UserDTO> rows = dal.getUsers(res);
+            done = true;
+            return rows;
+        } finally {
+            stop(getUsers, start, res, before, done);
+        }
+    }
+
+    @Override
+    public ArrayList<ProductDTO> getProducts(Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            ArrayList<ProductDTO> rows = dal.getProducts(res);
+            done = true;
+            return rows;
+        } finally {
+            stop(getProducts, start, res, before, done);
+        }
+    }
+
+    @Override
+    public void addProduct(ProductDTO product, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            dal.addProduct(product, res);
+            done = true;
+        } finally {
+            stop(addProduct, start, res, before, done);
+        }
+    }
+
+    @Override
+    public void updateProduct(ProductDTO product, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            dal.updateProduct(product, res);
+            done = true;
+        } finally {
+            stop(updateProduct, start, res, before, done);
+        }
+    }
+
+    @Override
+    public void deleteProduct(ProductDTO product, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            dal.deleteProduct(product, res);
+            done = true;
+        } finally {
+            stop(deleteProduct, start, res, before, done);
+        }
+    }
+
+    @Override
+    public ProductDTO getProductById(int id, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            ProductDTO row = dal.getProductById(id, res);
+            done = true;
+            return row;
+        } finally {
+            stop(getProductById, start, res, before, done);
+        }
+    }
+
+    @Override
+    public ArrayList<ProductDTO> searchProductsByName(String name, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            ArrayList<ProductDTO> rows = dal.searchProductsByName(name, res);
+            done = true;
+            return rows;
+        } finally {
+            stop(searchProductsByName, start, res, before, done);
+        }
+    }
+
+    @Override
+    public void saveCustomer(CustomerDTO customer, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            dal.saveCustomer(customer, res);
+            done = true;
+        } finally {
+            stop(saveCustomer, start, res, before, done);
+        }
+    }
+
+    @Override
+    public void updateCustomer(CustomerDTO customer, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            dal.updateCustomer(customer, res);
+            done = true;
+        } finally {
+            stop(updateCustomer, start, res, before, done);
+        }
+    }
+
+    @Override
+    public void deleteCustomer(CustomerDTO customer, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            dal.deleteCustomer(customer, res);
+            done = true;
+        } finally {
+            stop(deleteCustomer, start, res, before, done);
+        }
+    }
+
+    @Override
+    public ArrayList<CustomerDTO> getCustomers(Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            ArrayList<CustomerDTO> rows = dal.getCustomers(res);
+            done = true;
+            return rows;
+        } finally {
+            stop(getCustomers, start, res, before, done);
+        }
+    }
+
+    @Override
+    public ArrayList<CustomerDTO> searchCustomersByName(String name, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            ArrayList<CustomerDTO> rows = dal.searchCustomersByName(name, res);
+            done = true;
+            return rows;
+        } finally {
+            stop(searchCustomersByName, start, res, before, done);
+        }
+    }
+
+    @Override
+    public void saveSupplier(SupplierDTO supplier, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            dal.saveSupplier(supplier, res);
+            done = true;
+        } finally {
+            stop(saveSupplier, start, res, before, done);
+        }
+    }
+
+    @Override
+    public void updateSupplier(SupplierDTO supplier, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            dal.updateSupplier(supplier, res);
+            done = true;
+        } finally {
+            stop(updateSupplier, start, res, before, done);
+        }
+    }
+
+    @Override
+    public void deleteSupplier(SupplierDTO supplier, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            dal.deleteSupplier(supplier, res);
+            done = true;
+        } finally {
+            stop(deleteSupplier, start, res, before, done);
+        }
+    }
+
+    @Override
+    public ArrayList<SupplierDTO> getSuppliers(Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            ArrayList<SupplierDTO> rows = dal.getSuppliers(res);
+            done = true;
+            return rows;
+        } finally {
+            stop(getSuppliers, start, res, before, done);
+        }
+    }
+
+    @Override
+    public void saveCategory(CategoryDTO category, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            dal.saveCategory(category, res);
+            done = true;
+        } finally {
+            stop(saveCategory, start, res, before, done);
+        }
+    }
+
+    @Override
+    public void updateCategory(CategoryDTO category, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            dal.updateCategory(category, res);
+            done = true;
+        } finally {
+            stop(updateCategory, start, res, before, done);
+        }
+    }
+
+    @Override
+    public void deleteCategory(CategoryDTO category, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            dal.deleteCategory(category, res);
+            done = true;
+        } finally {
+            stop(deleteCategory, start, res, before, done);
+        }
+    }
+
+    @Override
+    public ArrayList<CategoryDTO> getCategories(Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            ArrayList<CategoryDTO> rows = dal.getCategories(res);
+            done = true;
+            return rows;
+        } finally {
+            stop(getCategories, start, res, before, done);
+        }
+    }
+
+    @Override
+    public ArrayList<CategoryDTO> searchCategoryByName(String name, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            ArrayList<CategoryDTO> rows = dal.searchCategoryByName(name, res);
+            done = true;
+            return rows;
+        } finally {
+            stop(searchCategoryByName, start, res, before, done);
+        }
+    }
+
+    @Override
+    public void saveEmployee(EmployeeDTO employee, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            dal.saveEmployee(employee, res);
+            done = true;
+        } finally {
+            stop(saveEmployee, start, res, before, done);
+        }
+    }
+
+    @Override
+    public void updateEmployee(EmployeeDTO employee, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            dal.updateEmployee(employee, res);
+            done = true;
+        } finally {
+            stop(updateEmployee, start, res, before, done);
+        }
+    }
+
+    @Override
+    public void deleteEmployee(EmployeeDTO employee, Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            dal.deleteEmployee(employee, res);
+            done = true;
+        } finally {
+            stop(deleteEmployee, start, res, before, done);
+        }
+    }
+
+    @Override
+    public ArrayList<EmployeeDTO> getEmployees(Response res) {
+        long start = System.nanoTime();
+        int before = res.messagesList.size();
+        boolean done = false;
+        try {
+            ArrayList<EmployeeDTO> rows = dal.getEmployees(res);
+            done = true;
+            return rows;
+        } finally {
+            stop(getEmployees, start, res, before, done);
+        }
+    }
+
+    // ---------------- helper methods ----------------
+
+    // only messages added by this call decide success; done is false if the call threw
+    private static void stop(MetricsRegistry.Timer timer, long start, Response res, int before, boolean done) {
+        long nanos = System.nanoTime() - start;
+        boolean failed = !done;
+        for (int i = before; i < res.messagesList.size() && !failed; i++) {
+            failed = res.messagesList.get(i).type == MessageType.Error;
+        }
+        timer.record(nanos, failed);
+    }
+}
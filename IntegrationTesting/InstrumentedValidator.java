@@ -0,0 +1,39 @@
+package IntegrationTesting;
+
+import model.dto.MessageType;
+import model.dto.Response;
+
+/**
+ * ValidationPlan.validate with one MetricsRegistry timer per DTO class ("validate.CustomerDTO",
+ * "validate.UserDTO", ...). An object that fails validation counts as an error, so the error
+ * rate is the share of invalid objects.
+ */
+public class InstrumentedValidator {
+
+    private final MetricsRegistry metrics;
+    private final MetricsRegistry.Timer nullTimer;
+    private final ClassValue<MetricsRegistry.Timer> timers = new ClassValue<MetricsRegistry.Timer>() {
+        @Override
+        protected MetricsRegistry.Timer computeValue(Class<?> type) {
+            return metrics.timer("validate." + type.getSimpleName());
+        }
+    };
+
+    public InstrumentedValidator(MetricsRegistry metrics) {
+        this.metrics = metrics;
+        this.nullTimer = metrics.timer("validate.null");
+    }
+
+    public void validate(Object dto, Response res) {
+        MetricsRegistry.Timer timer = dto == null ? nullTimer : timers.get(dto.getClass());
+        int before = res.messagesList.size();
+        long start = System.nanoTime();
+        ValidationPlan.validate(dto, res);
+        long nanos = System.nanoTime() - start;
+        boolean failed = false;
+        for (int i = before; i < res.messagesList.size() && !failed; i++) {
+            failed = res.messagesList.get(i).type == MessageType.Error;
+        }
+        timer.record(nanos, failed);
+    }
+}
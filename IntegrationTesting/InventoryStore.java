@@ -0,0 +1,205 @@
+package IntegrationTesting;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe stock store shared by all tills, on top of the ProductCatalog stock column.
+ * Every product maps to one of 64 lock stripes; a basket locks the stripes it touches
+ * in ascending stripe order, so two baskets can never wait on each other in a cycle.
+ */
+public class InventoryStore {
+
+    static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final ProductCatalog catalog;
+
+    public InventoryStore(ProductCatalog catalog) {
+        this.catalog = catalog;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    public ProductCatalog getCatalog() {
+        return catalog;
+    }
+
+    // seeding may grow the catalog arrays, so it holds every stripe
+    public void seed(int productId, long priceCents, int stock) {
+        seed(productId, priceCents, stock, 0);
+    }
+
+    public void seed(int productId, long priceCents, int stock, int categoryId) {
+        lockStripes(-1L);
+        try {
+            catalog.put(productId, priceCents, stock, categoryId);
+        } finally {
+            unlockStripes(-1L);
+        }
+    }
+
+    public int getStock(int productId) {
+        ReentrantLock lock = locks[stripe(productId)];
+        lock.lock();
+        try {
+            return catalog.getStock(productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // check and take under the product's stripe: two tills can never both get the last unit
+    public boolean tryDecrease(int productId, int qty) {
+        if (qty <= 0) throw new IllegalArgumentException("Quantity must be > 0");
+        ReentrantLock lock = locks[stripe(productId)];
+        lock.lock();
+        try {
+            int slot = catalog.slotOf(productId);
+            if (slot < 0 || catalog.stockAt(slot) < qty) return false;
+            catalog.setStockAt(slot, catalog.stockAt(slot) - qty);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void decrease(int productId, int qty) {
+        ReentrantLock lock = locks[stripe(productId)];
+        lock.lock();
+        try {
+            int slot = catalog.slotOf(productId);
+            if (slot >= 0) catalog.setStockAt(slot, catalog.stockAt(slot) - qty);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // puts back units taken earlier (a voided or expired reservation)
+    public void increase(int productId, int qty) {
+        if (qty <= 0) throw new IllegalArgumentException("Quantity must be > 0");
+        ReentrantLock lock = locks[stripe(productId)];
+        lock.lock();
+        try {
+            int slot = catalog.slotOf(productId);
+            if (slot >= 0) catalog.setStockAt(slot, catalog.stockAt(slot) + qty);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves every line of a basket or none of them.
+     * Returns -1 on success, otherwise the index of the first line that could not be covered
+     * (stock is left untouched in that case).
+     * Throws IllegalArgumentException, before touching any stock, when a quantity is <= 0.
+     */
+    public int reserveAll(int[] productIds, int[] qtys) {
+        if (productIds.length != qtys.length) {
+            throw new IllegalArgumentException("productIds and qtys must have the same length");
+        }
+        for (int qty : qtys) {
+            if (qty <= 0) throw new IllegalArgumentException("Quantity must be > 0");
+        }
+        long mask = stripeMask(productIds);
+        lockStripes(mask);
+        try {
+            for (int i = 0; i < productIds.length; i++) {
+                int slot = catalog.slotOf(productIds[i]);
+                if (slot < 0 || catalog.stockAt(slot) < qtys[i]) {
+                    // undo the lines already taken (a product may appear more than once)
+                    for (int j = i - 1; j >= 0; j--) {
+                        int s = catalog.slotOf(productIds[j]);
+                        catalog.setStockAt(s, catalog.stockAt(s) + qtys[j]);
+                    }
+                    return i;
+                }
+                catalog.setStockAt(slot, catalog.stockAt(slot) - qtys[i]);
+            }
+            return -1;
+        } finally {
+            unlockStripes(mask);
+        }
+    }
+
+    /**
+     * Single pass over a primitive basket: validates quantities, prices each line from the
+     * catalog and takes the stock, all under the basket's stripes.
+     * Returns the total in cents, or -(i + 1) when line i failed (bad quantity or not enough
+     * stock); nothing is taken in that case.
+     * The total is computed before any stock is taken, so an overflowing basket
+     * (ArithmeticException) leaves stock untouched too.
+     */
+    public long reserveAndPrice(int[] productIds, int[] qtys) {
+        return reserveAndPrice(productIds, qtys, null, null);
+    }
+
+    // same, also filling unitPriceCents[i] / categoryIds[i] of every line when they are non-null
+    public long reserveAndPrice(int[] productIds, int[] qtys, long[] unitPriceCents, int[] categoryIds) {
+        long mask = stripeMask(productIds);
+        lockStripes(mask);
+        try {
+            // validate and price first: nothing below may fail halfway except a stock shortage
+            long totalCents = price(productIds, qtys, unitPriceCents, categoryIds);
+            if (totalCents < 0) return totalCents;
+            for (int i = 0; i < productIds.length; i++) {
+                int slot = catalog.slotOf(productIds[i]);
+                if (catalog.stockAt(slot) < qtys[i]) {
+                    // undo the lines already taken (a product may appear more than once)
+                    for (int j = i - 1; j >= 0; j--) {
+                        int s = catalog.slotOf(productIds[j]);
+                        catalog.setStockAt(s, catalog.stockAt(s) + qtys[j]);
+                    }
+                    return -(i + 1L);
+                }
+                catalog.setStockAt(slot, catalog.stockAt(slot) - qtys[i]);
+            }
+            return totalCents;
+        } finally {
+            unlockStripes(mask);
+        }
+    }
+
+    /**
+     * Prices a basket whose stock is already held (see StockReservations), without taking any.
+     * Returns the total in cents, or -(i + 1) when line i has a bad quantity or is not in the catalog.
+     */
+    public long price(int[] productIds, int[] qtys, long[] unitPriceCents, int[] categoryIds) {
+        long totalCents = 0L;
+        for (int i = 0; i < productIds.length; i++) {
+            int slot = catalog.slotOf(productIds[i]);
+            if (qtys[i] <= 0 || slot < 0) return -(i + 1L);
+            long price = catalog.priceCentsAt(slot);
+            if (unitPriceCents != null) unitPriceCents[i] = price;
+            if (categoryIds != null) categoryIds[i] = catalog.categoryIdAt(slot);
+            totalCents = Math.addExact(totalCents, Math.multiplyExact(price, (long) qtys[i]));
+        }
+        return totalCents;
+    }
+
+    static int stripe(int productId) {
+        int h = productId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    private static long stripeMask(int[] productIds) {
+        long mask = 0L;
+        for (int productId : productIds) {
+            mask |= 1L << stripe(productId);
+        }
+        return mask;
+    }
+
+    // ascending stripe order = global lock order
+    private void lockStripes(long mask) {
+        for (long m = mask; m != 0; m &= m - 1) {
+            locks[Long.numberOfTrailingZeros(m)].lock();
+        }
+    }
+
+    private void unlockStripes(long mask) {
+        for (long m = mask; m != 0; m &= m - 1) {
+            locks[Long.numberOfTrailingZeros(m)].unlock();
+        }
+    }
+}
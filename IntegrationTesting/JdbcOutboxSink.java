@@ -0,0 +1,71 @@
+package IntegrationTesting;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+// Writes each batch as one JDBC batch per table + one commit.
+public class JdbcOutboxSink implements OutboxSink {
+
+    static final String UPDATE_CUSTOMER = "UPDATE customers SET name = ?, phoneNumber = ? WHERE id = ?";
+    static final String UPDATE_EMPLOYEE = "UPDATE employees SET name = ?, phoneNumber = ? WHERE id = ?";
+    static final String UPDATE_STOCK = "UPDATE products SET stock_quantity = ? WHERE id = ?";
+
+    private final Connection conn;
+
+    public JdbcOutboxSink(Connection conn) throws SQLException {
+        this.conn = conn;
+        conn.setAutoCommit(false);
+    }
+
+    @Override
+    public void writeBatch(List<OutboxMutation> batch) throws SQLException {
+        // only tables the batch touches are prepared, so a store without one of them still works
+        PreparedStatement customers = null;
+        PreparedStatement employees = null;
+        PreparedStatement stock = null;
+        try {
+            for (OutboxMutation m : batch) {
+                switch (m.getKind()) {
+                    case CUSTOMER:
+                        if (customers == null) customers = conn.prepareStatement(UPDATE_CUSTOMER);
+                        addPerson(customers, m);
+                        break;
+                    case EMPLOYEE:
+                        if (employees == null) employees = conn.prepareStatement(UPDATE_EMPLOYEE);
+                        addPerson(employees, m);
+                        break;
+                    case STOCK:
+                        if (stock == null) stock = conn.prepareStatement(UPDATE_STOCK);
+                        stock.setInt(1, m.getStock());
+                        stock.setInt(2, m.getId());
+                        stock.addBatch();
+                        break;
+                }
+            }
+            if (customers != null) customers.executeBatch();
+            if (employees != null) employees.executeBatch();
+            if (stock != null) stock.executeBatch();
+            conn.commit();
+        } catch (SQLException ex) {
+            conn.rollback();
+            throw ex;
+        } finally {
+            close(customers);
+            close(employees);
+            close(stock);
+        }
+    }
+
+    private static void close(PreparedStatement ps) throws SQLException {
+        if (ps != null) ps.close();
+    }
+
+    private static void addPerson(PreparedStatement ps, OutboxMutation m) throws SQLException {
+        ps.setString(1, m.getName());
+        ps.setString(2, m.getPhoneNumber());
+        ps.setInt(3, m.getId());
+        ps.addBatch();
+    }
+}
@@ -0,0 +1,36 @@
+package IntegrationTesting;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+// Writes each batch as one JDBC batch + one commit.
+public class JdbcSaleSink implements SaleSink {
+
+    static final String INSERT_SALE = "INSERT INTO sales (total, created_at) VALUES (?, ?)";
+
+    private final Connection conn;
+
+    public JdbcSaleSink(Connection conn) throws SQLException {
+        this.conn = conn;
+        conn.setAutoCommit(false);
+    }
+
+    @Override
+    public void writeBatch(List<SaleRecord> batch) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SALE)) {
+            for (SaleRecord sale : batch) {
+                ps.setLong(1, sale.getTotalCents());
+                ps.setTimestamp(2, new Timestamp(sale.getCreatedAtMillis()));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            conn.commit();
+        } catch (SQLException ex) {
+            conn.rollback();
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package IntegrationTesting;
+
+import model.dto.Message;
+import model.dto.MessageType;
+import model.dto.Response;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stock reservations on products.stock_quantity that cannot oversell.
+ * The DAL's read-modify-write (read stock, compute stock - qty in Java, write it back) lets two
+ * tills both sell the last unit. Here the check and the decrement are one statement:
+ *   UPDATE products SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?
+ * and a row count of 0 means "not enough stock".
+ *
+ * versioned(...) uses a version column instead (optimistic locking: read stock and version,
+ * write back only if the version is unchanged), for schemas where other writers already bump a
+ * version. A lost race there, and a transient lock error in either mode, is retried by the
+ * RetryPolicy; when it runs out, the call fails with an error in res.
+ *
+ * Results follow InventoryStore.reserveAll: -1 when every line was reserved, otherwise the index
+ * of the line that failed, with nothing reserved. A failure that is not a stock shortage (SQL
+ * error, retries exhausted) also adds an error to res.
+ * The lines of a basket are reserved in product id order, so two baskets always lock their rows
+ * in the same order and cannot deadlock each other.
+ */
+public class JdbcStockDAL {
+
+    static final String RESERVE =
+            "UPDATE products SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?";
+    static final String RELEASE = "UPDATE products SET stock_quantity = stock_quantity + ? WHERE id = ?";
+
+    private static final int CONFLICT = Integer.MIN_VALUE;
+
+    private final ConnectionPool pool;
+    private final RetryPolicy retry;
+    private final String selectVersioned; // null: conditional decrement
+    private final String updateVersioned;
+
+    // tests only: runs between the versioned read and its conditional update
+    volatile Runnable afterVersionRead;
+
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder shortages = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    // conditional decrement; transient lock errors retried with RetryPolicy.DEFAULT
+    public JdbcStockDAL(ConnectionPool pool) {
+        this(pool, RetryPolicy.DEFAULT);
+    }
+
+    public JdbcStockDAL(ConnectionPool pool, RetryPolicy retry) {
+        this(pool, retry, null);
+    }
+
+    private JdbcStockDAL(ConnectionPool pool, RetryPolicy retry, String versionColumn) {
+        this.pool = pool;
+        this.retry = retry;
+        if (versionColumn == null) {
+            selectVersioned = null;
+            updateVersioned = null;
+        } else {
+            if (!versionColumn.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+                throw new IllegalArgumentException("Not a column name: " + versionColumn);
+            }
+            selectVersioned = "SELECT stock_quantity, " + versionColumn + " FROM products WHERE id = ?";
+            updateVersioned = "UPDATE products SET stock_quantity = ?, " + versionColumn + " = " + versionColumn
+                    + " + 1 WHERE id = ? AND " + versionColumn + " = ?";
+        }
+    }
+
+    // optimistic locking on an integer version column of products (e.g. "version")
+    public static JdbcStockDAL versioned(ConnectionPool pool, String versionColumn, RetryPolicy retry) {
+        return new JdbcStockDAL(pool, retry, versionColumn);
+    }
+
+    // true if qty units of productId were taken; false if not enough stock (or an error, see res)
+    public boolean tryReserve(int productId, int qty, Response res) {
+        return reserve(null, new int[]{productId}, new int[]{qty}, res) < 0;
+    }
+
+    /**
+     * Same, inside the caller's transaction on conn. With auto-commit off a transient lock error
+     * is not retried (the database may already have rolled the caller's transaction back).
+     */
+    public boolean tryReserve(Connection conn, int productId, int qty, Response res) {
+        return reserve(conn, new int[]{productId}, new int[]{qty}, res) < 0;
+    }
+
+    // every line or none, in one transaction; -1 or the index of the line that failed
+    public int tryReserveAll(int[] productIds, int[] qtys, Response res) {
+        if (productIds.length != qtys.length) {
+            throw new IllegalArgumentException("productIds and qtys must have the same length");
+        }
+        return productIds.length == 0 ? -1 : reserve(null, productIds, qtys, res);
+    }
+
+    // gives back units taken by a reservation that was not sold (e.g. a line removed at the till)
+    public void release(int productId, int qty, Response res) {
+        if (qty <= 0) throw new IllegalArgumentException("Quantity must be > 0");
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(RELEASE)) {
+            ps.setInt(1, qty);
+            ps.setInt(2, productId);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            error(res, "Stock could not be released: " + e.getMessage());
+        }
+    }
+
+    public long getReserved() {
+        return reserved.sum();
+    }
+
+    public long getShortages() {
+        return shortages.sum();
+    }
+
+    // lost version races and transient lock errors
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    // ---------------- helper methods ----------------
+
+    private int reserve(Connection callerConn, int[] productIds, int[] qtys, Response res) {
+        for (int qty : qtys) {
+            if (qty <= 0) throw new IllegalArgumentException("Quantity must be > 0");
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                int result = callerConn != null ? reserveLines(callerConn, productIds, qtys) : reserveOwn(productIds, qtys);
+                if (result != CONFLICT) {
+                    if (result < 0) reserved.increment();
+                    else shortages.increment();
+                    return result;
+                }
+                conflicts.increment();
+            } catch (SQLException e) {
+                if (!RetryPolicy.isTransient(e) || (callerConn != null && !autoCommit(callerConn))) {
+                    error(res, "Stock could not be reserved: " + e.getMessage());
+                    return 0;
+                }
+                conflicts.increment();
+            }
+            if (attempt >= retry.getMaxAttempts() || !retry.backoff(attempt)) {
+                error(res, "Stock could not be reserved after " + attempt + " attempts (concurrent updates).");
+                return 0;
+            }
+            retries.increment();
+        }
+    }
+
+    // a single line runs as one auto-commit statement; a basket as one transaction
+    private int reserveOwn(int[] productIds, int[] qtys) throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            if (productIds.length == 1) return reserveLines(conn, productIds, qtys);
+            conn.setAutoCommit(false);
+            try {
+                int result = reserveLines(conn, productIds, qtys);
+                if (result == -1) conn.commit();
+                else conn.rollback();
+                return result;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // -1: all reserved; i: line i short; CONFLICT: a version check failed (caller rolls back)
+    private int reserveLines(Connection conn, int[] productIds, int[] qtys) throws SQLException {
+        for (int i : lockOrder(productIds)) {
+            int outcome = selectVersioned == null
+                    ? reserveConditional(conn, productIds[i], qtys[i])
+                    : reserveVersioned(conn, productIds[i], qtys[i]);
+            if (outcome == CONFLICT) return CONFLICT;
+            if (outcome == 0) return i;
+        }
+        return -1;
+    }
+
+    // line indices by ascending product id (stable): the global order in which rows are locked
+    static int[] lockOrder(int[] productIds) {
+        int[] order = new int[productIds.length];
+        for (int i = 0; i < order.length; i++) {
+            int j = i;
+            while (j > 0 && productIds[order[j - 1]] > productIds[i]) {
+                order[j] = order[j - 1];
+                j--;
+            }
+            order[j] = i;
+        }
+        return order;
+    }
+
+    private static int reserveConditional(Connection conn, int productId, int qty) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(RESERVE)) {
+            ps.setInt(1, qty);
+            ps.setInt(2, productId);
+            ps.setInt(3, qty);
+            return ps.executeUpdate();
+        }
+    }
+
+    private int reserveVersioned(Connection conn, int productId, int qty) throws SQLException {
+        int stock;
+        long version;
+        try (PreparedStatement ps = conn.prepareStatement(selectVersioned)) {
+            ps.setInt(1, productId);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return 0;
+                stock = rs.getInt(1);
+                version = rs.getLong(2);
+            }
+        }
+        if (stock < qty) return 0;
+        Runnable hook = afterVersionRead;
+        if (hook != null) hook.run();
+        try (PreparedStatement ps = conn.prepareStatement(updateVersioned)) {
+            ps.setInt(1, stock - qty);
+            ps.setInt(2, productId);
+            ps.setLong(3, version);
+            return ps.executeUpdate() == 1 ? 1 : CONFLICT;
+        }
+    }
+
+    private static boolean autoCommit(Connection conn) {
+        try {
+            return conn.getAutoCommit();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void error(Response res, String text) {
+        res.messagesList.add(new Message(text, MessageType.Error));
+    }
+}
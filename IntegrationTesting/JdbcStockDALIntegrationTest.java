@@ -0,0 +1,187 @@
+package IntegrationTesting;
+
+import model.dto.Response;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.Isolated;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 24 tills race for the last units under retry deadlines: run alone, not next to busy classes
+@Isolated
+public class JdbcStockDALIntegrationTest {
+
+    private static final int TILLS = 24;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:stock_" + UUID.randomUUID().toString().substring(0, 8)
+                + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        pool = new ConnectionPool(new ConnectionPool.Settings(url, "sa", "").minSize(1).maxSize(TILLS + 1));
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE products (id INT PRIMARY KEY, name VARCHAR(50), stock_quantity INT NOT NULL, "
+                    + "version BIGINT NOT NULL DEFAULT 0)");
+            st.execute("INSERT INTO products (id, name, stock_quantity) VALUES (1, 'Milk 1L', 16), (2, 'Bread', 1), "
+                    + "(3, 'Eggs', 100)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void conditionalDecrement_lastUnits_neverOversell() throws Exception {
+        JdbcStockDAL stock = new JdbcStockDAL(pool);
+
+        int sold = sellConcurrently(stock);
+
+        assertEquals(16, sold);
+        assertEquals(0, stockOf(1));
+        assertEquals(TILLS - 16, stock.getShortages());
+    }
+
+    @Test
+    void versionColumn_lastUnits_neverOversell_retryingLostRaces() throws Exception {
+        JdbcStockDAL stock = JdbcStockDAL.versioned(pool, "version", new RetryPolicy(100, 10, 2_000));
+
+        int sold = sellConcurrently(stock);
+
+        assertEquals(16, sold);
+        assertEquals(0, stockOf(1));
+        assertEquals(16, versionOf(1), "one version bump per unit sold");
+        assertEquals(stock.getConflicts(), stock.getRetries());
+    }
+
+    @Test
+    void versionColumn_lostRace_failsWithErrorOnceRetriesRunOut() throws Exception {
+        JdbcStockDAL stock = JdbcStockDAL.versioned(pool, "version", RetryPolicy.NONE);
+        ExecutorService till = Executors.newSingleThreadExecutor();
+        try (Connection other = pool.getConnection()) {
+            other.setAutoCommit(false);
+            assertTrue(stock.tryReserve(other, 3, 1, new Response())); // row locked, version 0 -> 1 uncommitted
+            CountDownLatch versionRead = new CountDownLatch(1);
+            stock.afterVersionRead = versionRead::countDown;
+
+            Response res = new Response();
+            Future<Boolean> racing = till.submit(() -> stock.tryReserve(3, 1, res)); // reads version 0
+            assertTrue(versionRead.await(10, TimeUnit.SECONDS));
+            other.commit(); // its update now finds version 1, whether or not it was already waiting
+
+            assertFalse(racing.get(10, TimeUnit.SECONDS));
+            assertFalse(res.isSuccessfull());
+            assertTrue(res.getErrorMessages().contains("after 1 attempts"), res.getErrorMessages());
+            assertEquals(1, stock.getConflicts());
+        } finally {
+            till.shutdownNow();
+        }
+        assertEquals(99, stockOf(3));
+    }
+
+    @Test
+    void basket_isAllOrNothing() throws SQLException {
+        JdbcStockDAL stock = new JdbcStockDAL(pool);
+
+        Response res = new Response();
+        assertEquals(1, stock.tryReserveAll(new int[]{3, 2, 1}, new int[]{5, 2, 1}, res));
+        assertTrue(res.isSuccessfull(), "a shortage is not an error");
+        assertEquals(100, stockOf(3));
+        assertEquals(1, stockOf(2));
+
+        assertEquals(-1, stock.tryReserveAll(new int[]{3, 2, 3}, new int[]{5, 1, 5}, new Response()));
+        assertEquals(90, stockOf(3));
+        assertEquals(0, stockOf(2));
+        assertEquals(1, stock.tryReserveAll(new int[]{3, 999}, new int[]{1, 1}, new Response()), "unknown product");
+        assertArrayEquals(new int[]{2, 1, 0, 3}, JdbcStockDAL.lockOrder(new int[]{3, 2, 1, 3}), "rows locked by product id");
+    }
+
+    @Test
+    void release_givesUnitsBack_andBadQuantitiesAreRefused() throws SQLException {
+        JdbcStockDAL stock = new JdbcStockDAL(pool);
+        assertTrue(stock.tryReserve(2, 1, new Response()));
+        assertFalse(stock.tryReserve(2, 1, new Response()));
+
+        stock.release(2, 1, new Response());
+
+        assertEquals(1, stockOf(2));
+        assertThrows(IllegalArgumentException.class, () -> stock.tryReserve(2, 0, new Response()));
+        assertThrows(IllegalArgumentException.class, () -> JdbcStockDAL.versioned(pool, "version; DROP TABLE x", RetryPolicy.NONE));
+    }
+
+    @Test
+    void retryPolicy_backoffDoublesUpToItsCap() {
+        RetryPolicy policy = new RetryPolicy(10, 50, 1_000);
+
+        assertEquals(50, policy.backoffCeilingMicros(1));
+        assertEquals(100, policy.backoffCeilingMicros(2));
+        assertEquals(800, policy.backoffCeilingMicros(5));
+        assertEquals(1_000, policy.backoffCeilingMicros(6));
+        assertEquals(1_000, policy.backoffCeilingMicros(60));
+        assertEquals(0, RetryPolicy.NONE.backoffCeilingMicros(1));
+        assertThrows(IllegalArgumentException.class, () -> new RetryPolicy(0, 1, 1));
+    }
+
+    // ---------------- helper methods ----------------
+
+    // TILLS tills each try to take one unit of product 1 at the same moment; returns units sold
+    private int sellConcurrently(JdbcStockDAL stock) throws Exception {
+        ExecutorService tills = Executors.newFixedThreadPool(TILLS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < TILLS; t++) {
+                futures.add(tills.submit(() -> {
+                    start.await();
+                    Response res = new Response();
+                    if (stock.tryReserve(1, 1, res)) sold.incrementAndGet();
+                    assertTrue(res.isSuccessfull(), res.getErrorMessages());
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            tills.shutdownNow();
+        }
+        return sold.get();
+    }
+
+    private int stockOf(int productId) throws SQLException {
+        return (int) column("stock_quantity", productId);
+    }
+
+    private long versionOf(int productId) throws SQLException {
+        return column("version", productId);
+    }
+
+    private long column(String column, int productId) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT " + column + " FROM products WHERE id = ?")) {
+            ps.setInt(1, productId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getLong(1);
+            }
+        }
+    }
+}
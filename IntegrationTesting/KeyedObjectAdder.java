@@ -0,0 +1,242 @@
+package IntegrationTesting;
+
+import model.dto.CategoryDTO;
+import model.dto.CustomerDTO;
+import model.dto.EmployeeDTO;
+import model.dto.Message;
+import model.dto.MessageType;
+import model.dto.ProductDTO;
+import model.dto.Response;
+import model.dto.SupplierDTO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Inserts like dal.ObjectAdder, but reads the generated id back (RETURN_GENERATED_KEYS) and sets it
+ * on the DTO, so callers no longer re-read the table or search by name to find the new row.
+ * The list variants insert every row in one JDBC batch and return the keys in list order; on a
+ * connection in auto-commit mode the batch runs in its own transaction, so it is all or nothing.
+ * Messages follow ObjectAdder's "X added successfully." form, except saveEmployee, which reports
+ * "Employee added successfully." where ObjectAdder.saveEmployee reports "Supplier added successfully.".
+ */
+public class KeyedObjectAdder {
+
+    static final String INSERT_CUSTOMER = "INSERT INTO customers (name, phoneNumber) VALUES (?, ?)";
+    static final String INSERT_SUPPLIER = "INSERT INTO suppliers (name, phoneNumber) VALUES (?, ?)";
+    static final String INSERT_EMPLOYEE = "INSERT INTO employees (name, phoneNumber) VALUES (?, ?)";
+    static final String INSERT_CATEGORY = "INSERT INTO category (name) VALUES (?)";
+    static final String INSERT_PRODUCT = "INSERT INTO products "
+            + "(name, barcode, price, stock_quantity, category_id, quantity_type, suppliers_id) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private interface Binder<T> {
+        void bind(PreparedStatement ps, T row) throws SQLException;
+    }
+
+    private static final Binder<CustomerDTO> CUSTOMER = (ps, c) -> {
+        ps.setString(1, c.getName());
+        ps.setString(2, c.getPhoneNumber());
+    };
+    private static final Binder<SupplierDTO> SUPPLIER = (ps, s) -> {
+        ps.setString(1, s.getName());
+        ps.setString(2, s.getPhoneNumber());
+    };
+    private static final Binder<EmployeeDTO> EMPLOYEE = (ps, e) -> {
+        ps.setString(1, e.getName());
+        ps.setString(2, e.getPhoneNumber());
+    };
+    private static final Binder<CategoryDTO> CATEGORY = (ps, c) -> ps.setString(1, c.getName());
+    private static final Binder<ProductDTO> PRODUCT = (ps, p) -> {
+        ps.setString(1, p.getProductName());
+        ps.setString(2, p.getBarcode());
+        ps.setDouble(3, p.getPrice());
+        ps.setInt(4, p.getStockQuantity());
+        ps.setInt(5, p.getCategoryId());
+        ps.setString(6, p.getQuantityType());
+        if (p.getSupplierId() > 0) ps.setInt(7, p.getSupplierId());
+        else ps.setNull(7, Types.INTEGER);
+    };
+
+    // ---------------- single rows ----------------
+
+    public void addCustomer(CustomerDTO c, Connection conn, Response res) {
+        ValidationPlan.validate(c, res);
+        if (!res.isSuccessfull()) return;
+        try {
+            c.setId(insertOne(conn, INSERT_CUSTOMER, c, CUSTOMER));
+            info(res, "Customer added successfully.");
+        } catch (SQLException e) {
+            error(res, "Customer could not be added: " + e.getMessage());
+        }
+    }
+
+    public void addSupplier(SupplierDTO s, Connection conn, Response res) {
+        ValidationPlan.validate(s, res);
+        if (!res.isSuccessfull()) return;
+        try {
+            s.setId(insertOne(conn, INSERT_SUPPLIER, s, SUPPLIER));
+            info(res, "Supplier added successfully.");
+        } catch (SQLException e) {
+            error(res, "Supplier could not be added: " + e.getMessage());
+        }
+    }
+
+    public void saveEmployee(EmployeeDTO e, Connection conn, Response res) {
+        ValidationPlan.validate(e, res);
+        if (!res.isSuccessfull()) return;
+        try {
+            e.setId(insertOne(conn, INSERT_EMPLOYEE, e, EMPLOYEE));
+            info(res, "Employee added successfully.");
+        } catch (SQLException ex) {
+            error(res, "Employee could not be added: " + ex.getMessage());
+        }
+    }
+
+    public void saveCategory(CategoryDTO c, Connection conn, Response res) {
+        try {
+            c.setId(insertOne(conn, INSERT_CATEGORY, c, CATEGORY));
+            info(res, "Category added successfully.");
+        } catch (SQLException e) {
+            error(res, "Category could not be added: " + e.getMessage());
+        }
+    }
+
+    public void addProduct(ProductDTO p, Connection conn, Response res) {
+        try {
+            p.setProductId(insertOne(conn, INSERT_PRODUCT, p, PRODUCT));
+            info(res, "Product added successfully.");
+        } catch (SQLException e) {
+            error(res, "Product could not be added: " + e.getMessage());
+        }
+    }
+
+    // ---------------- batches ----------------
+
+    // returns the new ids in list order, or an empty array if nothing was inserted (see res)
+    public int[] addCustomers(List<CustomerDTO> customers, Connection conn, Response res) {
+        if (!validateAll(customers, res)) return new int[0];
+        try {
+            int[] ids = insertAll(conn, INSERT_CUSTOMER, customers, CUSTOMER);
+            for (int i = 0; i < ids.length; i++) {
+                customers.get(i).setId(ids[i]);
+            }
+            info(res, ids.length + " customers added successfully.");
+            return ids;
+        } catch (SQLException e) {
+            error(res, "Customers could not be added: " + e.getMessage());
+            return new int[0];
+        }
+    }
+
+    public int[] addSuppliers(List<SupplierDTO> suppliers, Connection conn, Response res) {
+        if (!validateAll(suppliers, res)) return new int[0];
+        try {
+            int[] ids = insertAll(conn, INSERT_SUPPLIER, suppliers, SUPPLIER);
+            for (int i = 0; i < ids.length; i++) {
+                suppliers.get(i).setId(ids[i]);
+            }
+            info(res, ids.length + " suppliers added successfully.");
+            return ids;
+        } catch (SQLException e) {
+            error(res, "Suppliers could not be added: " + e.getMessage());
+            return new int[0];
+        }
+    }
+
+    public int[] saveEmployees(List<EmployeeDTO> employees, Connection conn, Response res) {
+        if (!validateAll(employees, res)) return new int[0];
+        try {
+            int[] ids = insertAll(conn, INSERT_EMPLOYEE, employees, EMPLOYEE);
+            for (int i = 0; i < ids.length; i++) {
+                employees.get(i).setId(ids[i]);
+            }
+            info(res, ids.length + " employees added successfully.");
+            return ids;
+        } catch (SQLException e) {
+            error(res, "Employees could not be added: " + e.getMessage());
+            return new int[0];
+        }
+    }
+
+    public int[] addProducts(List<ProductDTO> products, Connection conn, Response res) {
+        try {
+            int[] ids = insertAll(conn, INSERT_PRODUCT, products, PRODUCT);
+            for (int i = 0; i < ids.length; i++) {
+                products.get(i).setProductId(ids[i]);
+            }
+            info(res, ids.length + " products added successfully.");
+            return ids;
+        } catch (SQLException e) {
+            error(res, "Products could not be added: " + e.getMessage());
+            return new int[0];
+        }
+    }
+
+    // ---------------- helper methods ----------------
+
+    // one scratch response for the whole batch; only failing rows add messages to res
+    private static boolean validateAll(List<?> rows, Response res) {
+        ReusableResponse scratch = new ReusableResponse();
+        for (Object row : rows) {
+            ValidationPlan.validate(row, scratch.reset());
+            if (!scratch.isSuccessfull()) scratch.copyTo(res);
+        }
+        return res.isSuccessfull();
+    }
+
+    private static <T> int insertOne(Connection conn, String sql, T row, Binder<T> binder) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            binder.bind(ps, row);
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (!keys.next()) throw new SQLException("No generated key returned for: " + sql);
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    private static <T> int[] insertAll(Connection conn, String sql, List<T> rows, Binder<T> binder)
+            throws SQLException {
+        if (rows.isEmpty()) return new int[0];
+        boolean ownTransaction = conn.getAutoCommit();
+        if (ownTransaction) conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (T row : rows) {
+                binder.bind(ps, row);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            int[] ids = new int[rows.size()];
+            int n = 0;
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                while (keys.next() && n < ids.length) {
+                    ids[n++] = keys.getInt(1);
+                }
+            }
+            if (n != ids.length) {
+                throw new SQLException("Expected " + ids.length + " generated keys, got " + n);
+            }
+            if (ownTransaction) conn.commit();
+            return ids;
+        } catch (SQLException e) {
+            if (ownTransaction) conn.rollback();
+            throw e;
+        } finally {
+            if (ownTransaction) conn.setAutoCommit(true);
+        }
+    }
+
+    private static void info(Response res, String text) {
+        res.messagesList.add(new Message(text, MessageType.Information));
+    }
+
+    private static void error(Response res, String text) {
+        res.messagesList.add(new Message(text, MessageType.Error));
+    }
+}
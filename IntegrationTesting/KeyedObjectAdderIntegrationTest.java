@@ -0,0 +1,164 @@
+package IntegrationTesting;
+
+import model.dto.CustomerDTO;
+import model.dto.EmployeeDTO;
+import model.dto.ProductDTO;
+import model.dto.Response;
+import model.dto.SupplierDTO;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(EmbeddedPosDatabase.class)
+public class KeyedObjectAdderIntegrationTest {
+
+    private Connection conn;
+    private final KeyedObjectAdder adder = new KeyedObjectAdder();
+
+    @BeforeEach
+    void setUp(ConnectionPool pool) throws SQLException {
+        // the adder commits on its own, so this runs on the pool: tables are emptied after each test
+        conn = pool.getConnection();
+        try (Statement st = conn.createStatement()) {
+            st.execute("INSERT INTO customers (name, phoneNumber) VALUES ('Existing Row', '0690000000')");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void addCustomer_setsGeneratedId() throws Exception {
+        CustomerDTO c = customer("Customer Keyed", "0691234567");
+        Response res = new Response();
+
+        adder.addCustomer(c, conn, res);
+
+        assertTrue(res.isSuccessfull(), res.getErrorMessages());
+        assertEquals("Customer added successfully.", res.getInfoMessages());
+        assertEquals(2, c.getId());
+        assertEquals("Customer Keyed", nameOfCustomer(c.getId()));
+    }
+
+    @Test
+    void saveEmployee_and_addSupplier_setGeneratedIds() throws Exception {
+        EmployeeDTO e = new EmployeeDTO();
+        e.setName("Employee Keyed");
+        e.setPhoneNumber("0671234567");
+        SupplierDTO s = new SupplierDTO();
+        s.setName("Supplier Keyed");
+        s.setPhoneNumber("0681234567");
+        Response resEmployee = new Response();
+        Response resSupplier = new Response();
+
+        adder.saveEmployee(e, conn, resEmployee);
+        adder.addSupplier(s, conn, resSupplier);
+
+        assertTrue(resEmployee.isSuccessfull(), resEmployee.getErrorMessages());
+        assertEquals("Employee added successfully.", resEmployee.getInfoMessages());
+        assertTrue(e.getId() > 0, "Generated employee id must be > 0");
+        assertTrue(resSupplier.isSuccessfull(), resSupplier.getErrorMessages());
+        assertEquals("Supplier added successfully.", resSupplier.getInfoMessages());
+        assertTrue(s.getId() > 0, "Generated supplier id must be > 0");
+        assertEquals(1, countRows("employees"));
+        assertEquals(1, countRows("suppliers"));
+    }
+
+    @Test
+    void addCustomers_oneBatch_returnsKeysInListOrder() throws Exception {
+        List<CustomerDTO> batch = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            batch.add(customer("Batch Customer " + i, "06900000" + (10 + i)));
+        }
+        Response res = new Response();
+
+        int[] ids = adder.addCustomers(batch, conn, res);
+
+        assertTrue(res.isSuccessfull(), res.getErrorMessages());
+        assertEquals(50, ids.length);
+        for (int i = 0; i < batch.size(); i++) {
+            assertEquals(ids[i], batch.get(i).getId());
+            assertEquals("Batch Customer " + i, nameOfCustomer(ids[i]));
+        }
+        assertTrue(conn.getAutoCommit(), "auto-commit must be restored");
+    }
+
+    @Test
+    void addCustomers_invalidRow_insertsNothing() throws Exception {
+        List<CustomerDTO> batch = new ArrayList<>();
+        batch.add(customer("Valid Customer", "0691111111"));
+        batch.add(customer("Bad", "0692222222")); // name shorter than 6 characters
+        Response res = new Response();
+
+        int[] ids = adder.addCustomers(batch, conn, res);
+
+        assertFalse(res.isSuccessfull());
+        assertEquals(0, ids.length);
+        assertEquals(0, batch.get(0).getId());
+        assertEquals(1, countRows("customers"));
+    }
+
+    @Test
+    void addProducts_failingRow_rollsBackWholeBatch() throws Exception {
+        List<ProductDTO> batch = new ArrayList<>();
+        batch.add(product("Keyed Product A"));
+        batch.add(product(null)); // violates NOT NULL
+        batch.add(product("Keyed Product C"));
+        Response res = new Response();
+
+        int[] ids = adder.addProducts(batch, conn, res);
+
+        assertFalse(res.isSuccessfull());
+        assertEquals(0, ids.length);
+        assertEquals(0, countRows("products"));
+        assertTrue(conn.getAutoCommit(), "auto-commit must be restored");
+    }
+
+    // ---------------- helper methods ----------------
+
+    private static CustomerDTO customer(String name, String phone) {
+        CustomerDTO c = new CustomerDTO();
+        c.setName(name);
+        c.setPhoneNumber(phone);
+        return c;
+    }
+
+    private static ProductDTO product(String name) {
+        ProductDTO p = new ProductDTO();
+        p.setProductName(name);
+        p.setBarcode("BC" + UUID.randomUUID().toString().substring(0, 8));
+        p.setPrice(4.99);
+        p.setStockQuantity(10);
+        p.setCategoryId(1);
+        p.setQuantityType("counted");
+        return p;
+    }
+
+    private String nameOfCustomer(int id) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT name FROM customers WHERE id = ?")) {
+            ps.setInt(1, id);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    private int countRows(String table) throws SQLException {
+        try (Statement st = conn.createStatement(); ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
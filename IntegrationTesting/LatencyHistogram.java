@@ -0,0 +1,99 @@
+package IntegrationTesting;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size, lock-free latency histogram in the style of HdrHistogram.
+ * Values below 128 get one bucket each; above that every power of two is split into 64
+ * linear sub-buckets, so any recorded value is reported within 1/64 (~1.6%) of itself and
+ * the whole long range fits in 3,712 counters (~29 KB). Recording is one atomic increment,
+ * safe from any number of threads; percentiles report the highest value of the bucket
+ * (never below the true value), capped at the largest value recorded.
+ */
+public class LatencyHistogram {
+
+    private static final int LINEAR = 128;        // values 0..127 are exact
+    private static final int SUB_BUCKETS = 64;    // per power of two above that
+    private static final int SUB_BITS = 6;
+    private static final int BUCKETS = LINEAR + (63 - SUB_BITS - 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    // negative values (clock skew) are recorded as 0
+    public void record(long value) {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(indexOf(v));
+        total.increment();
+        sum.add(v);
+        min.accumulate(v);
+        max.accumulate(v);
+    }
+
+    // adds every value recorded in other (e.g. per-till histograms into one report)
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long c = other.counts.get(i);
+            if (c != 0) counts.addAndGet(i, c);
+        }
+        total.add(other.total.sum());
+        sum.add(other.sum.sum());
+        if (other.getCount() > 0) {
+            min.accumulate(other.min.get());
+            max.accumulate(other.max.get());
+        }
+    }
+
+    public long getCount() {
+        return total.sum();
+    }
+
+    public long getMin() {
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+    public long getMax() {
+        return getCount() == 0 ? 0 : max.get();
+    }
+
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    // percentile in 0..100, e.g. 99.9; 0 if nothing was recorded
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) throw new IllegalArgumentException("percentile must be in 0..100");
+        long n = getCount();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(highestValueOf(i), getMax());
+        }
+        return getMax();
+    }
+
+    // ---------------- helper methods ----------------
+
+    static int indexOf(long v) {
+        if (v < LINEAR) return (int) v;
+        int shift = (63 - Long.numberOfLeadingZeros(v)) - SUB_BITS; // >= 1
+        int mantissa = (int) (v >>> shift);                         // 64..127
+        return LINEAR + (shift - 1) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+
+    static long highestValueOf(int index) {
+        if (index < LINEAR) return index;
+        int shift = (index - LINEAR) / SUB_BUCKETS + 1;
+        long mantissa = (index - LINEAR) % SUB_BUCKETS + SUB_BUCKETS;
+        long next = (mantissa + 1) << shift;
+        return next <= 0 ? Long.MAX_VALUE : next - 1;
+    }
+}
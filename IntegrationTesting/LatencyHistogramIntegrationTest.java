@@ -0,0 +1,93 @@
+package IntegrationTesting;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatencyHistogramIntegrationTest {
+
+    @Test
+    void smallValues_areExact() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int v = 1; v <= 100; v++) {
+            h.record(v);
+        }
+
+        assertEquals(100, h.getCount());
+        assertEquals(1, h.getMin());
+        assertEquals(100, h.getMax());
+        assertEquals(50.5, h.getMean(), 1e-9);
+        assertEquals(50, h.getValueAtPercentile(50));
+        assertEquals(99, h.getValueAtPercentile(99));
+        assertEquals(100, h.getValueAtPercentile(100));
+    }
+
+    @Test
+    void percentiles_withinOneSixtyFourth_andNeverBelowTheTrueValue() {
+        LatencyHistogram h = new LatencyHistogram();
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = ThreadLocalRandom.current().nextLong(1_000, 5_000_000_000L); // 1 us .. 5 s in ns
+            h.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        for (double p : new double[]{50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(p / 100 * values.length) - 1];
+            long reported = h.getValueAtPercentile(p);
+            assertTrue(reported >= exact, "p" + p + " " + reported + " < " + exact);
+            assertTrue(reported - exact <= exact / 64 + 1, "p" + p + " " + reported + " vs " + exact);
+        }
+    }
+
+    @Test
+    void bucketBoundaries_coverEveryLongWithoutGaps() {
+        long previousHighest = -1;
+        for (int i = 0; LatencyHistogram.highestValueOf(i) != Long.MAX_VALUE; i++) {
+            assertEquals(i, LatencyHistogram.indexOf(previousHighest + 1)); // bucket i starts right after bucket i - 1
+            assertEquals(i, LatencyHistogram.indexOf(LatencyHistogram.highestValueOf(i)));
+            previousHighest = LatencyHistogram.highestValueOf(i);
+        }
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(Long.MAX_VALUE);
+        h.record(-5);
+        assertEquals(0, h.getMin());
+        assertEquals(Long.MAX_VALUE, h.getValueAtPercentile(100));
+    }
+
+    @Test
+    void concurrentRecordsAndAdd_loseNothing() throws InterruptedException {
+        LatencyHistogram total = new LatencyHistogram();
+        List<LatencyHistogram> perTill = new ArrayList<>();
+        List<Thread> tills = new ArrayList<>();
+        LatencyHistogram shared = new LatencyHistogram();
+        for (int t = 0; t < 8; t++) {
+            LatencyHistogram mine = new LatencyHistogram();
+            perTill.add(mine);
+            tills.add(Thread.ofVirtual().start(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    mine.record(1_000 + i);
+                    shared.record(1_000 + i);
+                }
+            }));
+        }
+        for (Thread t : tills) {
+            t.join();
+        }
+        for (LatencyHistogram h : perTill) {
+            total.add(h);
+        }
+
+        assertEquals(80_000, shared.getCount());
+        assertEquals(80_000, total.getCount());
+        assertEquals(shared.getValueAtPercentile(99), total.getValueAtPercentile(99));
+        assertEquals(1_000, total.getMin());
+        assertEquals(10_999, total.getMax());
+        assertEquals(0, new LatencyHistogram().getValueAtPercentile(99));
+    }
+}
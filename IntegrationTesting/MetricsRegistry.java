@@ -0,0 +1,231 @@
+package IntegrationTesting;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named timers for the DAL, checkout and validators (InstrumentedDALManager, CheckoutService,
+ * InstrumentedValidator). Callers look a timer up once and keep the reference; recording is
+ * then a few LongAdder/LongAccumulator updates, no locks and no allocation. Read the values
+ * with dump() or over JMX after registerMBean (one attribute per timer and statistic, e.g.
+ * "dal.saveCustomer.count", "checkout.save.meanMicros").
+ */
+public class MetricsRegistry {
+
+    public static final class Timer {
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+
+        Timer(String name) {
+            this.name = name;
+        }
+
+        // startNanos from System.nanoTime() before the timed call
+        public void stop(long startNanos) {
+            record(System.nanoTime() - startNanos, false);
+        }
+
+        public void record(long nanos, boolean failed) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (failed) errors.increment();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        public double getMeanMicros() {
+            long n = count.sum();
+            return n == 0 ? 0.0 : totalNanos.sum() / 1e3 / n;
+        }
+
+        void reset() {
+            count.reset();
+            errors.reset();
+            totalNanos.reset();
+            maxNanos.reset();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s count=%d errors=%d total=%.3fms mean=%.3fus max=%.3fus", name, getCount(),
+                    getErrors(), getTotalNanos() / 1e6, getMeanMicros(), getMaxNanos() / 1e3);
+        }
+    }
+
+    private final String name;
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+    private ObjectName registeredAs;
+
+    public MetricsRegistry(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    // the same instance for the same name; look up once and keep it, not once per call
+    public Timer timer(String timerName) {
+        Timer t = timers.get(timerName);
+        return t != null ? t : timers.computeIfAbsent(timerName, Timer::new);
+    }
+
+    // all timers, sorted by name
+    public List<Timer> getTimers() {
+        return new ArrayList<>(new TreeMap<>(timers).values());
+    }
+
+    // zeroes every timer (e.g. after warm-up); timers already handed out stay valid
+    public void reset() {
+        for (Timer t : timers.values()) {
+            t.reset();
+        }
+    }
+
+    // one line per timer, sorted by name; timers never used are left out
+    public String dump() {
+        StringBuilder out = new StringBuilder();
+        for (Timer t : getTimers()) {
+            if (t.getCount() > 0) out.append(t).append('\n');
+        }
+        return out.toString();
+    }
+
+    /**
+     * Registers this registry on the platform MBeanServer as
+     * "IntegrationTesting:type=Metrics,name=<name>". Timers added later show up as well.
+     */
+    public synchronized ObjectName registerMBean() throws JMException {
+        if (registeredAs != null) return registeredAs;
+        ObjectName objectName = new ObjectName("IntegrationTesting:type=Metrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new MBean(), objectName);
+        registeredAs = objectName;
+        return objectName;
+    }
+
+    public synchronized void unregisterMBean() throws JMException {
+        if (registeredAs == null) return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        if (server.isRegistered(registeredAs)) server.unregisterMBean(registeredAs);
+        registeredAs = null;
+    }
+
+    // ---------------- JMX ----------------
+
+    private static final String[] STATISTICS = {"count", "errors", "totalMillis", "meanMicros", "maxMicros"};
+
+    private final class MBean implements DynamicMBean {
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            int dot = attribute.lastIndexOf('.');
+            Timer t = dot < 0 ? null : timers.get(attribute.substring(0, dot));
+            if (t == null) throw new AttributeNotFoundException(attribute);
+            switch (attribute.substring(dot + 1)) {
+                case "count":
+                    return t.getCount();
+                case "errors":
+                    return t.getErrors();
+                case "totalMillis":
+                    return t.getTotalNanos() / 1e6;
+                case "meanMicros":
+                    return t.getMeanMicros();
+                case "maxMicros":
+                    return t.getMaxNanos() / 1e3;
+                default:
+                    throw new AttributeNotFoundException(attribute);
+            }
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    list.add(new Attribute(attribute, getAttribute(attribute)));
+                } catch (AttributeNotFoundException ignored) {
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) throws MBeanException {
+            if ("reset".equals(actionName)) {
+                reset();
+                return null;
+            }
+            if ("dump".equals(actionName)) return dump();
+            throw new MBeanException(new UnsupportedOperationException(actionName));
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (Map.Entry<String, Timer> e : new TreeMap<>(timers).entrySet()) {
+                for (String statistic : STATISTICS) {
+                    String type = statistic.equals("count") || statistic.equals("errors") ? "long" : "double";
+                    attributes.add(new MBeanAttributeInfo(e.getKey() + "." + statistic, type,
+                            statistic + " of " + e.getKey(), true, false, false));
+                }
+            }
+            MBeanParameterInfo[] none = new MBeanParameterInfo[0];
+            MBeanOperationInfo[] operations = {
+                    new MBeanOperationInfo("reset", "Zeroes every timer", none, "void", MBeanOperationInfo.ACTION),
+                    new MBeanOperationInfo("dump", "Text dump of every used timer", none, "java.lang.String", MBeanOperationInfo.INFO)
+            };
+            return new MBeanInfo(MetricsRegistry.class.getName(), "Timers of " + name,
+                    attributes.toArray(new MBeanAttributeInfo[0]), null, operations, null);
+        }
+    }
+}
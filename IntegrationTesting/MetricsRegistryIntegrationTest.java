@@ -0,0 +1,164 @@
+package IntegrationTesting;
+
+import dal.DALManager;
+import model.dto.CustomerDTO;
+import model.dto.Message;
+import model.dto.MessageType;
+import model.dto.Response;
+import org.junit.jupiter.api.*;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsRegistryIntegrationTest {
+
+    @Test
+    void timers_countConcurrentRecords_withoutLosingAny() throws InterruptedException {
+        MetricsRegistry metrics = new MetricsRegistry("timers");
+        MetricsRegistry.Timer timer = metrics.timer("dal.getCustomers");
+        assertSame(timer, metrics.timer("dal.getCustomers"));
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                for (int i = 1; i <= 10_000; i++) {
+                    timer.record(i, i % 100 == 0);
+                }
+            }));
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+
+        assertEquals(80_000, timer.getCount());
+        assertEquals(800, timer.getErrors());
+        assertEquals(8 * 50_005_000L, timer.getTotalNanos());
+        assertEquals(10_000, timer.getMaxNanos());
+        assertEquals(5.0005, timer.getMeanMicros(), 1e-9);
+
+        metrics.reset();
+        assertEquals(0, timer.getCount());
+        assertSame(timer, metrics.timer("dal.getCustomers"));
+    }
+
+    @Test
+    void dump_listsUsedTimersSortedByName() {
+        MetricsRegistry metrics = new MetricsRegistry("dump");
+        metrics.timer("dal.saveCustomer").record(2_000_000, true);
+        metrics.timer("checkout.save").record(1_500, false);
+        metrics.timer("dal.never");
+
+        String[] lines = metrics.dump().split("\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("checkout.save count=1 errors=0"), lines[0]);
+        assertEquals("dal.saveCustomer count=1 errors=1 total=2.000ms mean=2000.000us max=2000.000us", lines[1]);
+    }
+
+    @Test
+    void jmx_exposesEveryTimerAsAttributes() throws Exception {
+        MetricsRegistry metrics = new MetricsRegistry("jmx-test");
+        metrics.timer("checkout.total").record(3_000, false);
+        ObjectName name = metrics.registerMBean();
+        try {
+            metrics.timer("checkout.save").record(1_000, true); // added after registering
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+            assertEquals(1L, server.getAttribute(name, "checkout.total.count"));
+            assertEquals(3.0, (Double) server.getAttribute(name, "checkout.total.maxMicros"), 1e-9);
+            assertEquals(1L, server.getAttribute(name, "checkout.save.errors"));
+            assertEquals(10, server.getMBeanInfo(name).getAttributes().length);
+            assertEquals(metrics.dump(), server.invoke(name, "dump", null, null));
+        } finally {
+            metrics.unregisterMBean();
+        }
+        assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+    }
+
+    @Test
+    void instrumentedDal_timesEachMethod_andCountsResponseErrors() {
+        MetricsRegistry metrics = new MetricsRegistry("dal");
+        DALManager dal = new InstrumentedDALManager(new FailingSaveDAL(), metrics);
+
+        Response ok = new Response();
+        ok.messagesList.add(new Message("earlier failure", MessageType.Error)); // not this call's error
+        dal.getCustomers(ok);
+        dal.getCustomers(new Response());
+        dal.saveCustomer(new CustomerDTO(), new Response());
+        try {
+            dal.deleteCustomer(new CustomerDTO(), new Response());
+            fail("expected the DAL's exception");
+        } catch (IllegalStateException expected) {
+        }
+
+        assertEquals(2, metrics.timer("dal.getCustomers").getCount());
+        assertEquals(0, metrics.timer("dal.getCustomers").getErrors());
+        assertEquals(1, metrics.timer("dal.saveCustomer").getErrors());
+        assertEquals(1, metrics.timer("dal.deleteCustomer").getErrors());
+        assertEquals(26, metrics.getTimers().size());
+    }
+
+    @Test
+    void checkout_timesEachStage_andChargesErrorsToTheStageThatRefused() {
+        MetricsRegistry metrics = new MetricsRegistry("checkout");
+        ProductDALStub products = new ProductDALStub();
+        products.seedProduct(1, 2.50, 5);
+        products.seedProduct(2, 1.00, 100);
+        CheckoutService service = new CheckoutService(products, new SaleDALStub(), metrics);
+
+        assertEquals(600, service.checkoutCents(new int[]{1, 2}, new int[]{2, 1}));
+        assertThrows(IllegalStateException.class, () -> service.checkoutCents(new int[]{1}, new int[]{10}));
+        assertThrows(IllegalArgumentException.class, () -> service.checkoutCents(new int[]{2}, new int[]{0}));
+
+        assertEquals(3, metrics.timer("checkout.validate").getCount());
+        assertEquals(1, metrics.timer("checkout.validate").getErrors());
+        assertEquals(2, metrics.timer("checkout.reserveAndPrice").getCount());
+        assertEquals(1, metrics.timer("checkout.reserveAndPrice").getErrors());
+        assertEquals(1, metrics.timer("checkout.save").getCount());
+        assertEquals(3, metrics.timer("checkout.total").getCount());
+        assertEquals(2, metrics.timer("checkout.total").getErrors());
+        assertEquals(3, products.getStock(1));
+    }
+
+    @Test
+    void validator_timesPerClass_andCountsInvalidObjects() {
+        MetricsRegistry metrics = new MetricsRegistry("validate");
+        InstrumentedValidator validator = new InstrumentedValidator(metrics);
+        CustomerDTO valid = new CustomerDTO();
+        valid.setName("TestCustomer");
+        valid.setPhoneNumber("0690000000");
+
+        validator.validate(valid, new Response());
+        validator.validate(new CustomerDTO(), new Response());
+        validator.validate(null, new Response());
+
+        assertEquals(2, metrics.timer("validate.CustomerDTO").getCount());
+        assertEquals(1, metrics.timer("validate.CustomerDTO").getErrors());
+        assertEquals(1, metrics.timer("validate.null").getCount());
+    }
+
+    // ---------------- helper methods ----------------
+
+    // stands in for DALManager: saveCustomer reports a failure, deleteCustomer throws
+    private static final class FailingSaveDAL extends DALManager {
+        @Override
+        public ArrayList<CustomerDTO> getCustomers(Response res) {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public void saveCustomer(CustomerDTO customer, Response res) {
+            res.messagesList.add(new Message("Customer could not be added.", MessageType.Error));
+        }
+
+        @Override
+        public void deleteCustomer(CustomerDTO customer, Response res) {
+            throw new IllegalStateException("connection lost");
+        }
+    }
+}
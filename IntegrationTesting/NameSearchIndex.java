@@ -0,0 +1,325 @@
+package IntegrationTesting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index for case-insensitive substring search over names (customers, products).
+ * Every name is split into overlapping 3-character grams; a query intersects the posting lists of
+ * its own grams and only verifies the few surviving candidates, instead of a LIKE '%term%' scan.
+ * Common terms (hundreds of thousands of candidates) are not verified one by one: each gram that
+ * starts a word also has a ranked list of its occurrences ordered by (position, name length, id),
+ * which is the best-first order of exact, prefix and word-start matches, so the walk stops after
+ * limit hits. Only when a term has fewer than limit word-start matches are the mid-word
+ * candidates verified, through a bounded top-k heap.
+ * Terms shorter than 3 characters have no gram to look up and are ranked over a full scan.
+ */
+public class NameSearchIndex {
+
+    // sorted, duplicate-free list of ids containing one trigram
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            int pos = size == 0 || ids[size - 1] < id ? size : Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0 && pos < size) return; // already present
+            if (pos < 0) pos = -pos - 1;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) return;
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+        }
+    }
+
+    // word-start occurrences of one trigram as (position << 48 | length << 32 | id), sorted lazily
+    private static final class RankedPostings {
+        long[] keys = new long[4];
+        int size;
+        boolean sorted = true;
+
+        void add(long key) {
+            if (size == keys.length) keys = Arrays.copyOf(keys, size * 2);
+            if (size > 0 && keys[size - 1] > key) sorted = false;
+            keys[size++] = key;
+        }
+
+        void remove(long key) {
+            sort();
+            int pos = Arrays.binarySearch(keys, 0, size, key);
+            if (pos < 0) return;
+            System.arraycopy(keys, pos + 1, keys, pos, size - pos - 1);
+            size--;
+        }
+
+        // readers share the read lock, so the first one to need the order sorts under the list's monitor
+        synchronized void sort() {
+            if (sorted) return;
+            Arrays.sort(keys, 0, size);
+            sorted = true;
+        }
+    }
+
+    private static final int VERIFY_DIRECTLY = 64;
+    // above this many candidates a term is walked in rank order instead of verified in full
+    private static final int RANKED_WALK_ABOVE = 8192;
+
+    private final Map<Integer, String> namesById = new HashMap<>(); // lower-cased
+    private final Map<Long, Postings> postingsByGram = new HashMap<>();
+    private final Map<Long, RankedPostings> wordStartsByGram = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return namesById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // adds the name, or replaces the previous name of the same id
+    public void put(int id, String name) {
+        String normalized = normalize(name);
+        lock.writeLock().lock();
+        try {
+            String old = namesById.put(id, normalized);
+            if (old != null) unindex(id, old);
+            for (int i = 0; i + 3 <= normalized.length(); i++) {
+                postingsByGram.computeIfAbsent(gram(normalized, i), g -> new Postings()).add(id);
+                if (isWordStart(normalized, i)) {
+                    wordStartsByGram.computeIfAbsent(gram(normalized, i), g -> new RankedPostings())
+                            .add(rankKey(i, normalized.length(), id));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            String old = namesById.remove(id);
+            if (old != null) unindex(id, old);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids whose name contains term (case-insensitive), best match first:
+     * exact name, then prefix, then match at a word start, then anywhere; ties go to the
+     * earlier match, then the shorter name, then the lower id. A name is ranked by its first
+     * word-start match if it has one, otherwise by its first match.
+     */
+    public int[] search(String term, int limit) {
+        if (limit <= 0) return new int[0];
+        String t = normalize(term);
+        lock.readLock().lock();
+        try {
+            TopMatches top = new TopMatches(limit);
+            if (t.length() < 3) scan(t, top);
+            else lookup(t, top);
+            return top.ids();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void lookup(String t, TopMatches top) {
+        // 1) Posting lists of the term's grams, rarest first
+        List<Postings> lists = new ArrayList<>();
+        for (int i = 0; i + 3 <= t.length(); i++) {
+            Postings p = postingsByGram.get(gram(t, i));
+            if (p == null) return;
+            lists.add(p);
+        }
+        lists.sort(Comparator.comparingInt(p -> p.size));
+        Postings rarest = lists.get(0);
+
+        // 2) Common term: take exact, prefix and word-start matches in rank order and stop at limit
+        if (rarest.size > RANKED_WALK_ABOVE && walkWordStarts(t, top)) return;
+
+        // 3) Intersect, rarest first; once few candidates are left, checking the names is cheaper
+        int[] candidates = Arrays.copyOf(rarest.ids, rarest.size);
+        int count = rarest.size;
+        for (int l = 1; l < lists.size() && count > VERIFY_DIRECTLY; l++) {
+            count = intersect(candidates, count, lists.get(l));
+        }
+
+        // 4) Verify: grams present does not mean they are adjacent
+        for (int i = 0; i < count; i++) {
+            if (top.contains(candidates[i])) continue; // taken by the walk
+            String name = namesById.get(candidates[i]);
+            int at = bestOccurrence(name, t);
+            if (at >= 0) top.offer(candidates[i], name, t, at);
+        }
+    }
+
+    // returns true when limit matches were found, all of them ranked above any mid-word match
+    private boolean walkWordStarts(String t, TopMatches top) {
+        RankedPostings starts = wordStartsByGram.get(gram(t, 0));
+        if (starts == null) return false;
+        starts.sort();
+        for (int i = 0; i < starts.size && !top.isFull(); i++) {
+            long key = starts.keys[i];
+            int id = (int) key;
+            int position = (int) (key >>> 48);
+            String name = namesById.get(id);
+            // the first verified occurrence of a name is its best one; later ones are skipped
+            if (name.startsWith(t, position) && !top.contains(id)) top.offer(id, name, t, position);
+        }
+        return top.isFull();
+    }
+
+    // keeps the ids of candidates[0..count) that are also in p; both sorted. Returns the new count.
+    private static int intersect(int[] candidates, int count, Postings p) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < count && from < p.size; i++) {
+            int pos = Arrays.binarySearch(p.ids, from, p.size, candidates[i]);
+            if (pos >= 0) {
+                candidates[kept++] = candidates[i];
+                from = pos + 1;
+            } else {
+                from = -pos - 1;
+            }
+        }
+        return kept;
+    }
+
+    // short terms: no gram to look up, so every name is checked; the heap keeps only the best limit
+    private void scan(String t, TopMatches top) {
+        for (Map.Entry<Integer, String> e : namesById.entrySet()) {
+            int at = bestOccurrence(e.getValue(), t);
+            if (at >= 0) top.offer(e.getKey(), e.getValue(), t, at);
+        }
+    }
+
+    private void unindex(int id, String name) {
+        for (int i = 0; i + 3 <= name.length(); i++) {
+            long g = gram(name, i);
+            Postings p = postingsByGram.get(g);
+            if (p != null) {
+                p.remove(id);
+                if (p.size == 0) postingsByGram.remove(g);
+            }
+            RankedPostings r = isWordStart(name, i) ? wordStartsByGram.get(g) : null;
+            if (r != null) {
+                r.remove(rankKey(i, name.length(), id));
+                if (r.size == 0) wordStartsByGram.remove(g);
+            }
+        }
+    }
+
+    // first occurrence at a word start, else first occurrence; -1 when there is none
+    private static int bestOccurrence(String name, String t) {
+        int first = name.indexOf(t);
+        for (int at = first; at >= 0; at = name.indexOf(t, at + 1)) {
+            if (isWordStart(name, at)) return at;
+        }
+        return first;
+    }
+
+    private static boolean isWordStart(String name, int i) {
+        return i == 0 || !Character.isLetterOrDigit(name.charAt(i - 1));
+    }
+
+    private static long rankKey(int position, int length, int id) {
+        return ((long) Math.min(position, 0xFFFF) << 48) | ((long) Math.min(length, 0xFFFF) << 32)
+                | (id & 0xFFFFFFFFL);
+    }
+
+    private static long gram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    private static String normalize(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+
+    // the best limit matches seen so far: a max-heap on rank, so the worst is evicted first
+    private static final class TopMatches {
+        private final int limit;
+        private final PriorityQueue<Match> heap;
+        private final Set<Integer> ids = new HashSet<>();
+
+        TopMatches(int limit) {
+            this.limit = limit;
+            this.heap = new PriorityQueue<>(Math.min(limit, 1024) + 1, Match.BEST_FIRST.reversed());
+        }
+
+        void offer(int id, String name, String term, int position) {
+            Match m = new Match(id, name, term, position);
+            if (heap.size() == limit) {
+                if (Match.BEST_FIRST.compare(m, heap.peek()) >= 0) return;
+                ids.remove(heap.poll().id);
+            }
+            heap.add(m);
+            ids.add(id);
+        }
+
+        boolean contains(int id) {
+            return ids.contains(id);
+        }
+
+        boolean isFull() {
+            return heap.size() == limit;
+        }
+
+        int[] ids() {
+            Match[] best = heap.toArray(new Match[0]);
+            Arrays.sort(best, Match.BEST_FIRST);
+            int[] result = new int[best.length];
+            for (int i = 0; i < best.length; i++) {
+                result[i] = best[i].id;
+            }
+            return result;
+        }
+    }
+
+    private static final class Match {
+        static final Comparator<Match> BEST_FIRST = Comparator
+                .comparingInt((Match m) -> m.rank)
+                .thenComparingInt(m -> m.position)
+                .thenComparingInt(m -> m.length)
+                .thenComparingInt(m -> m.id);
+
+        final int id;
+        final int rank;
+        final int position;
+        final int length;
+
+        Match(int id, String name, String term, int position) {
+            this.id = id;
+            this.position = position;
+            this.length = name.length();
+            if (name.length() == term.length()) {
+                rank = 0;
+            } else if (position == 0) {
+                rank = 1;
+            } else if (isWordStart(name, position)) {
+                rank = 2;
+            } else {
+                rank = 3;
+            }
+        }
+    }
+}
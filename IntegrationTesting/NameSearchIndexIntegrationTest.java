@@ -0,0 +1,128 @@
+package IntegrationTesting;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NameSearchIndexIntegrationTest {
+
+    @Test
+    void substringSearch_isCaseInsensitive_andRankedBestFirst() {
+        NameSearchIndex index = new NameSearchIndex();
+        index.put(1, "Marinela Hoxha");
+        index.put(2, "Marin");
+        index.put(3, "Ana Marin");
+        index.put(4, "Kristi Hoxha");
+        index.put(5, "Amarina");
+
+        int[] ids = index.search("MARIN", 10);
+
+        // exact, prefix, word start, then inside a word
+        assertArrayEquals(new int[]{2, 1, 3, 5}, ids);
+    }
+
+    @Test
+    void limit_capsTheNumberOfResults() {
+        NameSearchIndex index = new NameSearchIndex();
+        for (int id = 1; id <= 500; id++) {
+            index.put(id, "IntTest_" + id);
+        }
+
+        assertEquals(20, index.search("inttest_", 20).length);
+        assertEquals(0, index.search("inttest_", 0).length);
+    }
+
+    @Test
+    void incrementalUpdates_renameAndDelete_areReflectedImmediately() {
+        NameSearchIndex index = new NameSearchIndex();
+        index.put(7, "Old_Name_A");
+        index.put(8, "Old_Name_B");
+
+        index.put(7, "New_Name_A"); // updateCustomer
+        index.remove(8);            // deleteCustomer
+
+        assertArrayEquals(new int[]{7}, index.search("new_name", 10));
+        assertEquals(0, index.search("old_name", 10).length);
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void gramsPresentButNotAdjacent_areNotReportedAsMatch() {
+        NameSearchIndex index = new NameSearchIndex();
+        index.put(1, "abcxbcd"); // has "abc" and "bcd" but not "abcd"
+
+        assertEquals(0, index.search("abcd", 10).length);
+    }
+
+    @Test
+    void shortTerms_fallBackToScan() {
+        NameSearchIndex index = new NameSearchIndex();
+        index.put(1, "Xu");
+        index.put(2, "Alex");
+        index.put(3, "Bob");
+
+        assertArrayEquals(new int[]{1, 2}, index.search("x", 10));
+        assertArrayEquals(new int[]{1}, index.search("XU", 10));
+    }
+
+    @Test
+    void shortTerm_exactAndPrefixMatches_rankFirst_amongManyMatches() {
+        NameSearchIndex index = new NameSearchIndex();
+        for (int id = 1; id <= 5_000; id++) {
+            index.put(id, "Hoxha_" + id);
+        }
+        index.put(9_001, "Xhoni");
+        index.put(9_000, "xh");
+
+        assertArrayEquals(new int[]{9_000, 9_001}, Arrays.copyOf(index.search("XH", 3), 2));
+    }
+
+    @Test
+    void commonTerms_matchFullRanking_withLimit() {
+        String[] first = {"Ester", "Nela", "Marinela", "Dorina", "Hoxhaj"};
+        String[] last = {"Hoxha", "Shumeli", "Nela", "Toska"};
+        NameSearchIndex index = new NameSearchIndex();
+        List<String> names = new ArrayList<>();
+        for (int id = 0; id < 40_000; id++) {
+            String name = first[id % first.length] + " " + last[(id / first.length) % last.length] + " " + id;
+            index.put(id, name);
+            names.add(name);
+        }
+        index.put(40_000, "Nela");
+        names.add("Nela");
+
+        for (String term : new String[]{"hox", "nela", "ester", "ela", "ina", "hoxha 1", "oxh"}) {
+            assertArrayEquals(expectedRanking(names, term, 50), index.search(term, 50), term);
+        }
+    }
+
+    // ---------------- helper methods ----------------
+
+    // the documented ranking, by brute force over every name
+    private static int[] expectedRanking(List<String> names, String term, int limit) {
+        List<int[]> matches = new ArrayList<>(); // {rank, position, length, id}
+        for (int id = 0; id < names.size(); id++) {
+            String name = names.get(id).toLowerCase(Locale.ROOT);
+            int at = name.indexOf(term);
+            if (at < 0) continue;
+            for (int p = at; p >= 0; p = name.indexOf(term, p + 1)) {
+                if (p == 0 || !Character.isLetterOrDigit(name.charAt(p - 1))) {
+                    at = p;
+                    break;
+                }
+            }
+            boolean wordStart = at == 0 || !Character.isLetterOrDigit(name.charAt(at - 1));
+            int rank = name.length() == term.length() ? 0 : at == 0 ? 1 : wordStart ? 2 : 3;
+            matches.add(new int[]{rank, at, name.length(), id});
+        }
+        matches.sort(Comparator.<int[]>comparingInt(m -> m[0]).thenComparingInt(m -> m[1])
+                .thenComparingInt(m -> m[2]).thenComparingInt(m -> m[3]));
+        return matches.stream().limit(limit).mapToInt(m -> m[3]).toArray();
+    }
+}
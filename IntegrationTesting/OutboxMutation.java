@@ -0,0 +1,58 @@
+package IntegrationTesting;
+
+// One pending row update in a WriteBehindOutbox. Later mutations of the same key replace earlier ones.
+public final class OutboxMutation {
+
+    public enum Kind { CUSTOMER, EMPLOYEE, STOCK }
+
+    private final Kind kind;
+    private final int id;
+    private final String name;        // CUSTOMER / EMPLOYEE
+    private final String phoneNumber; // CUSTOMER / EMPLOYEE
+    private final int stock;          // STOCK
+    private final long seq;
+    int refusals; // times the sink refused this row on its own; guarded by the outbox's lock
+
+    OutboxMutation(Kind kind, int id, String name, String phoneNumber, int stock, long seq) {
+        this.kind = kind;
+        this.id = id;
+        this.name = name;
+        this.phoneNumber = phoneNumber;
+        this.stock = stock;
+        this.seq = seq;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getPhoneNumber() {
+        return phoneNumber;
+    }
+
+    public int getStock() {
+        return stock;
+    }
+
+    // position in the outbox log; increases with every mutation submitted
+    public long getSeq() {
+        return seq;
+    }
+
+    // kind and row id in one long: the coalescing key
+    long key() {
+        return key(kind, id);
+    }
+
+    static long key(Kind kind, int id) {
+        return (long) kind.ordinal() << 32 | (id & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,9 @@
+package IntegrationTesting;
+
+import java.util.List;
+
+// Destination of WriteBehindOutbox batches. A batch either succeeds as a whole or throws.
+public interface OutboxSink {
+
+    void writeBatch(List<OutboxMutation> batch) throws Exception;
+}
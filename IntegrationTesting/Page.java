@@ -0,0 +1,32 @@
+package IntegrationTesting;
+
+import java.util.ArrayList;
+
+/**
+ * One keyset page: rows ordered by id, plus the cursor for the next call.
+ * Pass getLastId() as afterId to continue; hasMore() is false on the last page.
+ */
+public class Page<T> {
+
+    private final ArrayList<T> rows;
+    private final int lastId;
+    private final boolean hasMore;
+
+    Page(ArrayList<T> rows, int lastId, boolean hasMore) {
+        this.rows = rows;
+        this.lastId = lastId;
+        this.hasMore = hasMore;
+    }
+
+    public ArrayList<T> getRows() {
+        return rows;
+    }
+
+    public int getLastId() {
+        return lastId;
+    }
+
+    public boolean hasMore() {
+        return hasMore;
+    }
+}
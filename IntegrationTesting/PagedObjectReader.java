@@ -0,0 +1,265 @@
+package IntegrationTesting;
+
+import model.dto.CategoryDTO;
+import model.dto.CustomerDTO;
+import model.dto.EmployeeDTO;
+import model.dto.Message;
+import model.dto.MessageType;
+import model.dto.ProductDTO;
+import model.dto.Response;
+import model.dto.SupplierDTO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads for the list/search methods of DALManager, without building the whole table first.
+ * forEach / searchForEach push rows to a consumer as the driver reads them (fetchSize rows per
+ * round-trip); stream returns a lazy Stream that must be closed; page / searchPage are keyset
+ * pages ("id > afterId ORDER BY id LIMIT n"), so page 1000 costs the same as page 1.
+ * The ArrayList methods are built on forEach and keep DALManager's signatures plus a connection.
+ * MySQL only streams with a positive fetch size when the URL has useCursorFetch=true;
+ * otherwise Connector/J still buffers the whole result, and only the paged calls bound memory.
+ */
+public class PagedObjectReader {
+
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    public static final class Table<T> {
+        final String name;
+        final String columns;
+        final RowMapper<T> mapper;
+        final ToIntFunction<T> idOf;
+
+        private Table(String name, String columns, RowMapper<T> mapper, ToIntFunction<T> idOf) {
+            this.name = name;
+            this.columns = columns;
+            this.mapper = mapper;
+            this.idOf = idOf;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    public static final Table<CustomerDTO> CUSTOMERS = new Table<>("customers", "id, name, phoneNumber", rs -> {
+        CustomerDTO c = new CustomerDTO();
+        c.setId(rs.getInt(1));
+        c.setName(rs.getString(2));
+        c.setPhoneNumber(rs.getString(3));
+        return c;
+    }, CustomerDTO::getId);
+
+    public static final Table<SupplierDTO> SUPPLIERS = new Table<>("suppliers", "id, name, phoneNumber", rs -> {
+        SupplierDTO s = new SupplierDTO();
+        s.setId(rs.getInt(1));
+        s.setName(rs.getString(2));
+        s.setPhoneNumber(rs.getString(3));
+        return s;
+    }, SupplierDTO::getId);
+
+    public static final Table<EmployeeDTO> EMPLOYEES = new Table<>("employees", "id, name, phoneNumber", rs -> {
+        EmployeeDTO e = new EmployeeDTO();
+        e.setId(rs.getInt(1));
+        e.setName(rs.getString(2));
+        e.setPhoneNumber(rs.getString(3));
+        return e;
+    }, EmployeeDTO::getId);
+
+    public static final Table<CategoryDTO> CATEGORIES = new Table<>("category", "id, name", rs -> {
+        CategoryDTO c = new CategoryDTO();
+        c.setId(rs.getInt(1));
+        c.setName(rs.getString(2));
+        return c;
+    }, CategoryDTO::getId);
+
+    public static final Table<ProductDTO> PRODUCTS = new Table<>("products",
+            "id, name, barcode, price, stock_quantity, category_id, suppliers_id, quantity_type", rs -> {
+        ProductDTO p = new ProductDTO();
+        p.setProductId(rs.getInt(1));
+        p.setProductName(rs.getString(2));
+        p.setBarcode(rs.getString(3));
+        p.setPrice(rs.getDouble(4));
+        p.setStockQuantity(rs.getInt(5));
+        p.setCategoryId(rs.getInt(6));
+        p.setSupplierId(rs.getInt(7));
+        p.setQuantityType(rs.getString(8));
+        return p;
+    }, ProductDTO::getProductId);
+
+    private final int fetchSize;
+
+    public PagedObjectReader() {
+        this(DEFAULT_FETCH_SIZE);
+    }
+
+    public PagedObjectReader(int fetchSize) {
+        if (fetchSize <= 0) throw new IllegalArgumentException("fetchSize must be > 0");
+        this.fetchSize = fetchSize;
+    }
+
+    // ---------------- streaming ----------------
+
+    // every row in id order; stops at the first database error (reported in res)
+    public <T> void forEach(Connection conn, Table<T> table, Consumer<? super T> consumer, Response res) {
+        String sql = "SELECT " + table.columns + " FROM " + table.name + " ORDER BY id";
+        read(conn, table, sql, consumer, res);
+    }
+
+    public <T> void searchForEach(Connection conn, Table<T> table, String term, Consumer<? super T> consumer,
+                                  Response res) {
+        String sql = "SELECT " + table.columns + " FROM " + table.name + " WHERE name LIKE ? ORDER BY id";
+        read(conn, table, sql, consumer, res, like(term));
+    }
+
+    /**
+     * Lazy stream over the whole table; rows are read as the stream is consumed.
+     * Use try-with-resources: closing the stream closes the result set and statement.
+     */
+    public <T> Stream<T> stream(Connection conn, Table<T> table) throws SQLException {
+        PreparedStatement ps = conn.prepareStatement("SELECT " + table.columns + " FROM " + table.name + " ORDER BY id");
+        ResultSet rs;
+        try {
+            ps.setFetchSize(fetchSize);
+            rs = ps.executeQuery();
+        } catch (SQLException e) {
+            ps.close();
+            throw e;
+        }
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!rs.next()) return false;
+                    action.accept(table.mapper.map(rs));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Reading " + table + " failed: " + e.getMessage(), e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            try {
+                rs.close();
+                ps.close();
+            } catch (SQLException e) {
+                throw new IllegalStateException("Closing " + table + " stream failed: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    // ---------------- keyset pages ----------------
+
+    public <T> Page<T> page(Connection conn, Table<T> table, int afterId, int limit, Response res) {
+        String sql = "SELECT " + table.columns + " FROM " + table.name + " WHERE id > ? ORDER BY id LIMIT ?";
+        return readPage(conn, table, sql, afterId, limit, res, afterId, limit + 1);
+    }
+
+    public <T> Page<T> searchPage(Connection conn, Table<T> table, String term, int afterId, int limit,
+                                  Response res) {
+        String sql = "SELECT " + table.columns + " FROM " + table.name
+                + " WHERE name LIKE ? AND id > ? ORDER BY id LIMIT ?";
+        return readPage(conn, table, sql, afterId, limit, res, like(term), afterId, limit + 1);
+    }
+
+    // ---------------- DALManager-shaped lists ----------------
+
+    public ArrayList<CustomerDTO> getCustomers(Connection conn, Response res) {
+        return all(conn, CUSTOMERS, res);
+    }
+
+    public ArrayList<SupplierDTO> getSuppliers(Connection conn, Response res) {
+        return all(conn, SUPPLIERS, res);
+    }
+
+    public ArrayList<EmployeeDTO> getEmployees(Connection conn, Response res) {
+        return all(conn, EMPLOYEES, res);
+    }
+
+    public ArrayList<CategoryDTO> getCategories(Connection conn, Response res) {
+        return all(conn, CATEGORIES, res);
+    }
+
+    public ArrayList<ProductDTO> getProducts(Connection conn, Response res) {
+        return all(conn, PRODUCTS, res);
+    }
+
+    public ArrayList<CustomerDTO> searchCustomersByName(String term, Connection conn, Response res) {
+        ArrayList<CustomerDTO> rows = new ArrayList<>();
+        searchForEach(conn, CUSTOMERS, term, rows::add, res);
+        return rows;
+    }
+
+    public ArrayList<ProductDTO> searchProductsByName(String term, Connection conn, Response res) {
+        ArrayList<ProductDTO> rows = new ArrayList<>();
+        searchForEach(conn, PRODUCTS, term, rows::add, res);
+        return rows;
+    }
+
+    public ArrayList<CategoryDTO> searchCategoryByName(String term, Connection conn, Response res) {
+        ArrayList<CategoryDTO> rows = new ArrayList<>();
+        searchForEach(conn, CATEGORIES, term, rows::add, res);
+        return rows;
+    }
+
+    // ---------------- helper methods ----------------
+
+    private <T> ArrayList<T> all(Connection conn, Table<T> table, Response res) {
+        ArrayList<T> rows = new ArrayList<>();
+        forEach(conn, table, rows::add, res);
+        return rows;
+    }
+
+    private <T> void read(Connection conn, Table<T> table, String sql, Consumer<? super T> consumer,
+                          Response res, Object... params) {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setFetchSize(fetchSize);
+            bind(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(table.mapper.map(rs));
+                }
+            }
+        } catch (SQLException e) {
+            res.messagesList.add(new Message("Reading " + table + " failed: " + e.getMessage(), MessageType.Error));
+        }
+    }
+
+    private <T> Page<T> readPage(Connection conn, Table<T> table, String sql, int afterId, int limit,
+                                 Response res, Object... params) {
+        if (limit <= 0) throw new IllegalArgumentException("limit must be > 0");
+        ArrayList<T> rows = new ArrayList<>(Math.min(limit + 1, 1024));
+        read(conn, table, sql, rows::add, res, params);
+        boolean hasMore = rows.size() > limit; // one extra row was asked for to learn this
+        if (hasMore) rows.remove(limit);
+        int lastId = rows.isEmpty() ? afterId : table.idOf.applyAsInt(rows.get(rows.size() - 1));
+        return new Page<>(rows, lastId, hasMore);
+    }
+
+    private static void bind(PreparedStatement ps, Object[] params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            if (params[i] instanceof Integer) ps.setInt(i + 1, (Integer) params[i]);
+            else ps.setString(i + 1, (String) params[i]);
+        }
+    }
+
+    private static String like(String term) {
+        return "%" + (term == null ? "" : term) + "%";
+    }
+}
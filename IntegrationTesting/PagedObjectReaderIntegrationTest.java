@@ -0,0 +1,134 @@
+package IntegrationTesting;
+
+import model.dto.CustomerDTO;
+import model.dto.EmployeeDTO;
+import model.dto.Response;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(EmbeddedPosDatabase.class)
+public class PagedObjectReaderIntegrationTest {
+
+    private static final int EMPLOYEES = 1000;
+
+    private Connection conn;
+    private final PagedObjectReader reader = new PagedObjectReader(64);
+
+    @BeforeEach
+    void setUp(ConnectionPool pool) throws SQLException {
+        // the pool, not a rolled-back Connection: the tests count on IDs 1..EMPLOYEES, and a rollback keeps the identity
+        conn = pool.getConnection();
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO employees (name, phoneNumber) VALUES (?, ?)")) {
+            for (int i = 1; i <= EMPLOYEES; i++) {
+                ps.setString(1, "Employee_" + i);
+                ps.setString(2, "0670000000");
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        conn.close();
+    }
+
+    @Test
+    void pages_coverEveryRowOnce_inIdOrder() {
+        List<Integer> seen = new ArrayList<>();
+        int afterId = 0;
+        int pages = 0;
+        Page<EmployeeDTO> page;
+        do {
+            Response res = new Response();
+            page = reader.page(conn, PagedObjectReader.EMPLOYEES, afterId, 100, res);
+            assertTrue(res.isSuccessfull(), res.getErrorMessages());
+            for (EmployeeDTO e : page.getRows()) {
+                seen.add(e.getId());
+            }
+            afterId = page.getLastId();
+            pages++;
+        } while (page.hasMore());
+
+        assertEquals(10, pages, "1000 rows / 100 per page, no empty trailing page");
+        assertEquals(EMPLOYEES, seen.size());
+        for (int i = 0; i < seen.size(); i++) {
+            assertEquals(i + 1, seen.get(i));
+        }
+    }
+
+    @Test
+    void keysetCursor_isStable_whenEarlierRowsAreDeleted() throws Exception {
+        Page<EmployeeDTO> first = reader.page(conn, PagedObjectReader.EMPLOYEES, 0, 10, new Response());
+        try (Statement st = conn.createStatement()) {
+            st.execute("DELETE FROM employees WHERE id <= 5"); // an OFFSET-based next page would skip 5 rows
+        }
+
+        Page<EmployeeDTO> second = reader.page(conn, PagedObjectReader.EMPLOYEES, first.getLastId(), 10, new Response());
+
+        assertEquals(11, second.getRows().get(0).getId());
+        assertEquals(20, second.getLastId());
+    }
+
+    @Test
+    void searchPage_filtersByName_andPagesWithinMatches() {
+        // Employee_1, Employee_10..19, Employee_100..199, Employee_1000 contain "Employee_1"
+        Page<EmployeeDTO> page = reader.searchPage(conn, PagedObjectReader.EMPLOYEES, "Employee_1", 0, 5, new Response());
+        assertEquals(List.of(1, 10, 11, 12, 13),
+                page.getRows().stream().map(EmployeeDTO::getId).collect(Collectors.toList()));
+        assertTrue(page.hasMore());
+
+        Page<EmployeeDTO> last = reader.searchPage(conn, PagedObjectReader.EMPLOYEES, "Employee_1", 199, 5, new Response());
+        assertEquals(1, last.getRows().size());
+        assertEquals(1000, last.getLastId());
+        assertFalse(last.hasMore());
+    }
+
+    @Test
+    void stream_isLazy_andForEachMatchesList() throws Exception {
+        try (Stream<EmployeeDTO> rows = reader.stream(conn, PagedObjectReader.EMPLOYEES)) {
+            List<String> firstThree = rows.limit(3).map(EmployeeDTO::getName).collect(Collectors.toList());
+            assertEquals(List.of("Employee_1", "Employee_2", "Employee_3"), firstThree);
+        }
+
+        AtomicInteger pushed = new AtomicInteger();
+        Response res = new Response();
+        reader.forEach(conn, PagedObjectReader.EMPLOYEES, e -> pushed.incrementAndGet(), res);
+        assertTrue(res.isSuccessfull(), res.getErrorMessages());
+
+        ArrayList<EmployeeDTO> list = reader.getEmployees(conn, new Response());
+        assertEquals(EMPLOYEES, pushed.get());
+        assertEquals(EMPLOYEES, list.size());
+        assertEquals("Employee_1000", list.get(EMPLOYEES - 1).getName());
+    }
+
+    @Test
+    void missingTable_isReportedInResponse() throws SQLException {
+        Response res = new Response();
+        ArrayList<CustomerDTO> rows = reader.getCustomers(conn, res);
+        assertTrue(res.isSuccessfull(), "empty table is not an error");
+        assertTrue(rows.isEmpty());
+
+        Response broken = new Response();
+        conn.setSchema("TEST_POS"); // has no suppliers table
+        try {
+            reader.getSuppliers(conn, broken);
+        } finally {
+            conn.setSchema("POS");
+        }
+        assertFalse(broken.isSuccessfull());
+        assertTrue(broken.getErrorMessages().contains("suppliers"));
+    }
+}
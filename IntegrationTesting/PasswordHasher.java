@@ -0,0 +1,106 @@
+package IntegrationTesting;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Salted PBKDF2 (HMAC-SHA256, JDK only) password hashes for pos.users.password.
+ * A stored hash is one string, "pbkdf2$<iterations>$<salt>$<hash>" (Base64), so the cost can be
+ * raised later: old hashes keep verifying with their own iteration count and needsRehash says
+ * when to replace them. Anything not in that format is treated as a legacy plaintext password.
+ * Comparisons are constant-time (MessageDigest.isEqual).
+ */
+public class PasswordHasher {
+
+    public static final int DEFAULT_ITERATIONS = 310_000;
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String PREFIX = "pbkdf2$";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+
+    public PasswordHasher() {
+        this(DEFAULT_ITERATIONS);
+    }
+
+    public PasswordHasher(int iterations) {
+        if (iterations < 1) throw new IllegalArgumentException("iterations must be > 0");
+        this.iterations = iterations;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    // a new salt every call, so the same password never hashes to the same string twice
+    public String hash(String password) {
+        if (password == null) throw new IllegalArgumentException("password must not be null");
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(pbkdf2(password, salt, iterations));
+    }
+
+    /**
+     * True if password matches stored, which is either a hash from hash() or a legacy plaintext
+     * password. A malformed hash never matches.
+     */
+    public boolean verify(String password, String stored) {
+        if (password == null || stored == null) return false;
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        }
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) return false;
+        try {
+            int storedIterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            if (storedIterations < 1 || expected.length == 0) return false;
+            return MessageDigest.isEqual(pbkdf2(password, salt, storedIterations), expected);
+        } catch (IllegalArgumentException e) { // bad number or Base64
+            return false;
+        }
+    }
+
+    // pays the same cost as verifying a real hash; used for unknown usernames so they don't answer faster
+    public void dummyVerify(String password) {
+        pbkdf2(password == null ? "" : password, new byte[SALT_BYTES], iterations);
+    }
+
+    public static boolean isHashed(String stored) {
+        return stored != null && stored.startsWith(PREFIX);
+    }
+
+    // plaintext, or hashed with fewer iterations than this hasher uses
+    public boolean needsRehash(String stored) {
+        if (!isHashed(stored)) return true;
+        int end = stored.indexOf('$', PREFIX.length());
+        try {
+            return end < 0 || Integer.parseInt(stored.substring(PREFIX.length(), end)) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    // ---------------- helper methods ----------------
+
+    private static byte[] pbkdf2(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package IntegrationTesting;
+
+// Point-in-time snapshot of ConnectionPool counters.
+public final class PoolMetrics {
+
+    private final int active;
+    private final int idle;
+    private final int total;
+    private final long borrows;
+    private final long timeouts;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long validationFailures;
+    private final long leaks;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+
+    PoolMetrics(int active, int idle, int total, long borrows, long timeouts,
+                long totalWaitNanos, long maxWaitNanos, long validationFailures, long leaks,
+                long statementCacheHits, long statementCacheMisses) {
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.borrows = borrows;
+        this.timeouts = timeouts;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.validationFailures = validationFailures;
+        this.leaks = leaks;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public long getBorrows() {
+        return borrows;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos;
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    public double getAverageWaitMillis() {
+        return borrows + timeouts == 0 ? 0.0 : totalWaitNanos / 1e6 / (borrows + timeouts);
+    }
+
+    public long getValidationFailures() {
+        return validationFailures;
+    }
+
+    public long getLeaks() {
+        return leaks;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    @Override
+    public String toString() {
+        return "PoolMetrics{active=" + active + ", idle=" + idle + ", total=" + total
+                + ", borrows=" + borrows + ", timeouts=" + timeouts
+                + ", avgWaitMs=" + String.format("%.3f", getAverageWaitMillis())
+                + ", maxWaitMs=" + String.format("%.3f", maxWaitNanos / 1e6)
+                + ", validationFailures=" + validationFailures + ", leaks=" + leaks
+                + ", statementCacheHits=" + statementCacheHits + ", statementCacheMisses=" + statementCacheMisses + "}";
+    }
+}
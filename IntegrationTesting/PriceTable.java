@@ -0,0 +1,180 @@
+package IntegrationTesting;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Versioned unit prices read without locks.
+ * Every published state is an immutable Snapshot: a radix tree over the product ID, 8 bits per
+ * level (7 at the root), with prices in leaves of 256 IDs. A change copies only the path to each
+ * leaf it touches (about 5 KB) and shares every other node with the previous snapshot, then
+ * publishes the new root with one compareAndSet. A reader that pins a snapshot therefore prices
+ * a whole basket at one version, and a bulk update becomes visible all at once.
+ * Writers never block readers; concurrent writers retry on the newer snapshot.
+ */
+public class PriceTable {
+
+    public static final long NO_PRICE = -1L;
+
+    private static final int BITS = 8;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+    private static final int ROOT_SHIFT = 3 * BITS; // root covers bits 24..30
+
+    // one published state; never modified after it is built
+    public static final class Snapshot {
+        private final long version;
+        private final Object[] root; // Object[] -> Object[] -> long[] leaf; null = no prices below
+        private final int size;
+
+        private Snapshot(long version, Object[] root, int size) {
+            this.version = version;
+            this.root = root;
+            this.size = size;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        // number of priced products
+        public int size() {
+            return size;
+        }
+
+        public long getPriceCents(int productId) {
+            if (productId < 0) return NO_PRICE;
+            Object[] n1 = (Object[]) root[productId >>> ROOT_SHIFT];
+            if (n1 == null) return NO_PRICE;
+            Object[] n2 = (Object[]) n1[(productId >>> (2 * BITS)) & MASK];
+            if (n2 == null) return NO_PRICE;
+            long[] leaf = (long[]) n2[(productId >>> BITS) & MASK];
+            return leaf == null ? NO_PRICE : leaf[productId & MASK];
+        }
+
+        /**
+         * Prices a basket at this snapshot's version, filling unitPriceCents[i] when non-null.
+         * Returns the total in cents, or -(i + 1) when line i has a quantity <= 0 or no price.
+         */
+        public long priceBasket(int[] productIds, int[] qtys, long[] unitPriceCents) {
+            long totalCents = 0L;
+            for (int i = 0; i < productIds.length; i++) {
+                long price = getPriceCents(productIds[i]);
+                if (qtys[i] <= 0 || price == NO_PRICE) return -(i + 1L);
+                if (unitPriceCents != null) unitPriceCents[i] = price;
+                totalCents = Math.addExact(totalCents, Math.multiplyExact(price, (long) qtys[i]));
+            }
+            return totalCents;
+        }
+    }
+
+    private final AtomicReference<Snapshot> current =
+            new AtomicReference<>(new Snapshot(0L, new Object[1 << (31 - ROOT_SHIFT)], 0));
+    private final LongAdder publishRetries = new LongAdder();
+
+    // prices of every product in the catalog, as version 1
+    public static PriceTable fromCatalog(ProductCatalog catalog) {
+        int n = catalog.size();
+        int[] productIds = new int[n];
+        long[] priceCents = new long[n];
+        for (int slot = 0; slot < n; slot++) {
+            productIds[slot] = catalog.productIdAt(slot);
+            priceCents[slot] = catalog.priceCentsAt(slot);
+        }
+        PriceTable table = new PriceTable();
+        table.setPrices(productIds, priceCents);
+        return table;
+    }
+
+    // the current state; keep the reference to read one consistent version
+    public Snapshot snapshot() {
+        return current.get();
+    }
+
+    public long getVersion() {
+        return current.get().getVersion();
+    }
+
+    public long getPriceCents(int productId) {
+        return current.get().getPriceCents(productId);
+    }
+
+    // number of times a writer lost the race to publish and rebuilt on the newer snapshot
+    public long getPublishRetries() {
+        return publishRetries.sum();
+    }
+
+    // returns the version that carries the change
+    public long setPrice(int productId, long priceCents) {
+        return setPrices(new int[]{productId}, new long[]{priceCents});
+    }
+
+    /**
+     * Applies every change as one new version (the last one wins for a repeated ID);
+     * readers see either none or all of them. Returns the published version.
+     */
+    public long setPrices(int[] productIds, long[] priceCents) {
+        if (productIds.length != priceCents.length) {
+            throw new IllegalArgumentException("productIds and priceCents must have the same length");
+        }
+        for (int i = 0; i < productIds.length; i++) {
+            if (productIds[i] < 0) throw new IllegalArgumentException("Product ID must be >= 0");
+            if (priceCents[i] < 0) throw new IllegalArgumentException("Price must be >= 0");
+        }
+        while (true) {
+            Snapshot base = current.get();
+            Snapshot next = apply(base, productIds, priceCents);
+            if (current.compareAndSet(base, next)) return next.getVersion();
+            publishRetries.increment();
+        }
+    }
+
+    // ---------------- helper methods ----------------
+
+    // copy-on-write: a node is copied the first time this change touches it, then edited in place
+    private static Snapshot apply(Snapshot base, int[] productIds, long[] priceCents) {
+        Set<Object> own = Collections.newSetFromMap(new IdentityHashMap<>());
+        Object[] root = base.root.clone();
+        int size = base.size;
+        for (int i = 0; i < productIds.length; i++) {
+            int productId = productIds[i];
+            Object[] n1 = child(root, productId >>> ROOT_SHIFT, own);
+            Object[] n2 = child(n1, (productId >>> (2 * BITS)) & MASK, own);
+            int l = (productId >>> BITS) & MASK;
+            long[] leaf = (long[]) n2[l];
+            if (leaf == null) {
+                leaf = new long[WIDTH];
+                Arrays.fill(leaf, NO_PRICE);
+                own.add(leaf);
+                n2[l] = leaf;
+            } else if (!own.contains(leaf)) {
+                leaf = leaf.clone();
+                own.add(leaf);
+                n2[l] = leaf;
+            }
+            int k = productId & MASK;
+            if (leaf[k] == NO_PRICE) size++;
+            leaf[k] = priceCents[i];
+        }
+        return new Snapshot(base.version + 1, root, size);
+    }
+
+    // node below parent[index], made private to this change
+    private static Object[] child(Object[] parent, int index, Set<Object> own) {
+        Object[] node = (Object[]) parent[index];
+        if (node == null) {
+            node = new Object[WIDTH];
+        } else if (own.contains(node)) {
+            return node;
+        } else {
+            node = node.clone();
+        }
+        own.add(node);
+        parent[index] = node;
+        return node;
+    }
+}
@@ -0,0 +1,182 @@
+package IntegrationTesting;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceTableIntegrationTest {
+
+    private static final int[] BASKET = {101, 102, 103, 104, 105};
+    private static final int[] ONE_EACH = {1, 1, 1, 1, 1};
+
+    @Test
+    void bulkUpdate_isOneVersion_andPinnedSnapshotKeepsOldPrices() {
+        PriceTable prices = new PriceTable();
+        prices.setPrices(new int[]{0, 101, Integer.MAX_VALUE, 7919 * 100_000}, new long[]{5, 1000, 7, 42});
+        PriceTable.Snapshot before = prices.snapshot();
+
+        long version = prices.setPrices(new int[]{101, 102, 101}, new long[]{1100, 200, 1200});
+
+        assertEquals(2, version);
+        assertEquals(1, before.getVersion());
+        assertEquals(1000, before.getPriceCents(101));
+        assertEquals(PriceTable.NO_PRICE, before.getPriceCents(102));
+        assertEquals(4, before.size());
+
+        PriceTable.Snapshot after = prices.snapshot();
+        assertEquals(1200, after.getPriceCents(101)); // last one wins
+        assertEquals(200, after.getPriceCents(102));
+        assertEquals(5, after.getPriceCents(0));
+        assertEquals(7, after.getPriceCents(Integer.MAX_VALUE));
+        assertEquals(42, after.getPriceCents(7919 * 100_000));
+        assertEquals(PriceTable.NO_PRICE, after.getPriceCents(-1));
+        assertEquals(5, after.size());
+    }
+
+    @Test
+    void priceBasket_reportsFirstUnpricedOrBadLine() {
+        PriceTable prices = new PriceTable();
+        prices.setPrices(new int[]{1, 2}, new long[]{250, 99});
+        PriceTable.Snapshot snapshot = prices.snapshot();
+        long[] unit = new long[2];
+
+        assertEquals(2 * 250 + 3 * 99, snapshot.priceBasket(new int[]{1, 2}, new int[]{2, 3}, unit));
+        assertArrayEquals(new long[]{250, 99}, unit);
+        assertEquals(-2, snapshot.priceBasket(new int[]{1, 3}, new int[]{1, 1}, null));
+        assertEquals(-1, snapshot.priceBasket(new int[]{1, 2}, new int[]{0, 1}, null));
+        assertThrows(IllegalArgumentException.class, () -> prices.setPrice(1, -5));
+        assertThrows(IllegalArgumentException.class, () -> prices.setPrice(-1, 5));
+        assertEquals(1, prices.getVersion(), "refused changes publish nothing");
+    }
+
+    @Test
+    void concurrentWriters_loseNoChange() throws Exception {
+        PriceTable prices = new PriceTable();
+        runConcurrently(4, writer -> {
+            for (int i = 0; i < 1000; i++) {
+                prices.setPrice(writer * 1000 + i, i);
+            }
+        });
+
+        assertEquals(4000, prices.getVersion());
+        assertEquals(4000, prices.snapshot().size());
+        assertEquals(999, prices.getPriceCents(3999));
+    }
+
+    @Test
+    void checkout_pricesWholeBasketAtOneVersion_whilePricesChange() throws Exception {
+        ProductDALStub productDal = new ProductDALStub();
+        for (int id : BASKET) {
+            productDal.seedProduct(id, 1.00, 1_000_000);
+        }
+        PriceTable prices = new PriceTable();
+        prices.setPrices(BASKET, pricesAt(1));
+        RecordingSaleDAL saleDal = new RecordingSaleDAL();
+        CheckoutService service = new CheckoutService(productDal, saleDal, prices, null);
+
+        AtomicBoolean selling = new AtomicBoolean(true);
+        Thread repricer = new Thread(() -> {
+            for (long v = 2; selling.get(); v++) {
+                prices.setPrices(BASKET, pricesAt(v)); // every product of the basket moves together
+            }
+        });
+        repricer.start();
+        try {
+            runConcurrently(4, till -> {
+                for (int i = 0; i < 2000; i++) {
+                    assertEquals(0, service.checkoutCents(BASKET, ONE_EACH) % BASKET.length);
+                }
+            });
+        } finally {
+            selling.set(false);
+            repricer.join();
+        }
+
+        assertEquals(8000, saleDal.unitPrices.size());
+        for (long[] unit : saleDal.unitPrices) {
+            for (long price : unit) {
+                assertEquals(unit[0], price, "mixed versions in one basket");
+            }
+        }
+        assertEquals(1_000_000 - 8000, productDal.getStock(101));
+    }
+
+    @Test
+    void checkout_unpricedProduct_isRefused_andTakesNoStock() {
+        ProductDALStub productDal = new ProductDALStub();
+        productDal.seedProduct(101, 1.00, 10);
+        productDal.seedProduct(102, 1.00, 10);
+        PriceTable prices = new PriceTable();
+        prices.setPrice(101, 150);
+        CheckoutService service = new CheckoutService(productDal, new SaleDALStub(), prices, new MetricsRegistry("pt"));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> service.checkoutCents(new int[]{101, 102}, new int[]{1, 1}));
+        assertEquals("No price for product 102", ex.getMessage());
+        assertEquals(10, productDal.getStock(101));
+
+        prices.setPrice(102, 250);
+        assertEquals(400, service.checkoutCents(new int[]{101, 102}, new int[]{1, 1}));
+        assertEquals(9, productDal.getStock(102));
+    }
+
+    // ---------------- helper methods ----------------
+
+    private static final class RecordingSaleDAL extends SaleDALStub {
+        final List<long[]> unitPrices = new ArrayList<>();
+
+        RecordingSaleDAL() {
+            super(null, null);
+        }
+
+        @Override
+        public synchronized void saveSale(long totalCents, int[] productIds, int[] categoryIds, int[] qtys,
+                                          long[] unitPriceCents) {
+            super.saveSale(totalCents, productIds, categoryIds, qtys, unitPriceCents);
+            unitPrices.add(unitPriceCents.clone());
+        }
+    }
+
+    private static long[] pricesAt(long version) {
+        long[] cents = new long[BASKET.length];
+        Arrays.fill(cents, 100 + version);
+        return cents;
+    }
+
+    private interface Till {
+        void run(int till) throws Exception;
+    }
+
+    private void runConcurrently(int threads, Till body) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    body.run(next.getAndIncrement());
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package IntegrationTesting;
+
+/**
+ * Columnar product catalog keyed by primitive product ID.
+ * An open-addressing index maps productId -> slot; stock, price and category live in parallel
+ * arrays, so one probe answers all three lookups without boxing.
+ * Writes (put / setStockAt) must be serialized by the caller (see InventoryStore).
+ */
+public class ProductCatalog {
+
+    private static final int NO_SLOT = -1;
+
+    // one immutable set of arrays; replaced as a whole when the catalog grows
+    private static final class Columns {
+        final int[] index;       // hash bucket -> slot + 1 (0 = empty)
+        final int[] productIds;  // slot -> productId
+        final int[] stock;       // slot -> units in stock
+        final long[] priceCents; // slot -> unit price in cents
+        final int[] categoryIds; // slot -> category id (0 = none)
+
+        Columns(int indexCapacity, int slotCapacity) {
+            index = new int[indexCapacity];
+            productIds = new int[slotCapacity];
+            stock = new int[slotCapacity];
+            priceCents = new long[slotCapacity];
+            categoryIds = new int[slotCapacity];
+        }
+    }
+
+    private volatile Columns columns;
+    private int size;
+
+    public ProductCatalog() {
+        this(16);
+    }
+
+    public ProductCatalog(int expectedProducts) {
+        int slots = Math.max(expectedProducts, 16);
+        columns = new Columns(indexCapacityFor(slots), slots);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // slot of the product or -1 if it is not in the catalog
+    public int slotOf(int productId) {
+        Columns c = columns;
+        int mask = c.index.length - 1;
+        for (int b = hash(productId) & mask; ; b = (b + 1) & mask) {
+            int entry = c.index[b];
+            if (entry == 0) return NO_SLOT;
+            if (c.productIds[entry - 1] == productId) return entry - 1;
+        }
+    }
+
+    // inserts or overwrites a product without a category, returns its slot
+    public int put(int productId, long priceCents, int stock) {
+        return put(productId, priceCents, stock, 0);
+    }
+
+    public int put(int productId, long priceCents, int stock, int categoryId) {
+        int slot = slotOf(productId);
+        if (slot == NO_SLOT) {
+            if (size == columns.productIds.length) grow();
+            slot = size++;
+            Columns c = columns;
+            c.productIds[slot] = productId;
+            insertIntoIndex(c, productId, slot);
+        }
+        Columns c = columns;
+        c.stock[slot] = stock;
+        c.priceCents[slot] = priceCents;
+        c.categoryIds[slot] = categoryId;
+        return slot;
+    }
+
+    public int productIdAt(int slot) {
+        return columns.productIds[slot];
+    }
+
+    public int stockAt(int slot) {
+        return columns.stock[slot];
+    }
+
+    public void setStockAt(int slot, int stock) {
+        columns.stock[slot] = stock;
+    }
+
+    public long priceCentsAt(int slot) {
+        return columns.priceCents[slot];
+    }
+
+    public int categoryIdAt(int slot) {
+        return columns.categoryIds[slot];
+    }
+
+    public int getStock(int productId) {
+        int slot = slotOf(productId);
+        return slot == NO_SLOT ? 0 : stockAt(slot);
+    }
+
+    public long getPriceCents(int productId) {
+        int slot = slotOf(productId);
+        return slot == NO_SLOT ? 0L : priceCentsAt(slot);
+    }
+
+    private void grow() {
+        Columns old = columns;
+        int slots = old.productIds.length * 2;
+        Columns c = new Columns(indexCapacityFor(slots), slots);
+        System.arraycopy(old.productIds, 0, c.productIds, 0, size);
+        System.arraycopy(old.stock, 0, c.stock, 0, size);
+        System.arraycopy(old.priceCents, 0, c.priceCents, 0, size);
+        System.arraycopy(old.categoryIds, 0, c.categoryIds, 0, size);
+        for (int slot = 0; slot < size; slot++) {
+            insertIntoIndex(c, c.productIds[slot], slot);
+        }
+        columns = c;
+    }
+
+    private static void insertIntoIndex(Columns c, int productId, int slot) {
+        int mask = c.index.length - 1;
+        int b = hash(productId) & mask;
+        while (c.index[b] != 0) {
+            b = (b + 1) & mask;
+        }
+        c.index[b] = slot + 1;
+    }
+
+    // keeps the index at most half full
+    private static int indexCapacityFor(int slots) {
+        return Integer.highestOneBit(Math.max(slots, 8) - 1) << 2;
+    }
+
+    private static int hash(int productId) {
+        int h = productId * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,53 @@
+package IntegrationTesting;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductCatalogIntegrationTest {
+
+    @Test
+    void seedManyProducts_growsCatalog_andServesStockAndPriceFromOneSlot() {
+        ProductCatalog catalog = new ProductCatalog();
+        ProductDALStub productDal = new ProductDALStub(catalog);
+
+        // sparse, non-sequential IDs force probing and several resizes
+        for (int i = 1; i <= 100_000; i++) {
+            productDal.seedProduct(i * 7919, i / 100.0, i % 50);
+        }
+
+        assertEquals(100_000, catalog.size());
+        for (int i = 1; i <= 100_000; i += 997) {
+            int slot = catalog.slotOf(i * 7919);
+            assertTrue(slot >= 0);
+            assertEquals(i * 7919, catalog.productIdAt(slot));
+            assertEquals(i % 50, catalog.stockAt(slot));
+            assertEquals(i, catalog.priceCentsAt(slot));
+            assertEquals(i / 100.0, productDal.getPrice(i * 7919), 0.0001);
+        }
+    }
+
+    @Test
+    void unknownProduct_hasNoStockAndNoPrice() {
+        ProductDALStub productDal = new ProductDALStub();
+        productDal.seedProduct(101, 50.0, 10);
+
+        assertEquals(0, productDal.getStock(999));
+        assertEquals(0.0, productDal.getPrice(999), 0.0001);
+        assertEquals(-1, productDal.reserveAll(new int[]{101}, new int[]{1}));
+        assertEquals(0, productDal.reserveAll(new int[]{999}, new int[]{1}));
+    }
+
+    @Test
+    void reseedProduct_overwritesInPlace_andPriceIsExactInCents() {
+        ProductCatalog catalog = new ProductCatalog();
+        ProductDALStub productDal = new ProductDALStub(catalog);
+
+        productDal.seedProduct(101, 0.1, 10);
+        productDal.seedProduct(101, 19.99, 3);
+
+        assertEquals(1, catalog.size());
+        assertEquals(3, productDal.getStock(101));
+        assertEquals(1999L, productDal.getPriceCents(101));
+    }
+}
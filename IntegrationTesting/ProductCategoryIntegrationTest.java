@@ -1,12 +1,15 @@
 package IntegrationTesting;
 
-import org.junit.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.sql.*;
 import java.util.UUID;
 
-import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith(EmbeddedPosDatabase.class)
 public class ProductCategoryIntegrationTest {
 
     private Connection conn;
@@ -17,13 +20,9 @@ public class ProductCategoryIntegrationTest {
     private String categoryName;
     private String productName;
 
-    @Before
-    public void setUp() throws Exception {
-        conn = DriverManager.getConnection(
-                "jdbc:mysql://localhost:3306/test_pos",
-                "root",
-                "centralcee23"
-        );
+    @BeforeEach
+    public void setUp(@EmbeddedPosDatabase.TestPos Connection conn) throws Exception {
+        this.conn = conn; // embedded test_pos schema; rolled back after each test
 
         categoryName = "CAT_" + UUID.randomUUID().toString().substring(0, 6);
         productName  = "PROD_" + UUID.randomUUID().toString().substring(0, 6);
@@ -90,27 +89,4 @@ public class ProductCategoryIntegrationTest {
             assertTrue(msg.contains("foreign key") || msg.contains("constraint"));
         }
     }
-
-    @After
-    public void tearDown() throws Exception {
-        if (conn != null) {
-            // delete child first
-            if (productId != 0) {
-                try (PreparedStatement ps = conn.prepareStatement("DELETE FROM products WHERE id = ?")) {
-                    ps.setInt(1, productId);
-                    ps.executeUpdate();
-                }
-            }
-
-            // delete parent
-            if (categoryId != 0) {
-                try (PreparedStatement ps = conn.prepareStatement("DELETE FROM categories WHERE id = ?")) {
-                    ps.setInt(1, categoryId);
-                    ps.executeUpdate();
-                }
-            }
-
-            conn.close();
-        }
-    }
-}
\ No newline at end of file
+}
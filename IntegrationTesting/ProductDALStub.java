@@ -1,28 +1,69 @@
 package IntegrationTesting;
 
-import java.util.HashMap;
-import java.util.Map;
-
 public class ProductDALStub {
 
-    private final Map<Integer, Integer> stockByProductId = new HashMap<>();
-    private final Map<Integer, Double> priceByProductId = new HashMap<>();
+    private final InventoryStore inventory;
+
+    public ProductDALStub() {
+        this(new ProductCatalog());
+    }
+
+    public ProductDALStub(ProductCatalog catalog) {
+        this.inventory = new InventoryStore(catalog);
+    }
 
     public void seedProduct(int productId, double price, int stock) {
-        priceByProductId.put(productId, price);
-        stockByProductId.put(productId, stock);
+        inventory.seed(productId, Math.round(price * 100), stock);
+    }
+
+    public void seedProduct(int productId, double price, int stock, int categoryId) {
+        inventory.seed(productId, Math.round(price * 100), stock, categoryId);
     }
 
     public int getStock(int productId) {
-        return stockByProductId.getOrDefault(productId, 0);
+        return inventory.getStock(productId);
     }
 
     public double getPrice(int productId) {
-        return priceByProductId.getOrDefault(productId, 0.0);
+        return getPriceCents(productId) / 100.0;
+    }
+
+    public long getPriceCents(int productId) {
+        return inventory.getCatalog().getPriceCents(productId);
     }
 
+    // unconditional, like the DAL's read-modify-write; use tryReserve when stock must not go negative
     public void decreaseStock(int productId, int qty) {
-        int current = getStock(productId);
-        stockByProductId.put(productId, current - qty);
+        inventory.decrease(productId, qty);
+    }
+
+    // atomic "stock >= qty ? stock -= qty" (the stub's side of JdbcStockDAL.tryReserve)
+    public boolean tryReserve(int productId, int qty) {
+        return inventory.tryDecrease(productId, qty);
+    }
+
+    // gives back units taken by tryReserve (a voided or expired reservation)
+    public void releaseStock(int productId, int qty) {
+        inventory.increase(productId, qty);
+    }
+
+    // all-or-nothing; returns -1 on success or the index of the line that failed
+    public int reserveAll(int[] productIds, int[] qtys) {
+        return inventory.reserveAll(productIds, qtys);
+    }
+
+    // one pass: validate + price + take stock; total in cents or -(failedLine + 1)
+    public long reserveAndPrice(int[] productIds, int[] qtys) {
+        return inventory.reserveAndPrice(productIds, qtys);
+    }
+
+    // same, also reporting each line's unit price and category (for the sale lines)
+    public long reserveAndPrice(int[] productIds, int[] qtys, long[] unitPriceCents, int[] categoryIds) {
+        return inventory.reserveAndPrice(productIds, qtys, unitPriceCents, categoryIds);
+    }
+
+    // prices lines whose stock is already held; total in cents or -(failedLine + 1)
+    public long price(int[] productIds, int[] qtys, long[] unitPriceCents, int[] categoryIds) {
+        return inventory.price(productIds, qtys, unitPriceCents, categoryIds);
     }
 }
@@ -6,9 +6,9 @@ import model.dto.ProductDTO;
 import model.dto.Response;
 import model.dto.SupplierDTO;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.parallel.ResourceLock;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.util.ArrayList;
@@ -16,9 +16,14 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+// DALManager opens its own MySQL connection, so this class cannot use EmbeddedPosDatabase;
+// the three mysql classes share that one database, so they never run at the same time
+@Tag("mysql")
+@ResourceLock("mysql")
 public class ProductSupplierIntegrationTest {
 
     private DALManager dalManager;
+    private CachedReferenceData referenceData;
 
     private SupplierDTO supplier;
     private ProductDTO product;
@@ -27,13 +32,10 @@ public class ProductSupplierIntegrationTest {
     private String uniqueProductName;
 
 
-    private static final String DB_URL  = "jdbc:mysql://localhost:3306/pos";
-    private static final String DB_USER = "root";
-    private static final String DB_PASS = "centralcee23";
-
     @BeforeEach
     void setUp() {
         dalManager = new DALManager();
+        referenceData = new CachedReferenceData(dalManager);
 
         String uid = UUID.randomUUID().toString().substring(0, 6);
         uniqueSupplierName = "IntSupp_" + uid;
@@ -45,7 +47,7 @@ public class ProductSupplierIntegrationTest {
         supplier.setPhoneNumber("0691111111");
 
         Response res = new Response();
-        dalManager.saveSupplier(supplier, res);
+        referenceData.saveSupplier(supplier, res);
         assertTrue(res.isSuccessfull(), "Supplier insert failed: " + res.getErrorMessages());
 
         // 2) SYNC SUPPLIER ID (DAL)
@@ -123,16 +125,9 @@ public class ProductSupplierIntegrationTest {
 
     private void syncSupplierIdFromDb() {
         Response res = new Response();
-        ArrayList<SupplierDTO> suppliers = dalManager.getSuppliers(res);
+        SupplierDTO found = referenceData.getSupplierByName(uniqueSupplierName, res);
 
         assertTrue(res.isSuccessfull(), "Get suppliers failed: " + res.getErrorMessages());
-        assertNotNull(suppliers, "Suppliers list is null");
-
-        SupplierDTO found = suppliers.stream()
-                .filter(s -> uniqueSupplierName.equals(s.getName()))
-                .findFirst()
-                .orElse(null);
-
         assertNotNull(found, "Could not sync supplier ID from DB");
         supplier.setId(found.getId());
     }
@@ -159,7 +154,7 @@ public class ProductSupplierIntegrationTest {
      * - supplier FK column: suppliers_id
      */
     private int fetchSupplierIdFromDbByProductId(int productId) throws Exception {
-        try (Connection conn = DriverManager.getConnection(DB_URL, DB_USER, DB_PASS)) {
+        try (Connection conn = TestDatabase.pos()) {
 
             String sql = "SELECT suppliers_id FROM products WHERE id = ?";
 
@@ -0,0 +1,249 @@
+package IntegrationTesting;
+
+import model.dto.Response;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Read-through cache for one small reference table (categories, suppliers, employees).
+ * The DAL can only read the whole table, so a miss reloads the table once and every waiting
+ * caller shares that load. Rows expire after ttlMillis; at most maxEntries rows are kept, least
+ * recently used first out. A table larger than maxEntries is never served from cache as a list.
+ * While the whole table is cached and fresh, a lookup of an absent id or name is answered
+ * "not found" from it; otherwise it reloads.
+ * invalidate() bumps a generation; a load that started before it is returned to its caller
+ * but not cached, so a save during a load is never hidden behind pre-save rows.
+ * Cached DTOs are shared instances and should be treated as read-only.
+ */
+public class ReferenceDataCache<T> {
+
+    private static final class Entry<T> {
+        final T row;
+        final long loadedAt;
+
+        Entry(T row, long loadedAt) {
+            this.row = row;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final Function<Response, ArrayList<T>> loader;
+    private final ToIntFunction<T> idOf;
+    private final Function<T, String> nameOf;
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier clock;
+
+    private final LinkedHashMap<Integer, Entry<T>> byId; // access order = LRU
+    private final Map<String, Integer> idByName = new HashMap<>();
+    private ArrayList<T> all;  // whole table in DAL order, null if not cached
+    private long allLoadedAt;
+    private long generation;   // bumped by invalidate()
+
+    private final Object loadLock = new Object();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ReferenceDataCache(Function<Response, ArrayList<T>> loader, ToIntFunction<T> idOf,
+                              Function<T, String> nameOf, long ttlMillis, int maxEntries) {
+        this(loader, idOf, nameOf, ttlMillis, maxEntries, System::nanoTime);
+    }
+
+    // clock is injectable so expiry can be tested without sleeping
+    ReferenceDataCache(Function<Response, ArrayList<T>> loader, ToIntFunction<T> idOf,
+                       Function<T, String> nameOf, long ttlMillis, int maxEntries, LongSupplier clock) {
+        if (ttlMillis <= 0) throw new IllegalArgumentException("ttlMillis must be > 0");
+        if (maxEntries <= 0) throw new IllegalArgumentException("maxEntries must be > 0");
+        this.loader = loader;
+        this.idOf = idOf;
+        this.nameOf = nameOf;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    // the whole table, as DALManager.getXxx(res) would return it
+    public ArrayList<T> getAll(Response res) {
+        synchronized (this) {
+            if (all != null && isFresh(allLoadedAt)) {
+                hits.incrementAndGet();
+                return new ArrayList<>(all);
+            }
+        }
+        misses.incrementAndGet();
+        synchronized (loadLock) {
+            synchronized (this) {
+                if (all != null && isFresh(allLoadedAt)) return new ArrayList<>(all); // loaded while we waited
+            }
+            long gen = generation();
+            ArrayList<T> rows = loader.apply(res);
+            if (rows == null) return new ArrayList<>();
+            if (res.isSuccessfull()) store(rows, gen);
+            return new ArrayList<>(rows);
+        }
+    }
+
+    // null if no row has that id (or the load failed, see res)
+    public T getById(int id, Response res) {
+        synchronized (this) {
+            T row = cachedById(id, true);
+            if (row != null || knownAbsent()) return row;
+        }
+        misses.incrementAndGet();
+        synchronized (loadLock) {
+            synchronized (this) {
+                T row = cachedById(id, false); // loaded while we waited
+                if (row != null || knownAbsent()) return row;
+            }
+            long gen = generation();
+            for (T loaded : load(res, gen)) {
+                if (idOf.applyAsInt(loaded) == id) return remember(loaded, gen);
+            }
+            return null;
+        }
+    }
+
+    // exact, case-sensitive name; null if none
+    public T getByName(String name, Response res) {
+        if (name == null) return null;
+        synchronized (this) {
+            T row = cachedByName(name, true);
+            if (row != null || knownAbsent()) return row;
+        }
+        misses.incrementAndGet();
+        synchronized (loadLock) {
+            synchronized (this) {
+                T row = cachedByName(name, false);
+                if (row != null || knownAbsent()) return row;
+            }
+            long gen = generation();
+            for (T loaded : load(res, gen)) {
+                if (name.equals(nameOf.apply(loaded))) return remember(loaded, gen);
+            }
+            return null;
+        }
+    }
+
+    // drops everything; the next read goes to the database
+    public synchronized void invalidate() {
+        generation++;
+        byId.clear();
+        idByName.clear();
+        all = null;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getLoads() {
+        return loads.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    // ---------------- helper methods ----------------
+
+    private synchronized T cachedById(int id, boolean countHit) {
+        Entry<T> e = byId.get(id);
+        if (e == null || !isFresh(e.loadedAt)) return null;
+        if (countHit) hits.incrementAndGet();
+        return e.row;
+    }
+
+    private synchronized T cachedByName(String name, boolean countHit) {
+        Integer id = idByName.get(name);
+        return id == null ? null : cachedById(id, countHit);
+    }
+
+    // the whole table is cached and fresh, so a row missing from it does not exist; counted as a hit
+    private boolean knownAbsent() {
+        if (all == null || !isFresh(allLoadedAt)) return false;
+        hits.incrementAndGet();
+        return true;
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    // caller holds loadLock; returns the fresh rows, empty if the load failed
+    private ArrayList<T> load(Response res, long gen) {
+        ArrayList<T> rows = loader.apply(res);
+        if (rows == null || !res.isSuccessfull()) return new ArrayList<>();
+        store(rows, gen);
+        return rows;
+    }
+
+    // a row just looked up must survive eviction in a table larger than maxEntries
+    private synchronized T remember(T row, long gen) {
+        if (all != null || gen != generation) return row; // already cached by store(), or stale
+        int id = idOf.applyAsInt(row);
+        if (byId.get(id) == null) { // get() also marks it most recently used
+            byId.put(id, new Entry<>(row, clock.getAsLong()));
+            String name = nameOf.apply(row);
+            if (name != null) idByName.putIfAbsent(name, id);
+            evictOverflow();
+        }
+        return row;
+    }
+
+    // gen: the generation seen before loading; rows loaded across an invalidate() are not cached
+    private synchronized void store(ArrayList<T> rows, long gen) {
+        loads.incrementAndGet();
+        if (gen != generation) return;
+        long now = clock.getAsLong();
+        byId.clear();
+        idByName.clear();
+        for (T row : rows) {
+            int id = idOf.applyAsInt(row);
+            byId.put(id, new Entry<>(row, now));
+            String name = nameOf.apply(row);
+            if (name != null) idByName.putIfAbsent(name, id); // duplicate names: first row wins
+        }
+        if (rows.size() <= maxEntries) {
+            all = new ArrayList<>(rows);
+            allLoadedAt = now;
+        } else {
+            all = null;
+            evictOverflow();
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry<T>> it = byId.values().iterator();
+        while (byId.size() > maxEntries && it.hasNext()) {
+            Entry<T> eldest = it.next();
+            it.remove();
+            String name = nameOf.apply(eldest.row);
+            if (name != null) idByName.remove(name, idOf.applyAsInt(eldest.row));
+            evictions.incrementAndGet();
+        }
+    }
+
+    private boolean isFresh(long loadedAt) {
+        return clock.getAsLong() - loadedAt < ttlNanos;
+    }
+}
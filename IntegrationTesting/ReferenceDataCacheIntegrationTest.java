@@ -0,0 +1,175 @@
+package IntegrationTesting;
+
+import model.dto.Message;
+import model.dto.MessageType;
+import model.dto.Response;
+import model.dto.SupplierDTO;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReferenceDataCacheIntegrationTest {
+
+    private final ArrayList<SupplierDTO> table = new ArrayList<>();
+    private final AtomicInteger dbReads = new AtomicInteger();
+    private final AtomicLong now = new AtomicLong();
+    private boolean dbDown;
+
+    @Test
+    void lookups_afterFirstLoad_doNotHitDatabase() {
+        seed(1, "Supplier Alpha");
+        seed(2, "Supplier Beta");
+        ReferenceDataCache<SupplierDTO> cache = newCache(60_000, 100);
+
+        assertEquals(2, cache.getAll(new Response()).size());
+        assertEquals("Supplier Beta", cache.getById(2, new Response()).getName());
+        assertEquals(1, cache.getByName("Supplier Alpha", new Response()).getId());
+        assertEquals(2, cache.getAll(new Response()).size());
+
+        assertEquals(1, dbReads.get());
+        assertEquals(3, cache.getHits());
+    }
+
+    @Test
+    void expiredRows_areReloaded() {
+        seed(1, "Supplier Alpha");
+        ReferenceDataCache<SupplierDTO> cache = newCache(1_000, 100);
+        cache.getById(1, new Response());
+
+        table.get(0).setName("Supplier Renamed");
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(999));
+        assertEquals("Supplier Alpha", cache.getById(1, new Response()).getName());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals("Supplier Renamed", cache.getById(1, new Response()).getName());
+        assertEquals(2, dbReads.get());
+    }
+
+    @Test
+    void invalidate_makesNewRowVisible() {
+        seed(1, "Supplier Alpha");
+        ReferenceDataCache<SupplierDTO> cache = newCache(60_000, 100);
+        assertEquals(1, cache.getAll(new Response()).size());
+
+        seed(2, "Supplier Gamma");
+        assertEquals(1, cache.getAll(new Response()).size()); // still cached
+        cache.invalidate();
+
+        assertEquals(2, cache.getByName("Supplier Gamma", new Response()).getId());
+        assertEquals(2, cache.getAll(new Response()).size());
+    }
+
+    @Test
+    void invalidateDuringLoad_preSaveRowsAreNotCached() {
+        seed(1, "Supplier Alpha");
+        AtomicReference<ReferenceDataCache<SupplierDTO>> holder = new AtomicReference<>();
+        holder.set(new ReferenceDataCache<>(res -> {
+            ArrayList<SupplierDTO> rows = loadSuppliers(res); // read before the save commits
+            if (dbReads.get() == 1) {
+                table.get(0).setName("Supplier Renamed"); // DALManager.updateSupplier, then
+                holder.get().invalidate();                // its invalidate, while the load is in flight
+            }
+            return rows;
+        }, SupplierDTO::getId, SupplierDTO::getName, 60_000, 100, now::get));
+        ReferenceDataCache<SupplierDTO> cache = holder.get();
+
+        assertEquals("Supplier Alpha", cache.getById(1, new Response()).getName());
+
+        assertEquals("Supplier Renamed", cache.getById(1, new Response()).getName());
+        assertEquals("Supplier Renamed", cache.getAll(new Response()).get(0).getName());
+        assertEquals(2, dbReads.get());
+    }
+
+    @Test
+    void absentKey_isAnsweredFromFreshTable_withoutReload() {
+        seed(1, "Supplier Alpha");
+        ReferenceDataCache<SupplierDTO> cache = newCache(60_000, 100);
+        cache.getAll(new Response());
+
+        assertNull(cache.getById(99, new Response()));
+        assertNull(cache.getByName("Nobody", new Response()));
+        assertEquals(1, dbReads.get());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(60_000));
+        assertNull(cache.getById(99, new Response())); // expired: checked against the database again
+        assertEquals(2, dbReads.get());
+    }
+
+    @Test
+    void tableLargerThanBound_keepsOnlyMostRecentlyUsedRows() {
+        for (int id = 1; id <= 10; id++) {
+            seed(id, "Supplier " + id);
+        }
+        ReferenceDataCache<SupplierDTO> cache = newCache(60_000, 4);
+
+        assertEquals(1, cache.getById(1, new Response()).getId());
+        assertEquals(4, cache.size());
+        assertEquals(7, cache.getEvictions()); // 6 on load, one more to make room for id 1
+
+        int reads = dbReads.get();
+        assertEquals(1, cache.getById(1, new Response()).getId()); // survived eviction
+        assertEquals(reads, dbReads.get());
+
+        assertEquals(10, cache.getAll(new Response()).size()); // never served from cache
+        assertEquals(10, cache.getAll(new Response()).size());
+        assertEquals(reads + 2, dbReads.get());
+    }
+
+    @Test
+    void failedLoad_isReportedAndNotCached() {
+        seed(1, "Supplier Alpha");
+        ReferenceDataCache<SupplierDTO> cache = newCache(60_000, 100);
+
+        dbDown = true;
+        Response res = new Response();
+        assertNull(cache.getById(1, res));
+        assertFalse(res.isSuccessfull());
+
+        dbDown = false;
+        assertEquals(1, cache.getById(1, new Response()).getId());
+        assertEquals(2, dbReads.get());
+    }
+
+    // ---------------- helper methods ----------------
+
+    private ReferenceDataCache<SupplierDTO> newCache(long ttlMillis, int maxEntries) {
+        return new ReferenceDataCache<>(this::loadSuppliers, SupplierDTO::getId, SupplierDTO::getName,
+                ttlMillis, maxEntries, now::get);
+    }
+
+    // stands in for DALManager.getSuppliers
+    private ArrayList<SupplierDTO> loadSuppliers(Response res) {
+        dbReads.incrementAndGet();
+        if (dbDown) {
+            res.messagesList.add(new Message("Connection refused", MessageType.Error));
+            return new ArrayList<>();
+        }
+        ArrayList<SupplierDTO> copy = new ArrayList<>();
+        for (SupplierDTO s : table) {
+            copy.add(copyOf(s));
+        }
+        return copy;
+    }
+
+    private void seed(int id, String name) {
+        SupplierDTO s = new SupplierDTO();
+        s.setId(id);
+        s.setName(name);
+        s.setPhoneNumber("0691111111");
+        table.add(s);
+    }
+
+    private static SupplierDTO copyOf(SupplierDTO s) {
+        SupplierDTO c = new SupplierDTO();
+        c.setId(s.getId());
+        c.setName(s.getName());
+        c.setPhoneNumber(s.getPhoneNumber());
+        return c;
+    }
+}
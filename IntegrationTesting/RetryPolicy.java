@@ -0,0 +1,62 @@
+package IntegrationTesting;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How often, and how patiently, an optimistic stock update is retried after losing a race
+ * (a version check that matched no row) or hitting a transient lock error (deadlock / lock wait
+ * timeout). Backoff is exponential with full jitter, so tills that collided once do not
+ * collide again in lockstep: attempt n sleeps a random time in [0, min(max, base * 2^(n-1))).
+ */
+public final class RetryPolicy {
+
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0);
+    public static final RetryPolicy DEFAULT = new RetryPolicy(5, 50, 5_000);
+
+    private final int maxAttempts;
+    private final long baseBackoffMicros;
+    private final long maxBackoffMicros;
+
+    public RetryPolicy(int maxAttempts, long baseBackoffMicros, long maxBackoffMicros) {
+        if (maxAttempts < 1) throw new IllegalArgumentException("maxAttempts must be >= 1");
+        if (baseBackoffMicros < 0 || maxBackoffMicros < baseBackoffMicros) {
+            throw new IllegalArgumentException("Backoff must satisfy 0 <= base <= max");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffMicros = baseBackoffMicros;
+        this.maxBackoffMicros = maxBackoffMicros;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    // upper bound of the sleep after failed attempt n (1-based)
+    long backoffCeilingMicros(int attempt) {
+        if (baseBackoffMicros == 0) return 0;
+        int doublings = Math.min(attempt - 1, 30);
+        return Math.min(maxBackoffMicros, baseBackoffMicros << doublings);
+    }
+
+    // sleeps before the next attempt; false if interrupted
+    boolean backoff(int attempt) {
+        long ceiling = backoffCeilingMicros(attempt);
+        if (ceiling > 0) LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(ThreadLocalRandom.current().nextLong(ceiling)));
+        return !Thread.currentThread().isInterrupted();
+    }
+
+    // deadlock / serialization failure (SQLState 40001, 40P01) or MySQL lock wait timeout (1205)
+    static boolean isTransient(SQLException e) {
+        String state = e.getSQLState();
+        return "40001".equals(state) || "40P01".equals(state) || e.getErrorCode() == 1205 || e.getErrorCode() == 1213;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{maxAttempts=" + maxAttempts + ", baseBackoffMicros=" + baseBackoffMicros
+                + ", maxBackoffMicros=" + maxBackoffMicros + "}";
+    }
+}
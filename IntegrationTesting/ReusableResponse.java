@@ -0,0 +1,101 @@
+package IntegrationTesting;
+
+import model.dto.Message;
+import model.dto.MessageType;
+import model.dto.Response;
+
+import java.util.ArrayList;
+
+/**
+ * Response for hot validation / import loops. A drop-in for Response: DAL and validator code
+ * still appends to messagesList directly.
+ * - A fresh ArrayList allocates no backing array until the first message, so a successful
+ *   call costs the list header only; reset() clears it and keeps the grown array for the next row.
+ * - isSuccessfull() and getErrorMessages() are computed once per batch of messages and cached;
+ *   the cache is keyed on the list size, so messages must only be appended (or cleared by reset()).
+ * - Validators add the same constant texts row after row, so the rendered error text survives
+ *   reset() and is reused while the new messages have the same texts and types.
+ * Not thread-safe: one instance per loop / thread.
+ */
+public class ReusableResponse extends Response {
+
+    // same format as Response, whatever it is, for a response with no messages
+    private static final String NO_ERROR_MESSAGES = new Response().getErrorMessages();
+
+    private ArrayList<Message> cachedFor;
+    private int cachedSize = -1;
+    private boolean successful;
+    private String errorMessages;
+
+    // what the last rendered errorMessages was built from (texts compared by identity)
+    private String lastRendered;
+    private String[] lastTexts = new String[0];
+    private MessageType[] lastTypes = new MessageType[0];
+
+    // clears the messages for the next record; returns this for chaining
+    public ReusableResponse reset() {
+        messagesList.clear();
+        cachedSize = -1;
+        errorMessages = null;
+        return this;
+    }
+
+    @Override
+    public boolean isSuccessfull() {
+        refresh();
+        return successful;
+    }
+
+    @Override
+    public String getErrorMessages() {
+        refresh();
+        if (successful) return NO_ERROR_MESSAGES;
+        if (errorMessages == null) errorMessages = sameAsLastRender() ? lastRendered : render();
+        return errorMessages;
+    }
+
+    // copies this response's messages into another (e.g. the caller's) Response
+    public void copyTo(Response target) {
+        target.messagesList.addAll(messagesList);
+    }
+
+    private boolean sameAsLastRender() {
+        int size = messagesList.size();
+        if (lastRendered == null || lastTexts.length != size) return false;
+        for (int i = 0; i < size; i++) {
+            Message m = messagesList.get(i);
+            if (m.message != lastTexts[i] || m.type != lastTypes[i]) return false;
+        }
+        return true;
+    }
+
+    private String render() {
+        int size = messagesList.size();
+        if (lastTexts.length != size) {
+            lastTexts = new String[size];
+            lastTypes = new MessageType[size];
+        }
+        for (int i = 0; i < size; i++) {
+            lastTexts[i] = messagesList.get(i).message;
+            lastTypes[i] = messagesList.get(i).type;
+        }
+        lastRendered = super.getErrorMessages();
+        return lastRendered;
+    }
+
+    private void refresh() {
+        int size = messagesList.size();
+        if (size == cachedSize && messagesList == cachedFor) return;
+        boolean ok = true;
+        for (int i = 0; i < size; i++) {
+            if (messagesList.get(i).type == MessageType.Error) {
+                ok = false;
+                break;
+            }
+        }
+        successful = ok;
+        errorMessages = null;
+        cachedFor = messagesList;
+        cachedSize = size;
+    }
+}
@@ -0,0 +1,100 @@
+package IntegrationTesting;
+
+import model.dto.CustomerDTO;
+import model.dto.Message;
+import model.dto.MessageType;
+import model.dto.Response;
+import model.validators.CommonValidator;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReusableResponseIntegrationTest {
+
+    @Test
+    void validatorMessages_renderExactlyLikeResponse() {
+        CustomerDTO invalid = customer("Cust", "12345");
+        Response plain = new Response();
+        ReusableResponse reusable = new ReusableResponse();
+
+        CommonValidator.validateObject(invalid, plain);
+        CommonValidator.validateObject(invalid, reusable);
+
+        assertFalse(reusable.isSuccessfull());
+        assertEquals(plain.getErrorMessages(), reusable.getErrorMessages());
+        assertEquals(plain.getInfoMessages(), reusable.getInfoMessages());
+    }
+
+    @Test
+    void errorMessages_areBuiltOnce_untilAnotherMessageArrives() {
+        ReusableResponse res = new ReusableResponse();
+        CommonValidator.validateObject(customer("Cust", "0690000000"), res);
+
+        String first = res.getErrorMessages();
+        assertSame(first, res.getErrorMessages());
+
+        res.messagesList.add(new Message("Customer could not be added: duplicate", MessageType.Error));
+        String second = res.getErrorMessages();
+        assertNotSame(first, second);
+        assertTrue(second.contains("duplicate"));
+        assertTrue(second.toLowerCase().contains("name"));
+    }
+
+    @Test
+    void reset_reusesOneResponseAcrossBatchRows() {
+        ReusableResponse res = new ReusableResponse();
+        CustomerDTO[] rows = {
+                customer("Valid Customer", "0690000000"),
+                customer("Bad", "0690000000"),
+                customer("Another Valid", "0691111111"),
+        };
+
+        int failures = 0;
+        for (CustomerDTO row : rows) {
+            CommonValidator.validateObject(row, res.reset());
+            if (!res.isSuccessfull()) {
+                failures++;
+                assertTrue(res.getErrorMessages().toLowerCase().contains("name"));
+            }
+        }
+
+        assertEquals(1, failures);
+        assertTrue(res.isSuccessfull(), "last row was valid, nothing may leak from the bad row");
+        assertEquals(new Response().getErrorMessages(), res.getErrorMessages());
+    }
+
+    @Test
+    void sameValidationFailure_onNextRow_reusesRenderedText() {
+        ReusableResponse res = new ReusableResponse();
+        CommonValidator.validateObject(customer("Bad", "0690000000"), res.reset());
+        String first = res.getErrorMessages();
+
+        CommonValidator.validateObject(customer("Bad2", "0690000000"), res.reset());
+        assertSame(first, res.getErrorMessages());
+
+        CommonValidator.validateObject(customer("Bad", "123"), res.reset()); // name + phone now
+        assertNotSame(first, res.getErrorMessages());
+        assertTrue(res.getErrorMessages().toLowerCase().contains("phone"));
+    }
+
+    @Test
+    void copyTo_movesMessagesIntoCallerResponse() {
+        ReusableResponse scratch = new ReusableResponse();
+        CommonValidator.validateObject(customer("Cust", "123"), scratch);
+        Response caller = new Response();
+
+        scratch.copyTo(caller);
+
+        assertFalse(caller.isSuccessfull());
+        assertEquals(scratch.getErrorMessages(), caller.getErrorMessages());
+    }
+
+    // ---------------- helper methods ----------------
+
+    private static CustomerDTO customer(String name, String phone) {
+        CustomerDTO c = new CustomerDTO();
+        c.setName(name);
+        c.setPhoneNumber(phone);
+        return c;
+    }
+}
@@ -0,0 +1,10 @@
+package IntegrationTesting;
+
+// Called by the SaleWriter thread once the batch holding a sale is durable (or has failed).
+public interface SaleAck {
+
+    void onDurable(SaleRecord sale);
+
+    default void onFailed(SaleRecord sale, Exception cause) {
+    }
+}
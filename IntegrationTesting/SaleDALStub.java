@@ -3,18 +3,71 @@ package IntegrationTesting;
 public class SaleDALStub {
 
     private boolean saved = false;
-    private double savedTotal = 0.0;
+    private long savedTotalCents = 0L;
+    private int saleCount = 0;
+
+    // line items of every sale saved with saveSale(total, lines...), and their running totals;
+    // both null for withoutLines()
+    private final SaleLineLog lines;
+    private final SalesAggregates aggregates;
+
+    public SaleDALStub() {
+        this(new SaleLineLog(), new SalesAggregates());
+    }
+
+    public SaleDALStub(SaleLineLog lines, SalesAggregates aggregates) {
+        this.lines = lines;
+        this.aggregates = aggregates;
+    }
+
+    // totals only, like before line items existed: for benchmarks that run millions of sales
+    // and would otherwise grow the line log without bound
+    public static SaleDALStub withoutLines() {
+        return new SaleDALStub(null, null);
+    }
 
     public void saveSale(double total) {
+        saveSaleCents(Math.round(total * 100));
+    }
+
+    public synchronized void saveSaleCents(long totalCents) {
         saved = true;
-        savedTotal = total;
+        savedTotalCents = totalCents;
+        saleCount++;
     }
 
-    public boolean isSaved() {
+    // a sale with its line items: recorded as above, appended to the line log, added to the aggregates
+    public void saveSale(long totalCents, int[] productIds, int[] categoryIds, int[] qtys, long[] unitPriceCents) {
+        saveSaleCents(totalCents);
+        if (lines == null) return;
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            lines.append(now, productIds, categoryIds, qtys, unitPriceCents);
+            aggregates.record(now, productIds, categoryIds, qtys, unitPriceCents);
+        }
+    }
+
+    public SaleLineLog getLines() {
+        return lines;
+    }
+
+    public SalesAggregates getAggregates() {
+        return aggregates;
+    }
+
+    public synchronized boolean isSaved() {
         return saved;
     }
 
-    public double getSavedTotal() {
-        return savedTotal;
+    public synchronized double getSavedTotal() {
+        return savedTotalCents / 100.0;
+    }
+
+    public synchronized long getSavedTotalCents() {
+        return savedTotalCents;
+    }
+
+    public synchronized int getSaleCount() {
+        return saleCount;
     }
 }
@@ -0,0 +1,86 @@
+package IntegrationTesting;
+
+/**
+ * Append-only log of sale lines, the source of truth SalesAggregates can always be rebuilt from.
+ * Stored column by column in primitive arrays (like ProductCatalog), one row per line; the lines
+ * of a sale are contiguous and share its saleId. Amounts are in cents.
+ */
+public class SaleLineLog {
+
+    private long[] saleIds;
+    private long[] createdAtMillis;
+    private int[] productIds;
+    private int[] categoryIds;
+    private int[] quantities;
+    private long[] unitPriceCents;
+    private int size;
+    private long lastSaleId;
+
+    public SaleLineLog() {
+        this(1024);
+    }
+
+    public SaleLineLog(int expectedLines) {
+        allocate(Math.max(expectedLines, 16));
+    }
+
+    // appends every line of one sale; returns the sale's id (1, 2, ...)
+    public synchronized long append(long createdAt, int[] productIds, int[] categoryIds, int[] qtys, long[] unitPriceCents) {
+        if (productIds.length != qtys.length || categoryIds.length != qtys.length || unitPriceCents.length != qtys.length) {
+            throw new IllegalArgumentException("Line arrays must have the same length");
+        }
+        while (size + qtys.length > quantities.length) grow();
+        long saleId = ++lastSaleId;
+        for (int i = 0; i < qtys.length; i++) {
+            int row = size++;
+            this.saleIds[row] = saleId;
+            this.createdAtMillis[row] = createdAt;
+            this.productIds[row] = productIds[i];
+            this.categoryIds[row] = categoryIds[i];
+            this.quantities[row] = qtys[i];
+            this.unitPriceCents[row] = unitPriceCents[i];
+        }
+        return saleId;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getSaleCount() {
+        return lastSaleId;
+    }
+
+    // replays every line, in order, into target (see SalesAggregates.rebuild)
+    public synchronized void replayInto(SalesAggregates target) {
+        for (int row = 0; row < size; row++) {
+            boolean firstOfSale = row == 0 || saleIds[row] != saleIds[row - 1];
+            target.addLine(createdAtMillis[row], productIds[row], categoryIds[row], quantities[row], unitPriceCents[row], firstOfSale);
+        }
+    }
+
+    private void allocate(int capacity) {
+        saleIds = new long[capacity];
+        createdAtMillis = new long[capacity];
+        productIds = new int[capacity];
+        categoryIds = new int[capacity];
+        quantities = new int[capacity];
+        unitPriceCents = new long[capacity];
+    }
+
+    private void grow() {
+        long[] oldSaleIds = saleIds;
+        long[] oldCreatedAt = createdAtMillis;
+        int[] oldProductIds = productIds;
+        int[] oldCategoryIds = categoryIds;
+        int[] oldQuantities = quantities;
+        long[] oldPrices = unitPriceCents;
+        allocate(oldQuantities.length * 2);
+        System.arraycopy(oldSaleIds, 0, saleIds, 0, size);
+        System.arraycopy(oldCreatedAt, 0, createdAtMillis, 0, size);
+        System.arraycopy(oldProductIds, 0, productIds, 0, size);
+        System.arraycopy(oldCategoryIds, 0, categoryIds, 0, size);
+        System.arraycopy(oldQuantities, 0, quantities, 0, size);
+        System.arraycopy(oldPrices, 0, unitPriceCents, 0, size);
+    }
+}
@@ -0,0 +1,21 @@
+package IntegrationTesting;
+
+// A completed sale waiting to be persisted. Amounts are in cents.
+public final class SaleRecord {
+
+    private final long totalCents;
+    private final long createdAtMillis;
+
+    public SaleRecord(long totalCents, long createdAtMillis) {
+        this.totalCents = totalCents;
+        this.createdAtMillis = createdAtMillis;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    public long getCreatedAtMillis() {
+        return createdAtMillis;
+    }
+}
@@ -0,0 +1,9 @@
+package IntegrationTesting;
+
+import java.util.List;
+
+// Destination of SaleWriter batches. A batch either succeeds as a whole or throws.
+public interface SaleSink {
+
+    void writeBatch(List<SaleRecord> batch) throws Exception;
+}
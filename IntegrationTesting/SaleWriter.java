@@ -0,0 +1,157 @@
+package IntegrationTesting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Asynchronous sale persistence.
+ * Tills hand completed sales to a bounded queue; one writer thread flushes them to the sink
+ * as a batch every batchSize sales or every flushIntervalMillis, whichever comes first.
+ * A full queue blocks the till (back-pressure) instead of growing without limit.
+ */
+public class SaleWriter implements AutoCloseable {
+
+    private static final long IDLE_POLL_MILLIS = 50;
+
+    private static final class Pending {
+        final SaleRecord sale;
+        final SaleAck ack;
+
+        Pending(SaleRecord sale, SaleAck ack) {
+            this.sale = sale;
+            this.ack = ack;
+        }
+    }
+
+    private final SaleSink sink;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final BlockingQueue<Pending> queue;
+    private final Thread worker;
+
+    private final ReentrantReadWriteLock lifecycle = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+    private final LongAdder callbackFailures = new LongAdder();
+
+    public SaleWriter(SaleSink sink, int queueCapacity, int batchSize, long flushIntervalMillis) {
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be > 0");
+        if (queueCapacity < batchSize) throw new IllegalArgumentException("queueCapacity must be >= batchSize");
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.worker = new Thread(this::run, "sale-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    // blocks while the queue is full
+    public void submit(SaleRecord sale, SaleAck ack) throws InterruptedException {
+        lifecycle.readLock().lock();
+        try {
+            ensureOpen();
+            queue.put(new Pending(sale, ack));
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+    }
+
+    // returns false if the queue stayed full for the whole timeout
+    public boolean offer(SaleRecord sale, SaleAck ack, long timeout, TimeUnit unit) throws InterruptedException {
+        lifecycle.readLock().lock();
+        try {
+            ensureOpen();
+            return queue.offer(new Pending(sale, ack), timeout, unit);
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    // SaleAck callbacks that threw; the writer thread carries on regardless
+    public long getCallbackFailures() {
+        return callbackFailures.sum();
+    }
+
+    /**
+     * Stops accepting sales, flushes everything already queued and waits for the writer thread.
+     * If the caller is interrupted while waiting, it returns early with its interrupt flag set.
+     */
+    @Override
+    public void close() {
+        lifecycle.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) throw new IllegalStateException("SaleWriter is closed");
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (true) {
+            try {
+                Pending first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed) return; // nothing left to drain
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long wait = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || wait <= 0 || closed) break;
+                    Pending next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                closed = true;
+            }
+            flush(batch);
+        }
+    }
+
+    private void flush(List<Pending> batch) {
+        if (batch.isEmpty()) return;
+        List<SaleRecord> sales = new ArrayList<>(batch.size());
+        for (Pending p : batch) {
+            sales.add(p.sale);
+        }
+        Exception failure = null;
+        try {
+            sink.writeBatch(sales);
+        } catch (Exception ex) {
+            failure = ex;
+        }
+        // a throwing callback affects only its own sale, never the outcome of the others
+        for (Pending p : batch) {
+            if (p.ack == null) continue;
+            try {
+                if (failure == null) p.ack.onDurable(p.sale);
+                else p.ack.onFailed(p.sale, failure);
+            } catch (RuntimeException ex) {
+                callbackFailures.increment();
+            }
+        }
+        batch.clear();
+    }
+}
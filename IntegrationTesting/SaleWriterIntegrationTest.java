@@ -0,0 +1,186 @@
+package IntegrationTesting;
+
+import org.junit.jupiter.api.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// runs in parallel with other classes: the tests wait on latches instead of sleeping, and no
+// assertion depends on how long a flush took
+public class SaleWriterIntegrationTest {
+
+    @Test
+    void fullBatch_isFlushedWithoutWaitingForTimer() throws Exception {
+        InMemorySaleSink sink = new InMemorySaleSink();
+        CountDownLatch durable = new CountDownLatch(10);
+
+        try (SaleWriter writer = new SaleWriter(sink, 100, 10, 60_000)) {
+            for (int i = 0; i < 10; i++) {
+                writer.submit(new SaleRecord(100, System.currentTimeMillis()), sale -> durable.countDown());
+            }
+            assertTrue(durable.await(5, TimeUnit.SECONDS),
+                    "Batch of 10 should flush long before the 60s timer");
+        }
+
+        assertEquals(1, sink.getBatchCount());
+        assertEquals(10, sink.getSaleCount());
+    }
+
+    @Test
+    void partialBatch_isFlushedByTimer() throws Exception {
+        InMemorySaleSink sink = new InMemorySaleSink();
+        CountDownLatch durable = new CountDownLatch(3);
+
+        try (SaleWriter writer = new SaleWriter(sink, 100, 50, 20)) {
+            for (int i = 0; i < 3; i++) {
+                writer.submit(new SaleRecord(250, System.currentTimeMillis()), sale -> durable.countDown());
+            }
+            assertTrue(durable.await(5, TimeUnit.SECONDS));
+            assertEquals(750, sink.getTotalCents());
+        }
+    }
+
+    @Test
+    void fullQueue_appliesBackPressure() throws Exception {
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        SaleSink blockedSink = batch -> { // DB "hangs"
+            taken.countDown();
+            release.await();
+        };
+
+        try (SaleWriter writer = new SaleWriter(blockedSink, 2, 1, 1)) {
+            writer.submit(new SaleRecord(1, 0), null);
+            assertTrue(taken.await(5, TimeUnit.SECONDS)); // taken by the writer, stuck in the sink
+            writer.submit(new SaleRecord(1, 0), null);
+            writer.submit(new SaleRecord(1, 0), null); // queue now full
+
+            assertFalse(writer.offer(new SaleRecord(1, 0), null, 50, TimeUnit.MILLISECONDS),
+                    "Till must be held back while the queue is full");
+            release.countDown();
+            assertTrue(writer.offer(new SaleRecord(1, 0), null, 5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void close_drainsEverythingQueued_andRejectsNewSales() throws Exception {
+        InMemorySaleSink sink = new InMemorySaleSink(500); // slow sink so work is still queued at close
+        AtomicInteger acked = new AtomicInteger();
+
+        SaleWriter writer = new SaleWriter(sink, 10_000, 64, 1_000);
+        for (int i = 0; i < 5_000; i++) {
+            writer.submit(new SaleRecord(1, 0), sale -> acked.incrementAndGet());
+        }
+        writer.close();
+
+        assertEquals(5_000, sink.getSaleCount());
+        assertEquals(5_000, acked.get());
+        try {
+            writer.submit(new SaleRecord(1, 0), null);
+            fail("Expected submit after close to be rejected");
+        } catch (IllegalStateException ex) {
+            assertTrue(ex.getMessage().contains("closed"));
+        }
+    }
+
+    @Test
+    void failingSink_reportsFailureForEverySaleInTheBatch() throws Exception {
+        SaleSink failingSink = batch -> {
+            throw new IllegalStateException("connection lost");
+        };
+        AtomicInteger failed = new AtomicInteger();
+        SaleAck ack = new SaleAck() {
+            @Override
+            public void onDurable(SaleRecord sale) {
+                fail("Sale must not be acked as durable");
+            }
+
+            @Override
+            public void onFailed(SaleRecord sale, Exception cause) {
+                failed.incrementAndGet();
+            }
+        };
+
+        try (SaleWriter writer = new SaleWriter(failingSink, 10, 5, 10)) {
+            for (int i = 0; i < 5; i++) {
+                writer.submit(new SaleRecord(1, 0), ack);
+            }
+        }
+
+        assertEquals(5, failed.get());
+    }
+
+    @Test
+    void throwingAck_failsNoOtherSale_andWriterKeepsRunning() throws Exception {
+        InMemorySaleSink sink = new InMemorySaleSink();
+        AtomicInteger durable = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        SaleAck ack = new SaleAck() {
+            @Override
+            public void onDurable(SaleRecord sale) {
+                if (sale.getTotalCents() == 13) throw new IllegalStateException("till display gone");
+                durable.incrementAndGet();
+            }
+
+            @Override
+            public void onFailed(SaleRecord sale, Exception cause) {
+                failed.incrementAndGet();
+            }
+        };
+        SaleAck throwingOnFailure = new SaleAck() {
+            @Override
+            public void onDurable(SaleRecord sale) {
+            }
+
+            @Override
+            public void onFailed(SaleRecord sale, Exception cause) {
+                throw new IllegalStateException("till display gone");
+            }
+        };
+        SaleSink failingSink = batch -> {
+            throw new IllegalStateException("connection lost");
+        };
+
+        SaleWriter writer = new SaleWriter(sink, 4, 4, 10);
+        for (int i = 0; i < 20; i++) {
+            writer.submit(new SaleRecord(i == 5 ? 13 : 1, 0), ack); // queue of 4: blocks if the writer died
+        }
+        writer.close();
+        SaleWriter failing = new SaleWriter(failingSink, 4, 2, 10);
+        for (int i = 0; i < 10; i++) {
+            failing.submit(new SaleRecord(1, 0), throwingOnFailure);
+        }
+        failing.close(); // runs the last callbacks before the count is read
+        assertEquals(10, failing.getCallbackFailures());
+
+        assertEquals(20, sink.getSaleCount());
+        assertEquals(19, durable.get());
+        assertEquals(0, failed.get(), "durable sales are never reported as failed");
+        assertEquals(1, writer.getCallbackFailures());
+    }
+
+    @Test
+    void checkout_withBatchingSaleDal_persistsThroughWriter() throws Exception {
+        InMemorySaleSink sink = new InMemorySaleSink();
+        ProductDALStub productDal = new ProductDALStub();
+        productDal.seedProduct(101, 50.0, 10);
+
+        SaleWriter writer = new SaleWriter(sink, 100, 10, 10);
+        BatchingSaleDAL saleDal = new BatchingSaleDAL(writer, null);
+        CheckoutService service = new CheckoutService(productDal, saleDal);
+
+        Map<Integer, Integer> cart = new HashMap<>();
+        cart.put(101, 2);
+        service.checkout(cart);
+        writer.close();
+
+        assertTrue(saleDal.isSaved());
+        assertEquals(1, sink.getSaleCount());
+        assertEquals(10000, sink.getTotalCents());
+    }
+}
@@ -0,0 +1,213 @@
+package IntegrationTesting;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Running sales totals, updated with every sale instead of recomputed from the lines:
+ * revenue (cents) and units per product, per category and per hour, plus sales per hour.
+ * Each dashboard figure is one hash probe (a day is 24 of them), however many sales exist.
+ *
+ * Hours are UTC epoch hours (createdAtMillis / 3,600,000) and days UTC epoch days.
+ * The totals carry no state of their own: rebuild(...) recomputes them from a SaleLineLog or
+ * from the sale_lines table, e.g. after a restart or to check a running instance.
+ */
+public class SalesAggregates {
+
+    static final long MILLIS_PER_HOUR = 3_600_000L;
+
+    // long key -> revenue, units, count; open addressing, kept at most half full
+    private static final class Totals {
+        long[] keys;
+        boolean[] used;
+        long[] revenueCents;
+        long[] units;
+        long[] counts;
+        int size;
+
+        Totals(int capacity) {
+            keys = new long[capacity];
+            used = new boolean[capacity];
+            revenueCents = new long[capacity];
+            units = new long[capacity];
+            counts = new long[capacity];
+        }
+
+        // slot of key or -1
+        int find(long key) {
+            int mask = keys.length - 1;
+            for (int b = hash(key) & mask; used[b]; b = (b + 1) & mask) {
+                if (keys[b] == key) return b;
+            }
+            return -1;
+        }
+
+        void add(long key, long revenue, long qty, long count) {
+            if ((size + 1) * 2 > keys.length) grow();
+            int mask = keys.length - 1;
+            int b = hash(key) & mask;
+            while (used[b] && keys[b] != key) {
+                b = (b + 1) & mask;
+            }
+            if (!used[b]) {
+                used[b] = true;
+                keys[b] = key;
+                size++;
+            }
+            revenueCents[b] += revenue;
+            units[b] += qty;
+            counts[b] += count;
+        }
+
+        private void grow() {
+            Totals bigger = new Totals(keys.length * 2);
+            for (int b = 0; b < keys.length; b++) {
+                if (used[b]) bigger.add(keys[b], revenueCents[b], units[b], counts[b]);
+            }
+            keys = bigger.keys;
+            used = bigger.used;
+            revenueCents = bigger.revenueCents;
+            units = bigger.units;
+            counts = bigger.counts;
+        }
+
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+
+    private final Totals byProduct = new Totals(1024);
+    private final Totals byCategory = new Totals(64);
+    private final Totals byHour = new Totals(256);
+    private long revenueCents;
+    private long units;
+    private long sales;
+
+    // adds one sale (parallel line arrays, as in SaleLineLog.append)
+    public synchronized void record(long createdAt, int[] productIds, int[] categoryIds, int[] qtys, long[] unitPriceCents) {
+        for (int i = 0; i < qtys.length; i++) {
+            addLine(createdAt, productIds[i], categoryIds[i], qtys[i], unitPriceCents[i], i == 0);
+        }
+    }
+
+    // a fresh instance holding exactly the totals of the lines in log
+    public static SalesAggregates rebuild(SaleLineLog log) {
+        SalesAggregates aggregates = new SalesAggregates();
+        log.replayInto(aggregates);
+        return aggregates;
+    }
+
+    /**
+     * Same, from the database: sale_lines joined with sales (created_at). Prices and categories
+     * are the ones stored on the lines at the time of sale; a line written before sale_lines had
+     * a category_id falls back to the product's current category (0 when the product is gone).
+     */
+    public static SalesAggregates rebuild(Connection conn) throws SQLException {
+        String sql = "SELECT l.sale_id, s.created_at, l.product_id, COALESCE(l.category_id, p.category_id, 0), "
+                + "l.quantity, l.price_cents "
+                + "FROM sale_lines l JOIN sales s ON s.id = l.sale_id LEFT JOIN products p ON p.id = l.product_id "
+                + "ORDER BY l.sale_id";
+        SalesAggregates aggregates = new SalesAggregates();
+        try (PreparedStatement ps = conn.prepareStatement(sql); ResultSet rs = ps.executeQuery()) {
+            long previousSale = Long.MIN_VALUE;
+            while (rs.next()) {
+                long saleId = rs.getLong(1);
+                aggregates.addLine(rs.getTimestamp(2).getTime(), rs.getInt(3), rs.getInt(4), rs.getInt(5), rs.getLong(6),
+                        saleId != previousSale);
+                previousSale = saleId;
+            }
+        }
+        return aggregates;
+    }
+
+    public synchronized long getRevenueCents() {
+        return revenueCents;
+    }
+
+    public synchronized long getUnits() {
+        return units;
+    }
+
+    public synchronized long getSaleCount() {
+        return sales;
+    }
+
+    public synchronized long getProductRevenueCents(int productId) {
+        return revenue(byProduct, productId);
+    }
+
+    public synchronized long getProductUnits(int productId) {
+        return units(byProduct, productId);
+    }
+
+    public synchronized long getCategoryRevenueCents(int categoryId) {
+        return revenue(byCategory, categoryId);
+    }
+
+    public synchronized long getCategoryUnits(int categoryId) {
+        return units(byCategory, categoryId);
+    }
+
+    public synchronized long getHourRevenueCents(long epochHour) {
+        return revenue(byHour, epochHour);
+    }
+
+    public synchronized long getHourUnits(long epochHour) {
+        return units(byHour, epochHour);
+    }
+
+    public synchronized long getHourSaleCount(long epochHour) {
+        int slot = byHour.find(epochHour);
+        return slot < 0 ? 0L : byHour.counts[slot];
+    }
+
+    public synchronized long getDayRevenueCents(long epochDay) {
+        long sum = 0L;
+        for (long hour = epochDay * 24; hour < epochDay * 24 + 24; hour++) {
+            sum += revenue(byHour, hour);
+        }
+        return sum;
+    }
+
+    public synchronized long getDaySaleCount(long epochDay) {
+        long sum = 0L;
+        for (long hour = epochDay * 24; hour < epochDay * 24 + 24; hour++) {
+            sum += getHourSaleCount(hour);
+        }
+        return sum;
+    }
+
+    public static long epochHour(long millis) {
+        return Math.floorDiv(millis, MILLIS_PER_HOUR);
+    }
+
+    public static long epochDay(long millis) {
+        return Math.floorDiv(millis, MILLIS_PER_HOUR * 24);
+    }
+
+    // ---------------- helper methods ----------------
+
+    // firstOfSale: the line opens a new sale (counts it once per hour)
+    synchronized void addLine(long createdAt, int productId, int categoryId, int qty, long unitPriceCents, boolean firstOfSale) {
+        long revenue = Math.multiplyExact(unitPriceCents, (long) qty);
+        byProduct.add(productId, revenue, qty, 1);
+        byCategory.add(categoryId, revenue, qty, 1);
+        byHour.add(epochHour(createdAt), revenue, qty, firstOfSale ? 1 : 0);
+        revenueCents += revenue;
+        units += qty;
+        if (firstOfSale) sales++;
+    }
+
+    private static long revenue(Totals totals, long key) {
+        int slot = totals.find(key);
+        return slot < 0 ? 0L : totals.revenueCents[slot];
+    }
+
+    private static long units(Totals totals, long key) {
+        int slot = totals.find(key);
+        return slot < 0 ? 0L : totals.units[slot];
+    }
+}
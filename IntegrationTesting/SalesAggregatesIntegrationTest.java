@@ -0,0 +1,176 @@
+package IntegrationTesting;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SalesAggregatesIntegrationTest {
+
+    private static final int DAIRY = 7;
+    private static final int BAKERY = 8;
+
+    // 2025-11-03 09:15 UTC
+    private static final long MORNING = 1_762_161_300_000L;
+
+    @Test
+    void checkout_savesLineItems_andUpdatesAggregates() {
+        ProductDALStub products = seeded();
+        SaleDALStub sales = new SaleDALStub();
+        CheckoutService service = new CheckoutService(products, sales);
+        long hour = SalesAggregates.epochHour(System.currentTimeMillis());
+
+        service.checkoutCents(new int[]{1, 3}, new int[]{2, 1}); // 2 x 2.50 + 1 x 1.20
+        service.checkoutCents(new int[]{2}, new int[]{3});       // 3 x 0.99
+
+        SalesAggregates totals = sales.getAggregates();
+        assertEquals(3, sales.getLines().size());
+        assertEquals(2, sales.getLines().getSaleCount());
+        assertEquals(500, totals.getProductRevenueCents(1));
+        assertEquals(2, totals.getProductUnits(1));
+        assertEquals(500 + 297, totals.getCategoryRevenueCents(DAIRY));
+        assertEquals(5, totals.getCategoryUnits(DAIRY));
+        assertEquals(120, totals.getCategoryRevenueCents(BAKERY));
+        assertEquals(917, totals.getRevenueCents());
+        assertEquals(2, totals.getHourSaleCount(hour) + totals.getHourSaleCount(hour + 1), "both sales in this hour (or the next)");
+        assertEquals(0, totals.getProductRevenueCents(999));
+    }
+
+    @Test
+    void refusedBasket_addsNoLinesAndNoTotals() {
+        ProductDALStub products = seeded();
+        SaleDALStub sales = new SaleDALStub();
+        CheckoutService service = new CheckoutService(products, sales);
+
+        assertThrows(IllegalStateException.class, () -> service.checkoutCents(new int[]{1, 3}, new int[]{1, 500}));
+
+        assertEquals(0, sales.getLines().size());
+        assertEquals(0, sales.getAggregates().getRevenueCents());
+        assertEquals(0, sales.getAggregates().getProductUnits(1));
+    }
+
+    @Test
+    void hourAndDayBuckets_followSaleTimes() {
+        SalesAggregates totals = new SalesAggregates();
+        long day = SalesAggregates.epochDay(MORNING);
+
+        totals.record(MORNING, new int[]{1, 2}, new int[]{DAIRY, DAIRY}, new int[]{1, 1}, new long[]{250, 99});
+        totals.record(MORNING + 60_000, new int[]{3}, new int[]{BAKERY}, new int[]{2}, new long[]{120});
+        totals.record(MORNING + 3_600_000, new int[]{1}, new int[]{DAIRY}, new int[]{4}, new long[]{250});
+        totals.record(MORNING + 86_400_000, new int[]{1}, new int[]{DAIRY}, new int[]{1}, new long[]{250}); // next day
+
+        long hour = SalesAggregates.epochHour(MORNING);
+        assertEquals(349 + 240, totals.getHourRevenueCents(hour));
+        assertEquals(4, totals.getHourUnits(hour));
+        assertEquals(2, totals.getHourSaleCount(hour));
+        assertEquals(1000, totals.getHourRevenueCents(hour + 1));
+        assertEquals(349 + 240 + 1000, totals.getDayRevenueCents(day));
+        assertEquals(3, totals.getDaySaleCount(day));
+        assertEquals(250, totals.getDayRevenueCents(day + 1));
+        assertEquals(4, totals.getSaleCount());
+    }
+
+    @Test
+    void rebuildFromLineLog_matchesRunningTotals_afterConcurrentCheckouts() throws Exception {
+        ProductDALStub products = new ProductDALStub();
+        for (int id = 1; id <= 5000; id++) {
+            products.seedProduct(id, 0.5 + id % 97, 1_000_000, id % 40);
+        }
+        SaleDALStub sales = new SaleDALStub();
+        CheckoutService service = new CheckoutService(products, sales);
+
+        ExecutorService tills = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < 8; t++) {
+                futures.add(tills.submit(() -> {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    for (int i = 0; i < 500; i++) {
+                        int first = 1 + rnd.nextInt(4990);
+                        service.checkoutCents(new int[]{first, first + 7}, new int[]{1 + rnd.nextInt(3), 1});
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            tills.shutdownNow();
+        }
+
+        SalesAggregates running = sales.getAggregates();
+        SalesAggregates rebuilt = SalesAggregates.rebuild(sales.getLines());
+        assertEquals(4000, running.getSaleCount());
+        assertEquals(running.getSaleCount(), rebuilt.getSaleCount());
+        assertEquals(running.getRevenueCents(), rebuilt.getRevenueCents());
+        assertEquals(running.getUnits(), rebuilt.getUnits());
+        long productSum = 0;
+        for (int id = 1; id <= 5000; id++) {
+            assertEquals(running.getProductUnits(id), rebuilt.getProductUnits(id));
+            productSum += rebuilt.getProductRevenueCents(id);
+        }
+        long categorySum = 0;
+        for (int category = 0; category < 40; category++) {
+            assertEquals(running.getCategoryRevenueCents(category), rebuilt.getCategoryRevenueCents(category));
+            categorySum += rebuilt.getCategoryRevenueCents(category);
+        }
+        assertEquals(running.getRevenueCents(), productSum);
+        assertEquals(running.getRevenueCents(), categorySum);
+    }
+
+    @Test
+    void rebuildFromSaleLinesTable_usesPricesAndCategoriesStoredAtSaleTime() throws SQLException {
+        String url = "jdbc:h2:mem:aggregates_" + UUID.randomUUID().toString().substring(0, 8)
+                + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        try (ConnectionPool pool = new ConnectionPool(new ConnectionPool.Settings(url, "sa", "").minSize(1).maxSize(2))) {
+            try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+                st.execute("CREATE TABLE products (id INT PRIMARY KEY, category_id INT, stock_quantity INT NOT NULL)");
+                st.execute("CREATE TABLE sales (id BIGINT AUTO_INCREMENT PRIMARY KEY, total BIGINT NOT NULL, created_at TIMESTAMP)");
+                st.execute("CREATE TABLE sale_lines (sale_id BIGINT NOT NULL, product_id INT NOT NULL, "
+                        + "quantity INT NOT NULL, price_cents BIGINT NOT NULL, category_id INT)");
+                st.execute("INSERT INTO products VALUES (1, " + DAIRY + ", 10), (2, " + DAIRY + ", 10), (3, " + BAKERY + ", 10)");
+            }
+            ProductDALStub prices = seeded();
+            TransactionalCheckout checkout = new TransactionalCheckout(pool, prices::getPriceCents);
+            checkout.checkoutCents(new int[]{1, 3}, new int[]{2, 1});
+            checkout.checkoutCents(new int[]{2}, new int[]{3});
+            try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+                st.execute("UPDATE products SET category_id = " + BAKERY); // recategorized after the sales
+            }
+
+            SalesAggregates rebuilt;
+            try (Connection conn = pool.getConnection()) {
+                rebuilt = SalesAggregates.rebuild(conn);
+            }
+
+            assertEquals(2, rebuilt.getSaleCount());
+            assertEquals(917, rebuilt.getRevenueCents());
+            assertEquals(797, rebuilt.getCategoryRevenueCents(DAIRY));
+            assertEquals(1, rebuilt.getCategoryUnits(BAKERY));
+            assertEquals(2, rebuilt.getDaySaleCount(SalesAggregates.epochDay(System.currentTimeMillis())));
+        }
+    }
+
+    // ---------------- helper methods ----------------
+
+    // 1 = milk 2.50 (dairy), 2 = yoghurt 0.99 (dairy), 3 = bread 1.20 (bakery)
+    private static ProductDALStub seeded() {
+        ProductDALStub products = new ProductDALStub();
+        products.seedProduct(1, 2.50, 100, DAIRY);
+        products.seedProduct(2, 0.99, 100, DAIRY);
+        products.seedProduct(3, 1.20, 100, BAKERY);
+        return products;
+    }
+}
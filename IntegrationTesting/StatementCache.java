@@ -0,0 +1,228 @@
+package IntegrationTesting;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LRU cache of prepared statements for one physical connection, keyed by SQL text.
+ * Statements handed out are proxies: close() only releases them back to the cache, with
+ * parameters, batch and any changed settings (fetch size, max rows, timeouts) reset.
+ * releaseAll() takes back whatever a borrower left open when its connection is returned.
+ * Not thread-safe on its own; a pooled connection is used by one borrower at a time.
+ */
+public class StatementCache {
+
+    private static final class Entry {
+        final PreparedStatement statement;
+        // settings as prepared, restored on release when a borrower changed them
+        final int fetchSize;
+        final int fetchDirection;
+        final int maxRows;
+        final int maxFieldSize;
+        final int queryTimeout;
+        Handle borrower; // non-null while checked out
+        boolean settingsChanged;
+        boolean unrestorable; // a setting without a getter was changed: drop on release
+        boolean evicted;
+
+        Entry(PreparedStatement statement) throws SQLException {
+            this.statement = statement;
+            this.fetchSize = statement.getFetchSize();
+            this.fetchDirection = statement.getFetchDirection();
+            this.maxRows = statement.getMaxRows();
+            this.maxFieldSize = statement.getMaxFieldSize();
+            this.queryTimeout = statement.getQueryTimeout();
+        }
+    }
+
+    // one checkout of a cached statement
+    private final class Handle implements InvocationHandler {
+        private final String sql;
+        private final Entry entry;
+        private boolean closed;
+
+        Handle(String sql, Entry entry) {
+            this.sql = sql;
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    close();
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    throw new SQLException("getConnection() is not available on cached statements");
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    if (closed) throw new SQLException("Statement is closed");
+                    if (RESTORABLE.contains(name)) entry.settingsChanged = true;
+                    else if (UNRESTORABLE.contains(name)) entry.unrestorable = true;
+                    try {
+                        return method.invoke(entry.statement, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+            }
+        }
+
+        void close() {
+            if (closed) return;
+            closed = true;
+            release(sql, entry);
+        }
+    }
+
+    private static final Set<String> RESTORABLE = Set.of(
+            "setFetchSize", "setFetchDirection", "setMaxRows", "setMaxFieldSize", "setQueryTimeout");
+    // no getter to restore them from, so the statement is closed instead of cached again
+    private static final Set<String> UNRESTORABLE = Set.of(
+            "setCursorName", "setEscapeProcessing", "setPoolable", "setLargeMaxRows", "closeOnCompletion");
+
+    private final Connection physical;
+    private final int maxSize;
+    private final LinkedHashMap<String, Entry> entries;
+
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong evictions = new AtomicLong();
+
+    public StatementCache(Connection physical, int maxSize) {
+        this(physical, maxSize, new AtomicLong(), new AtomicLong());
+    }
+
+    // hit/miss counters may be shared, e.g. pool-wide totals
+    StatementCache(Connection physical, int maxSize, AtomicLong hits, AtomicLong misses) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be > 0");
+        this.physical = physical;
+        this.maxSize = maxSize;
+        this.hits = hits;
+        this.misses = misses;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true); // access order = LRU
+    }
+
+    public PreparedStatement prepare(String sql) throws SQLException {
+        Entry entry = entries.get(sql);
+        if (entry != null && entry.borrower == null) {
+            hits.incrementAndGet();
+            return checkOut(sql, entry);
+        }
+        misses.incrementAndGet();
+        if (entry != null) {
+            // same SQL still open by this borrower: give it a private, uncached statement
+            return physical.prepareStatement(sql);
+        }
+        entry = new Entry(physical.prepareStatement(sql));
+        entries.put(sql, entry);
+        evictOverflow();
+        return checkOut(sql, entry);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // releases every statement still checked out, e.g. when the connection goes back to the pool
+    public void releaseAll() {
+        ArrayList<Handle> open = new ArrayList<>();
+        for (Entry e : entries.values()) {
+            if (e.borrower != null) open.add(e.borrower);
+        }
+        for (Handle h : open) {
+            h.close(); // a later call through the old proxy fails as closed
+        }
+    }
+
+    public void closeAll() {
+        for (Entry e : entries.values()) {
+            closeQuietly(e.statement);
+        }
+        entries.clear();
+    }
+
+    private PreparedStatement checkOut(String sql, Entry entry) {
+        entry.borrower = new Handle(sql, entry);
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, entry.borrower);
+    }
+
+    private void release(String sql, Entry entry) {
+        entry.borrower = null;
+        if (entry.evicted) {
+            closeQuietly(entry.statement); // evicted while it was checked out
+            return;
+        }
+        if (entry.unrestorable || !reset(entry)) {
+            entries.remove(sql, entry);
+            closeQuietly(entry.statement);
+        }
+    }
+
+    // back to the state it was prepared in; false when the driver refused
+    private static boolean reset(Entry entry) {
+        try {
+            entry.statement.clearParameters();
+            entry.statement.clearBatch();
+            if (entry.settingsChanged) {
+                entry.statement.setMaxRows(entry.maxRows); // first: some drivers cap fetchSize at maxRows
+                entry.statement.setFetchSize(entry.fetchSize);
+                entry.statement.setFetchDirection(entry.fetchDirection);
+                entry.statement.setMaxFieldSize(entry.maxFieldSize);
+                entry.statement.setQueryTimeout(entry.queryTimeout);
+                entry.settingsChanged = false;
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (entries.size() > maxSize && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            eldest.evicted = true;
+            evictions.incrementAndGet();
+            if (eldest.borrower == null) closeQuietly(eldest.statement);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement ps) {
+        try {
+            ps.close();
+        } catch (SQLException ignored) {
+            // connection already gone
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package IntegrationTesting;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StatementCacheIntegrationTest {
+
+    private static final String SEARCH_CUSTOMERS = "SELECT id, name FROM customers WHERE name LIKE ?";
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:stmt_" + UUID.randomUUID().toString().substring(0, 8)
+                + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        pool = new ConnectionPool(new ConnectionPool.Settings(url, "sa", "")
+                .minSize(1)
+                .maxSize(1)
+                .statementCacheSize(2));
+
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE customers (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50))");
+            st.execute("INSERT INTO customers (name) VALUES ('Alice_Cache'), ('Bob_Cache'), ('Carol')");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void repeatedSearch_reusesPreparedStatement_acrossBorrows() throws Exception {
+        assertEquals(2, countMatches("%_Cache"));
+        assertEquals(1, countMatches("Carol%"));
+        assertEquals(0, countMatches("Nobody%"));
+
+        PoolMetrics m = pool.getMetrics();
+        assertEquals(1, m.getStatementCacheMisses(), "Only the first search should prepare");
+        assertEquals(2, m.getStatementCacheHits());
+    }
+
+    @Test
+    void closingCachedStatement_keepsItUsable_andClearsParameters() throws Exception {
+        try (Connection conn = pool.getConnection()) {
+            PreparedStatement first = conn.prepareStatement(SEARCH_CUSTOMERS);
+            first.setString(1, "%");
+            first.executeQuery().close();
+            first.close();
+            assertTrue(first.isClosed());
+            assertThrows(SQLException.class, first::executeQuery);
+
+            PreparedStatement second = conn.prepareStatement(SEARCH_CUSTOMERS);
+            // parameters from the previous use must not leak into this one
+            assertThrows(SQLException.class, second::executeQuery);
+            second.close();
+        }
+    }
+
+    @Test
+    void sameSqlOpenTwice_secondGetsPrivateStatement() throws Exception {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement outer = conn.prepareStatement(SEARCH_CUSTOMERS);
+             PreparedStatement inner = conn.prepareStatement(SEARCH_CUSTOMERS)) {
+            outer.setString(1, "Alice%");
+            inner.setString(1, "Bob%");
+            try (ResultSet a = outer.executeQuery(); ResultSet b = inner.executeQuery()) {
+                assertTrue(a.next());
+                assertTrue(b.next());
+                assertEquals("Alice_Cache", a.getString("name"));
+                assertEquals("Bob_Cache", b.getString("name"));
+            }
+        }
+    }
+
+    @Test
+    void statementLeftOpen_isReleasedWithItsConnection_andSettingsAreReset() throws Exception {
+        PreparedStatement forgotten;
+        try (Connection conn = pool.getConnection()) {
+            forgotten = conn.prepareStatement(SEARCH_CUSTOMERS);
+            forgotten.setFetchSize(7);
+            forgotten.setMaxRows(1);
+            forgotten.setString(1, "%");
+            forgotten.executeQuery().close();
+        } // statement never closed
+
+        assertTrue(forgotten.isClosed());
+        assertThrows(SQLException.class, forgotten::executeQuery);
+        assertEquals(3, countMatches("%"), "maxRows from the last borrower must not carry over");
+        try (Connection conn = pool.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SEARCH_CUSTOMERS)) {
+            assertEquals(0, ps.getMaxRows());
+            assertNotEquals(7, ps.getFetchSize());
+        }
+        assertEquals(1, pool.getMetrics().getStatementCacheMisses(), "the SQL must stay cacheable");
+    }
+
+    @Test
+    void leastRecentlyUsedStatement_isEvictedAndClosed() throws Exception {
+        try (Connection conn = pool.getConnection()) {
+            Connection physical = conn.unwrap(Connection.class);
+            StatementCache cache = new StatementCache(physical, 2);
+
+            PreparedStatement a = cache.prepare("SELECT 1");
+            a.close();
+            cache.prepare("SELECT 2").close();
+            cache.prepare("SELECT 1").close(); // touch: SELECT 2 is now eldest
+            cache.prepare("SELECT 3").close();
+
+            assertEquals(2, cache.size());
+            assertEquals(1, cache.getEvictions());
+            assertEquals(1, cache.getHits());
+
+            cache.prepare("SELECT 1").close();
+            assertEquals(2, cache.getHits(), "SELECT 1 should have survived eviction");
+            cache.closeAll();
+        }
+    }
+
+    private int countMatches(String pattern) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement ps = conn.prepareStatement(SEARCH_CUSTOMERS)) {
+            ps.setString(1, pattern);
+            int n = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) n++;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package IntegrationTesting;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Local stock ledger in two memory-mapped files, so tills reserve stock at memory speed and the
+ * stock survives a restart:
+ *
+ *   stock.ledger   fixed 32-byte records, open-addressed by product ID:
+ *                  [key: 1 << 32 | productId][word: version << 32 | stock][syncedVersion][unused]
+ *   stock.journal  append-only 16-byte entries [word][productId][epoch], one per change
+ *
+ * A change is one compare-and-set of the record's word (VarHandle on the mapped buffer), so it
+ * is atomic per product and bumps the product's version. The new word is then appended to the
+ * journal; the entry's epoch is stored last (release), so a torn entry is never read as valid.
+ * Entries hold the resulting stock rather than a delta, which makes replay idempotent: on open,
+ * each product takes the highest-versioned entry of the current epoch if it is newer than its
+ * record. That repairs ledger pages that never reached the disk.
+ *
+ * checkpoint() (also run when the journal fills up and after every open) briefly stops writers,
+ * forces the ledger to disk and starts a new epoch, which empties the journal without rewriting
+ * it. force() flushes the journal: a change is safe from a process crash as soon as it returns
+ * (the page cache keeps it) and from power loss after the next force() or checkpoint().
+ *
+ * syncTo(...) writes every product changed since the last sync to products.stock_quantity, so
+ * the database follows the ledger asynchronously; the ledger is the authority for stock.
+ * Versions are 32 bits and compared with wrap-around. Files are little-endian.
+ * The ledger takes new products until it is half full (at least maxProducts records), so every
+ * lookup ends at an empty record after a few probes; past that, seed(...) of a new product fails.
+ */
+public final class StockLedger implements AutoCloseable {
+
+    static final String LEDGER_FILE = "stock.ledger";
+    static final String JOURNAL_FILE = "stock.journal";
+    static final String SYNC = "UPDATE products SET stock_quantity = ? WHERE id = ?";
+
+    private static final int MAGIC = 0x53544B4C; // "STKL"
+    private static final int HEADER = 64;
+    private static final int RECORD = 32;
+    private static final int ENTRY = 16;
+    // header offsets
+    private static final int H_MAGIC = 0;
+    private static final int H_CAPACITY = 4;
+    private static final int H_JOURNAL_ENTRIES = 8;
+    private static final int H_EPOCH = 16;
+    // record offsets
+    private static final int R_KEY = 0;
+    private static final int R_WORD = 8;
+    private static final int R_SYNCED = 16;
+
+    private static final VarHandle LONG =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle INT =
+            MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final FileChannel ledgerChannel;
+    private final FileChannel journalChannel;
+    private final MappedByteBuffer ledger;
+    private final MappedByteBuffer journal;
+    private final int mask;
+    private final int maxRecords; // capacity / 2
+    private final AtomicInteger records = new AtomicInteger();
+    private final int journalEntries;
+
+    // writers share the read side; checkpoint() takes the write side to see a quiet ledger
+    private final StampedLock checkpointLock = new StampedLock();
+    private final Lock writers = checkpointLock.asReadLock();
+    private final AtomicLong journalPosition = new AtomicLong();
+    private volatile int epoch;
+    private final long replayed;
+
+    private StockLedger(FileChannel ledgerChannel, FileChannel journalChannel, MappedByteBuffer ledger,
+                        MappedByteBuffer journal, int capacity, int journalEntries) {
+        this.ledgerChannel = ledgerChannel;
+        this.journalChannel = journalChannel;
+        this.ledger = ledger;
+        this.journal = journal;
+        this.mask = capacity - 1;
+        this.maxRecords = capacity / 2;
+        this.journalEntries = journalEntries;
+        for (int slot = 0; slot < capacity; slot++) {
+            if ((long) LONG.get(ledger, HEADER + slot * RECORD + R_KEY) != 0) records.incrementAndGet();
+        }
+        this.epoch = (int) INT.get(ledger, H_EPOCH);
+        this.replayed = replay();
+        checkpoint();
+    }
+
+    /**
+     * Opens the ledger in dir, creating it for up to maxProducts products (and a journal of
+     * journalEntries changes between checkpoints) if it does not exist yet. An existing ledger
+     * keeps the sizes it was created with and is recovered from its journal.
+     */
+    public static StockLedger open(Path dir, int maxProducts, int journalEntries) throws IOException {
+        if (maxProducts <= 0) throw new IllegalArgumentException("maxProducts must be > 0");
+        if (journalEntries <= 0) throw new IllegalArgumentException("journalEntries must be > 0");
+        Files.createDirectories(dir);
+        Path ledgerPath = dir.resolve(LEDGER_FILE);
+        boolean exists = Files.exists(ledgerPath);
+        if (!exists) Files.deleteIfExists(dir.resolve(JOURNAL_FILE)); // entries of some earlier ledger
+        FileChannel ledgerChannel = FileChannel.open(ledgerPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        FileChannel journalChannel = null;
+        try {
+            int capacity;
+            if (exists) {
+                MappedByteBuffer header = ledgerChannel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+                if ((int) INT.get(header, H_MAGIC) != MAGIC) throw new IOException("Not a stock ledger: " + ledgerPath);
+                capacity = (int) INT.get(header, H_CAPACITY);
+                journalEntries = (int) INT.get(header, H_JOURNAL_ENTRIES);
+            } else {
+                // at most half full, so probes stay short
+                capacity = Integer.highestOneBit(Math.max(maxProducts, 8) - 1) << 2;
+            }
+            MappedByteBuffer ledger = ledgerChannel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + (long) capacity * RECORD);
+            if (!exists) {
+                INT.set(ledger, H_CAPACITY, capacity);
+                INT.set(ledger, H_JOURNAL_ENTRIES, journalEntries);
+                INT.set(ledger, H_EPOCH, 1);
+                INT.set(ledger, H_MAGIC, MAGIC);
+                ledger.force();
+            }
+            journalChannel = FileChannel.open(dir.resolve(JOURNAL_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedByteBuffer journal = journalChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) journalEntries * ENTRY);
+            return new StockLedger(ledgerChannel, journalChannel, ledger, journal, capacity, journalEntries);
+        } catch (IOException | RuntimeException e) {
+            ledgerChannel.close();
+            if (journalChannel != null) journalChannel.close();
+            throw e;
+        }
+    }
+
+    // sets the stock of a product, adding it to the ledger if needed
+    public void seed(int productId, int stock) {
+        if (stock < 0) throw new IllegalArgumentException("Stock must be >= 0");
+        int slot = enter();
+        try {
+            int record = claim(productId);
+            long word;
+            long next;
+            do {
+                word = (long) LONG.getVolatile(ledger, record + R_WORD);
+                next = pack(version(word) + 1, stock);
+            } while (!LONG.compareAndSet(ledger, record + R_WORD, word, next));
+            append(slot, productId, next);
+        } finally {
+            writers.unlock();
+        }
+    }
+
+    // "stock >= qty ? stock -= qty" as one CAS; false for unknown products
+    public boolean tryReserve(int productId, int qty) {
+        if (qty <= 0) throw new IllegalArgumentException("Quantity must be > 0");
+        int slot = enter();
+        try {
+            int record = find(productId);
+            if (record < 0) return false;
+            long word;
+            long next;
+            do {
+                word = (long) LONG.getVolatile(ledger, record + R_WORD);
+                if (stock(word) < qty) return false;
+                next = pack(version(word) + 1, stock(word) - qty);
+            } while (!LONG.compareAndSet(ledger, record + R_WORD, word, next));
+            append(slot, productId, next);
+            return true;
+        } finally {
+            writers.unlock();
+        }
+    }
+
+    // gives back units of a reservation that was not sold
+    public void release(int productId, int qty) {
+        if (qty <= 0) throw new IllegalArgumentException("Quantity must be > 0");
+        int slot = enter();
+        try {
+            int record = find(productId);
+            if (record < 0) return;
+            long word;
+            long next;
+            do {
+                word = (long) LONG.getVolatile(ledger, record + R_WORD);
+                next = pack(version(word) + 1, Math.addExact(stock(word), qty));
+            } while (!LONG.compareAndSet(ledger, record + R_WORD, word, next));
+            append(slot, productId, next);
+        } finally {
+            writers.unlock();
+        }
+    }
+
+    // every line or none; -1 or the index of the line that failed (earlier lines are released)
+    public int reserveAll(int[] productIds, int[] qtys) {
+        if (productIds.length != qtys.length) {
+            throw new IllegalArgumentException("productIds and qtys must have the same length");
+        }
+        for (int i = 0; i < productIds.length; i++) {
+            if (!tryReserve(productIds[i], qtys[i])) {
+                for (int j = i - 1; j >= 0; j--) {
+                    release(productIds[j], qtys[j]);
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public int getStock(int productId) {
+        int record = find(productId);
+        return record < 0 ? 0 : stock((long) LONG.getVolatile(ledger, record + R_WORD));
+    }
+
+    // journal entries applied while opening (changes the ledger file had not yet recorded)
+    public long getReplayed() {
+        return replayed;
+    }
+
+    /**
+     * Writes the stock of every product changed since the last sync to the products table in one
+     * batch and transaction; returns the number of products written. A product changed again
+     * while the batch runs is simply written again next time.
+     */
+    public int syncTo(Connection conn) throws SQLException {
+        int capacity = mask + 1;
+        int[] records = new int[64];
+        long[] words = new long[64];
+        int n = 0;
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement ps = conn.prepareStatement(SYNC)) {
+            for (int slot = 0; slot < capacity; slot++) {
+                int record = HEADER + slot * RECORD;
+                long key = (long) LONG.getVolatile(ledger, record + R_KEY);
+                if (key == 0) continue;
+                long word = (long) LONG.getVolatile(ledger, record + R_WORD);
+                if ((long) LONG.get(ledger, record + R_SYNCED) == version(word)) continue;
+                ps.setInt(1, stock(word));
+                ps.setInt(2, (int) key);
+                ps.addBatch();
+                if (n == records.length) {
+                    records = Arrays.copyOf(records, n * 2);
+                    words = Arrays.copyOf(words, n * 2);
+                }
+                records[n] = record;
+                words[n] = word;
+                n++;
+            }
+            if (n > 0) ps.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        for (int i = 0; i < n; i++) {
+            LONG.setRelease(ledger, records[i] + R_SYNCED, (long) version(words[i]));
+        }
+        return n;
+    }
+
+    // flushes the journal: every change made so far survives power loss
+    public void force() {
+        journal.force();
+    }
+
+    /**
+     * Forces the ledger to disk and starts a new journal epoch, which retires every entry
+     * written so far. Writers wait while it runs.
+     */
+    public void checkpoint() {
+        long stamp = checkpointLock.writeLock();
+        try {
+            checkpointQuiet();
+        } finally {
+            checkpointLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        checkpoint();
+        journalChannel.close();
+        ledgerChannel.close();
+    }
+
+    // ---------------- helper methods ----------------
+
+    // takes the read side of the checkpoint lock and a journal slot for the change
+    private int enter() {
+        while (true) {
+            writers.lock();
+            long slot = journalPosition.getAndIncrement();
+            if (slot < journalEntries) return (int) slot;
+            writers.unlock();
+            rollJournal();
+        }
+    }
+
+    // journal full: the first writer to get here checkpoints, the others find it empty again
+    private void rollJournal() {
+        long stamp = checkpointLock.writeLock();
+        try {
+            if (journalPosition.get() >= journalEntries) checkpointQuiet();
+        } finally {
+            checkpointLock.unlockWrite(stamp);
+        }
+    }
+
+    // under the write side: no change is in flight
+    private void checkpointQuiet() {
+        ledger.force();
+        epoch = epoch + 1 == 0 ? 1 : epoch + 1;
+        INT.setVolatile(ledger, H_EPOCH, epoch);
+        ledger.force(H_EPOCH, 4);
+        journalPosition.set(0);
+    }
+
+    // slot stays unused (and is skipped by replay) when the change was refused
+    private void append(int slot, int productId, long word) {
+        int offset = slot * ENTRY;
+        LONG.set(journal, offset, word);
+        INT.set(journal, offset + 8, productId);
+        INT.setRelease(journal, offset + 12, epoch);
+    }
+
+    // applies the newest entry of the current epoch per product; returns entries applied
+    private long replay() {
+        long applied = 0;
+        for (int i = 0; i < journalEntries; i++) {
+            int offset = i * ENTRY;
+            if ((int) INT.getAcquire(journal, offset + 12) != epoch) continue;
+            long word = (long) LONG.get(journal, offset);
+            int record = claim((int) INT.get(journal, offset + 8));
+            long current = (long) LONG.get(ledger, record + R_WORD);
+            if (version(word) - version(current) > 0) {
+                LONG.set(ledger, record + R_WORD, word);
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    // record offset of productId, or -1; at most one pass over the table, even if it is full
+    private int find(int productId) {
+        long key = key(productId);
+        for (int slot = hash(productId) & mask, probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+            int record = HEADER + slot * RECORD;
+            long k = (long) LONG.getAcquire(ledger, record + R_KEY);
+            if (k == key) return record;
+            if (k == 0) return -1;
+        }
+        return -1;
+    }
+
+    // record offset of productId, inserting it (stock 0, version 0) if needed and the ledger is not half full
+    private int claim(int productId) {
+        long key = key(productId);
+        for (int slot = hash(productId) & mask, probes = 0; probes <= mask; slot = (slot + 1) & mask, probes++) {
+            int record = HEADER + slot * RECORD;
+            long k = (long) LONG.getAcquire(ledger, record + R_KEY);
+            if (k == 0) {
+                if (records.incrementAndGet() > maxRecords) {
+                    records.decrementAndGet();
+                    throw new IllegalStateException("Stock ledger is full (" + maxRecords + " products)");
+                }
+                if (LONG.compareAndSet(ledger, record + R_KEY, 0L, key)) return record;
+                records.decrementAndGet(); // another writer took the record first
+            }
+            if (k == key || (long) LONG.getAcquire(ledger, record + R_KEY) == key) return record;
+        }
+        throw new IllegalStateException("Stock ledger is full (" + maxRecords + " products)");
+    }
+
+    private static long key(int productId) {
+        return 1L << 32 | (productId & 0xFFFFFFFFL);
+    }
+
+    private static long pack(int version, int stock) {
+        return (long) version << 32 | (stock & 0xFFFFFFFFL);
+    }
+
+    private static int version(long word) {
+        return (int) (word >>> 32);
+    }
+
+    private static int stock(long word) {
+        return (int) word;
+    }
+
+    private static int hash(int productId) {
+        int h = productId * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,257 @@
+package IntegrationTesting;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockLedgerIntegrationTest {
+
+    private static final int TILLS = 16;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void stockSurvivesReopen() throws Exception {
+        try (StockLedger ledger = StockLedger.open(dir, 1000, 1024)) {
+            ledger.seed(1, 10);
+            ledger.seed(2, 5);
+            assertTrue(ledger.tryReserve(1, 3));
+            assertFalse(ledger.tryReserve(2, 6));
+            ledger.release(1, 1);
+        }
+
+        try (StockLedger ledger = StockLedger.open(dir, 1000, 1024)) {
+            assertEquals(8, ledger.getStock(1));
+            assertEquals(5, ledger.getStock(2));
+            assertEquals(0, ledger.getStock(3));
+            assertFalse(ledger.tryReserve(3, 1), "unknown product");
+            assertEquals(0, ledger.getReplayed(), "closed cleanly: nothing to replay");
+        }
+    }
+
+    @Test
+    void lastUnits_concurrentTills_neverOversell() throws Exception {
+        try (StockLedger ledger = StockLedger.open(dir, 100, 64)) { // small journal: rolls over several times
+            ledger.seed(1, 100);
+            ExecutorService tills = Executors.newFixedThreadPool(TILLS);
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger sold = new AtomicInteger();
+            List<Future<?>> futures = new ArrayList<>();
+            try {
+                for (int t = 0; t < TILLS; t++) {
+                    futures.add(tills.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < 20; i++) {
+                            if (ledger.tryReserve(1, 1)) sold.incrementAndGet();
+                        }
+                        return null;
+                    }));
+                }
+                start.countDown();
+                for (Future<?> f : futures) {
+                    f.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                tills.shutdownNow();
+            }
+
+            assertEquals(100, sold.get());
+            assertEquals(0, ledger.getStock(1));
+        }
+    }
+
+    @Test
+    void basket_isAllOrNothing() throws Exception {
+        try (StockLedger ledger = StockLedger.open(dir, 100, 1024)) {
+            ledger.seed(1, 10);
+            ledger.seed(2, 1);
+
+            assertEquals(1, ledger.reserveAll(new int[]{1, 2}, new int[]{4, 2}));
+            assertEquals(10, ledger.getStock(1));
+            assertEquals(-1, ledger.reserveAll(new int[]{1, 2}, new int[]{4, 1}));
+            assertEquals(6, ledger.getStock(1));
+            assertThrows(IllegalArgumentException.class, () -> ledger.tryReserve(1, 0));
+        }
+    }
+
+    @Test
+    void ledger_refusesNewProductsOnceHalfFull_andLookupsStillEnd() throws Exception {
+        try (StockLedger ledger = StockLedger.open(dir, 8, 64)) { // 16 records, half of them usable
+            for (int id = 1; id <= 8; id++) {
+                ledger.seed(id, id);
+            }
+            assertThrows(IllegalStateException.class, () -> ledger.seed(9, 1));
+            assertEquals(0, ledger.getStock(9));
+            assertFalse(ledger.tryReserve(123_456, 1), "unknown product");
+        }
+
+        try (StockLedger ledger = StockLedger.open(dir, 8, 64)) {
+            assertThrows(IllegalStateException.class, () -> ledger.seed(9, 1), "the count survives a reopen");
+            ledger.seed(3, 30); // known products can still change
+            assertEquals(30, ledger.getStock(3));
+            assertEquals(8, ledger.getStock(8));
+        }
+    }
+
+    @Test
+    void ledgerPagesLostInCrash_areRecoveredFromJournal() throws Exception {
+        Path snapshot = dir.resolve("ledger.snapshot");
+        try (StockLedger ledger = StockLedger.open(dir, 1000, 1024)) {
+            for (int id = 1; id <= 50; id++) {
+                ledger.seed(id, 100);
+            }
+            ledger.checkpoint();
+            // the ledger file as last forced to disk
+            Files.copy(dir.resolve(StockLedger.LEDGER_FILE), snapshot);
+
+            for (int id = 1; id <= 50; id++) {
+                assertTrue(ledger.tryReserve(id, id));
+            }
+            crash(ledger, snapshot);
+        }
+
+        try (StockLedger ledger = StockLedger.open(dir, 1000, 1024)) {
+            assertEquals(50, ledger.getReplayed());
+            for (int id = 1; id <= 50; id++) {
+                assertEquals(100 - id, ledger.getStock(id), "product " + id);
+            }
+        }
+    }
+
+    @Test
+    void tornJournalEntry_isIgnored_andEarlierChangesKept() throws Exception {
+        Path snapshot = dir.resolve("ledger.snapshot");
+        try (StockLedger ledger = StockLedger.open(dir, 1000, 1024)) {
+            ledger.seed(1, 100);
+            ledger.checkpoint();
+            Files.copy(dir.resolve(StockLedger.LEDGER_FILE), snapshot);
+
+            assertTrue(ledger.tryReserve(1, 10)); // journal entry 0
+            assertTrue(ledger.tryReserve(1, 5));  // journal entry 1, torn below
+            crash(ledger, snapshot);
+        }
+        try (RandomAccessFile journal = new RandomAccessFile(dir.resolve(StockLedger.JOURNAL_FILE).toFile(), "rw")) {
+            journal.seek(16 + 12); // epoch of entry 1: the crash hit before it was written
+            journal.writeInt(0);
+        }
+
+        try (StockLedger ledger = StockLedger.open(dir, 1000, 1024)) {
+            assertEquals(90, ledger.getStock(1));
+        }
+    }
+
+    @Test
+    void killedProcess_losesNoCompletedReservation() throws Exception {
+        try (StockLedger ledger = StockLedger.open(dir, 1000, 4096)) {
+            ledger.seed(7, 1_000_000);
+        }
+
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        // the launcher may load test classes through its own class loader, so add their location
+        String classPath = Path.of(Till.class.getProtectionDomain().getCodeSource().getLocation().toURI())
+                + File.pathSeparator + System.getProperty("java.class.path");
+        Process till = new ProcessBuilder(java, "-cp", classPath, Till.class.getName(), dir.toString())
+                .redirectErrorStream(true).start();
+        int acknowledged = 0;
+        try (BufferedReader out = new BufferedReader(new InputStreamReader(till.getInputStream()))) {
+            String line;
+            while ((line = out.readLine()) != null) {
+                acknowledged = Integer.parseInt(line.trim());
+                if (acknowledged >= 20_000) break;
+            }
+        } finally {
+            till.destroyForcibly();
+            till.waitFor(30, TimeUnit.SECONDS);
+        }
+        assertTrue(acknowledged >= 20_000, "till reported " + acknowledged);
+
+        try (StockLedger ledger = StockLedger.open(dir, 1000, 4096)) {
+            int sold = 1_000_000 - ledger.getStock(7);
+            // every acknowledged reservation is there (the till kept selling until the kill landed)
+            assertTrue(sold >= acknowledged, sold + " sold, " + acknowledged + " acknowledged");
+            assertTrue(ledger.tryReserve(7, 1));
+        }
+    }
+
+    @Test
+    void syncTo_writesOnlyChangedProducts() throws Exception {
+        String url = "jdbc:h2:mem:ledger_" + UUID.randomUUID().toString().substring(0, 8)
+                + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        try (ConnectionPool pool = new ConnectionPool(new ConnectionPool.Settings(url, "sa", "").minSize(1).maxSize(2));
+             StockLedger ledger = StockLedger.open(dir, 100, 1024)) {
+            try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+                st.execute("CREATE TABLE products (id INT PRIMARY KEY, stock_quantity INT NOT NULL)");
+                st.execute("INSERT INTO products VALUES (1, 0), (2, 0), (3, 0)");
+            }
+            ledger.seed(1, 10);
+            ledger.seed(2, 20);
+            ledger.seed(3, 30);
+
+            try (Connection conn = pool.getConnection()) {
+                assertEquals(3, ledger.syncTo(conn));
+                assertTrue(ledger.tryReserve(2, 5));
+                assertEquals(1, ledger.syncTo(conn));
+                assertEquals(0, ledger.syncTo(conn));
+                assertEquals(15, stockInDb(conn, 2));
+                assertEquals(30, stockInDb(conn, 3));
+            }
+        }
+    }
+
+    // ---------------- helper methods ----------------
+
+    // flushes the journal, then puts back the ledger file as it was last forced to disk
+    // (the open mapping keeps writing to the replaced file)
+    private void crash(StockLedger ledger, Path ledgerOnDisk) throws Exception {
+        ledger.force();
+        Files.copy(ledgerOnDisk, dir.resolve(StockLedger.LEDGER_FILE), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static int stockInDb(Connection conn, int productId) throws SQLException {
+        try (Statement st = conn.createStatement();
+             ResultSet rs = st.executeQuery("SELECT stock_quantity FROM products WHERE id = " + productId)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    // child process: reserves one unit of product 7 at a time until it is killed
+    public static final class Till {
+
+        static final int REPORT_EVERY = 100;
+
+        public static void main(String[] args) throws Exception {
+            StockLedger ledger = StockLedger.open(Path.of(args[0]), 1000, 4096);
+            for (int sold = 1; ; sold++) {
+                if (!ledger.tryReserve(7, 1)) return;
+                if (sold % REPORT_EVERY == 0) {
+                    System.out.println(sold);
+                    System.out.flush();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package IntegrationTesting;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Basket-level stock holds for till sessions, on top of ProductDALStub.
+ * A scan takes the units from available stock at once (tryReserve), a void gives them back, and
+ * CheckoutService.checkoutCents(basket) turns the held units into a sale without taking them again.
+ * A basket untouched for ttlMillis expires and its units go back to stock.
+ * Expiry runs on a hashed timer wheel: each basket sits in the bucket of the tick it expires at,
+ * and a scan moves it to a later bucket, so a tick only visits the baskets that expire at that
+ * tick instead of scanning every open basket. The wheel has more buckets than the TTL has ticks,
+ * so a bucket never holds baskets of a later round.
+ * Nothing expires on its own until start() is called; without it, the caller drives sweep().
+ */
+public class StockReservations implements AutoCloseable {
+
+    public enum State { OPEN, CHECKED_OUT, RELEASED, EXPIRED }
+
+    // one till session; lines and state are guarded by the basket itself
+    public static final class Basket {
+        private final StockReservations owner;
+        private final long id;
+        private final LinkedHashMap<Integer, Integer> lines = new LinkedHashMap<>(); // productId -> units
+        private State state = State.OPEN;
+        private long deadlineTick;
+        // intrusive links of the wheel bucket; guarded by the wheel lock
+        private Basket prev;
+        private Basket next;
+        private int bucket = -1; // -1 = not on the wheel
+
+        private Basket(StockReservations owner, long id) {
+            this.owner = owner;
+            this.id = id;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public synchronized State getState() {
+            return state;
+        }
+
+        public synchronized int getReserved(int productId) {
+            return lines.getOrDefault(productId, 0);
+        }
+
+        public synchronized int getLineCount() {
+            return lines.size();
+        }
+    }
+
+    private final ProductDALStub productDal;
+    private final long tickNanos;
+    private final long ttlTicks;
+    private final LongSupplier clock;
+    private final long startNanos;
+
+    // ---- wheel, guarded by wheelLock ----
+    private final Object wheelLock = new Object();
+    private final Basket[] buckets;
+    private final int mask;
+    private long sweptTick; // every tick <= sweptTick has been swept
+
+    // guarded by this; null until start()
+    private ScheduledExecutorService sweeper;
+    private boolean closed;
+
+    private final AtomicLong nextBasketId = new AtomicLong();
+    private final ConcurrentHashMap<Integer, AtomicInteger> reservedByProduct = new ConcurrentHashMap<>();
+    private final LongAdder reservedUnits = new LongAdder();
+    private final LongAdder openBaskets = new LongAdder();
+    private final LongAdder checkedOut = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder expiredUnits = new LongAdder();
+    private final LongAdder refusedScans = new LongAdder();
+    private final LongAdder bucketVisits = new LongAdder();
+
+    public StockReservations(ProductDALStub productDal, long ttlMillis, long tickMillis) {
+        this(productDal, ttlMillis, tickMillis, System::nanoTime);
+    }
+
+    // clock (nanoseconds) is injectable so expiry can be driven without sleeping
+    public StockReservations(ProductDALStub productDal, long ttlMillis, long tickMillis, LongSupplier clock) {
+        if (tickMillis <= 0) throw new IllegalArgumentException("tickMillis must be > 0");
+        if (ttlMillis < tickMillis) throw new IllegalArgumentException("ttlMillis must be >= tickMillis");
+        this.productDal = productDal;
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.ttlTicks = (ttlMillis + tickMillis - 1) / tickMillis;
+        this.clock = clock;
+        this.startNanos = clock.getAsLong();
+        this.buckets = new Basket[Integer.highestOneBit((int) Math.min(ttlTicks + 2, 1 << 29)) << 1];
+        this.mask = buckets.length - 1;
+    }
+
+    /**
+     * Starts sweeping every tick on a daemon thread, until close(). Kept out of the constructor
+     * so the sweeper never sees a half-built object. Returns this.
+     */
+    public synchronized StockReservations start() {
+        if (closed) throw new IllegalStateException("StockReservations is closed");
+        if (sweeper != null) throw new IllegalStateException("Sweeper already started");
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stock-reservation-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long tickMillis = TimeUnit.NANOSECONDS.toMillis(tickNanos);
+        sweeper.scheduleAtFixedRate(this::sweep, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        return this;
+    }
+
+    public Basket open() {
+        Basket basket = new Basket(this, nextBasketId.incrementAndGet());
+        synchronized (basket) {
+            schedule(basket);
+        }
+        openBaskets.increment();
+        return basket;
+    }
+
+    /**
+     * Holds qty more units of the product for the basket and restarts its TTL.
+     * Returns false (and holds nothing) when the stock cannot cover it.
+     */
+    public boolean scan(Basket basket, int productId, int qty) {
+        if (qty <= 0) throw new IllegalArgumentException("Quantity must be > 0");
+        synchronized (basket) {
+            requireOpen(basket);
+            schedule(basket);
+            if (!productDal.tryReserve(productId, qty)) {
+                refusedScans.increment();
+                return false;
+            }
+            basket.lines.merge(productId, qty, Integer::sum);
+            reserved(productId, qty);
+            return true;
+        }
+    }
+
+    // gives back up to qty units of the product (a voided item); returns the units given back
+    public int voidItem(Basket basket, int productId, int qty) {
+        if (qty <= 0) throw new IllegalArgumentException("Quantity must be > 0");
+        synchronized (basket) {
+            requireOpen(basket);
+            schedule(basket);
+            int held = basket.lines.getOrDefault(productId, 0);
+            int back = Math.min(held, qty);
+            if (back == 0) return 0;
+            if (back == held) basket.lines.remove(productId);
+            else basket.lines.put(productId, held - back);
+            giveBack(productId, back);
+            return back;
+        }
+    }
+
+    // voids the whole basket; no-op when it is no longer open
+    public void release(Basket basket) {
+        synchronized (basket) {
+            if (basket.state != State.OPEN) return;
+            end(basket, State.RELEASED);
+            released.increment();
+        }
+    }
+
+    /**
+     * Ends the session and hands its lines over (productIds[i] x qtys[i]); the units stay taken.
+     * Throws IllegalStateException when the basket is empty, has expired or was already closed.
+     */
+    static int[][] handOver(Basket basket) {
+        return basket.owner.checkout(basket);
+    }
+
+    private int[][] checkout(Basket basket) {
+        synchronized (basket) {
+            requireOpen(basket);
+            if (basket.lines.isEmpty()) throw new IllegalStateException("Basket " + basket.id + " is empty");
+            int[] productIds = new int[basket.lines.size()];
+            int[] qtys = new int[productIds.length];
+            int n = 0;
+            for (Map.Entry<Integer, Integer> line : basket.lines.entrySet()) {
+                productIds[n] = line.getKey();
+                qtys[n] = line.getValue();
+                n++;
+            }
+            basket.lines.clear(); // handed over, so closing must not give them back
+            for (int i = 0; i < n; i++) {
+                reserved(productIds[i], -qtys[i]);
+            }
+            end(basket, State.CHECKED_OUT);
+            checkedOut.increment();
+            return new int[][]{productIds, qtys};
+        }
+    }
+
+    /**
+     * Expires every basket whose deadline has passed. Runs every tick on the sweeper thread;
+     * each tick costs one bucket visit plus the baskets that expire at it.
+     */
+    public void sweep() {
+        long nowTick = currentTick();
+        while (true) {
+            ArrayList<Basket> due = new ArrayList<>();
+            long tick;
+            synchronized (wheelLock) {
+                if (sweptTick >= nowTick) return;
+                tick = ++sweptTick;
+                int b = (int) (tick & mask);
+                // detached under the lock: a till may relink a basket as soon as it is released
+                for (Basket x = buckets[b]; x != null; ) {
+                    Basket next = x.next;
+                    x.prev = null;
+                    x.next = null;
+                    x.bucket = -1;
+                    due.add(x);
+                    x = next;
+                }
+                buckets[b] = null;
+            }
+            bucketVisits.increment();
+            for (Basket basket : due) {
+                synchronized (basket) {
+                    if (basket.state != State.OPEN || basket.bucket != -1) continue; // closed or rescheduled meanwhile
+                    if (basket.deadlineTick > tick) {
+                        link(basket); // scheduled while the sweeper lagged: belongs to a later round
+                        continue;
+                    }
+                    expiredUnits.add(heldUnits(basket));
+                    end(basket, State.EXPIRED);
+                    expired.increment();
+                }
+            }
+        }
+    }
+
+    // units held by open baskets for the product (taken from stock, not yet sold)
+    public int getReserved(int productId) {
+        AtomicInteger units = reservedByProduct.get(productId);
+        return units == null ? 0 : units.get();
+    }
+
+    // units still free to scan
+    public int getAvailable(int productId) {
+        return productDal.getStock(productId);
+    }
+
+    public long getReservedUnits() {
+        return reservedUnits.sum();
+    }
+
+    public long getOpenBaskets() {
+        return openBaskets.sum();
+    }
+
+    public long getCheckedOutCount() {
+        return checkedOut.sum();
+    }
+
+    public long getReleasedCount() {
+        return released.sum();
+    }
+
+    public long getExpiredCount() {
+        return expired.sum();
+    }
+
+    public long getExpiredUnits() {
+        return expiredUnits.sum();
+    }
+
+    public long getRefusedScans() {
+        return refusedScans.sum();
+    }
+
+    // buckets visited by sweep(): one per tick, however many baskets are open
+    public long getBucketVisits() {
+        return bucketVisits.sum();
+    }
+
+    public int getWheelSize() {
+        return buckets.length;
+    }
+
+    // stops the sweeper; open baskets keep their units
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (sweeper != null) sweeper.shutdownNow();
+    }
+
+    // ---------------- helper methods ----------------
+
+    private long currentTick() {
+        return (clock.getAsLong() - startNanos) / tickNanos;
+    }
+
+    private static void requireOpen(Basket basket) {
+        if (basket.state != State.OPEN) {
+            throw new IllegalStateException("Basket " + basket.id + " is " + basket.state.name().toLowerCase());
+        }
+    }
+
+    // (re)starts the basket's TTL: moves it to the bucket of its new deadline; caller holds the basket
+    private void schedule(Basket basket) {
+        long deadline = currentTick() + ttlTicks + 1; // +1: the current tick is already partly over
+        synchronized (wheelLock) {
+            unlink(basket);
+            basket.deadlineTick = Math.max(deadline, sweptTick + 1);
+            link(basket);
+        }
+    }
+
+    private void link(Basket basket) {
+        synchronized (wheelLock) {
+            int b = (int) (basket.deadlineTick & mask);
+            basket.bucket = b;
+            basket.prev = null;
+            basket.next = buckets[b];
+            if (buckets[b] != null) buckets[b].prev = basket;
+            buckets[b] = basket;
+        }
+    }
+
+    private void unlink(Basket basket) {
+        if (basket.bucket < 0) return;
+        if (basket.prev != null) basket.prev.next = basket.next;
+        else buckets[basket.bucket] = basket.next;
+        if (basket.next != null) basket.next.prev = basket.prev;
+        basket.prev = null;
+        basket.next = null;
+        basket.bucket = -1;
+    }
+
+    // gives every held unit back and takes the basket off the wheel; caller holds the basket
+    private void end(Basket basket, State state) {
+        for (Map.Entry<Integer, Integer> line : basket.lines.entrySet()) {
+            giveBack(line.getKey(), line.getValue());
+        }
+        basket.lines.clear();
+        basket.state = state;
+        synchronized (wheelLock) {
+            unlink(basket);
+        }
+        openBaskets.decrement();
+    }
+
+    private void giveBack(int productId, int qty) {
+        productDal.releaseStock(productId, qty);
+        reserved(productId, -qty);
+    }
+
+    private void reserved(int productId, int delta) {
+        reservedByProduct.computeIfAbsent(productId, k -> new AtomicInteger()).addAndGet(delta);
+        reservedUnits.add(delta);
+    }
+
+    private static long heldUnits(Basket basket) {
+        long units = 0;
+        for (int qty : basket.lines.values()) {
+            units += qty;
+        }
+        return units;
+    }
+}
@@ -0,0 +1,237 @@
+package IntegrationTesting;
+
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StockReservationsIntegrationTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void scanHoldsStock_voidGivesItBack_checkoutSellsWhatIsHeld() {
+        ProductDALStub productDal = new ProductDALStub();
+        productDal.seedProduct(101, 2.50, 10, 7);
+        productDal.seedProduct(102, 1.00, 5, 8);
+        SaleDALStub saleDal = new SaleDALStub();
+        CheckoutService service = new CheckoutService(productDal, saleDal);
+        StockReservations reservations = manual(productDal, 1000, 100);
+
+        StockReservations.Basket basket = reservations.open();
+        assertTrue(reservations.scan(basket, 101, 3));
+        assertTrue(reservations.scan(basket, 102, 2));
+        assertTrue(reservations.scan(basket, 101, 1));
+        assertEquals(6, reservations.getAvailable(101));
+        assertEquals(4, reservations.getReserved(101));
+        assertEquals(6, reservations.getReservedUnits());
+
+        assertEquals(2, reservations.voidItem(basket, 102, 5));
+        assertEquals(5, reservations.getAvailable(102));
+        assertEquals(0, reservations.getReserved(102));
+
+        assertEquals(1000, service.checkoutCents(basket));
+        assertEquals(StockReservations.State.CHECKED_OUT, basket.getState());
+        assertEquals(6, productDal.getStock(101), "sold units are not taken twice");
+        assertEquals(0, reservations.getReservedUnits());
+        assertEquals(1, saleDal.getSaleCount());
+        assertEquals(1000, saleDal.getAggregates().getCategoryRevenueCents(7));
+        assertEquals(0, reservations.getOpenBaskets());
+        assertThrows(IllegalStateException.class, () -> reservations.scan(basket, 101, 1));
+    }
+
+    @Test
+    void unpricedLine_isReportedAsNoPrice_andGoesThroughTheStageTimers() {
+        ProductDALStub productDal = new ProductDALStub() {
+            @Override
+            public long price(int[] productIds, int[] qtys, long[] unitPriceCents, int[] categoryIds) {
+                return productIds[0] == 102 ? -1 : super.price(productIds, qtys, unitPriceCents, categoryIds);
+            }
+        };
+        productDal.seedProduct(101, 2.50, 10);
+        productDal.seedProduct(102, 1.00, 10); // delisted after the scan: no price at checkout
+        MetricsRegistry metrics = new MetricsRegistry("reservations-test");
+        CheckoutService service = new CheckoutService(productDal, new SaleDALStub(), metrics);
+        StockReservations reservations = manual(productDal, 1000, 100);
+
+        StockReservations.Basket sold = reservations.open();
+        assertTrue(reservations.scan(sold, 101, 2));
+        assertEquals(500, service.checkoutCents(sold));
+
+        StockReservations.Basket unpriced = reservations.open();
+        assertTrue(reservations.scan(unpriced, 102, 2));
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> service.checkoutCents(unpriced));
+        assertEquals("No price for product 102", ex.getMessage());
+        assertEquals(10, productDal.getStock(102), "held units go back");
+
+        assertEquals(2, metrics.timer("checkout.validate").getCount());
+        assertEquals(2, metrics.timer("checkout.reserveAndPrice").getCount());
+        assertEquals(1, metrics.timer("checkout.reserveAndPrice").getErrors());
+        assertEquals(1, metrics.timer("checkout.save").getCount());
+        assertEquals(2, metrics.timer("checkout.total").getCount());
+        assertEquals(1, metrics.timer("checkout.total").getErrors());
+    }
+
+    @Test
+    void lastUnits_goToFirstScan_andReleaseReturnsThem() {
+        ProductDALStub productDal = new ProductDALStub();
+        productDal.seedProduct(101, 2.50, 3);
+        StockReservations reservations = manual(productDal, 1000, 100);
+
+        StockReservations.Basket first = reservations.open();
+        StockReservations.Basket second = reservations.open();
+        assertTrue(reservations.scan(first, 101, 2));
+        assertFalse(reservations.scan(second, 101, 2));
+        assertEquals(1, reservations.getRefusedScans());
+        assertEquals(0, second.getReserved(101));
+
+        reservations.release(first);
+        assertEquals(StockReservations.State.RELEASED, first.getState());
+        assertTrue(reservations.scan(second, 101, 3));
+        assertEquals(0, reservations.getAvailable(101));
+    }
+
+    @Test
+    void idleBasket_expiresAfterTtl_scanRestartsIt() {
+        ProductDALStub productDal = new ProductDALStub();
+        productDal.seedProduct(101, 2.50, 10);
+        StockReservations reservations = manual(productDal, 1000, 100);
+        CheckoutService service = new CheckoutService(productDal, new SaleDALStub());
+
+        StockReservations.Basket basket = reservations.open();
+        assertTrue(reservations.scan(basket, 101, 4));
+        advance(reservations, 900);
+        assertTrue(reservations.scan(basket, 101, 1)); // the till is still busy
+        advance(reservations, 1000);
+        assertEquals(StockReservations.State.OPEN, basket.getState());
+        assertEquals(5, productDal.getStock(101));
+
+        advance(reservations, 200);
+        assertEquals(StockReservations.State.EXPIRED, basket.getState());
+        assertEquals(10, productDal.getStock(101));
+        assertEquals(0, reservations.getReserved(101));
+        assertEquals(1, reservations.getExpiredCount());
+        assertEquals(5, reservations.getExpiredUnits());
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> service.checkoutCents(basket));
+        assertEquals("Basket " + basket.getId() + " is expired", ex.getMessage());
+    }
+
+    @Test
+    void sweep_visitsOneBucketPerTick_howeverManyBasketsAreOpen() {
+        ProductDALStub productDal = new ProductDALStub();
+        productDal.seedProduct(101, 2.50, 1_000_000);
+        StockReservations reservations = manual(productDal, 1000, 100);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(reservations.scan(reservations.open(), 101, 1));
+        }
+        for (int tick = 1; tick <= 10; tick++) {
+            advance(reservations, 100);
+            assertEquals(10_000, reservations.getOpenBaskets(), "tick " + tick);
+        }
+        assertEquals(10, reservations.getBucketVisits());
+
+        advance(reservations, 100);
+        assertEquals(0, reservations.getOpenBaskets());
+        assertEquals(10_000, reservations.getExpiredCount());
+        assertEquals(1_000_000, productDal.getStock(101));
+        assertEquals(11, reservations.getBucketVisits());
+        assertTrue(reservations.getWheelSize() > 10);
+    }
+
+    @Test
+    void sweeperThread_reclaimsAbandonedBaskets_whileTillsSell() throws Exception {
+        ProductDALStub productDal = new ProductDALStub();
+        for (int id = 1; id <= 5; id++) {
+            productDal.seedProduct(id, 1.00, 1000);
+        }
+        SaleDALStub saleDal = SaleDALStub.withoutLines();
+        CheckoutService service = new CheckoutService(productDal, saleDal);
+        AtomicInteger soldUnits = new AtomicInteger();
+
+        try (StockReservations reservations = new StockReservations(productDal, 100, 10).start()) {
+            runConcurrently(8, till -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int round = 0; round < 100; round++) {
+                    StockReservations.Basket basket = reservations.open();
+                    try {
+                        int units = 0;
+                        for (int line = 0; line < 3; line++) {
+                            if (reservations.scan(basket, 1 + random.nextInt(5), 1)) units++;
+                        }
+                        if (reservations.voidItem(basket, 1, 1) == 1) units--;
+                        if (units > 0 && round % 3 == 0) {
+                            service.checkoutCents(basket);
+                            soldUnits.addAndGet(units);
+                        } else if (round % 3 == 1) {
+                            reservations.release(basket);
+                        } // else: abandoned, left for the sweeper
+                    } catch (IllegalStateException ex) {
+                        assertEquals(StockReservations.State.EXPIRED, basket.getState()); // till descheduled past the TTL
+                    }
+                }
+            });
+
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (reservations.getOpenBaskets() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, reservations.getOpenBaskets());
+            assertTrue(reservations.getExpiredCount() > 0);
+            assertEquals(0, reservations.getReservedUnits());
+        }
+
+        int stock = 0;
+        for (int id = 1; id <= 5; id++) {
+            stock += productDal.getStock(id);
+        }
+        assertEquals(5000 - soldUnits.get(), stock);
+    }
+
+    // ---------------- helper methods ----------------
+
+    private StockReservations manual(ProductDALStub productDal, long ttlMillis, long tickMillis) {
+        return new StockReservations(productDal, ttlMillis, tickMillis, clock::get);
+    }
+
+    private void advance(StockReservations reservations, long millis) {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+        reservations.sweep();
+    }
+
+    private interface Till {
+        void run(int till) throws Exception;
+    }
+
+    private void runConcurrently(int tills, Till body) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(tills);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < tills; t++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    body.run(next.getAndIncrement());
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
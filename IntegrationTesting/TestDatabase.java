@@ -0,0 +1,43 @@
+package IntegrationTesting;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Connection pools shared by all integration tests (one per schema), created on first use.
+ * Closing a connection obtained here returns it to the pool.
+ */
+public final class TestDatabase {
+
+    private static final String DB_USER = "root";
+    private static final String DB_PASS = "centralcee23"; // <-- change if needed
+
+    private static ConnectionPool posPool;
+    private static ConnectionPool testPosPool;
+
+    private TestDatabase() {
+    }
+
+    // schema used by DALManager
+    public static Connection pos() throws SQLException {
+        return posPool().getConnection();
+    }
+
+    public static Connection testPos() throws SQLException {
+        return testPosPool().getConnection();
+    }
+
+    private static synchronized ConnectionPool posPool() throws SQLException {
+        if (posPool == null) {
+            posPool = new ConnectionPool(new ConnectionPool.Settings("jdbc:mysql://localhost:3306/pos", DB_USER, DB_PASS));
+        }
+        return posPool;
+    }
+
+    private static synchronized ConnectionPool testPosPool() throws SQLException {
+        if (testPosPool == null) {
+            testPosPool = new ConnectionPool(new ConnectionPool.Settings("jdbc:mysql://localhost:3306/test_pos", DB_USER, DB_PASS));
+        }
+        return testPosPool;
+    }
+}
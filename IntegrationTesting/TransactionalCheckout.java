@@ -0,0 +1,348 @@
+package IntegrationTesting;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Checkout as one database unit of work: the conditional stock decrement of every line
+ * (JdbcStockDAL.RESERVE), the sale header and its sale_lines rows are written in a single
+ * transaction. A line without enough stock rolls the whole basket back, so a failure can no
+ * longer leave stock taken with no sale recorded. Each line also stores the product's category_id
+ * as it is at the time of sale, so reports (SalesAggregates.rebuild) survive a product moving
+ * to another category.
+ *
+ * Group commit (groupCommit(...)): tills hand their baskets to one committer thread that owns a
+ * connection. It takes the first waiting basket plus any that arrive within windowMicros (up to
+ * maxGroupSize), writes each under its own savepoint, and commits the group once, so N tills
+ * share one commit (one log fsync on a real server) instead of paying N. A basket that fails
+ * (short stock or an SQL error on its own statements) is rolled back to its savepoint without
+ * touching the rest of the group; if the commit itself fails, every basket of the group fails.
+ * Baskets of one group run one after another on the committer's connection, which also means
+ * they can never deadlock each other. Across connections, stock rows are locked in product id
+ * order (JdbcStockDAL.lockOrder) for the same reason.
+ *
+ * Prices come from priceCents (e.g. ProductCatalog::getPriceCents), as in CheckoutService.
+ */
+public class TransactionalCheckout implements AutoCloseable {
+
+    // how long a till waits for its basket's group to commit before giving up on the answer
+    static final long RESULT_TIMEOUT_MILLIS = 30_000;
+
+    // the category is copied from products in the same statement (the stock update already locked the row)
+    static final String INSERT_LINE = "INSERT INTO sale_lines (sale_id, product_id, quantity, price_cents, category_id) "
+            + "SELECT ?, id, ?, ?, category_id FROM products WHERE id = ?";
+
+    private static final class Basket {
+        final int[] productIds;
+        final int[] qtys;
+        final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        Basket(int[] productIds, int[] qtys) {
+            this.productIds = productIds;
+            this.qtys = qtys;
+        }
+    }
+
+    private final ConnectionPool pool;
+    private final IntToLongFunction priceCents;
+
+    // group commit only; queue == null in immediate mode
+    private final BlockingQueue<Basket> queue;
+    private final int maxGroupSize;
+    private final long windowNanos;
+    private final Thread committer;
+    private final ReentrantReadWriteLock lifecycle = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+
+    private final LongAdder checkouts = new LongAdder();
+    private final LongAdder rollbacks = new LongAdder();
+    private final LongAdder commits = new LongAdder();
+
+    // every checkout in its own transaction on a pooled connection
+    public TransactionalCheckout(ConnectionPool pool, IntToLongFunction priceCents) {
+        this(pool, priceCents, 0, 0);
+    }
+
+    private TransactionalCheckout(ConnectionPool pool, IntToLongFunction priceCents, int maxGroupSize, long windowMicros) {
+        this.pool = pool;
+        this.priceCents = priceCents;
+        this.maxGroupSize = maxGroupSize;
+        this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+        if (maxGroupSize > 0) {
+            queue = new ArrayBlockingQueue<>(maxGroupSize * 4);
+            committer = new Thread(this::runCommitter, "checkout-group-commit");
+            committer.setDaemon(true);
+            committer.start();
+        } else {
+            queue = null;
+            committer = null;
+        }
+    }
+
+    public static TransactionalCheckout groupCommit(ConnectionPool pool, IntToLongFunction priceCents,
+                                                    int maxGroupSize, long windowMicros) {
+        if (maxGroupSize <= 0) throw new IllegalArgumentException("maxGroupSize must be > 0");
+        if (windowMicros < 0) throw new IllegalArgumentException("windowMicros must be >= 0");
+        return new TransactionalCheckout(pool, priceCents, maxGroupSize, windowMicros);
+    }
+
+    /**
+     * Basket as parallel arrays (line i = qtys[i] x productIds[i]); returns the total in cents once
+     * the sale is committed. Throws IllegalStateException if a line lacks stock (nothing written),
+     * IllegalArgumentException for a bad quantity, SQLException if the database failed.
+     */
+    public long checkoutCents(int[] productIds, int[] qtys) throws SQLException {
+        if (productIds.length != qtys.length) {
+            throw new IllegalArgumentException("productIds and qtys must have the same length");
+        }
+        for (int qty : qtys) {
+            if (qty <= 0) throw new IllegalArgumentException("Quantity must be > 0");
+        }
+        return queue == null ? checkoutNow(productIds, qtys) : checkoutInGroup(productIds, qtys);
+    }
+
+    public long getCheckouts() {
+        return checkouts.sum();
+    }
+
+    public long getRollbacks() {
+        return rollbacks.sum();
+    }
+
+    public long getCommits() {
+        return commits.sum();
+    }
+
+    /**
+     * Group commit: stops taking baskets, commits the ones already queued and waits for the
+     * committer. If the caller is interrupted while waiting, it returns early with its interrupt flag set.
+     */
+    @Override
+    public void close() {
+        lifecycle.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+        if (committer == null) return;
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---------------- immediate mode ----------------
+
+    private long checkoutNow(int[] productIds, int[] qtys) throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statements st = new Statements(conn)) {
+                long total = write(st, productIds, qtys);
+                conn.commit();
+                commits.increment();
+                checkouts.increment();
+                return total;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                rollbacks.increment();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    // ---------------- group commit ----------------
+
+    private long checkoutInGroup(int[] productIds, int[] qtys) throws SQLException {
+        Basket basket = new Basket(productIds, qtys);
+        try {
+            // close() takes the write lock, so a basket is never queued after the committer's last poll
+            lifecycle.readLock().lock();
+            try {
+                if (closed) throw new IllegalStateException("TransactionalCheckout is closed");
+                queue.put(basket);
+            } finally {
+                lifecycle.readLock().unlock();
+            }
+            return basket.result.get(RESULT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (queue.remove(basket)) {
+                throw new SQLTimeoutException("Checkout was not started within " + RESULT_TIMEOUT_MILLIS
+                        + " ms; nothing was written");
+            }
+            throw new SQLTimeoutException("Checkout did not finish within " + RESULT_TIMEOUT_MILLIS
+                    + " ms; it may still commit", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for the checkout to commit", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new SQLException(cause);
+        }
+    }
+
+    private void runCommitter() {
+        try {
+            commitGroups();
+        } finally {
+            // only reached with an empty queue unless the committer died; never leave a till waiting
+            Basket left;
+            while ((left = queue.poll()) != null) {
+                left.result.completeExceptionally(new IllegalStateException("TransactionalCheckout is closed"));
+            }
+        }
+    }
+
+    private void commitGroups() {
+        List<Basket> group = new ArrayList<>(maxGroupSize);
+        while (true) {
+            try {
+                Basket first = queue.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed) return;
+                    continue;
+                }
+                group.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (group.size() < maxGroupSize) {
+                    queue.drainTo(group, maxGroupSize - group.size());
+                    long wait = deadline - System.nanoTime();
+                    if (group.size() >= maxGroupSize || wait <= 0) break;
+                    Basket next = queue.poll(wait, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    group.add(next);
+                }
+            } catch (InterruptedException e) {
+                closed = true;
+            }
+            commitGroup(group);
+            group.clear();
+        }
+    }
+
+    private void commitGroup(List<Basket> group) {
+        if (group.isEmpty()) return;
+        long[] totals = new long[group.size()];
+        boolean[] refused = new boolean[group.size()];
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+            try (Statements st = new Statements(conn)) {
+                for (int i = 0; i < group.size(); i++) {
+                    Basket b = group.get(i);
+                    Savepoint savepoint = conn.setSavepoint();
+                    try {
+                        totals[i] = write(st, b.productIds, b.qtys);
+                    } catch (SQLException | RuntimeException e) {
+                        // if the database dropped the whole transaction, this throws and the group fails
+                        conn.rollback(savepoint);
+                        rollbacks.increment();
+                        refused[i] = true;
+                        b.result.completeExceptionally(e);
+                    }
+                }
+                conn.commit();
+                commits.increment();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException | RuntimeException e) {
+            for (int i = 0; i < group.size(); i++) {
+                if (!refused[i]) {
+                    rollbacks.increment();
+                    group.get(i).result.completeExceptionally(e);
+                }
+            }
+            return;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            if (!refused[i]) {
+                checkouts.increment();
+                group.get(i).result.complete(totals[i]);
+            }
+        }
+    }
+
+    // ---------------- helper methods ----------------
+
+    // the three statements of a unit of work, prepared once per transaction / group
+    private static final class Statements implements AutoCloseable {
+        final PreparedStatement reserve;
+        final PreparedStatement sale;
+        final PreparedStatement line;
+
+        Statements(Connection conn) throws SQLException {
+            reserve = conn.prepareStatement(JdbcStockDAL.RESERVE);
+            sale = conn.prepareStatement(JdbcSaleSink.INSERT_SALE, Statement.RETURN_GENERATED_KEYS);
+            line = conn.prepareStatement(INSERT_LINE);
+        }
+
+        @Override
+        public void close() throws SQLException {
+            reserve.close();
+            sale.close();
+            line.close();
+        }
+    }
+
+    // stock, header, lines; throws IllegalStateException (caller rolls back) on a short line
+    private long write(Statements st, int[] productIds, int[] qtys) throws SQLException {
+        long[] prices = new long[productIds.length];
+        long total = 0L;
+        for (int i = 0; i < productIds.length; i++) {
+            prices[i] = priceCents.applyAsLong(productIds[i]);
+            total = Math.addExact(total, Math.multiplyExact(prices[i], (long) qtys[i]));
+        }
+        for (int i : JdbcStockDAL.lockOrder(productIds)) {
+            st.reserve.setInt(1, qtys[i]);
+            st.reserve.setInt(2, productIds[i]);
+            st.reserve.setInt(3, qtys[i]);
+            if (st.reserve.executeUpdate() == 0) {
+                throw new IllegalStateException("Insufficient stock for product " + productIds[i]);
+            }
+        }
+
+        st.sale.setLong(1, total);
+        st.sale.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+        st.sale.executeUpdate();
+        long saleId;
+        try (ResultSet keys = st.sale.getGeneratedKeys()) {
+            if (!keys.next()) throw new SQLException("No generated key returned for: " + JdbcSaleSink.INSERT_SALE);
+            saleId = keys.getLong(1);
+        }
+
+        for (int i = 0; i < productIds.length; i++) {
+            st.line.setLong(1, saleId);
+            st.line.setInt(2, qtys[i]);
+            st.line.setLong(3, prices[i]);
+            st.line.setInt(4, productIds[i]);
+            st.line.addBatch();
+        }
+        st.line.executeBatch();
+        return total;
+    }
+}
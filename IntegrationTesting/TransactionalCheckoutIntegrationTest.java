@@ -0,0 +1,234 @@
+package IntegrationTesting;
+
+import org.junit.jupiter.api.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntToLongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TransactionalCheckoutIntegrationTest {
+
+    private static final int TILLS = 16;
+
+    // product id -> price: 1 = 250, 2 = 120, 3 = 1000
+    private static final IntToLongFunction PRICES = id -> id == 1 ? 250 : id == 2 ? 120 : id == 3 ? 1000 : 0;
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        String url = "jdbc:h2:mem:txcheckout_" + UUID.randomUUID().toString().substring(0, 8)
+                + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        pool = new ConnectionPool(new ConnectionPool.Settings(url, "sa", "").minSize(1).maxSize(TILLS + 2));
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE products (id INT PRIMARY KEY, name VARCHAR(50), stock_quantity INT NOT NULL, "
+                    + "category_id INT)");
+            st.execute("CREATE TABLE sales (id BIGINT AUTO_INCREMENT PRIMARY KEY, total BIGINT NOT NULL, created_at TIMESTAMP)");
+            // quantity < 50 lets a test make the last statement of a checkout fail on purpose
+            st.execute("CREATE TABLE sale_lines (sale_id BIGINT NOT NULL, product_id INT NOT NULL, "
+                    + "quantity INT NOT NULL CHECK (quantity < 50), price_cents BIGINT NOT NULL, category_id INT)");
+            st.execute("INSERT INTO products (id, name, stock_quantity, category_id) VALUES (1, 'Milk 1L', 10, 4), "
+                    + "(2, 'Bread', 1, 5), (3, 'Eggs', 100, 4)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void checkout_writesStockSaleAndLinesTogether() throws SQLException {
+        TransactionalCheckout checkout = new TransactionalCheckout(pool, PRICES);
+
+        long total = checkout.checkoutCents(new int[]{1, 2, 3}, new int[]{2, 1, 3});
+
+        assertEquals(2 * 250 + 120 + 3 * 1000, total);
+        assertEquals(8, stockOf(1));
+        assertEquals(0, stockOf(2));
+        assertEquals(97, stockOf(3));
+        assertEquals(1, count("sales"));
+        assertEquals(3, count("sale_lines"));
+        assertEquals(total, scalar("SELECT total FROM sales"));
+        assertEquals(total, scalar("SELECT SUM(quantity * price_cents) FROM sale_lines"));
+        assertEquals(5, scalar("SELECT category_id FROM sale_lines WHERE product_id = 2"), "category at time of sale");
+        assertEquals(1, checkout.getCommits());
+    }
+
+    @Test
+    void insufficientStock_onLaterLine_rollsBackEarlierLines() throws SQLException {
+        TransactionalCheckout checkout = new TransactionalCheckout(pool, PRICES);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> checkout.checkoutCents(new int[]{1, 3, 2}, new int[]{4, 10, 2}));
+
+        assertEquals("Insufficient stock for product 2", ex.getMessage());
+        assertEquals(10, stockOf(1));
+        assertEquals(100, stockOf(3));
+        assertEquals(0, count("sales"));
+        assertEquals(0, count("sale_lines"));
+        assertEquals(1, checkout.getRollbacks());
+        assertEquals(0, checkout.getCheckouts());
+    }
+
+    @Test
+    void failureWhileWritingLines_leavesStockUntouched() throws SQLException {
+        TransactionalCheckout checkout = new TransactionalCheckout(pool, PRICES);
+
+        // stock taken and sale header written, then the line insert fails
+        assertThrows(SQLException.class, () -> checkout.checkoutCents(new int[]{1, 3}, new int[]{1, 60}));
+
+        assertEquals(10, stockOf(1));
+        assertEquals(100, stockOf(3));
+        assertEquals(0, count("sales"));
+        assertEquals(0, count("sale_lines"));
+        assertEquals(1, checkout.checkoutCents(new int[]{2}, new int[]{1}) / 120, "connection is usable afterwards");
+    }
+
+    @Test
+    void badQuantity_isRefusedBeforeTouchingTheDatabase() throws SQLException {
+        TransactionalCheckout checkout = new TransactionalCheckout(pool, PRICES);
+
+        assertThrows(IllegalArgumentException.class, () -> checkout.checkoutCents(new int[]{1}, new int[]{0}));
+        assertThrows(IllegalArgumentException.class, () -> checkout.checkoutCents(new int[]{1, 2}, new int[]{1}));
+        assertEquals(10, stockOf(1));
+        assertEquals(0, checkout.getRollbacks());
+    }
+
+    @Test
+    void groupCommit_concurrentTills_shareCommits_andIsolateRefusedBaskets() throws Exception {
+        int sold;
+        TransactionalCheckout checkout = TransactionalCheckout.groupCommit(pool, PRICES, TILLS, 5_000);
+        try {
+            // every till wants milk; only 10 units exist, so 6 baskets must be refused
+            sold = checkoutConcurrently(checkout, new int[]{3, 1}, new int[]{1, 1});
+        } finally {
+            checkout.close();
+        }
+
+        assertEquals(10, sold);
+        assertEquals(0, stockOf(1));
+        assertEquals(90, stockOf(3), "refused baskets gave their eggs back");
+        assertEquals(10, count("sales"));
+        assertEquals(20, count("sale_lines"));
+        assertEquals(10, checkout.getCheckouts());
+        assertEquals(TILLS - 10, checkout.getRollbacks());
+        assertTrue(checkout.getCommits() < checkout.getCheckouts(),
+                "commits " + checkout.getCommits() + " for " + checkout.getCheckouts() + " checkouts");
+    }
+
+    @Test
+    void groupCommit_failedCommitWork_failsOnlyThatBasket() throws Exception {
+        TransactionalCheckout checkout = TransactionalCheckout.groupCommit(pool, PRICES, 4, 0);
+        try {
+            assertThrows(SQLException.class, () -> checkout.checkoutCents(new int[]{3}, new int[]{60}));
+            assertEquals(1000, checkout.checkoutCents(new int[]{3}, new int[]{1}));
+        } finally {
+            checkout.close();
+        }
+
+        assertEquals(99, stockOf(3));
+        assertEquals(1, count("sales"));
+        assertThrows(IllegalStateException.class, () -> checkout.checkoutCents(new int[]{3}, new int[]{1}), "closed");
+    }
+
+    @Test
+    void groupCommit_sqlErrorInOneBasket_doesNotFailTheOthersInItsGroup() throws Exception {
+        // a long window and a group of two: both baskets are written and committed together
+        TransactionalCheckout checkout = TransactionalCheckout.groupCommit(pool, PRICES, 2, 10_000_000);
+        ExecutorService tills = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> bad = tills.submit(() -> checkout.checkoutCents(new int[]{3}, new int[]{60})); // CHECK fails
+            Future<Long> good = tills.submit(() -> checkout.checkoutCents(new int[]{1}, new int[]{1}));
+
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> bad.get(30, TimeUnit.SECONDS));
+            assertInstanceOf(SQLException.class, ex.getCause());
+            assertEquals(250, good.get(30, TimeUnit.SECONDS));
+        } finally {
+            tills.shutdownNow();
+            checkout.close();
+        }
+
+        assertEquals(1, checkout.getCommits(), "one group, one commit");
+        assertEquals(1, checkout.getCheckouts());
+        assertEquals(1, checkout.getRollbacks());
+        assertEquals(9, stockOf(1));
+        assertEquals(100, stockOf(3), "the failed basket's stock went back with its savepoint");
+        assertEquals(1, count("sales"));
+        assertEquals(1, count("sale_lines"));
+    }
+
+    @Test
+    void groupCommit_closeWhileInterrupted_returnsWithTheFlagSet() throws Exception {
+        TransactionalCheckout checkout = TransactionalCheckout.groupCommit(pool, PRICES, 4, 0);
+        assertEquals(1000, checkout.checkoutCents(new int[]{3}, new int[]{1}));
+
+        Thread.currentThread().interrupt();
+        checkout.close();
+
+        assertTrue(Thread.interrupted(), "interrupt flag must be restored");
+        assertThrows(IllegalStateException.class, () -> checkout.checkoutCents(new int[]{3}, new int[]{1}), "closed");
+    }
+
+    // ---------------- helper methods ----------------
+
+    // TILLS tills check out the same basket at the same moment; returns baskets sold
+    private int checkoutConcurrently(TransactionalCheckout checkout, int[] productIds, int[] qtys) throws Exception {
+        ExecutorService tills = Executors.newFixedThreadPool(TILLS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger sold = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < TILLS; t++) {
+                futures.add(tills.submit(() -> {
+                    start.await();
+                    try {
+                        checkout.checkoutCents(productIds, qtys);
+                        sold.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        assertEquals("Insufficient stock for product 1", e.getMessage());
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            tills.shutdownNow();
+        }
+        return sold.get();
+    }
+
+    private int stockOf(int productId) throws SQLException {
+        return (int) scalar("SELECT stock_quantity FROM products WHERE id = " + productId);
+    }
+
+    private long count(String table) throws SQLException {
+        return scalar("SELECT COUNT(*) FROM " + table);
+    }
+
+    private long scalar(String sql) throws SQLException {
+        try (Connection conn = pool.getConnection(); PreparedStatement ps = conn.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -1,14 +1,15 @@
 package IntegrationTesting;
 
-import org.junit.After;
-import org.junit.Before;
-import org.junit.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import java.sql.*;
 import java.util.UUID;
 
-import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.*;
 
+@ExtendWith(EmbeddedPosDatabase.class)
 public class UserAuthIntegrationTest {
 
     private Connection conn;
@@ -18,13 +19,9 @@ public class UserAuthIntegrationTest {
     private String correctPassword;
     private String role;
 
-    @Before
-    public void setUp() throws Exception {
-        conn = DriverManager.getConnection(
-                "jdbc:mysql://localhost:3306/test_pos",
-                "root",
-                "centralcee23" // <-- change if needed
-        );
+    @BeforeEach
+    public void setUp(Connection conn) throws Exception {
+        this.conn = conn; // embedded test database; rolled back after each test
 
         testUsername = "it_user_" + UUID.randomUUID().toString().substring(0, 8);
         correctPassword = "pass12345";
@@ -38,7 +35,7 @@ public class UserAuthIntegrationTest {
             ps.setString(3, role);
 
             int rows = ps.executeUpdate();
-            assertEquals("Setup failed: user insert did not insert exactly 1 row", 1, rows);
+            assertEquals(1, rows, "Setup failed: user insert did not insert exactly 1 row");
         }
     }
 
@@ -58,30 +55,18 @@ public class UserAuthIntegrationTest {
     @Test
     public void testAuthenticateUser_validCredentials_returnsTrue() throws Exception {
         boolean result = authenticate(testUsername, correctPassword);
-        assertTrue("Expected authentication to succeed with correct credentials", result);
+        assertTrue(result, "Expected authentication to succeed with correct credentials");
     }
 
     @Test
     public void testAuthenticateUser_wrongPassword_returnsFalse() throws Exception {
         boolean result = authenticate(testUsername, "wrongPassword!");
-        assertFalse("Expected authentication to fail with wrong password", result);
+        assertFalse(result, "Expected authentication to fail with wrong password");
     }
 
     @Test
     public void testAuthenticateUser_unknownUsername_returnsFalse() throws Exception {
         boolean result = authenticate("no_such_user_123", correctPassword);
-        assertFalse("Expected authentication to fail for unknown username", result);
-    }
-
-    @After
-    public void tearDown() throws Exception {
-        // Clean inserted test user
-        String deleteSql = "DELETE FROM pos.users WHERE username = ?";
-        try (PreparedStatement ps = conn.prepareStatement(deleteSql)) {
-            ps.setString(1, testUsername);
-            ps.executeUpdate();
-        }
-
-        if (conn != null && !conn.isClosed()) conn.close();
+        assertFalse(result, "Expected authentication to fail for unknown username");
     }
 }
@@ -1,24 +1,25 @@
 package IntegrationTesting;
 
-import org.junit.Before;
-import org.junit.After;
-import org.junit.Test;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 
 import model.dto.UserDTO;
 
-import static org.junit.Assert.*;
+import static org.junit.jupiter.api.Assertions.*;
 
 import java.sql.*;
 
+@ExtendWith(EmbeddedPosDatabase.class)
 public class UserIntegrationTest {
 
     private Connection conn;
     private UserDTO user;
 
-    @Before
-    public void setUp() throws SQLException {
-        // Establish connection to the test database (test_pos)
-        conn = DriverManager.getConnection("jdbc:mysql://localhost:3306/test_pos", "root", "centralcee23");
+    @BeforeEach
+    public void setUp(Connection conn) {
+        // A transaction on the embedded test database; rolled back after each test, so no cleanup
+        this.conn = conn;
 
         // Initialize a UserDTO object for testing
         user = new UserDTO("admin", "password123", "admin");
@@ -70,21 +71,6 @@ public class UserIntegrationTest {
         assertEquals(user.getRole(), fetchedUser.getRole());
     }
 
-    @After
-    public void tearDown() throws SQLException {
-        // Clean up the test database after each test by deleting the user
-        String deleteSQL = "DELETE FROM pos.users WHERE username = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(deleteSQL)) {
-            stmt.setString(1, user.getUsername());
-            stmt.executeUpdate();
-        }
-
-        // Close the database connection
-        if (conn != null && !conn.isClosed()) {
-            conn.close();
-        }
-    }
-    
     @Test
     public void testAddUserWithInvalidData() throws SQLException {
         String sql = "INSERT INTO pos.users (username, password, role) VALUES (?, NULL, ?)";  // Use NULL directly
@@ -97,20 +83,12 @@ public class UserIntegrationTest {
             stmt.executeUpdate();
             fail("Expected SQLException due to NULL password, but no exception was thrown.");
         } catch (SQLException e) {
-            // Log the exception to help understand the error
-            e.printStackTrace(); // Print the full exception stack trace
+            // Assert that the expected exception was thrown for the password column
+            assertTrue(e.getMessage().toLowerCase().contains("password"),
+                       "Expected a 'password cannot be null' error message, got: " + e.getMessage());
 
-            // Assert that the expected exception was thrown
-            assertTrue("Expected 'column 'password' cannot be null' error message", 
-                       e.getMessage().contains("column 'password' cannot be null"));
-
-            // check for specific SQL error codes (e.g., error code 1048 for NOT NULL violation)
-            assertEquals(1048, e.getErrorCode());  // Ensure error code is for 'not null' violation
+            // SQLState class 23 = integrity constraint violation (MySQL reports it with error code 1048)
+            assertTrue(e.getSQLState().startsWith("23"), "Unexpected SQLState " + e.getSQLState());
         }
     }
-
-
-
-
-
 }
@@ -0,0 +1,173 @@
+package IntegrationTesting;
+
+import model.dto.CustomerDTO;
+import model.dto.EmployeeDTO;
+import model.dto.Response;
+import model.dto.SupplierDTO;
+import model.dto.UserDTO;
+import model.validators.CommonValidator;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * CommonValidator.validateObject rules compiled once per DTO class and cached in a ClassValue.
+ * Each getter is looked up once and turned into a generated Function (LambdaMetafactory), which the
+ * JIT inlines like a plain call. A passing object costs its getter calls and length checks:
+ * no reflection, no allocation, nothing added to res.
+ * The thresholds are not copied from CommonValidator but read from it when a class is compiled:
+ * each field is probed with null and every length up to PROBE_LENGTH (the other fields valid),
+ * with several fill characters. A field is compiled only if null fails and every length from some
+ * n up passes, the same n for every fill; anything else (a content rule, a threshold past
+ * PROBE_LENGTH) leaves the class uncompiled.
+ * As soon as a rule fails, the object is handed to CommonValidator itself, so failing objects get
+ * exactly the messages (text, order, count) they always got. Classes without compiled rules
+ * always go to CommonValidator.
+ */
+public final class ValidationPlan {
+
+    // the String fields CommonValidator checks for a DTO type (CommonValidatorTest)
+    private static final class Rule {
+        final Class<?> type;
+        final String[] getters;
+
+        Rule(Class<?> type, String... getters) {
+            this.type = type;
+            this.getters = getters;
+        }
+    }
+
+    private static final Rule[] RULES = {
+            new Rule(CustomerDTO.class, "getName", "getPhoneNumber"),
+            new Rule(SupplierDTO.class, "getName", "getPhoneNumber"),
+            new Rule(EmployeeDTO.class, "getName", "getPhoneNumber"),
+            new Rule(UserDTO.class, "getUsername", "getPassword"),
+    };
+
+    static final int PROBE_LENGTH = 64;
+    private static final char[] PROBE_FILLS = {'a', 'Z', '7', '.'};
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final ClassValue<ValidationPlan> PLANS = new ClassValue<ValidationPlan>() {
+        @Override
+        protected ValidationPlan computeValue(Class<?> type) {
+            return compile(type);
+        }
+    };
+
+    private static final ValidationPlan DELEGATE = new ValidationPlan(null, null);
+
+    private final Function<Object, String>[] getters; // null: no compiled rules, always delegate
+    private final int[] minLengths;
+
+    private ValidationPlan(Function<Object, String>[] getters, int[] minLengths) {
+        this.getters = getters;
+        this.minLengths = minLengths;
+    }
+
+    // drop-in for CommonValidator.validateObject
+    public static void validate(Object dto, Response res) {
+        if (dto == null) {
+            CommonValidator.validateObject(null, res);
+            return;
+        }
+        PLANS.get(dto.getClass()).run(dto, res);
+    }
+
+    // true if the class is validated by compiled rules rather than always delegated
+    public static boolean isCompiled(Class<?> type) {
+        return PLANS.get(type).getters != null;
+    }
+
+    // minimum lengths read from CommonValidator, in the rule's getter order; null if not compiled
+    public static int[] minLengths(Class<?> type) {
+        int[] minLengths = PLANS.get(type).minLengths;
+        return minLengths == null ? null : minLengths.clone();
+    }
+
+    private void run(Object dto, Response res) {
+        if (getters != null && passes(dto)) return;
+        CommonValidator.validateObject(dto, res);
+    }
+
+    private boolean passes(Object dto) {
+        for (int i = 0; i < getters.length; i++) {
+            String value = getters[i].apply(dto);
+            if (value == null || value.length() < minLengths[i]) return false;
+        }
+        return true;
+    }
+
+    private static ValidationPlan compile(Class<?> type) {
+        for (Rule rule : RULES) {
+            if (!rule.type.isAssignableFrom(type)) continue;
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            Function<Object, String>[] getters = new Function[rule.getters.length];
+            MethodHandle[] setters = new MethodHandle[rule.getters.length];
+            int[] minLengths;
+            try {
+                for (int i = 0; i < getters.length; i++) {
+                    getters[i] = getter(type, rule.getters[i]);
+                    setters[i] = LOOKUP.findVirtual(type, "set" + rule.getters[i].substring(3),
+                            MethodType.methodType(void.class, String.class));
+                }
+                minLengths = probe(LOOKUP.findConstructor(type, MethodType.methodType(void.class)), setters);
+            } catch (Throwable t) {
+                return DELEGATE;
+            }
+            return minLengths == null ? DELEGATE : new ValidationPlan(getters, minLengths);
+        }
+        return DELEGATE;
+    }
+
+    // each field's minimum length as CommonValidator enforces it, or null if that is not its only rule
+    private static int[] probe(MethodHandle constructor, MethodHandle[] setters) throws Throwable {
+        int[] minLengths = new int[setters.length];
+        Arrays.fill(minLengths, -1);
+        for (char fill : PROBE_FILLS) {
+            String valid = String.valueOf(fill).repeat(PROBE_LENGTH);
+            for (int field = 0; field < setters.length; field++) {
+                if (passes(constructor, setters, field, null, valid)) return null;
+                int min = -1;
+                for (int length = 0; length <= PROBE_LENGTH; length++) {
+                    boolean ok = passes(constructor, setters, field, valid.substring(0, length), valid);
+                    if (ok && min < 0) min = length;
+                    else if (!ok && min >= 0) return null; // a longer value failed again
+                }
+                if (min < 0 || (minLengths[field] >= 0 && minLengths[field] != min)) return null;
+                minLengths[field] = min;
+            }
+        }
+        return minLengths;
+    }
+
+    // a fresh DTO with every field set to valid except field, run through CommonValidator
+    private static boolean passes(MethodHandle constructor, MethodHandle[] setters, int field, String value,
+                                  String valid) throws Throwable {
+        Object dto = constructor.invoke();
+        for (int i = 0; i < setters.length; i++) {
+            setters[i].invoke(dto, i == field ? value : valid);
+        }
+        Response res = new Response();
+        CommonValidator.validateObject(dto, res);
+        return res.messagesList.isEmpty();
+    }
+
+    // dto -> ((Type) dto).getXxx(), as a generated class instead of a reflective call
+    @SuppressWarnings("unchecked")
+    private static Function<Object, String> getter(Class<?> type, String name) throws Throwable {
+        MethodHandle target = LOOKUP.findVirtual(type, name, MethodType.methodType(String.class));
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply",
+                MethodType.methodType(Function.class),
+                MethodType.methodType(Object.class, Object.class),
+                target,
+                MethodType.methodType(String.class, type));
+        return (Function<Object, String>) site.getTarget().invokeExact();
+    }
+}
@@ -0,0 +1,117 @@
+package IntegrationTesting;
+
+import model.dto.CategoryDTO;
+import model.dto.CustomerDTO;
+import model.dto.EmployeeDTO;
+import model.dto.Message;
+import model.dto.Response;
+import model.dto.SupplierDTO;
+import model.dto.UserDTO;
+import model.validators.CommonValidator;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ValidationPlanIntegrationTest {
+
+    // around every boundary CommonValidator has (6 / 10 for name / phone, 6 / 3 for user)
+    private static final String[] VALUES = {null, "", "ab", "abcde", "abcdef", "abcdefghi", "0690000000", "06900000001"};
+
+    @Test
+    void customersSuppliersEmployees_sameMessagesAsCommonValidator() {
+        for (String name : VALUES) {
+            for (String phone : VALUES) {
+                CustomerDTO c = new CustomerDTO();
+                c.setName(name);
+                c.setPhoneNumber(phone);
+                assertSameOutcome(c);
+
+                SupplierDTO s = new SupplierDTO();
+                s.setName(name);
+                s.setPhoneNumber(phone);
+                assertSameOutcome(s);
+
+                EmployeeDTO e = new EmployeeDTO();
+                e.setName(name);
+                e.setPhoneNumber(phone);
+                assertSameOutcome(e);
+            }
+        }
+    }
+
+    @Test
+    void users_sameMessagesAsCommonValidator() {
+        for (String username : VALUES) {
+            for (String password : VALUES) {
+                UserDTO u = new UserDTO();
+                u.setUsername(username);
+                u.setPassword(password);
+                u.setRole("cashier");
+                assertSameOutcome(u);
+            }
+        }
+    }
+
+    @Test
+    void validObject_addsNothing() {
+        CustomerDTO c = new CustomerDTO();
+        c.setName("TestCustomer");
+        c.setPhoneNumber("0690000000");
+        Response res = new Response();
+
+        ValidationPlan.validate(c, res);
+
+        assertTrue(res.isSuccessfull());
+        assertTrue(res.messagesList.isEmpty());
+    }
+
+    @Test
+    void thresholds_areReadFromCommonValidator() {
+        assertArrayEquals(new int[]{6, 10}, ValidationPlan.minLengths(CustomerDTO.class));
+        assertArrayEquals(new int[]{6, 10}, ValidationPlan.minLengths(SupplierDTO.class));
+        assertArrayEquals(new int[]{6, 10}, ValidationPlan.minLengths(EmployeeDTO.class));
+        assertArrayEquals(new int[]{6, 3}, ValidationPlan.minLengths(UserDTO.class));
+        assertNull(ValidationPlan.minLengths(CategoryDTO.class));
+    }
+
+    @Test
+    void classesWithoutRules_areDelegated() {
+        assertTrue(ValidationPlan.isCompiled(CustomerDTO.class));
+        assertTrue(ValidationPlan.isCompiled(UserDTO.class));
+        assertFalse(ValidationPlan.isCompiled(CategoryDTO.class));
+
+        CategoryDTO category = new CategoryDTO();
+        category.setName("Drinks");
+        assertSameOutcome(category);
+        assertSameOutcome(null);
+    }
+
+    // ---------------- helper methods ----------------
+
+    private static void assertSameOutcome(Object dto) {
+        Response expected = new Response();
+        Response actual = new Response();
+        CommonValidator.validateObject(dto, expected);
+        ValidationPlan.validate(dto, actual);
+
+        assertEquals(render(expected), render(actual), "messages for " + describe(dto));
+        assertEquals(expected.isSuccessfull(), actual.isSuccessfull());
+    }
+
+    private static List<String> render(Response res) {
+        List<String> out = new ArrayList<>();
+        for (Message m : res.messagesList) {
+            out.add(m.type + ": " + m.message);
+        }
+        return out;
+    }
+
+    private static String describe(Object dto) {
+        if (dto instanceof CustomerDTO) return "customer " + ((CustomerDTO) dto).getName() + "/" + ((CustomerDTO) dto).getPhoneNumber();
+        if (dto instanceof UserDTO) return "user " + ((UserDTO) dto).getUsername() + "/" + ((UserDTO) dto).getPassword();
+        return String.valueOf(dto);
+    }
+}
@@ -0,0 +1,227 @@
+package IntegrationTesting;
+
+import dal.DALManager;
+import model.dto.CategoryDTO;
+import model.dto.CustomerDTO;
+import model.dto.EmployeeDTO;
+import model.dto.Message;
+import model.dto.MessageType;
+import model.dto.ProductDTO;
+import model.dto.Response;
+import model.dto.SupplierDTO;
+import model.dto.UserDTO;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DALManager whose customer / employee updates (and product stock, via updateStock) go through
+ * a WriteBehindOutbox instead of straight to the database. Updates are validated first (as the
+ * DAL would) and then return once they are in the outbox log; everything else is passed to the
+ * wrapped DALManager unchanged. Reads may trail a pending update by up to one flush interval.
+ * A direct write of a row that has an update queued (updateProduct and the stock column,
+ * deleteCustomer / deleteEmployee / deleteProduct) flushes the outbox first, so the queued value
+ * never lands after it; if that flush does not finish, the write is refused with an error.
+ * Outbox failures (closed, log write failed) are reported in res like any DAL error.
+ * Drop-in wherever a DALManager is passed, like InstrumentedDALManager.
+ */
+public class WriteBehindDALManager extends DALManager {
+
+    private static final long FLUSH_TIMEOUT_MILLIS = 5_000;
+
+    private final DALManager dal;
+    private final WriteBehindOutbox outbox;
+
+    public WriteBehindDALManager(DALManager dal, WriteBehindOutbox outbox) {
+        this.dal = dal;
+        this.outbox = outbox;
+    }
+
+    public WriteBehindOutbox getOutbox() {
+        return outbox;
+    }
+
+    @Override
+    public void updateCustomer(CustomerDTO customer, Response res) {
+        ValidationPlan.validate(customer, res);
+        if (!res.isSuccessfull()) return;
+        try {
+            outbox.updateCustomer(customer.getId(), customer.getName(), customer.getPhoneNumber());
+        } catch (IllegalStateException e) {
+            error(res, e.getMessage());
+            return;
+        }
+        res.messagesList.add(new Message("Customer update queued.", MessageType.Information));
+    }
+
+    @Override
+    public void updateEmployee(EmployeeDTO employee, Response res) {
+        ValidationPlan.validate(employee, res);
+        if (!res.isSuccessfull()) return;
+        try {
+            outbox.updateEmployee(employee.getId(), employee.getName(), employee.getPhoneNumber());
+        } catch (IllegalStateException e) {
+            error(res, e.getMessage());
+            return;
+        }
+        res.messagesList.add(new Message("Employee update queued.", MessageType.Information));
+    }
+
+    // sets a product's stock_quantity (absolute, last write wins)
+    public void updateStock(int productId, int stock, Response res) {
+        if (stock < 0) {
+            error(res, "Stock must be >= 0");
+            return;
+        }
+        try {
+            outbox.updateStock(productId, stock);
+        } catch (IllegalStateException e) {
+            error(res, e.getMessage());
+            return;
+        }
+        res.messagesList.add(new Message("Stock update queued.", MessageType.Information));
+    }
+
+    @Override
+    public void verifyUser(UserDTO user, Response res) {
+        dal.verifyUser(user, res);
+    }
+
+    @Override
+    public ArrayList<UserDTO> getUsers(Response res) {
+        return dal.getUsers(res);
+    }
+
+    @Override
+    public ArrayList<ProductDTO> getProducts(Response res) {
+        return dal.getProducts(res);
+    }
+
+    @Override
+    public void addProduct(ProductDTO product, Response res) {
+        dal.addProduct(product, res);
+    }
+
+    @Override
+    public void updateProduct(ProductDTO product, Response res) {
+        if (product != null && !flushQueued(OutboxMutation.Kind.STOCK, product.getProductId(), res)) return;
+        dal.updateProduct(product, res);
+    }
+
+    @Override
+    public void deleteProduct(ProductDTO product, Response res) {
+        if (product != null && !flushQueued(OutboxMutation.Kind.STOCK, product.getProductId(), res)) return;
+        dal.deleteProduct(product, res);
+    }
+
+    @Override
+    public ProductDTO getProductById(int productId, Response res) {
+        return dal.getProductById(productId, res);
+    }
+
+    @Override
+    public ArrayList<ProductDTO> searchProductsByName(String name, Response res) {
+        return dal.searchProductsByName(name, res);
+    }
+
+    @Override
+    public void saveCustomer(CustomerDTO customer, Response res) {
+        dal.saveCustomer(customer, res);
+    }
+
+    @Override
+    public void deleteCustomer(CustomerDTO customer, Response res) {
+        if (customer != null && !flushQueued(OutboxMutation.Kind.CUSTOMER, customer.getId(), res)) return;
+        dal.deleteCustomer(customer, res);
+    }
+
+    @Override
+    public ArrayList<CustomerDTO> getCustomers(Response res) {
+        return dal.getCustomers(res);
+    }
+
+    @Override
+    public ArrayList<CustomerDTO> searchCustomersByName(String name, Response res) {
+        return dal.searchCustomersByName(name, res);
+    }
+
+    @Override
+    public void saveSupplier(SupplierDTO supplier, Response res) {
+        dal.saveSupplier(supplier, res);
+    }
+
+    @Override
+    public void updateSupplier(SupplierDTO supplier, Response res) {
+        dal.updateSupplier(supplier, res);
+    }
+
+    @Override
+    public void deleteSupplier(SupplierDTO supplier, Response res) {
+        dal.deleteSupplier(supplier, res);
+    }
+
+    @Override
+    public ArrayList<SupplierDTO> getSuppliers(Response res) {
+        return dal.getSuppliers(res);
+    }
+
+    @Override
+    public void saveCategory(CategoryDTO category, Response res) {
+        dal.saveCategory(category, res);
+    }
+
+    @Override
+    public void updateCategory(CategoryDTO category, Response res) {
+        dal.updateCategory(category, res);
+    }
+
+    @Override
+    public void deleteCategory(CategoryDTO category, Response res) {
+        dal.deleteCategory(category, res);
+    }
+
+    @Override
+    public ArrayList<CategoryDTO> getCategories(Response res) {
+        return dal.getCategories(res);
+    }
+
+    @Override
+    public ArrayList<CategoryDTO> searchCategoryByName(String name, Response res) {
+        return dal.searchCategoryByName(name, res);
+    }
+
+    @Override
+    public void saveEmployee(EmployeeDTO employee, Response res) {
+        dal.saveEmployee(employee, res);
+    }
+
+    @Override
+    public void deleteEmployee(EmployeeDTO employee, Response res) {
+        if (employee != null && !flushQueued(OutboxMutation.Kind.EMPLOYEE, employee.getId(), res)) return;
+        dal.deleteEmployee(employee, res);
+    }
+
+    @Override
+    public ArrayList<EmployeeDTO> getEmployees(Response res) {
+        return dal.getEmployees(res);
+    }
+
+    // ---------------- helper methods ----------------
+
+    // writes a queued update of the row before a direct write of it; false (and an error) if that failed
+    private boolean flushQueued(OutboxMutation.Kind kind, int id, Response res) {
+        if (!outbox.isQueued(kind, id)) return true;
+        try {
+            if (outbox.flush(FLUSH_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) return true;
+            error(res, "A queued update of this row could not be written yet; try again.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error(res, "Interrupted while writing a queued update of this row.");
+        }
+        return false;
+    }
+
+    private static void error(Response res, String text) {
+        res.messagesList.add(new Message(text, MessageType.Error));
+    }
+}
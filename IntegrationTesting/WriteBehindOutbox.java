@@ -0,0 +1,455 @@
+package IntegrationTesting;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Opt-in write-behind for hot row updates (customer / employee edits, absolute product stock).
+ * Callers return as soon as the mutation is in the local log; one writer thread sends pending
+ * rows to the sink every flushIntervalMillis, or earlier once batchSize rows are pending.
+ *
+ * Pending mutations are kept per row (kind + id): a second update of a row that has not been
+ * written yet replaces the first one (coalescing), so a product whose stock changes 1,000 times
+ * between flushes costs one UPDATE. A flush takes every pending row, in the order the rows first
+ * became pending, and hands them to the sink as one batch; flushes never overlap, so a row is
+ * always written in the order it was updated. When a batch fails its rows are sent again one by
+ * one, so one bad row does not hold back the rest; what is still refused is put back (unless the
+ * row was updated again meanwhile) and retried after the next interval. A row refused on its own
+ * DEAD_LETTER_AFTER times while other rows got through is moved to the dead letters
+ * (getDeadLetters()) instead of being retried forever. When every row fails the sink is taken to
+ * be down, and that does not count against the rows.
+ *
+ * Restarts: every mutation is appended to an append-only log before the call returns, and a
+ * "flushed up to seq" record is appended once every row of a batch is written or dead-lettered;
+ * dead letters get a record of their own. Opening the outbox replays the log, keeping what was
+ * not flushed yet; a torn last record is cut off. After a flush attempt the log is rewritten
+ * with just the pending rows and the dead letters once it grows past compactBytes. Log writes
+ * go to the OS (they survive a process crash); syncLog() forces them to disk.
+ *
+ * Metrics: getCoalescingRatio() (mutations submitted per row written), flush durations in
+ * getFlushMicros() and, if a registry is given, the "outbox.flush" timer.
+ */
+public class WriteBehindOutbox implements AutoCloseable {
+
+    private static final long IDLE_POLL_MILLIS = 50;
+    private static final byte MUTATION = 1;
+    private static final byte FLUSHED = 2;
+    private static final byte DEAD_LETTER = 3;
+    // refusals of a row on its own before it is dead-lettered
+    static final int DEAD_LETTER_AFTER = 3;
+
+    private final OutboxSink sink;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long compactBytes;
+    private final Path logPath;
+    private final MetricsRegistry.Timer flushTimer; // null without a registry
+    private final Thread worker;
+
+    // guarded by lock
+    private final Object lock = new Object();
+    private LinkedHashMap<Long, OutboxMutation> pending = new LinkedHashMap<>();
+    private LinkedHashMap<Long, OutboxMutation> inFlight; // the batch being written, null between flushes
+    private long firstPendingNanos;
+    private long lastSeq;
+    private long flushedSeq;
+    private boolean flushRequested;
+    private FileChannel logChannel;
+    private DataOutputStream log;
+    private long logBytes;
+    private final List<OutboxMutation> deadLetters = new ArrayList<>();
+    private volatile boolean closed;
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LatencyHistogram flushMicros = new LatencyHistogram();
+    private final long recovered;
+
+    public WriteBehindOutbox(OutboxSink sink, Path logPath, int batchSize, long flushIntervalMillis) throws IOException {
+        this(sink, logPath, batchSize, flushIntervalMillis, 16L << 20, null);
+    }
+
+    public WriteBehindOutbox(OutboxSink sink, Path logPath, int batchSize, long flushIntervalMillis,
+                             long compactBytes, MetricsRegistry metrics) throws IOException {
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize must be > 0");
+        if (flushIntervalMillis <= 0) throw new IllegalArgumentException("flushIntervalMillis must be > 0");
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.compactBytes = compactBytes;
+        this.logPath = logPath;
+        this.flushTimer = metrics == null ? null : metrics.timer("outbox.flush");
+
+        if (Files.exists(logPath)) replay();
+        this.recovered = pending.size();
+        firstPendingNanos = System.nanoTime();
+        rewriteLog();
+
+        this.worker = new Thread(this::run, "outbox-writer");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public void updateCustomer(int customerId, String name, String phoneNumber) {
+        submit(OutboxMutation.Kind.CUSTOMER, customerId, name, phoneNumber, 0);
+    }
+
+    public void updateEmployee(int employeeId, String name, String phoneNumber) {
+        submit(OutboxMutation.Kind.EMPLOYEE, employeeId, name, phoneNumber, 0);
+    }
+
+    // absolute stock of a product (last write wins)
+    public void updateStock(int productId, int stock) {
+        submit(OutboxMutation.Kind.STOCK, productId, null, null, stock);
+    }
+
+    /**
+     * Asks the writer to flush now and waits until everything submitted before this call is in
+     * the sink; false if that did not happen within the timeout (e.g. the sink keeps failing).
+     */
+    public boolean flush(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            long target = lastSeq;
+            flushRequested = true;
+            lock.notifyAll();
+            while (flushedSeq < target) {
+                long wait = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (wait <= 0) return false;
+                lock.wait(wait);
+            }
+            return true;
+        }
+    }
+
+    // forces the log to disk: every mutation submitted so far survives power loss
+    public void syncLog() throws IOException {
+        synchronized (lock) {
+            logChannel.force(false);
+        }
+    }
+
+    /**
+     * True while an update of the row waits in the outbox or is being written. A caller about to
+     * write the row directly flushes first, or the queued value would land after its own.
+     */
+    public boolean isQueued(OutboxMutation.Kind kind, int id) {
+        long key = OutboxMutation.key(kind, id);
+        synchronized (lock) {
+            return pending.containsKey(key) || (inFlight != null && inFlight.containsKey(key));
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    // mutations found unflushed in the log when the outbox was opened
+    public long getRecoveredCount() {
+        return recovered;
+    }
+
+    public long getSubmittedCount() {
+        return submitted.sum();
+    }
+
+    // submissions that replaced a pending mutation of the same row
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    // rows the sink accepted, in whole batches or one by one
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getFailedFlushCount() {
+        return failedFlushes.sum();
+    }
+
+    // rows the sink kept refusing, oldest first, including the ones found in the log on start
+    public List<OutboxMutation> getDeadLetters() {
+        synchronized (lock) {
+            return new ArrayList<>(deadLetters);
+        }
+    }
+
+    public int getDeadLetterCount() {
+        synchronized (lock) {
+            return deadLetters.size();
+        }
+    }
+
+    // mutations submitted per row write; 1.0 means nothing was coalesced
+    public double getCoalescingRatio() {
+        long rows = submitted.sum() - coalesced.sum();
+        return rows == 0 ? 1.0 : (double) submitted.sum() / rows;
+    }
+
+    // duration of every flush attempt (sink call + log record), in microseconds
+    public LatencyHistogram getFlushMicros() {
+        return flushMicros;
+    }
+
+    /**
+     * Stops accepting mutations, flushes what is pending (one attempt) and waits for the writer
+     * thread. Rows the sink refused stay in the log for the next start. If the caller is
+     * interrupted while waiting, the log is closed without waiting for the writer, and close()
+     * returns with the interrupt flag set.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            log.close();
+        }
+    }
+
+    // ---------------- writer thread ----------------
+
+    private void run() {
+        while (true) {
+            LinkedHashMap<Long, OutboxMutation> batch;
+            long batchSeq;
+            synchronized (lock) {
+                try {
+                    while (!closed && !flushRequested && !due()) {
+                        lock.wait(pending.isEmpty() ? IDLE_POLL_MILLIS
+                                : Math.max(1, TimeUnit.NANOSECONDS.toMillis(firstPendingNanos + flushIntervalNanos - System.nanoTime())));
+                    }
+                } catch (InterruptedException e) {
+                    closed = true;
+                }
+                flushRequested = false;
+                if (pending.isEmpty()) {
+                    flushedSeq = lastSeq;
+                    lock.notifyAll();
+                    if (closed) return;
+                    continue;
+                }
+                batch = pending;
+                inFlight = batch;
+                batchSeq = lastSeq;
+                pending = new LinkedHashMap<>();
+                firstPendingNanos = System.nanoTime();
+            }
+            if (!flush(batch, batchSeq) && closed) return; // refused rows stay in the log
+        }
+    }
+
+    // pending rows are due once batchSize of them wait or the oldest waited flushInterval
+    private boolean due() {
+        return !pending.isEmpty()
+                && (pending.size() >= batchSize || System.nanoTime() - firstPendingNanos >= flushIntervalNanos);
+    }
+
+    // returns false when rows of the batch are left to retry
+    private boolean flush(LinkedHashMap<Long, OutboxMutation> batch, long batchSeq) {
+        long start = System.nanoTime();
+        List<OutboxMutation> rows = new ArrayList<>(batch.values());
+        List<OutboxMutation> refused = new ArrayList<>();
+        boolean ok = write(rows);
+        int writtenRows = rows.size();
+        if (!ok) {
+            failedFlushes.increment();
+            writtenRows = 0;
+            // one bad row fails the whole batch: find it by sending the rows one at a time
+            for (OutboxMutation m : rows) {
+                if (rows.size() > 1 && write(Collections.singletonList(m))) writtenRows++;
+                else refused.add(m);
+            }
+        }
+        LinkedHashMap<Long, OutboxMutation> retry = new LinkedHashMap<>();
+        synchronized (lock) {
+            inFlight = null;
+            written.add(writtenRows);
+            List<OutboxMutation> rejected = new ArrayList<>();
+            for (OutboxMutation m : refused) {
+                if (pending.containsKey(m.key())) {
+                    coalesced.increment(); // updated again since; the newer row is retried instead
+                } else if (writtenRows > 0 && ++m.refusals >= DEAD_LETTER_AFTER) {
+                    rejected.add(m); // other rows got through, so this one is the problem
+                } else {
+                    retry.put(m.key(), m);
+                }
+            }
+            deadLetters.addAll(rejected);
+            if (retry.isEmpty()) {
+                flushedSeq = batchSeq;
+            } else {
+                // refused rows go first
+                retry.putAll(pending);
+                pending = retry;
+                firstPendingNanos = System.nanoTime(); // retry after one more interval
+            }
+            try {
+                int before = log.size();
+                for (OutboxMutation m : rejected) {
+                    writeMutation(log, DEAD_LETTER, m);
+                }
+                if (retry.isEmpty()) {
+                    log.writeByte(FLUSHED);
+                    log.writeLong(batchSeq);
+                }
+                log.flush();
+                logBytes += log.size() - before;
+                if (logBytes > compactBytes) rewriteLog();
+            } catch (IOException e) {
+                // the rows are in the sink; at worst they are written again after a restart
+            }
+            lock.notifyAll();
+        }
+        long nanos = System.nanoTime() - start;
+        flushMicros.record(TimeUnit.NANOSECONDS.toMicros(nanos));
+        if (flushTimer != null) flushTimer.record(nanos, !ok);
+        return retry.isEmpty();
+    }
+
+    private boolean write(List<OutboxMutation> rows) {
+        try {
+            sink.writeBatch(rows);
+            return true;
+        } catch (Exception ex) {
+            return false;
+        }
+    }
+
+    // ---------------- helper methods ----------------
+
+    private void submit(OutboxMutation.Kind kind, int id, String name, String phoneNumber, int stock) {
+        synchronized (lock) {
+            if (closed) throw new IllegalStateException("WriteBehindOutbox is closed");
+            OutboxMutation m = new OutboxMutation(kind, id, name, phoneNumber, stock, lastSeq + 1);
+            int before = log.size();
+            try {
+                writeMutation(log, MUTATION, m);
+                log.flush();
+            } catch (IOException e) {
+                throw new IllegalStateException("Outbox log write failed: " + e.getMessage(), e);
+            }
+            lastSeq = m.getSeq();
+            logBytes += log.size() - before;
+            if (pending.isEmpty()) firstPendingNanos = System.nanoTime();
+            // put on an existing key keeps the row's place in the flush order
+            if (pending.put(m.key(), m) != null) coalesced.increment();
+            submitted.increment();
+            if (pending.size() >= batchSize) lock.notifyAll();
+        }
+    }
+
+    // rebuilds pending (and lastSeq) from the log; cuts off a torn last record
+    private void replay() throws IOException {
+        byte[] bytes = Files.readAllBytes(logPath);
+        ByteArrayInputStream buffer = new ByteArrayInputStream(bytes);
+        DataInputStream in = new DataInputStream(buffer);
+        long good = 0;
+        try {
+            while (buffer.available() > 0) {
+                byte type = in.readByte();
+                if (type == MUTATION) {
+                    OutboxMutation m = readMutation(in);
+                    pending.put(m.key(), m);
+                    lastSeq = Math.max(lastSeq, m.getSeq());
+                } else if (type == DEAD_LETTER) {
+                    OutboxMutation m = readMutation(in);
+                    OutboxMutation p = pending.get(m.key());
+                    if (p != null && p.getSeq() == m.getSeq()) pending.remove(m.key());
+                    deadLetters.add(m);
+                    lastSeq = Math.max(lastSeq, m.getSeq());
+                } else if (type == FLUSHED) {
+                    long seq = in.readLong();
+                    pending.values().removeIf(m -> m.getSeq() <= seq);
+                    flushedSeq = Math.max(flushedSeq, seq);
+                    lastSeq = Math.max(lastSeq, seq);
+                } else {
+                    break; // garbage after a torn write
+                }
+                good = bytes.length - buffer.available();
+            }
+        } catch (EOFException torn) {
+            // the last record was only partly written
+        }
+        try (FileChannel ch = FileChannel.open(logPath, StandardOpenOption.WRITE)) {
+            ch.truncate(good);
+        }
+    }
+
+    // writes the dead letters and pending rows to a fresh log and switches to it (atomic rename)
+    private void rewriteLog() throws IOException {
+        Path tmp = logPath.resolveSibling(logPath.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeByte(FLUSHED);
+            out.writeLong(flushedSeq);
+            for (OutboxMutation m : deadLetters) {
+                writeMutation(out, DEAD_LETTER, m);
+            }
+            for (OutboxMutation m : pending.values()) {
+                writeMutation(out, MUTATION, m);
+            }
+        }
+        if (log != null) log.close();
+        Files.move(tmp, logPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logChannel = FileChannel.open(logPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        logBytes = logChannel.size();
+        log = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(logChannel)));
+    }
+
+    // type: MUTATION, or DEAD_LETTER for a row moved out of pending
+    private static void writeMutation(DataOutputStream out, byte type, OutboxMutation m) throws IOException {
+        out.writeByte(type);
+        out.writeLong(m.getSeq());
+        out.writeByte(m.getKind().ordinal());
+        out.writeInt(m.getId());
+        out.writeInt(m.getStock());
+        writeNullable(out, m.getName());
+        writeNullable(out, m.getPhoneNumber());
+    }
+
+    private static OutboxMutation readMutation(DataInputStream in) throws IOException {
+        long seq = in.readLong();
+        int kind = in.readUnsignedByte();
+        if (kind >= OutboxMutation.Kind.values().length) throw new EOFException("Bad mutation kind " + kind);
+        int id = in.readInt();
+        int stock = in.readInt();
+        String name = readNullable(in);
+        String phoneNumber = readNullable(in);
+        return new OutboxMutation(OutboxMutation.Kind.values()[kind], id, name, phoneNumber, stock, seq);
+    }
+
+    private static void writeNullable(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) out.writeUTF(s);
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
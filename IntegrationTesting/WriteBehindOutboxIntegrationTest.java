@@ -0,0 +1,316 @@
+package IntegrationTesting;
+
+import dal.DALManager;
+import model.dto.CustomerDTO;
+import model.dto.MessageType;
+import model.dto.ProductDTO;
+import model.dto.Response;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindOutboxIntegrationTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void repeatedUpdatesOfOneRow_areCoalescedIntoOneWrite() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        try (WriteBehindOutbox outbox = new WriteBehindOutbox(sink, dir.resolve("outbox.log"), 10_000, 60_000)) {
+            for (int stock = 1000; stock > 0; stock--) {
+                outbox.updateStock(1, stock);
+            }
+            outbox.updateStock(2, 50);
+            outbox.updateCustomer(7, "Customer 7", "0691234567");
+
+            assertTrue(outbox.flush(10, TimeUnit.SECONDS));
+
+            assertEquals(1, sink.batches.size());
+            List<OutboxMutation> batch = sink.batches.get(0);
+            assertEquals(3, batch.size());
+            assertEquals(1, batch.get(0).getStock(), "last write wins");
+            assertEquals(1002, outbox.getSubmittedCount());
+            assertEquals(999, outbox.getCoalescedCount());
+            assertEquals(3, outbox.getWrittenCount());
+            assertEquals(334.0, outbox.getCoalescingRatio(), 0.001);
+            assertEquals(1, outbox.getFlushMicros().getCount());
+        }
+    }
+
+    @Test
+    void batches_keepTheOrderRowsBecamePending() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        try (WriteBehindOutbox outbox = new WriteBehindOutbox(sink, dir.resolve("outbox.log"), 10_000, 60_000)) {
+            outbox.updateStock(3, 1);
+            outbox.updateStock(1, 1);
+            outbox.updateStock(2, 1);
+            outbox.updateStock(3, 2); // keeps its place ahead of 1 and 2
+            assertTrue(outbox.flush(10, TimeUnit.SECONDS));
+            outbox.updateStock(1, 5);
+            assertTrue(outbox.flush(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(List.of(3, 1, 2), ids(sink.batches.get(0)));
+        assertEquals(2, sink.batches.get(0).get(0).getStock());
+        assertEquals(List.of(1), ids(sink.batches.get(1)));
+        assertTrue(sink.batches.get(1).get(0).getSeq() > sink.batches.get(0).get(1).getSeq());
+    }
+
+    @Test
+    void batchSizeReached_flushesWithoutWaitingForTheInterval() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        try (WriteBehindOutbox outbox = new WriteBehindOutbox(sink, dir.resolve("outbox.log"), 100, 60_000)) {
+            for (int id = 1; id <= 100; id++) {
+                outbox.updateStock(id, id);
+            }
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (outbox.getWrittenCount() < 100 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(100, outbox.getWrittenCount());
+        }
+    }
+
+    @Test
+    void failedFlush_isRetried_andNewerUpdatesWin() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        sink.failing = true;
+        MetricsRegistry metrics = new MetricsRegistry("outbox-test");
+        try (WriteBehindOutbox outbox = new WriteBehindOutbox(sink, dir.resolve("outbox.log"), 10_000, 20,
+                1L << 20, metrics)) {
+            outbox.updateStock(1, 10);
+            outbox.updateStock(2, 20);
+            assertFalse(outbox.flush(300, TimeUnit.MILLISECONDS));
+            assertTrue(outbox.getFailedFlushCount() >= 1);
+            assertEquals(2, outbox.getPendingCount(), "refused rows are put back");
+
+            outbox.updateStock(2, 21);
+            sink.failing = false;
+            assertTrue(outbox.flush(10, TimeUnit.SECONDS));
+
+            List<OutboxMutation> written = sink.batches.get(sink.batches.size() - 1);
+            assertEquals(List.of(1, 2), ids(written));
+            assertEquals(21, written.get(1).getStock());
+            assertTrue(metrics.timer("outbox.flush").getErrors() >= 1);
+        }
+    }
+
+    @Test
+    void badRow_doesNotHoldBackTheBatch_andIsDeadLetteredAfterRepeatedRefusals() throws Exception {
+        Path log = dir.resolve("outbox.log");
+        RecordingSink sink = new RecordingSink();
+        sink.refusedId = 2;
+        try (WriteBehindOutbox outbox = new WriteBehindOutbox(sink, log, 10_000, 60_000)) {
+            for (int round = 1; round <= WriteBehindOutbox.DEAD_LETTER_AFTER; round++) {
+                outbox.updateStock(1, round);
+                if (round == 1) outbox.updateStock(2, 20);
+                outbox.updateStock(3, round);
+                boolean last = round == WriteBehindOutbox.DEAD_LETTER_AFTER;
+                assertEquals(last, outbox.flush(10, TimeUnit.SECONDS));
+                assertEquals(last ? 0 : 1, outbox.getPendingCount(), "only the bad row is retried");
+            }
+            assertEquals(3 * 2, outbox.getWrittenCount());
+            assertEquals(1, outbox.getDeadLetterCount());
+            assertEquals(2, outbox.getDeadLetters().get(0).getId());
+            outbox.updateStock(4, 40);
+        }
+
+        RecordingSink restarted = new RecordingSink();
+        try (WriteBehindOutbox outbox = new WriteBehindOutbox(restarted, log, 10_000, 60_000)) {
+            assertEquals(0, outbox.getRecoveredCount(), "a dead letter is not replayed as pending");
+            assertEquals(1, outbox.getDeadLetterCount());
+            assertEquals(20, outbox.getDeadLetters().get(0).getStock());
+        }
+    }
+
+    @Test
+    void unflushedMutations_surviveRestart_flushedOnesAreNotReplayed() throws Exception {
+        Path log = dir.resolve("outbox.log");
+        RecordingSink sink = new RecordingSink();
+        try (WriteBehindOutbox outbox = new WriteBehindOutbox(sink, log, 10_000, 60_000)) {
+            outbox.updateStock(1, 10);
+            outbox.updateCustomer(7, "Customer 7", "0691234567");
+            assertTrue(outbox.flush(10, TimeUnit.SECONDS));
+
+            sink.failing = true; // the database goes away before the next flush
+            outbox.updateStock(2, 20);
+            outbox.updateCustomer(7, "Customer Seven", "0697654321");
+        }
+
+        RecordingSink restarted = new RecordingSink();
+        try (WriteBehindOutbox outbox = new WriteBehindOutbox(restarted, log, 10_000, 60_000)) {
+            assertEquals(2, outbox.getRecoveredCount());
+            assertTrue(outbox.flush(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(1, restarted.batches.size());
+        List<OutboxMutation> batch = restarted.batches.get(0);
+        assertEquals(List.of(2, 7), ids(batch));
+        assertEquals("Customer Seven", batch.get(1).getName());
+        assertEquals("0697654321", batch.get(1).getPhoneNumber());
+    }
+
+    @Test
+    void tornLastRecord_isCutOff() throws Exception {
+        Path log = dir.resolve("outbox.log");
+        RecordingSink sink = new RecordingSink();
+        sink.failing = true;
+        try (WriteBehindOutbox outbox = new WriteBehindOutbox(sink, log, 10_000, 60_000)) {
+            outbox.updateStock(1, 10);
+            outbox.updateStock(2, 20);
+        }
+        try (OutputStream out = Files.newOutputStream(log, StandardOpenOption.APPEND)) {
+            out.write(new byte[]{1, 0, 0, 0}); // a mutation record cut short by the crash
+        }
+
+        RecordingSink restarted = new RecordingSink();
+        try (WriteBehindOutbox outbox = new WriteBehindOutbox(restarted, log, 10_000, 60_000)) {
+            assertEquals(2, outbox.getRecoveredCount());
+            outbox.updateStock(3, 30);
+            assertTrue(outbox.flush(10, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of(1, 2, 3), ids(restarted.batches.get(0)));
+    }
+
+    @Test
+    void writeBehindDAL_validatesQueuesAndFlushesToTheDatabase() throws Exception {
+        String url = "jdbc:h2:mem:outbox_" + UUID.randomUUID().toString().substring(0, 8)
+                + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        try (ConnectionPool pool = new ConnectionPool(new ConnectionPool.Settings(url, "sa", "").minSize(1).maxSize(3))) {
+            try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+                st.execute("CREATE TABLE customers (id INT PRIMARY KEY, name VARCHAR(100), phoneNumber VARCHAR(20))");
+                st.execute("CREATE TABLE employees (id INT PRIMARY KEY, name VARCHAR(100), phoneNumber VARCHAR(20))");
+                st.execute("CREATE TABLE products (id INT PRIMARY KEY, stock_quantity INT NOT NULL)");
+                st.execute("INSERT INTO customers VALUES (1, 'Old Name', '0690000000')");
+                st.execute("INSERT INTO products VALUES (5, 100)");
+            }
+            try (Connection sinkConn = pool.getConnection();
+                 WriteBehindOutbox outbox = new WriteBehindOutbox(new JdbcOutboxSink(sinkConn), dir.resolve("outbox.log"),
+                         500, 50)) {
+                WriteBehindDALManager dal = new WriteBehindDALManager(new DALManager(), outbox);
+
+                Response bad = new Response();
+                dal.updateCustomer(new CustomerDTO(1, "Bo", "123"), bad);
+                assertFalse(bad.isSuccessfull());
+                assertEquals(0, outbox.getSubmittedCount());
+
+                Response ok = new Response();
+                dal.updateCustomer(new CustomerDTO(1, "Ester Shumeli", "0691112223"), ok);
+                for (int stock = 99; stock >= 90; stock--) {
+                    dal.updateStock(5, stock, ok);
+                }
+                assertTrue(ok.isSuccessfull(), ok.getErrorMessages());
+                assertTrue(outbox.flush(10, TimeUnit.SECONDS));
+            }
+
+            try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+                try (ResultSet rs = st.executeQuery("SELECT name, phoneNumber FROM customers WHERE id = 1")) {
+                    assertTrue(rs.next());
+                    assertEquals("Ester Shumeli", rs.getString(1));
+                    assertEquals("0691112223", rs.getString(2));
+                }
+                assertEquals(90, scalar(st, "SELECT stock_quantity FROM products WHERE id = 5"));
+            }
+        }
+    }
+
+    @Test
+    void directWriteOfARow_flushesItsQueuedUpdateFirst() throws Exception {
+        RecordingSink sink = new RecordingSink();
+        try (WriteBehindOutbox outbox = new WriteBehindOutbox(sink, dir.resolve("outbox.log"), 10_000, 60_000)) {
+            List<String> directWrites = new ArrayList<>();
+            DALManager direct = new DALManager() {
+                @Override
+                public void updateProduct(ProductDTO product, Response res) {
+                    directWrites.add("product " + product.getProductId() + " after " + sink.batches.size() + " batches");
+                }
+
+                @Override
+                public void deleteCustomer(CustomerDTO customer, Response res) {
+                    directWrites.add("customer " + customer.getId() + " after " + sink.batches.size() + " batches");
+                }
+            };
+            WriteBehindDALManager dal = new WriteBehindDALManager(direct, outbox);
+
+            Response res = new Response();
+            dal.updateStock(5, 40, res);
+            ProductDTO product = new ProductDTO();
+            product.setProductId(5);
+            product.setStockQuantity(35);
+            dal.updateProduct(product, res); // the queued 40 must not overwrite 35 afterwards
+            dal.updateCustomer(new CustomerDTO(1, "Ester Shumeli", "0691112223"), res);
+            dal.deleteCustomer(new CustomerDTO(1, "Ester Shumeli", "0691112223"), res);
+            dal.deleteCustomer(new CustomerDTO(2, "Other Customer", "0691112224"), res); // nothing queued
+
+            assertTrue(res.isSuccessfull(), res.getErrorMessages());
+            assertEquals(List.of("product 5 after 1 batches", "customer 1 after 2 batches", "customer 2 after 2 batches"),
+                    directWrites);
+            assertFalse(outbox.isQueued(OutboxMutation.Kind.STOCK, 5));
+        }
+    }
+
+    @Test
+    void closedOutbox_isReportedInTheResponse() throws Exception {
+        WriteBehindOutbox outbox = new WriteBehindOutbox(new RecordingSink(), dir.resolve("outbox.log"), 10_000, 60_000);
+        WriteBehindDALManager dal = new WriteBehindDALManager(new DALManager(), outbox);
+
+        Response queued = new Response();
+        dal.updateStock(5, 40, queued);
+        assertEquals("Stock update queued.", queued.messagesList.get(0).message);
+        outbox.close();
+
+        Response res = new Response();
+        dal.updateCustomer(new CustomerDTO(1, "Ester Shumeli", "0691112223"), res);
+        dal.updateStock(5, 41, res);
+        assertFalse(res.isSuccessfull());
+        assertEquals(2, res.messagesList.size());
+        assertEquals(MessageType.Error, res.messagesList.get(0).type);
+    }
+
+    // ---------------- helper methods ----------------
+
+    private static final class RecordingSink implements OutboxSink {
+        final List<List<OutboxMutation>> batches = new ArrayList<>();
+        volatile boolean failing;
+        volatile int refusedId; // a batch containing this row fails, as with a constraint violation
+
+        @Override
+        public synchronized void writeBatch(List<OutboxMutation> batch) throws SQLException {
+            if (failing) throw new SQLException("Communications link failure");
+            for (OutboxMutation m : batch) {
+                if (m.getId() == refusedId) throw new SQLException("Data truncation: row " + refusedId);
+            }
+            batches.add(new ArrayList<>(batch));
+        }
+    }
+
+    private static List<Integer> ids(List<OutboxMutation> batch) {
+        List<Integer> ids = new ArrayList<>();
+        for (OutboxMutation m : batch) {
+            ids.add(m.getId());
+        }
+        return ids;
+    }
+
+    private static int scalar(Statement st, String sql) throws SQLException {
+        try (ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
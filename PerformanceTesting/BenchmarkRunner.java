@@ -0,0 +1,60 @@
+package PerformanceTesting;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Runs the JMH benchmarks with the GC profiler (allocation rate, bytes/op) and writes a JSON
+ * result per commit: PerformanceTesting/results/jmh-<git short sha>.json.
+ *
+ * args: [include regex] [result label]
+ *   e.g. BenchmarkRunner "CheckoutBenchmark|ProductDALBenchmark" before-change
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        String include = args.length > 0 ? args[0] : "PerformanceTesting\\..*Benchmark";
+        String label = args.length > 1 ? args[1] : commitLabel();
+
+        File resultDir = new File("PerformanceTesting/results");
+        if (!resultDir.isDirectory() && !resultDir.mkdirs()) {
+            throw new IllegalStateException("Cannot create " + resultDir.getAbsolutePath());
+        }
+        File result = new File(resultDir, "jmh-" + label + ".json");
+
+        Options opt = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.getPath())
+                .build();
+
+        new Runner(opt).run();
+        System.out.println("JMH results written to " + result.getAbsolutePath());
+    }
+
+    // short commit hash, or a timestamp when not run from a git checkout
+    private static String commitLabel() {
+        try {
+            Process git = new ProcessBuilder("git", "rev-parse", "--short", "HEAD").start();
+            try (BufferedReader out = new BufferedReader(
+                    new InputStreamReader(git.getInputStream(), StandardCharsets.UTF_8))) {
+                String sha = out.readLine();
+                if (git.waitFor() == 0 && sha != null && !sha.isEmpty()) return sha.trim();
+            }
+        } catch (Exception ignored) {
+            // fall back to a timestamp below
+        }
+        return new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+    }
+}
@@ -0,0 +1,112 @@
+package PerformanceTesting;
+
+import IntegrationTesting.BulkImporter;
+import IntegrationTesting.ConnectionPool;
+import IntegrationTesting.ImportProgress;
+import model.dto.CustomerDTO;
+import model.dto.Response;
+import model.validators.CommonValidator;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.UUID;
+
+/**
+ * Store-onboarding throughput on embedded H2 (MySQL mode): customers imported per second by the
+ * per-record path (validateObject + one auto-commit INSERT per row, as saveCustomer does) vs.
+ * BulkImporter (parallel validation, JDBC batches). Each path runs `rounds` times on a fresh
+ * database and the best round counts, so the first (cold JIT) round does not decide the result.
+ * Exits with status 1 if BulkImporter stays below the target rate.
+ *
+ * args: [rows] [invalidPercent] [batchSize] [targetRowsPerSecond] [rounds]
+ */
+public class BulkImportThroughput {
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int invalidPercent = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        double target = args.length > 3 ? Double.parseDouble(args[3]) : 50_000;
+        int rounds = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+
+        File csv = File.createTempFile("customers", ".csv");
+        File rejects = File.createTempFile("customers-rejects", ".csv");
+        csv.deleteOnExit();
+        rejects.deleteOnExit();
+        try (Writer out = new BufferedWriter(new FileWriter(csv))) {
+            out.write("name,phoneNumber\n");
+            for (int i = 0; i < rows; i++) {
+                out.write(i % 100 < invalidPercent ? "Bad" : "Customer_" + i);
+                out.write(",069" + (1_000_000 + i % 1_000_000) + "\n");
+            }
+        }
+        System.out.printf("rows=%d invalid=%d%% batchSize=%d target=%.0f rows/s%n", rows, invalidPercent, batchSize, target);
+
+        double perRecordBest = 0;
+        double bulkBest = 0;
+        for (int round = 1; round <= rounds; round++) {
+            // 1) Per-record path
+            try (ConnectionPool db = newDatabase()) {
+                long start = System.nanoTime();
+                long written = 0;
+                try (BufferedReader in = new BufferedReader(new FileReader(csv));
+                     Connection conn = db.getConnection();
+                     PreparedStatement insert = conn.prepareStatement("INSERT INTO customers (name, phoneNumber) VALUES (?, ?)")) {
+                    in.readLine();
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        String[] f = line.split(",");
+                        CustomerDTO c = new CustomerDTO();
+                        c.setName(f[0]);
+                        c.setPhoneNumber(f[1]);
+                        Response res = new Response();
+                        CommonValidator.validateObject(c, res);
+                        if (!res.isSuccessfull()) continue;
+                        insert.setString(1, c.getName());
+                        insert.setString(2, c.getPhoneNumber());
+                        insert.executeUpdate();
+                        written++;
+                    }
+                }
+                perRecordBest = Math.max(perRecordBest, report("round " + round + " per-record", written, System.nanoTime() - start));
+            }
+
+            // 2) BulkImporter
+            try (ConnectionPool db = newDatabase();
+                 FileReader in = new FileReader(csv);
+                 Writer rejected = new BufferedWriter(new FileWriter(rejects))) {
+                ImportProgress result = BulkImporter.customers(db).batchSize(batchSize).run(in, rejected);
+                bulkBest = Math.max(bulkBest, report("round " + round + " BulkImporter", result.getRowsWritten(), result.getElapsedMillis() * 1_000_000L));
+                System.out.println("  " + result);
+            }
+        }
+
+        System.out.printf("best: per-record %.0f rows/s, BulkImporter %.0f rows/s (x%.1f)%n", perRecordBest, bulkBest, bulkBest / perRecordBest);
+        boolean met = bulkBest >= target;
+        System.out.printf("target %.0f rows/s: %s%n", target, met ? "met" : "MISSED");
+        if (!met) System.exit(1);
+    }
+
+    private static ConnectionPool newDatabase() throws Exception {
+        String url = "jdbc:h2:mem:import_" + UUID.randomUUID().toString().substring(0, 8) + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        ConnectionPool db = new ConnectionPool(new ConnectionPool.Settings(url, "sa", "").minSize(1).maxSize(2));
+        try (Connection conn = db.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE customers (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50) NOT NULL, phoneNumber VARCHAR(20))");
+        }
+        return db;
+    }
+
+    private static double report(String label, long rows, long nanos) {
+        double seconds = nanos / 1e9;
+        double rate = rows / seconds;
+        System.out.printf("%-24s %10d rows %8.2f s %12.0f rows/s%n", label, rows, seconds, rate);
+        return rate;
+    }
+}
@@ -0,0 +1,82 @@
+package PerformanceTesting;
+
+import IntegrationTesting.ProductCatalog;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Retained-heap comparison: the old ProductDALStub layout (two boxed HashMaps)
+ * against ProductCatalog, at 1M and 10M products.
+ *
+ * Run with a large heap, e.g. java -Xmx12g -XX:+UseParallelGC PerformanceTesting.CatalogFootprintComparison
+ */
+public class CatalogFootprintComparison {
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? parseSizes(args) : new int[]{1_000_000, 10_000_000};
+
+        System.out.printf("%-12s %-22s %14s %12s%n", "products", "layout", "retained MB", "bytes/prod");
+        for (int n : sizes) {
+            report(n, "HashMap<Int,Int>+<Int,Dbl>", measure(() -> buildMaps(n)));
+            report(n, "ProductCatalog", measure(() -> buildCatalog(n)));
+        }
+    }
+
+    private static Object buildMaps(int n) {
+        Map<Integer, Integer> stockByProductId = new HashMap<>();
+        Map<Integer, Double> priceByProductId = new HashMap<>();
+        for (int i = 1; i <= n; i++) {
+            // prices and stock outside the Integer/Double caches, as in a real catalog
+            priceByProductId.put(i, 1.0 + (i % 5000) / 100.0);
+            stockByProductId.put(i, 128 + (i % 1000));
+        }
+        return new Object[]{stockByProductId, priceByProductId};
+    }
+
+    private static Object buildCatalog(int n) {
+        ProductCatalog catalog = new ProductCatalog(n);
+        for (int i = 1; i <= n; i++) {
+            catalog.put(i, 100 + (i % 5000), 128 + (i % 1000));
+        }
+        return catalog;
+    }
+
+    private interface Builder {
+        Object build();
+    }
+
+    // retained bytes of whatever the builder returns (kept reachable until measured)
+    private static long measure(Builder builder) {
+        long before = usedAfterGc();
+        Object retained = builder.build();
+        long after = usedAfterGc();
+        if (retained.hashCode() == 42) System.out.print(""); // keep it alive past the second GC
+        return after - before;
+    }
+
+    private static long usedAfterGc() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return rt.totalMemory() - rt.freeMemory();
+    }
+
+    private static void report(int n, String layout, long bytes) {
+        System.out.printf("%-12d %-22s %14.1f %12.1f%n", n, layout, bytes / (1024.0 * 1024.0), (double) bytes / n);
+    }
+
+    private static int[] parseSizes(String[] args) {
+        int[] sizes = new int[args.length];
+        for (int i = 0; i < args.length; i++) {
+            sizes[i] = Integer.parseInt(args[i]);
+        }
+        return sizes;
+    }
+}
@@ -0,0 +1,86 @@
+package PerformanceTesting;
+
+import IntegrationTesting.CheckoutService;
+import IntegrationTesting.ProductDALStub;
+import IntegrationTesting.SaleDALStub;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout cost per basket for 1, 50 and 5,000 lines:
+ * - legacyTwoPass: the original two-loop, double-summing checkout (kept here as the baseline)
+ * - mapCheckout:   CheckoutService.checkout(Map), same entry point as before
+ * - primitiveCheckout: CheckoutService.checkoutCents(int[], int[]), single pass in long cents
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CheckoutBenchmark {
+
+    @Param({"1", "50", "5000"})
+    public int lines;
+
+    private ProductDALStub productDal;
+    private SaleDALStub saleDal;
+    private CheckoutService service;
+
+    private Map<Integer, Integer> basket;
+    private int[] productIds;
+    private int[] qtys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        productDal = new ProductDALStub();
+        saleDal = SaleDALStub.withoutLines();
+        service = new CheckoutService(productDal, saleDal);
+
+        basket = new HashMap<>();
+        productIds = new int[lines];
+        qtys = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            int productId = 1000 + i;
+            // large stock so the benchmark never sells out
+            productDal.seedProduct(productId, 1.0 + (i % 500) / 100.0, Integer.MAX_VALUE / 2);
+            basket.put(productId, 1);
+            productIds[i] = productId;
+            qtys[i] = 1;
+        }
+    }
+
+    @Benchmark
+    public double legacyTwoPass() {
+        for (Map.Entry<Integer, Integer> e : basket.entrySet()) {
+            int productId = e.getKey();
+            int qty = e.getValue();
+            if (qty <= 0) throw new IllegalArgumentException("Quantity must be > 0");
+            if (productDal.getStock(productId) < qty) {
+                throw new IllegalStateException("Insufficient stock for product " + productId);
+            }
+        }
+        double total = 0.0;
+        for (Map.Entry<Integer, Integer> e : basket.entrySet()) {
+            int productId = e.getKey();
+            int qty = e.getValue();
+            total += productDal.getPrice(productId) * qty;
+            productDal.decreaseStock(productId, qty);
+        }
+        saleDal.saveSale(total);
+        return total;
+    }
+
+    @Benchmark
+    public double mapCheckout() {
+        return service.checkout(basket);
+    }
+
+    @Benchmark
+    public long primitiveCheckout() {
+        return service.checkoutCents(productIds, qtys);
+    }
+}
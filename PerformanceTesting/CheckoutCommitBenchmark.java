@@ -0,0 +1,88 @@
+package PerformanceTesting;
+
+import IntegrationTesting.ConnectionPool;
+import IntegrationTesting.TransactionalCheckout;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Three-line checkouts per millisecond on embedded H2 with 8 tills, each checkout writing stock,
+ * sale header and sale lines in one transaction (TransactionalCheckout):
+ * - immediate: one transaction and one commit per checkout, on the till's own connection
+ * - group:     group commit, up to 8 baskets per commit within a 200 us window
+ * storage "mem" has no commit cost beyond the statements; "file" is an H2 file database with
+ * WRITE_DELAY=0, so every commit is written out before it returns (closer to a real server log).
+ * H2 runs in its default mode here: in MySQL mode H2 2.2 hands out duplicate AUTO_INCREMENT keys
+ * to concurrent transactions inserting into sales.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class CheckoutCommitBenchmark {
+
+    private static final int SKUS = 1000;
+
+    @Param({"immediate", "group"})
+    public String mode;
+
+    @Param({"mem", "file"})
+    public String storage;
+
+    private File dir;
+    private ConnectionPool pool;
+    private TransactionalCheckout checkout;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String url;
+        if ("file".equals(storage)) {
+            dir = Files.createTempDirectory("checkoutbench").toFile();
+            url = "jdbc:h2:" + dir.getAbsolutePath() + "/pos;WRITE_DELAY=0";
+        } else {
+            url = "jdbc:h2:mem:checkoutbench_" + mode + ";DB_CLOSE_DELAY=-1";
+        }
+        pool = new ConnectionPool(new ConnectionPool.Settings(url, "sa", "").minSize(9).maxSize(9).statementCacheSize(16));
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE products (id INT PRIMARY KEY, stock_quantity INT NOT NULL, category_id INT)");
+            st.execute("CREATE TABLE sales (id BIGINT AUTO_INCREMENT PRIMARY KEY, total BIGINT NOT NULL, created_at TIMESTAMP)");
+            st.execute("CREATE TABLE sale_lines (sale_id BIGINT NOT NULL, product_id INT NOT NULL, "
+                    + "quantity INT NOT NULL, price_cents BIGINT NOT NULL, category_id INT)");
+            st.execute("INSERT INTO products SELECT X, 1000000000, MOD(X, 40) FROM SYSTEM_RANGE(1, " + SKUS + ")"); // never sells out
+        }
+        checkout = "group".equals(mode)
+                ? TransactionalCheckout.groupCommit(pool, id -> 100 + id, 8, 200)
+                : new TransactionalCheckout(pool, id -> 100 + id);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        checkout.close();
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        }
+        pool.close();
+        if (dir != null) {
+            for (File f : dir.listFiles()) f.delete();
+            dir.delete();
+        }
+    }
+
+    @Benchmark
+    public long checkout() throws SQLException {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        int first = 1 + rnd.nextInt(SKUS - 2);
+        // ascending ids, so concurrent immediate transactions lock rows in the same order
+        return checkout.checkoutCents(new int[]{first, first + 1, first + 2}, new int[]{1, 1 + rnd.nextInt(3), 1});
+    }
+}
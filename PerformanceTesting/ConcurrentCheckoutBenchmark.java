@@ -0,0 +1,82 @@
+package PerformanceTesting;
+
+import IntegrationTesting.CheckoutService;
+import IntegrationTesting.ProductDALStub;
+import IntegrationTesting.SaleDALStub;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many tills checking out 20-line baskets against one shared ProductDALStub / SaleDALStub.
+ * Single-till numbers for the same service are in CheckoutBenchmark.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentCheckoutBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+    private static final int LINES = 20;
+
+    @State(Scope.Benchmark)
+    public static class Store {
+        CheckoutService service;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            ProductDALStub productDal = new ProductDALStub();
+            for (int id = 1; id <= PRODUCTS; id++) {
+                productDal.seedProduct(id, 2.50, Integer.MAX_VALUE / 2);
+            }
+            service = new CheckoutService(productDal, SaleDALStub.withoutLines());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Till {
+        Map<Integer, Integer> basket = new HashMap<>();
+        int[] productIds = new int[LINES];
+        int[] qtys = new int[LINES];
+
+        @Setup(Level.Iteration)
+        public void fillBasket() {
+            basket.clear();
+            for (int i = 0; i < LINES; i++) {
+                int productId = 1 + ThreadLocalRandom.current().nextInt(PRODUCTS);
+                productIds[i] = productId;
+                qtys[i] = 1;
+                basket.merge(productId, 1, Integer::sum);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long primitiveCheckout_1till(Store store, Till till) {
+        return store.service.checkoutCents(till.productIds, till.qtys);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long primitiveCheckout_8tills(Store store, Till till) {
+        return store.service.checkoutCents(till.productIds, till.qtys);
+    }
+
+    @Benchmark
+    @Threads(32)
+    public long primitiveCheckout_32tills(Store store, Till till) {
+        return store.service.checkoutCents(till.productIds, till.qtys);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public double mapCheckout_8tills(Store store, Till till) {
+        return store.service.checkout(till.basket);
+    }
+}
@@ -0,0 +1,113 @@
+package PerformanceTesting;
+
+import IntegrationTesting.CheckoutService;
+import IntegrationTesting.InstrumentedDALManager;
+import IntegrationTesting.InstrumentedValidator;
+import IntegrationTesting.MetricsRegistry;
+import IntegrationTesting.ProductDALStub;
+import IntegrationTesting.SaleDALStub;
+import IntegrationTesting.ValidationPlan;
+import dal.DALManager;
+import model.dto.CategoryDTO;
+import model.dto.CustomerDTO;
+import model.dto.Response;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the MetricsRegistry instrumentation on the hot paths, plain vs. instrumented:
+ * a 5-line CheckoutService.checkoutCents, ValidationPlan.validate on a valid customer, and a
+ * DALManager call (a DAL that answers from memory, so only the wrapper is measured).
+ * Run with -t 4 to see the recording path under contention (all threads share one registry).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    private static final int[] PRODUCT_IDS = {1, 2, 3, 4, 5};
+    private static final int[] QTYS = {1, 1, 1, 1, 1};
+
+    private CheckoutService plainCheckout;
+    private CheckoutService timedCheckout;
+    private InstrumentedValidator validator;
+    private DALManager plainDal;
+    private DALManager timedDal;
+    private CustomerDTO customer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MetricsRegistry metrics = new MetricsRegistry("benchmark");
+        plainCheckout = new CheckoutService(seeded(), SaleDALStub.withoutLines());
+        timedCheckout = new CheckoutService(seeded(), SaleDALStub.withoutLines(), metrics);
+        validator = new InstrumentedValidator(metrics);
+        plainDal = new InMemoryDAL();
+        timedDal = new InstrumentedDALManager(new InMemoryDAL(), metrics);
+        customer = new CustomerDTO();
+        customer.setName("TestCustomer");
+        customer.setPhoneNumber("0690000000");
+    }
+
+    @Benchmark
+    public long checkout_plain() {
+        return plainCheckout.checkoutCents(PRODUCT_IDS, QTYS);
+    }
+
+    @Benchmark
+    public long checkout_instrumented() {
+        return timedCheckout.checkoutCents(PRODUCT_IDS, QTYS);
+    }
+
+    @Benchmark
+    public boolean validate_plain() {
+        Response res = new Response();
+        ValidationPlan.validate(customer, res);
+        return res.messagesList.isEmpty();
+    }
+
+    @Benchmark
+    public boolean validate_instrumented() {
+        Response res = new Response();
+        validator.validate(customer, res);
+        return res.messagesList.isEmpty();
+    }
+
+    @Benchmark
+    public int dal_plain() {
+        return plainDal.getCategories(new Response()).size();
+    }
+
+    @Benchmark
+    public int dal_instrumented() {
+        return timedDal.getCategories(new Response()).size();
+    }
+
+    private static ProductDALStub seeded() {
+        ProductDALStub products = new ProductDALStub();
+        for (int id : PRODUCT_IDS) {
+            products.seedProduct(id, 1.99, Integer.MAX_VALUE / 2); // never sells out
+        }
+        return products;
+    }
+
+    // answers getCategories from memory
+    private static final class InMemoryDAL extends DALManager {
+        private final ArrayList<CategoryDTO> categories = new ArrayList<>();
+
+        InMemoryDAL() {
+            CategoryDTO c = new CategoryDTO();
+            c.setName("Drinks");
+            categories.add(c);
+        }
+
+        @Override
+        public ArrayList<CategoryDTO> getCategories(Response res) {
+            return categories;
+        }
+    }
+}
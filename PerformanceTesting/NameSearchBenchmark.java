@@ -0,0 +1,86 @@
+package PerformanceTesting;
+
+import IntegrationTesting.NameSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Substring name search over 1M names: NameSearchIndex (trigram lookup, limit 50)
+ * vs. a full contains() scan, which is what LIKE '%term%' does on the database.
+ * Common terms ("hox", "nela", "ester") match tens of thousands of names each and measure the
+ * ranked early exit; selective terms measure the posting-list intersection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class NameSearchBenchmark {
+
+    private static final String[] FIRST = {"Ardit", "Besa", "Dorina", "Elira", "Ester", "Evisa", "Eridjon",
+            "Fatjon", "Gentiana", "Ilir", "Klea", "Marin", "Nela", "Orges", "Rina", "Sokol"};
+    private static final String[] LAST = {"Bezan", "Hoxha", "Krasniqi", "Krrashi", "Leka", "Marku", "Nela",
+            "Shehu", "Shumeli", "Toska", "Zeneli", "Dervishi", "Gjoka", "Kola", "Rama", "Basha"};
+
+    private static final String[] COMMON = {"hox", "nela", "ester"};
+
+    @Param({"1000000"})
+    public int names;
+
+    private NameSearchIndex index;
+    private List<String> lowerNames;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new NameSearchIndex();
+        lowerNames = new ArrayList<>(names);
+        for (int id = 1; id <= names; id++) {
+            String name = FIRST[id % FIRST.length] + " " + LAST[(id / FIRST.length) % LAST.length] + " " + id;
+            index.put(id, name);
+            lowerNames.add(name.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    // one customer: "hoxha 12345"-style term, a handful of candidates
+    private String selectiveTerm() {
+        int id = 1 + ThreadLocalRandom.current().nextInt(names);
+        return LAST[(id / FIRST.length) % LAST.length] + " " + id;
+    }
+
+    @Benchmark
+    public int index_selectiveTerm() {
+        return index.search(selectiveTerm(), 50).length;
+    }
+
+    @Benchmark
+    public int index_digitsOnly() {
+        // "4711" matches ids containing those digits anywhere: hundreds of rows
+        return index.search(String.valueOf(1000 + ThreadLocalRandom.current().nextInt(9000)), 50).length;
+    }
+
+    @Benchmark
+    public int index_commonTerm() {
+        return index.search(COMMON[ThreadLocalRandom.current().nextInt(COMMON.length)], 50).length;
+    }
+
+    @Benchmark
+    public int index_twoCharTerm() {
+        return index.search("xh", 50).length;
+    }
+
+    @Benchmark
+    public int fullScan_selectiveTerm() {
+        String term = selectiveTerm().toLowerCase(Locale.ROOT);
+        int found = 0;
+        for (String name : lowerNames) {
+            if (name.contains(term)) found++;
+        }
+        return found;
+    }
+}
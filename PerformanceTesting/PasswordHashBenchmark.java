@@ -0,0 +1,87 @@
+package PerformanceTesting;
+
+import IntegrationTesting.AuthenticationService;
+import IntegrationTesting.ConnectionPool;
+import IntegrationTesting.PasswordHasher;
+import model.dto.Response;
+import model.dto.UserDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Login latency on embedded H2 against the PBKDF2 cost (iterations): the old plaintext
+ * "username = ? AND password = ?" query, a cold AuthenticationService login (query + hash
+ * verify, session cache off), and a till re-auth answered from the verified-session cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordHashBenchmark {
+
+    @Param({"10000", "100000", "310000"})
+    public int iterations;
+
+    private ConnectionPool pool;
+    private PasswordHasher hasher;
+    private AuthenticationService fullCheck;
+    private AuthenticationService withSessions;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        pool = new ConnectionPool(new ConnectionPool.Settings(
+                "jdbc:h2:mem:authbench_" + iterations + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "").minSize(2).maxSize(2));
+        hasher = new PasswordHasher(iterations);
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE users (username VARCHAR(50) PRIMARY KEY, password VARCHAR(100) NOT NULL, role VARCHAR(20))");
+            st.execute("INSERT INTO users VALUES ('cashier_1', 'pass12345', 'cashier')");
+            st.execute("INSERT INTO users VALUES ('cashier_2', '" + hasher.hash("pass12345") + "', 'cashier')");
+        }
+        fullCheck = new AuthenticationService(pool, hasher, 0, 1);
+        withSessions = new AuthenticationService(pool, hasher, 60_000, 16);
+        withSessions.authenticate("cashier_2", "pass12345", new Response());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        }
+        pool.close();
+    }
+
+    @Benchmark
+    public boolean plaintextQuery() throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT 1 FROM users WHERE username = ? AND password = ? LIMIT 1")) {
+            ps.setString(1, "cashier_1");
+            ps.setString(2, "pass12345");
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    @Benchmark
+    public String hash() {
+        return hasher.hash("pass12345");
+    }
+
+    @Benchmark
+    public UserDTO login_fullCheck() {
+        return fullCheck.authenticate("cashier_2", "pass12345", new Response());
+    }
+
+    @Benchmark
+    public UserDTO login_sessionHit() {
+        return withSessions.authenticate("cashier_2", "pass12345", new Response());
+    }
+}
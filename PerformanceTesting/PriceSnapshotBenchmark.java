@@ -0,0 +1,134 @@
+package PerformanceTesting;
+
+import IntegrationTesting.CheckoutService;
+import IntegrationTesting.PriceTable;
+import IntegrationTesting.ProductDALStub;
+import IntegrationTesting.SaleDALStub;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Basket pricing throughput (5 lines over 10,000 products, 4 tills) while a writer applies
+ * changesPerSecond price changes, in ticks of 1 ms:
+ * - readCatalog:     one ProductDALStub.getPriceCents per line (lines may see different versions)
+ * - readSnapshot:    one pinned PriceTable snapshot for the whole basket
+ * - checkoutCatalog: CheckoutService priced from the catalog; a price change there is a re-seed
+ *                    that holds every stock stripe
+ * - checkoutPinned:  CheckoutService priced from a pinned PriceTable snapshot
+ * The writer applies each change to both the catalog and the PriceTable, so both sides pay for it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class PriceSnapshotBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+    private static final int LINES = 5;
+    private static final int STOCK = Integer.MAX_VALUE / 2; // never sells out
+
+    @Param({"0", "10000"})
+    public int changesPerSecond;
+
+    private ProductDALStub productDal;
+    private PriceTable prices;
+    private CheckoutService catalogCheckout;
+    private CheckoutService pinnedCheckout;
+    private Thread writer;
+    private volatile boolean running;
+    private volatile long changes;
+
+    @State(Scope.Thread)
+    public static class Basket {
+        final int[] productIds = new int[LINES];
+        final int[] qtys = {1, 1, 1, 1, 1};
+
+        int[] next() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < LINES; i++) {
+                productIds[i] = 1 + random.nextInt(PRODUCTS);
+            }
+            return productIds;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        productDal = new ProductDALStub();
+        prices = new PriceTable();
+        int[] ids = new int[PRODUCTS];
+        long[] cents = new long[PRODUCTS];
+        for (int id = 1; id <= PRODUCTS; id++) {
+            productDal.seedProduct(id, 2.50, STOCK);
+            ids[id - 1] = id;
+            cents[id - 1] = 250;
+        }
+        prices.setPrices(ids, cents);
+        catalogCheckout = new CheckoutService(productDal, SaleDALStub.withoutLines());
+        pinnedCheckout = new CheckoutService(productDal, SaleDALStub.withoutLines(), prices, null);
+
+        running = true;
+        writer = new Thread(this::writePrices, "price-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        running = false;
+        writer.join();
+        System.out.printf("%n%d price changes, PriceTable version %d, %d publish retries%n",
+                changes, prices.getVersion(), prices.getPublishRetries());
+    }
+
+    @Benchmark
+    public long readCatalog(Basket basket) {
+        int[] productIds = basket.next();
+        long totalCents = 0L;
+        for (int i = 0; i < LINES; i++) {
+            totalCents += productDal.getPriceCents(productIds[i]) * basket.qtys[i];
+        }
+        return totalCents;
+    }
+
+    @Benchmark
+    public long readSnapshot(Basket basket) {
+        return prices.snapshot().priceBasket(basket.next(), basket.qtys, null);
+    }
+
+    @Benchmark
+    public long checkoutCatalog(Basket basket) {
+        return catalogCheckout.checkoutCents(basket.next(), basket.qtys);
+    }
+
+    @Benchmark
+    public long checkoutPinned(Basket basket) {
+        return pinnedCheckout.checkoutCents(basket.next(), basket.qtys);
+    }
+
+    // ---------------- helper methods ----------------
+
+    private void writePrices() {
+        int perTick = changesPerSecond / 1000;
+        long tick = TimeUnit.MILLISECONDS.toNanos(1);
+        long next = System.nanoTime();
+        while (running) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < perTick; i++) {
+                int productId = 1 + random.nextInt(PRODUCTS);
+                long cents = 100 + random.nextInt(900);
+                productDal.seedProduct(productId, cents / 100.0, STOCK);
+                prices.setPrice(productId, cents);
+            }
+            changes += perTick;
+            next += tick;
+            LockSupport.parkNanos(next - System.nanoTime());
+        }
+    }
+}
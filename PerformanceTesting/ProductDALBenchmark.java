@@ -0,0 +1,69 @@
+package PerformanceTesting;
+
+import IntegrationTesting.ProductDALStub;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ProductDALStub lookups and stock updates over a 100k-product catalog,
+ * single-threaded and with 8 tills sharing one stub.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductDALBenchmark {
+
+    private static final int PRODUCTS = 100_000;
+
+    private ProductDALStub productDal;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        productDal = new ProductDALStub();
+        for (int id = 1; id <= PRODUCTS; id++) {
+            productDal.seedProduct(id, 1.0 + (id % 500) / 100.0, Integer.MAX_VALUE / 2);
+        }
+    }
+
+    private static int randomProduct() {
+        return 1 + ThreadLocalRandom.current().nextInt(PRODUCTS);
+    }
+
+    @Benchmark
+    public int getStock() {
+        return productDal.getStock(randomProduct());
+    }
+
+    @Benchmark
+    public double getPrice() {
+        return productDal.getPrice(randomProduct());
+    }
+
+    @Benchmark
+    public void decreaseStock() {
+        productDal.decreaseStock(randomProduct(), 1);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int getStock_8threads() {
+        return productDal.getStock(randomProduct());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public double getPrice_8threads() {
+        return productDal.getPrice(randomProduct());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void decreaseStock_8threads() {
+        productDal.decreaseStock(randomProduct(), 1);
+    }
+}
@@ -0,0 +1,100 @@
+package PerformanceTesting;
+
+import IntegrationTesting.ProductDALStub;
+import IntegrationTesting.StockReservations;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of one expiry tick with openBaskets held baskets (1 unit each, TTL of 1,000 ticks, so about
+ * openBaskets / 1,000 expire per tick and are replaced by new ones to keep the count steady):
+ * - wheel:    StockReservations.sweep() on its hashed timer wheel (visits one bucket)
+ * - fullScan: the naive sweeper: every open basket's deadline checked on every tick
+ * Both give the expired units back to ProductDALStub and take new ones for the replacements.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReservationSweepBenchmark {
+
+    private static final long TICK_MILLIS = 1;
+    private static final long TTL_TICKS = 1000;
+    private static final int PRODUCT = 1;
+
+    @Param({"1000", "100000"})
+    public int openBaskets;
+
+    private ProductDALStub productDal;
+    private final AtomicLong clock = new AtomicLong();
+    private StockReservations reservations;
+
+    // fullScan: basket id -> deadline tick
+    private final ConcurrentHashMap<Long, Long> deadlines = new ConcurrentHashMap<>();
+    private long scanTick;
+    private long nextBasketId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        productDal = new ProductDALStub();
+        productDal.seedProduct(PRODUCT, 2.50, Integer.MAX_VALUE / 2);
+        reservations = new StockReservations(productDal, TTL_TICKS * TICK_MILLIS, TICK_MILLIS, clock::get);
+        // spread the baskets over one TTL so the same number expires every tick
+        int perTick = (int) Math.max(1, openBaskets / TTL_TICKS);
+        for (int opened = 0; opened < openBaskets; ) {
+            for (int i = 0; i < perTick && opened < openBaskets; i++, opened++) {
+                reservations.scan(reservations.open(), PRODUCT, 1);
+                openScanBasket();
+            }
+            tick();
+            scanTick++;
+        }
+    }
+
+    @Benchmark
+    public long wheel() {
+        long expiredBefore = reservations.getExpiredCount();
+        tick();
+        reservations.sweep();
+        long expired = reservations.getExpiredCount() - expiredBefore;
+        for (long i = 0; i < expired; i++) {
+            reservations.scan(reservations.open(), PRODUCT, 1);
+        }
+        return expired;
+    }
+
+    @Benchmark
+    public long fullScan() {
+        scanTick++;
+        long expired = 0;
+        for (Iterator<Map.Entry<Long, Long>> it = deadlines.entrySet().iterator(); it.hasNext(); ) {
+            if (it.next().getValue() <= scanTick) {
+                it.remove();
+                productDal.releaseStock(PRODUCT, 1);
+                expired++;
+            }
+        }
+        for (long i = 0; i < expired; i++) {
+            openScanBasket();
+        }
+        return expired;
+    }
+
+    // ---------------- helper methods ----------------
+
+    private void tick() {
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS));
+    }
+
+    private void openScanBasket() {
+        productDal.tryReserve(PRODUCT, 1);
+        deadlines.put(++nextBasketId, scanTick + TTL_TICKS + 1);
+    }
+}
@@ -0,0 +1,57 @@
+package PerformanceTesting;
+
+import model.dto.CustomerDTO;
+import model.dto.Response;
+import model.validators.CommonValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response message accumulation: one Response collecting the errors of a batch of invalid
+ * customers (2 messages each), then rendered with getErrorMessages().
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResponseBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int records;
+
+    private CustomerDTO invalidCustomer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        invalidCustomer = new CustomerDTO();
+        invalidCustomer.setName("Cust");
+        invalidCustomer.setPhoneNumber("12345");
+    }
+
+    @Benchmark
+    public int accumulate() {
+        Response res = new Response();
+        for (int i = 0; i < records; i++) {
+            CommonValidator.validateObject(invalidCustomer, res);
+        }
+        return res.messagesList.size();
+    }
+
+    @Benchmark
+    public String accumulateAndRender() {
+        Response res = new Response();
+        for (int i = 0; i < records; i++) {
+            CommonValidator.validateObject(invalidCustomer, res);
+        }
+        return res.getErrorMessages();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String accumulateAndRender_4threads() {
+        return accumulateAndRender();
+    }
+}
@@ -0,0 +1,74 @@
+package PerformanceTesting;
+
+import IntegrationTesting.InMemorySaleSink;
+import IntegrationTesting.SaleRecord;
+import IntegrationTesting.SaleWriter;
+
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sales persisted per second: one synchronous sink write per sale (today's saveSale)
+ * against SaleWriter batching, both on InMemorySaleSink with a simulated DB round-trip.
+ *
+ * args: [tills] [salesPerTill] [roundTripMicros] [batchSize] [flushMillis]
+ */
+public class SaleWriterThroughput {
+
+    public static void main(String[] args) throws Exception {
+        int tills = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int salesPerTill = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        long roundTripMicros = args.length > 2 ? Long.parseLong(args[2]) : 200;
+        int batchSize = args.length > 3 ? Integer.parseInt(args[3]) : 256;
+        long flushMillis = args.length > 4 ? Long.parseLong(args[4]) : 5;
+
+        System.out.printf("tills=%d salesPerTill=%d roundTrip=%dus batchSize=%d flush=%dms%n",
+                tills, salesPerTill, roundTripMicros, batchSize, flushMillis);
+
+        // 1) One round-trip per sale, serialized on a single connection
+        InMemorySaleSink direct = new InMemorySaleSink(roundTripMicros);
+        long start = System.nanoTime();
+        runTills(tills, salesPerTill, () -> {
+            synchronized (direct) {
+                direct.writeBatch(Collections.singletonList(new SaleRecord(1999, System.currentTimeMillis())));
+            }
+        });
+        report("synchronous saveSale", direct.getSaleCount(), direct.getBatchCount(), System.nanoTime() - start);
+
+        // 2) Same load through the batching writer (timed until the last sale is durable)
+        InMemorySaleSink batched = new InMemorySaleSink(roundTripMicros);
+        SaleWriter writer = new SaleWriter(batched, batchSize * 8, batchSize, flushMillis);
+        start = System.nanoTime();
+        runTills(tills, salesPerTill, () -> writer.submit(new SaleRecord(1999, System.currentTimeMillis()), null));
+        writer.close();
+        report("SaleWriter batches", batched.getSaleCount(), batched.getBatchCount(), System.nanoTime() - start);
+    }
+
+    private interface Sale {
+        void save() throws Exception;
+    }
+
+    private static void runTills(int tills, int salesPerTill, Sale sale) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(tills);
+        for (int t = 0; t < tills; t++) {
+            pool.execute(() -> {
+                try {
+                    for (int i = 0; i < salesPerTill; i++) {
+                        sale.save();
+                    }
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+    }
+
+    private static void report(String label, long sales, long batches, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("%-22s %10d sales %8d batches %12.0f sales/s%n", label, sales, batches, sales / seconds);
+    }
+}
@@ -0,0 +1,100 @@
+package PerformanceTesting;
+
+import IntegrationTesting.SaleLineLog;
+import IntegrationTesting.SalesAggregates;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One dashboard refresh (a product's revenue, a category's revenue, today's revenue and sales)
+ * over 30 days of sales (200k sales, ~600k lines, 10,000 products in 40 categories):
+ * - aggregates: lookups in the incrementally maintained SalesAggregates
+ * - scan:       the same figures by scanning the whole SaleLineLog (what a report query does
+ *               over raw sale lines)
+ * recordSale is the per-checkout cost of keeping the aggregates current (3-line sale).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+@State(Scope.Benchmark)
+public class SalesReportBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+    private static final int CATEGORIES = 40;
+    private static final int SALES = 200_000;
+    private static final long DAY_MILLIS = 86_400_000L;
+
+    private SaleLineLog log;
+    private SalesAggregates aggregates;
+    private long today;
+    private long now;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        log = new SaleLineLog(SALES * 3);
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        now = System.currentTimeMillis();
+        long start = now - 30 * DAY_MILLIS;
+        for (int s = 0; s < SALES; s++) {
+            int lines = 1 + rnd.nextInt(5);
+            int[] productIds = new int[lines];
+            int[] categoryIds = new int[lines];
+            int[] qtys = new int[lines];
+            long[] prices = new long[lines];
+            for (int i = 0; i < lines; i++) {
+                productIds[i] = 1 + rnd.nextInt(PRODUCTS);
+                categoryIds[i] = productIds[i] % CATEGORIES;
+                qtys[i] = 1 + rnd.nextInt(3);
+                prices[i] = 50 + productIds[i] % 2000;
+            }
+            log.append(start + (long) s * (30 * DAY_MILLIS / SALES), productIds, categoryIds, qtys, prices);
+        }
+        aggregates = SalesAggregates.rebuild(log);
+        today = SalesAggregates.epochDay(now);
+    }
+
+    @Benchmark
+    public long dashboard_aggregates() {
+        int productId = 1 + ThreadLocalRandom.current().nextInt(PRODUCTS);
+        return aggregates.getProductRevenueCents(productId)
+                + aggregates.getCategoryRevenueCents(productId % CATEGORIES)
+                + aggregates.getDayRevenueCents(today)
+                + aggregates.getDaySaleCount(today);
+    }
+
+    @Benchmark
+    public long dashboard_scan() {
+        int productId = 1 + ThreadLocalRandom.current().nextInt(PRODUCTS);
+        SalesAggregates scanned = SalesAggregates.rebuild(log);
+        return scanned.getProductRevenueCents(productId)
+                + scanned.getCategoryRevenueCents(productId % CATEGORIES)
+                + scanned.getDayRevenueCents(today)
+                + scanned.getDaySaleCount(today);
+    }
+
+    @State(Scope.Thread)
+    public static class Sale {
+        final int[] productIds = new int[3];
+        final int[] categoryIds = new int[3];
+        final int[] qtys = {1, 2, 1};
+        final long[] prices = {250, 99, 1200};
+
+        @Setup(Level.Iteration)
+        public void pick() {
+            for (int i = 0; i < 3; i++) {
+                productIds[i] = 1 + ThreadLocalRandom.current().nextInt(PRODUCTS);
+                categoryIds[i] = productIds[i] % CATEGORIES;
+            }
+        }
+    }
+
+    @Benchmark
+    public SalesAggregates recordSale(Sale sale) {
+        aggregates.record(now, sale.productIds, sale.categoryIds, sale.qtys, sale.prices);
+        return aggregates;
+    }
+}
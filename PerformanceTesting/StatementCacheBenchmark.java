@@ -0,0 +1,108 @@
+package PerformanceTesting;
+
+import IntegrationTesting.ConnectionPool;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call latency of the hot DAL searches (customers/products by name, suppliers, categories)
+ * on embedded H2, with the pool's statement cache off (cacheSize = 0) and on.
+ * Each call borrows a connection, prepares, executes, reads all rows and closes, like the DAL does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatementCacheBenchmark {
+
+    private static final String SEARCH_CUSTOMERS =
+            "SELECT id, name, phone_number FROM customers WHERE name LIKE ?";
+    private static final String SEARCH_PRODUCTS =
+            "SELECT id, name, barcode, price, stock_quantity FROM products WHERE name LIKE ?";
+    private static final String GET_SUPPLIERS = "SELECT id, name, phone_number FROM suppliers";
+    private static final String GET_CATEGORIES = "SELECT id, name FROM categories";
+
+    @Param({"0", "64"})
+    public int cacheSize;
+
+    private ConnectionPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        // QUERY_CACHE_SIZE=0 turns off H2's own parse cache, so every uncached prepare pays the
+        // parse/plan cost a MySQL server-side prepare would
+        String url = "jdbc:h2:mem:stmtbench_" + cacheSize + ";MODE=MySQL;DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=0";
+        pool = new ConnectionPool(new ConnectionPool.Settings(url, "sa", "")
+                .minSize(4)
+                .maxSize(4)
+                .statementCacheSize(cacheSize));
+
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE customers (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100), phone_number VARCHAR(20))");
+            st.execute("CREATE INDEX idx_customers_name ON customers (name)");
+            st.execute("CREATE TABLE products (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100), barcode VARCHAR(40), "
+                    + "price DECIMAL(10,2), stock_quantity INT)");
+            st.execute("CREATE INDEX idx_products_name ON products (name)");
+            st.execute("CREATE TABLE suppliers (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100), phone_number VARCHAR(20))");
+            st.execute("CREATE TABLE categories (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100))");
+            for (int i = 0; i < 1_000; i++) {
+                st.addBatch("INSERT INTO customers (name, phone_number) VALUES ('Customer_" + i + "', '069" + (1000000 + i) + "')");
+                st.addBatch("INSERT INTO products (name, barcode, price, stock_quantity) VALUES ('Product_" + i + "', 'BC" + i + "', 9.99, 100)");
+            }
+            for (int i = 0; i < 50; i++) {
+                st.addBatch("INSERT INTO suppliers (name, phone_number) VALUES ('Supplier_" + i + "', '0690000000')");
+                st.addBatch("INSERT INTO categories (name) VALUES ('Category_" + i + "')");
+            }
+            st.executeBatch();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        }
+        pool.close();
+    }
+
+    @Benchmark
+    public int searchCustomersByName() throws SQLException {
+        return query(SEARCH_CUSTOMERS, "Customer_" + ThreadLocalRandom.current().nextInt(1_000));
+    }
+
+    @Benchmark
+    public int searchProductsByName() throws SQLException {
+        return query(SEARCH_PRODUCTS, "Product_" + ThreadLocalRandom.current().nextInt(1_000));
+    }
+
+    @Benchmark
+    public int getSuppliers() throws SQLException {
+        return query(GET_SUPPLIERS, null);
+    }
+
+    @Benchmark
+    public int getCategories() throws SQLException {
+        return query(GET_CATEGORIES, null);
+    }
+
+    private int query(String sql, String param) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            if (param != null) ps.setString(1, param);
+            int rows = 0;
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) rows++;
+            }
+            return rows;
+        }
+    }
+}
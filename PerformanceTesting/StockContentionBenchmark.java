@@ -0,0 +1,96 @@
+package PerformanceTesting;
+
+import IntegrationTesting.ConnectionPool;
+import IntegrationTesting.JdbcStockDAL;
+import IntegrationTesting.RetryPolicy;
+import model.dto.Response;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-unit stock reservations per millisecond on embedded H2 with 8 tills, all selling from
+ * 1 hot SKU or spread over 1,000:
+ * - readModifyWrite: the DAL's SELECT stock + UPDATE SET stock = ? (fast, but can oversell)
+ * - conditional:     JdbcStockDAL, UPDATE ... WHERE id = ? AND stock_quantity >= ?
+ * - versioned:       JdbcStockDAL.versioned, optimistic version check with RetryPolicy.DEFAULT
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class StockContentionBenchmark {
+
+    @Param({"readModifyWrite", "conditional", "versioned"})
+    public String mode;
+
+    @Param({"1", "1000"})
+    public int skus;
+
+    private ConnectionPool pool;
+    private JdbcStockDAL stock;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        pool = new ConnectionPool(new ConnectionPool.Settings(
+                "jdbc:h2:mem:stockbench_" + mode + "_" + skus + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "")
+                .minSize(8).maxSize(8).statementCacheSize(16));
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE products (id INT PRIMARY KEY, stock_quantity INT NOT NULL, version BIGINT NOT NULL DEFAULT 0)");
+            try (PreparedStatement ps = conn.prepareStatement("INSERT INTO products (id, stock_quantity) VALUES (?, ?)")) {
+                for (int id = 1; id <= skus; id++) {
+                    ps.setInt(1, id);
+                    ps.setInt(2, Integer.MAX_VALUE / 2); // never sells out
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+        stock = "versioned".equals(mode)
+                ? JdbcStockDAL.versioned(pool, "version", RetryPolicy.DEFAULT)
+                : new JdbcStockDAL(pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+        }
+        pool.close();
+    }
+
+    @Benchmark
+    public boolean reserveOne() throws SQLException {
+        int productId = 1 + ThreadLocalRandom.current().nextInt(skus);
+        if ("readModifyWrite".equals(mode)) return readModifyWrite(productId);
+        return stock.tryReserve(productId, 1, new Response());
+    }
+
+    private boolean readModifyWrite(int productId) throws SQLException {
+        try (Connection conn = pool.getConnection()) {
+            int current;
+            try (PreparedStatement ps = conn.prepareStatement("SELECT stock_quantity FROM products WHERE id = ?")) {
+                ps.setInt(1, productId);
+                try (ResultSet rs = ps.executeQuery()) {
+                    rs.next();
+                    current = rs.getInt(1);
+                }
+            }
+            if (current < 1) return false;
+            try (PreparedStatement ps = conn.prepareStatement("UPDATE products SET stock_quantity = ? WHERE id = ?")) {
+                ps.setInt(1, current - 1);
+                ps.setInt(2, productId);
+                return ps.executeUpdate() == 1;
+            }
+        }
+    }
+}
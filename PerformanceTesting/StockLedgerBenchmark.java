@@ -0,0 +1,79 @@
+package PerformanceTesting;
+
+import IntegrationTesting.ProductDALStub;
+import IntegrationTesting.StockLedger;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Single-unit stock reservations per microsecond over 10,000 products, 1 and 4 tills:
+ * - stub:   ProductDALStub.tryReserve (in-memory catalog, striped locks; gone on restart)
+ * - ledger: StockLedger.tryReserve (CAS on a memory-mapped record + journal append; a journal of
+ *           1M entries, so the cost of the checkpoints it triggers is included)
+ * Durability to power loss (force()) is left to a background cadence and not measured here.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StockLedgerBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+
+    private ProductDALStub stub;
+    private StockLedger ledger;
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        stub = new ProductDALStub();
+        dir = Files.createTempDirectory("stockledger");
+        ledger = StockLedger.open(dir, PRODUCTS, 1 << 20);
+        for (int id = 1; id <= PRODUCTS; id++) {
+            stub.seedProduct(id, 2.50, Integer.MAX_VALUE / 2); // never sells out
+            ledger.seed(id, Integer.MAX_VALUE / 2);
+        }
+        ledger.checkpoint();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ledger.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean stub_1till() {
+        return stub.tryReserve(1 + ThreadLocalRandom.current().nextInt(PRODUCTS), 1);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean ledger_1till() {
+        return ledger.tryReserve(1 + ThreadLocalRandom.current().nextInt(PRODUCTS), 1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean stub_4tills() {
+        return stub.tryReserve(1 + ThreadLocalRandom.current().nextInt(PRODUCTS), 1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean ledger_4tills() {
+        return ledger.tryReserve(1 + ThreadLocalRandom.current().nextInt(PRODUCTS), 1);
+    }
+}
@@ -0,0 +1,263 @@
+package PerformanceTesting;
+
+import IntegrationTesting.BatchingSaleDAL;
+import IntegrationTesting.CheckoutService;
+import IntegrationTesting.ConnectionPool;
+import IntegrationTesting.JdbcSaleSink;
+import IntegrationTesting.LatencyHistogram;
+import IntegrationTesting.NameSearchIndex;
+import IntegrationTesting.PagedObjectReader;
+import IntegrationTesting.ProductDALStub;
+import IntegrationTesting.SaleAck;
+import IntegrationTesting.SaleDALStub;
+import IntegrationTesting.SaleRecord;
+import IntegrationTesting.SaleWriter;
+import model.dto.Response;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Peak-load simulator: thousands of tills, one virtual thread each, running the shop-floor flow
+ * for a fixed time. A visit is an optional customer lookup (searchCustomersByName on a name
+ * prefix), a basket of 1..maxLines random products (1-3 units each), CheckoutService.checkout
+ * and the sale's persistence.
+ *
+ * visitsPerSecond > 0 runs open loop: visits arrive on a fixed schedule across all tills and
+ * latency is measured from the scheduled start, so a stall shows up in the tail instead of
+ * silently lowering the offered load. visitsPerSecond = 0 runs closed loop (each till starts its
+ * next visit as soon as the last one ends).
+ *
+ * backend "stub": ProductDALStub + SaleDALStub, customer search on a NameSearchIndex.
+ * backend "h2": embedded H2 (MySQL mode) - customer search through PagedObjectReader on a
+ * pooled connection, sales written by SaleWriter/JdbcSaleSink; stock still comes from
+ * ProductDALStub, as CheckoutService has no database-backed stock yet.
+ *
+ * args: [stub|h2] [tills] [seconds] [visitsPerSecond] [searchPercent] [maxLines]
+ */
+public class TillSimulator {
+
+    private static final int CUSTOMERS = 20_000;
+    private static final int PRODUCTS = 5_000;
+
+    // what one visit needs from the store
+    private interface Store extends AutoCloseable {
+        int searchCustomers(String term) throws Exception; // rows found
+
+        long checkoutCents(int[] productIds, int[] qtys);
+
+        long salesPersisted();
+
+        @Override
+        void close() throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String backend = args.length > 0 ? args[0] : "stub";
+        int tills = args.length > 1 ? Integer.parseInt(args[1]) : 2_000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        double visitsPerSecond = args.length > 3 ? Double.parseDouble(args[3]) : 20_000;
+        int searchPercent = args.length > 4 ? Integer.parseInt(args[4]) : 30;
+        int maxLines = args.length > 5 ? Integer.parseInt(args[5]) : 8;
+
+        System.out.printf("backend=%s tills=%d duration=%ds arrivals=%s search=%d%% lines=1..%d%n", backend, tills,
+                seconds, visitsPerSecond > 0 ? String.format("%.0f visits/s", visitsPerSecond) : "closed loop",
+                searchPercent, maxLines);
+
+        LatencyHistogram search = new LatencyHistogram();
+        LatencyHistogram checkout = new LatencyHistogram();
+        LatencyHistogram visit = new LatencyHistogram();
+        AtomicLong outOfStock = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+
+        try (Store store = "h2".equals(backend) ? new H2Store() : new StubStore()) {
+            long start = System.nanoTime();
+            long end = start + TimeUnit.SECONDS.toNanos(seconds);
+            long intervalNanos = visitsPerSecond > 0 ? (long) (1e9 * tills / visitsPerSecond) : 0;
+
+            try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int t = 0; t < tills; t++) {
+                    // tills start evenly spread over one interval, not all at once
+                    long firstVisit = start + (intervalNanos > 0 ? intervalNanos * t / tills : 0);
+                    pool.execute(() -> {
+                        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                        long next = firstVisit;
+                        while (true) {
+                            long scheduled;
+                            if (intervalNanos > 0) {
+                                scheduled = next;
+                                next += intervalNanos;
+                                long wait = scheduled - System.nanoTime();
+                                if (wait > 0) LockSupport.parkNanos(wait);
+                            } else {
+                                scheduled = System.nanoTime();
+                            }
+                            if (scheduled >= end) return;
+
+                            try {
+                                if (rnd.nextInt(100) < searchPercent) {
+                                    long s = System.nanoTime();
+                                    store.searchCustomers("Customer_" + rnd.nextInt(CUSTOMERS / 10));
+                                    search.record(System.nanoTime() - s);
+                                }
+                                int lines = 1 + rnd.nextInt(maxLines);
+                                int[] ids = new int[lines];
+                                int[] qtys = new int[lines];
+                                for (int i = 0; i < lines; i++) {
+                                    ids[i] = 1 + rnd.nextInt(PRODUCTS);
+                                    qtys[i] = 1 + rnd.nextInt(3);
+                                }
+                                long c = System.nanoTime();
+                                store.checkoutCents(ids, qtys);
+                                checkout.record(System.nanoTime() - c);
+                            } catch (IllegalStateException e) {
+                                outOfStock.incrementAndGet();
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            }
+                            visit.record(System.nanoTime() - scheduled);
+                        }
+                    });
+                }
+            } // close() waits for every till
+
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            long visits = visit.getCount();
+            System.out.printf("%d visits in %.1f s = %.0f visits/s, %d sales persisted%n", visits, elapsed,
+                    visits / elapsed, store.salesPersisted());
+            System.out.printf("errors %d (%.3f%%), out of stock %d (%.3f%%)%n", errors.get(),
+                    percent(errors.get(), visits), outOfStock.get(), percent(outOfStock.get(), visits));
+            System.out.printf("%-10s %10s %10s %10s %10s %10s %10s   (ms)%n", "", "count", "mean", "p50", "p99", "p99.9", "max");
+            report("search", search);
+            report("checkout", checkout);
+            report("visit", visit);
+        }
+    }
+
+    // ---------------- stores ----------------
+
+    private static final class StubStore implements Store {
+        final NameSearchIndex customers = new NameSearchIndex();
+        final ProductDALStub products = seededProducts();
+        final SaleDALStub sales = new SaleDALStub();
+        final CheckoutService checkout = new CheckoutService(products, sales);
+
+        StubStore() {
+            for (int i = 1; i <= CUSTOMERS; i++) {
+                customers.put(i, "Customer_" + i);
+            }
+        }
+
+        @Override
+        public int searchCustomers(String term) {
+            return customers.search(term, 50).length;
+        }
+
+        @Override
+        public long checkoutCents(int[] productIds, int[] qtys) {
+            return checkout.checkoutCents(productIds, qtys);
+        }
+
+        @Override
+        public long salesPersisted() {
+            return sales.getSaleCount();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class H2Store implements Store {
+        final ConnectionPool pool;
+        final Connection salesConnection;
+        final SaleWriter writer;
+        final AtomicLong durable = new AtomicLong();
+        final PagedObjectReader reader = new PagedObjectReader();
+        final CheckoutService checkout;
+
+        H2Store() throws SQLException {
+            pool = new ConnectionPool(new ConnectionPool.Settings(
+                    "jdbc:h2:mem:tills;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "").minSize(4).maxSize(32));
+            try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+                st.execute("CREATE TABLE customers (id INT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(50) NOT NULL, phoneNumber VARCHAR(20))");
+                st.execute("CREATE INDEX idx_customers_name ON customers (name)");
+                st.execute("CREATE TABLE sales (id INT AUTO_INCREMENT PRIMARY KEY, total BIGINT, created_at TIMESTAMP)");
+                try (PreparedStatement ps = conn.prepareStatement("INSERT INTO customers (name, phoneNumber) VALUES (?, ?)")) {
+                    for (int i = 1; i <= CUSTOMERS; i++) {
+                        ps.setString(1, "Customer_" + i);
+                        ps.setString(2, "069" + (1_000_000 + i));
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                }
+            }
+            salesConnection = pool.getConnection(); // held by the sale writer for the whole run
+            writer = new SaleWriter(new JdbcSaleSink(salesConnection), 8_192, 256, 5);
+            SaleAck ack = new SaleAck() {
+                @Override
+                public void onDurable(SaleRecord sale) {
+                    durable.incrementAndGet();
+                }
+            };
+            checkout = new CheckoutService(seededProducts(), new BatchingSaleDAL(writer, ack));
+        }
+
+        @Override
+        public int searchCustomers(String term) throws Exception {
+            Response res = new Response();
+            int found;
+            try (Connection conn = pool.getConnection()) {
+                found = reader.searchCustomersByName(term, conn, res).size();
+            }
+            if (!res.isSuccessfull()) throw new SQLException(res.getErrorMessages());
+            return found;
+        }
+
+        @Override
+        public long checkoutCents(int[] productIds, int[] qtys) {
+            return checkout.checkoutCents(productIds, qtys);
+        }
+
+        @Override
+        public long salesPersisted() {
+            return durable.get();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            writer.close();
+            salesConnection.close();
+            System.out.println("sales durable after writer close: " + durable.get() + ", pool " + pool.getMetrics());
+            pool.close();
+        }
+    }
+
+    // ---------------- helper methods ----------------
+
+    private static ProductDALStub seededProducts() {
+        ProductDALStub products = new ProductDALStub();
+        for (int id = 1; id <= PRODUCTS; id++) {
+            products.seedProduct(id, 0.5 + (id % 200) * 0.25, 1_000_000_000);
+        }
+        return products;
+    }
+
+    private static double percent(long part, long whole) {
+        return whole == 0 ? 0 : 100.0 * part / whole;
+    }
+
+    private static void report(String label, LatencyHistogram h) {
+        System.out.printf("%-10s %10d %10.3f %10.3f %10.3f %10.3f %10.3f%n", label, h.getCount(), h.getMean() / 1e6,
+                h.getValueAtPercentile(50) / 1e6, h.getValueAtPercentile(99) / 1e6,
+                h.getValueAtPercentile(99.9) / 1e6, h.getMax() / 1e6);
+    }
+}
@@ -0,0 +1,87 @@
+package PerformanceTesting;
+
+import IntegrationTesting.ReusableResponse;
+import model.dto.CustomerDTO;
+import model.dto.Response;
+import model.validators.CommonValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CommonValidator.validateObject on CustomerDTO (valid and invalid), single-threaded and on 4 threads.
+ * The *_reusedResponse variants validate into one ReusableResponse reset per call, the way an
+ * import loop does, and read the error text twice (log + report) as callers typically do.
+ * Run with -prof gc to see the bytes allocated per validation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ValidationBenchmark {
+
+    private CustomerDTO validCustomer;
+    private CustomerDTO invalidCustomer;
+    private final ReusableResponse reused = new ReusableResponse();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validCustomer = new CustomerDTO();
+        validCustomer.setName("TestCustomer");
+        validCustomer.setPhoneNumber("0690000000");
+
+        invalidCustomer = new CustomerDTO();
+        invalidCustomer.setName("Cust");
+        invalidCustomer.setPhoneNumber("12345");
+    }
+
+    @Benchmark
+    public boolean validCustomer() {
+        Response res = new Response();
+        CommonValidator.validateObject(validCustomer, res);
+        return res.isSuccessfull();
+    }
+
+    @Benchmark
+    public String invalidCustomer() {
+        Response res = new Response();
+        CommonValidator.validateObject(invalidCustomer, res);
+        return res.getErrorMessages();
+    }
+
+    @Benchmark
+    public String invalidCustomer_renderedTwice() {
+        Response res = new Response();
+        CommonValidator.validateObject(invalidCustomer, res);
+        res.getErrorMessages();
+        return res.getErrorMessages();
+    }
+
+    @Benchmark
+    public String validCustomer_reusedResponse() {
+        CommonValidator.validateObject(validCustomer, reused.reset());
+        reused.getErrorMessages();
+        return reused.getErrorMessages();
+    }
+
+    @Benchmark
+    public String invalidCustomer_reusedResponse() {
+        CommonValidator.validateObject(invalidCustomer, reused.reset());
+        reused.getErrorMessages();
+        return reused.getErrorMessages();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean validCustomer_4threads() {
+        return validCustomer();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String invalidCustomer_4threads() {
+        return invalidCustomer();
+    }
+}
@@ -0,0 +1,102 @@
+package PerformanceTesting;
+
+import IntegrationTesting.ReusableResponse;
+import IntegrationTesting.ValidationPlan;
+import model.dto.CustomerDTO;
+import model.dto.Response;
+import model.validators.CommonValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validating 10M CustomerDTOs (invalidPercent of them with a short name): CommonValidator.validateObject
+ * vs. the compiled ValidationPlan, each with a new Response per object, plus ValidationPlan with one
+ * ReusableResponse reset per object. reflectivePerCall is the generic validator the plan replaces:
+ * getters looked up and invoked reflectively on every object. One operation = all 10M objects.
+ * Needs about 1 GB of heap.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+@State(Scope.Benchmark)
+public class ValidationPlanBenchmark {
+
+    private static final int CUSTOMERS = 10_000_000;
+
+    @Param({"0", "1"})
+    public int invalidPercent;
+
+    private CustomerDTO[] customers;
+    private int[] minLengths; // name, phone: read from CommonValidator, as the plan does
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        minLengths = ValidationPlan.minLengths(CustomerDTO.class);
+        customers = new CustomerDTO[CUSTOMERS];
+        for (int i = 0; i < CUSTOMERS; i++) {
+            CustomerDTO c = new CustomerDTO();
+            c.setName(i % 100 < invalidPercent ? "Cust" : "Customer_" + (i % 1000));
+            c.setPhoneNumber("069" + (1_000_000 + i % 1000));
+            customers[i] = c;
+        }
+    }
+
+    @Benchmark
+    public int commonValidator() {
+        int failed = 0;
+        for (CustomerDTO c : customers) {
+            Response res = new Response();
+            CommonValidator.validateObject(c, res);
+            if (!res.isSuccessfull()) failed++;
+        }
+        return failed;
+    }
+
+    @Benchmark
+    public int reflectivePerCall() throws ReflectiveOperationException {
+        int failed = 0;
+        for (CustomerDTO c : customers) {
+            Response res = new Response();
+            reflectiveValidate(c, res, minLengths);
+            if (!res.isSuccessfull()) failed++;
+        }
+        return failed;
+    }
+
+    @Benchmark
+    public int validationPlan() {
+        int failed = 0;
+        for (CustomerDTO c : customers) {
+            Response res = new Response();
+            ValidationPlan.validate(c, res);
+            if (!res.isSuccessfull()) failed++;
+        }
+        return failed;
+    }
+
+    @Benchmark
+    public int validationPlan_reusedResponse() {
+        ReusableResponse res = new ReusableResponse();
+        int failed = 0;
+        for (CustomerDTO c : customers) {
+            ValidationPlan.validate(c, res.reset());
+            if (!res.isSuccessfull()) failed++;
+        }
+        return failed;
+    }
+
+    private static void reflectiveValidate(Object dto, Response res, int[] minLengths)
+            throws ReflectiveOperationException {
+        Method name = dto.getClass().getMethod("getName");
+        Method phone = dto.getClass().getMethod("getPhoneNumber");
+        String n = (String) name.invoke(dto);
+        String p = (String) phone.invoke(dto);
+        if (n == null || n.length() < minLengths[0] || p == null || p.length() < minLengths[1]) {
+            CommonValidator.validateObject(dto, res);
+        }
+    }
+}
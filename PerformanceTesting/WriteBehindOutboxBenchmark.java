@@ -0,0 +1,89 @@
+package PerformanceTesting;
+
+import IntegrationTesting.ConnectionPool;
+import IntegrationTesting.JdbcOutboxSink;
+import IntegrationTesting.WriteBehindOutbox;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Stock updates per millisecond against embedded H2 (file, WRITE_DELAY=0), for 1 hot product and
+ * for 1,000 products:
+ * - direct:       one autocommitted UPDATE per change, as the DAL does today
+ * - writeBehind:  WriteBehindOutbox.updateStock (logged locally, coalesced and flushed in batches by
+ *                 its writer thread, whose work shares the CPU with the callers)
+ * The outbox's coalescing ratio is printed at the end of each trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WriteBehindOutboxBenchmark {
+
+    @Param({"1", "1000"})
+    public int products;
+
+    private Path dir;
+    private ConnectionPool pool;
+    private Connection directConn;
+    private PreparedStatement directUpdate;
+    private Connection sinkConn;
+    private WriteBehindOutbox outbox;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("outbox");
+        String url = "jdbc:h2:file:" + dir.resolve("db_" + UUID.randomUUID().toString().substring(0, 8))
+                + ";WRITE_DELAY=0";
+        pool = new ConnectionPool(new ConnectionPool.Settings(url, "sa", "").minSize(2).maxSize(2));
+        try (Connection conn = pool.getConnection(); Statement st = conn.createStatement()) {
+            st.execute("CREATE TABLE products (id INT PRIMARY KEY, stock_quantity INT NOT NULL)");
+            st.execute("INSERT INTO products SELECT x, 1000000 FROM SYSTEM_RANGE(1, " + products + ")");
+        }
+        directConn = pool.getConnection();
+        directUpdate = directConn.prepareStatement("UPDATE products SET stock_quantity = ? WHERE id = ?");
+        sinkConn = pool.getConnection();
+        outbox = new WriteBehindOutbox(new JdbcOutboxSink(sinkConn), dir.resolve("outbox.log"), 500, 50);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        outbox.close();
+        System.out.printf("%n%d submitted, %d written, coalescing ratio %.1f%n",
+                outbox.getSubmittedCount(), outbox.getWrittenCount(), outbox.getCoalescingRatio());
+        directUpdate.close();
+        directConn.close();
+        sinkConn.close();
+        pool.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public int direct() throws SQLException {
+        directUpdate.setInt(1, ThreadLocalRandom.current().nextInt(1_000_000));
+        directUpdate.setInt(2, 1 + ThreadLocalRandom.current().nextInt(products));
+        return directUpdate.executeUpdate();
+    }
+
+    @Benchmark
+    public void writeBehind() {
+        outbox.updateStock(1 + ThreadLocalRandom.current().nextInt(products),
+                ThreadLocalRandom.current().nextInt(1_000_000));
+    }
+
+}